@@ -0,0 +1,120 @@
+package com.lit.fire.flame;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.youtube.model.CommentThreadListResponse;
+import com.google.gson.JsonParser;
+import com.lit.fire.api.Comment;
+import com.lit.fire.api.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end batch insert throughput of the four save paths against a locally started Postgres.
+ *
+ * The target database is taken from -Ddb.url / -Ddb.user / -Ddb.password, e.g.
+ * java -Ddb.url=jdbc:postgresql://localhost:5432/aura_bench -jar target/benchmarks.jar BatchInsertBenchmark
+ * The tables are created from schema.sql and truncated before each trial, so the URL must be given explicitly
+ * and should point at a scratch database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BatchInsertBenchmark {
+
+    @Param({"10", "100"})
+    public int batchSize;
+
+    private List<Post> xTemplate;
+    private List<Post> instagramTemplate;
+    private List<Post> redditTemplate;
+    private List<Comment> youtubeTemplate;
+    private long sequence;
+
+    private List<Post> xBatch;
+    private List<Post> instagramBatch;
+    private List<Post> redditBatch;
+    private List<Comment> youtubeBatch;
+
+    @Setup(Level.Trial)
+    public void setUpDatabase() throws Exception {
+        if (System.getProperty("db.url") == null) {
+            throw new IllegalStateException("Set -Ddb.url to a scratch Postgres database; this benchmark truncates the mention tables.");
+        }
+        DatabaseService.applySchema();
+        try (Connection conn = DatabaseService.openConnection(new Properties());
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE x_posts, instagram_posts, reddit_posts, youtube_comments");
+        }
+
+        xTemplate = XService.toPosts(JsonParser.parseString(Payloads.load(Payloads.X_SEARCH_RECENT)).getAsJsonObject(), "parasakthi");
+        instagramTemplate = InstagramService.toPosts(JsonParser.parseString(Payloads.load(Payloads.INSTAGRAM_RECENT_MEDIA)).getAsJsonObject(), "parasakthi");
+        redditTemplate = RedditAuthClientWithSearch.parseSearchResponse(Payloads.load(Payloads.REDDIT_SEARCH), "Tere Ishq Mein");
+        CommentThreadListResponse threads = GsonFactory.getDefaultInstance()
+                .fromString(Payloads.load(Payloads.YOUTUBE_COMMENT_THREADS), CommentThreadListResponse.class);
+        youtubeTemplate = YouTubeMain.toComments("dQw4w9WgXcQ", "With Love - Official Trailer", threads.getItems(), "withlove");
+    }
+
+    /**
+     * Builds fresh batches with unused ids so ON CONFLICT DO NOTHING never short-circuits the insert.
+     */
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        xBatch = new ArrayList<>(batchSize);
+        instagramBatch = new ArrayList<>(batchSize);
+        redditBatch = new ArrayList<>(batchSize);
+        youtubeBatch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            xBatch.add(withFreshId(xTemplate.get(i % xTemplate.size())));
+            instagramBatch.add(withFreshId(instagramTemplate.get(i % instagramTemplate.size())));
+            redditBatch.add(withFreshId(redditTemplate.get(i % redditTemplate.size())));
+            Comment c = youtubeTemplate.get(i % youtubeTemplate.size());
+            youtubeBatch.add(new Comment(c.platform(), "bench-" + (sequence++), c.keyword(), c.parentId(), c.contextId(), c.contextTitle(),
+                    c.text(), c.author(), c.createdAtMillis(), c.permalink(), c.engagement()));
+        }
+    }
+
+    private Post withFreshId(Post p) {
+        return new Post(p.platform(), "bench-" + (sequence++), p.keyword(), p.title(), p.text(), p.author(),
+                p.createdAtMillis(), p.permalink(), p.engagement(), p.mediaType(), p.mediaUrl());
+    }
+
+    @Benchmark
+    public void x() throws Exception {
+        DatabaseService.saveXPosts(xBatch);
+    }
+
+    @Benchmark
+    public void instagram() throws Exception {
+        DatabaseService.saveInstagramPosts(instagramBatch);
+    }
+
+    @Benchmark
+    public void reddit() throws Exception {
+        DatabaseService.saveRedditPosts(redditBatch);
+    }
+
+    @Benchmark
+    public void youtube() throws Exception {
+        DatabaseService.saveYouTubeComments(youtubeBatch);
+    }
+}
@@ -0,0 +1,67 @@
+package com.lit.fire.flame;
+
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.services.youtube.model.CommentThreadListResponse;
+import com.google.gson.JsonParser;
+import com.lit.fire.api.Comment;
+import com.lit.fire.api.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding cost of one raw API response per platform, from response body to the typed mentions handed to the sinks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+    private String xBody;
+    private String instagramBody;
+    private String redditBody;
+    private String youtubeBody;
+
+    @Setup
+    public void setUp() {
+        xBody = Payloads.load(Payloads.X_SEARCH_RECENT);
+        instagramBody = Payloads.load(Payloads.INSTAGRAM_RECENT_MEDIA);
+        redditBody = Payloads.load(Payloads.REDDIT_SEARCH);
+        youtubeBody = Payloads.load(Payloads.YOUTUBE_COMMENT_THREADS);
+    }
+
+    @Benchmark
+    public List<Post> x() {
+        return XService.toPosts(JsonParser.parseString(xBody).getAsJsonObject(), "parasakthi");
+    }
+
+    @Benchmark
+    public List<Post> instagram() {
+        return InstagramService.toPosts(JsonParser.parseString(instagramBody).getAsJsonObject(), "parasakthi");
+    }
+
+    @Benchmark
+    public List<Post> reddit() {
+        return RedditAuthClientWithSearch.parseSearchResponse(redditBody, "Tere Ishq Mein");
+    }
+
+    @Benchmark
+    public List<Comment> youtube() throws IOException {
+        CommentThreadListResponse response = GsonFactory.getDefaultInstance().fromString(youtubeBody, CommentThreadListResponse.class);
+        return YouTubeMain.toComments("dQw4w9WgXcQ", "With Love - Official Trailer", response.getItems(), "withlove");
+    }
+}
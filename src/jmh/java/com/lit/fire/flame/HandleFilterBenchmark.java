@@ -0,0 +1,59 @@
+package com.lit.fire.flame;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The @handle filter applied to X posts by HandleFilter, run over every post text of the recorded X response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HandleFilterBenchmark {
+
+    @Param({"parasakthi", "tereishqmein"})
+    public String keyword;
+
+    private String[] texts;
+
+    @Setup
+    public void setUp() {
+        List<String> collected = new ArrayList<>();
+        for (JsonElement post : JsonParser.parseString(Payloads.load(Payloads.X_SEARCH_RECENT)).getAsJsonObject().getAsJsonArray("data")) {
+            collected.add(post.getAsJsonObject().get("text").getAsString());
+        }
+        texts = collected.toArray(new String[0]);
+    }
+
+    /**
+     * One operation is a full pass over the response, so the score reads as responses filtered per second.
+     */
+    @Benchmark
+    public int filterResponse() {
+        int skipped = 0;
+        for (String text : texts) {
+            if (HandleFilter.mentionsKeywordHandle(text, keyword)) {
+                skipped++;
+            }
+        }
+        return skipped;
+    }
+}
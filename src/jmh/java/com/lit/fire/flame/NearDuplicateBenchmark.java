@@ -0,0 +1,73 @@
+package com.lit.fire.flame;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-duplicate tagging of the recorded X response against an index already holding a full default window, so
+ * lookups walk realistically populated buckets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearDuplicateBenchmark {
+
+    private static final int WINDOW = 100_000;
+
+    private String[] texts;
+    private NearDuplicateIndex index;
+    private final int[] signature = new int[MinHash.HASHES];
+
+    @Setup
+    public void setUp() {
+        List<String> collected = new ArrayList<>();
+        for (JsonElement post : JsonParser.parseString(Payloads.load(Payloads.X_SEARCH_RECENT)).getAsJsonObject().getAsJsonArray("data")) {
+            collected.add(post.getAsJsonObject().get("text").getAsString());
+        }
+        texts = collected.toArray(new String[0]);
+
+        index = new NearDuplicateIndex(WINDOW, 0.7);
+        SplittableRandom random = new SplittableRandom(42);
+        StringBuilder filler = new StringBuilder();
+        for (int i = 0; i < WINDOW; i++) {
+            filler.setLength(0);
+            for (int w = 0; w < 12; w++) {
+                filler.append("w").append(random.nextInt(50_000)).append(' ');
+            }
+            MinHash.compute(filler.toString(), 4, signature);
+            index.assign(signature);
+        }
+    }
+
+    /**
+     * One operation is a full pass over the response, so the score reads as responses tagged per second.
+     */
+    @Benchmark
+    public long tagResponse() {
+        long clusters = 0;
+        for (String text : texts) {
+            if (MinHash.compute(text, 4, signature)) {
+                clusters ^= index.assign(signature);
+            }
+        }
+        return clusters;
+    }
+}
@@ -0,0 +1,30 @@
+package com.lit.fire.flame;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads the recorded platform responses bundled under payloads/ for the benchmarks.
+ */
+final class Payloads {
+
+    static final String X_SEARCH_RECENT = "payloads/x_search_recent.json";
+    static final String INSTAGRAM_RECENT_MEDIA = "payloads/instagram_recent_media.json";
+    static final String REDDIT_SEARCH = "payloads/reddit_search.json";
+    static final String YOUTUBE_COMMENT_THREADS = "payloads/youtube_comment_threads.json";
+
+    private Payloads() {
+    }
+
+    static String load(String resourceName) {
+        try (InputStream input = Payloads.class.getClassLoader().getResourceAsStream(resourceName)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing benchmark payload: " + resourceName);
+            }
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to read benchmark payload: " + resourceName, e);
+        }
+    }
+}
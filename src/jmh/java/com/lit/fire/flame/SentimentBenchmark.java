@@ -0,0 +1,79 @@
+package com.lit.fire.flame;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.lit.fire.api.Author;
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sentiment scoring of the recorded X post texts: one text per operation on a single thread, and a backfill-sized
+ * batch through SentimentTagger, which splits it across the fork/join pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SentimentBenchmark {
+
+    private static final int LARGE_BATCH = 8192;
+
+    private String[] texts;
+    private int next;
+    private final SentimentScorer scorer = new SentimentScorer();
+    private final SentimentTagger tagger = new SentimentTagger(512);
+    private MentionBatch largeBatch;
+
+    @Setup
+    public void setUp() {
+        List<String> collected = new ArrayList<>();
+        for (JsonElement post : JsonParser.parseString(Payloads.load(Payloads.X_SEARCH_RECENT)).getAsJsonObject().getAsJsonArray("data")) {
+            collected.add(post.getAsJsonObject().get("text").getAsString());
+        }
+        texts = collected.toArray(new String[0]);
+
+        List<Mention> mentions = new ArrayList<>(LARGE_BATCH);
+        for (int i = 0; i < LARGE_BATCH; i++) {
+            mentions.add(new Post(Platform.X, Integer.toString(i), "tereishqmein", null, texts[i % texts.length], Author.UNKNOWN,
+                    0, null, Engagement.NONE, null, null));
+        }
+        largeBatch = new MentionBatch(Platform.X, "tereishqmein", mentions);
+    }
+
+    /**
+     * Score reads as texts per second on one core.
+     */
+    @Benchmark
+    public float scoreText() {
+        String text = texts[next];
+        next = next + 1 == texts.length ? 0 : next + 1;
+        return scorer.score(text) + scorer.emotion();
+    }
+
+    /**
+     * Score reads as batches of 8192 per second; multiply by 8192 for texts per second across the pool.
+     */
+    @Benchmark
+    public MentionBatch tagLargeBatch() {
+        return tagger.process(largeBatch);
+    }
+}
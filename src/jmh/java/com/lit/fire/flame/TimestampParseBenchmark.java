@@ -0,0 +1,50 @@
+package com.lit.fire.flame;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timestamp decoding for each platform, using the formats the platforms actually return.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimestampParseBenchmark {
+
+    public String xCreatedAt = "2025-10-14T18:42:07.000Z";
+    public String youtubePublishedAt = "2025-10-14T18:42:07Z";
+    public String instagramTimestamp = "2025-10-14T18:42:07+0000";
+    public double redditCreatedUtc = 1760467327.0;
+
+    @Benchmark
+    public long x() {
+        return Timestamps.isoToMillis(xCreatedAt);
+    }
+
+    @Benchmark
+    public long youtube() {
+        return Timestamps.isoToMillis(youtubePublishedAt);
+    }
+
+    @Benchmark
+    public long instagram() {
+        return Timestamps.isoToMillis(instagramTimestamp);
+    }
+
+    @Benchmark
+    public long reddit() {
+        return Timestamps.epochSecondsToMillis(redditCreatedUtc);
+    }
+}
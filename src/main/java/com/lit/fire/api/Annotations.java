@@ -0,0 +1,124 @@
+package com.lit.fire.api;
+
+import java.util.Arrays;
+
+/**
+ * Values computed for the mentions of a batch by the normalize and enrich stages, stored column-wise in primitive arrays that are
+ * aligned with {@link MentionBatch#mentions()}. A column that was never computed is absent and reads as its default.
+ */
+public final class Annotations {
+
+    public static final Annotations NONE = new Annotations(null, null, null, null);
+
+    private final long[] clusterIds;
+    private final float[] sentiments;
+    private final byte[] emotions;
+    private final byte[] languages;
+
+    private Annotations(long[] clusterIds, float[] sentiments, byte[] emotions, byte[] languages) {
+        this.clusterIds = clusterIds;
+        this.sentiments = sentiments;
+        this.emotions = emotions;
+        this.languages = languages;
+    }
+
+    public boolean hasClusterIds() {
+        return clusterIds != null;
+    }
+
+    /**
+     * The near-duplicate cluster of the mention at {@code index}, or 0 if it wasn't clustered.
+     */
+    public long clusterId(int index) {
+        return clusterIds != null ? clusterIds[index] : 0;
+    }
+
+    public Annotations withClusterIds(long[] ids) {
+        return new Annotations(ids.clone(), sentiments, emotions, languages);
+    }
+
+    public boolean hasSentiment() {
+        return sentiments != null;
+    }
+
+    /**
+     * The sentiment of the mention at {@code index} from -1 (negative) to 1 (positive), or NaN if it wasn't scored.
+     */
+    public float sentiment(int index) {
+        return sentiments != null ? sentiments[index] : Float.NaN;
+    }
+
+    /**
+     * The dominant emotion of the mention at {@code index}, or null if none was detected.
+     */
+    public Emotion emotion(int index) {
+        return emotions != null ? Emotion.fromCode(emotions[index]) : null;
+    }
+
+    /**
+     * @param emotionCodes {@link Emotion#code()} per mention, 0 for none.
+     */
+    public Annotations withSentiment(float[] scores, byte[] emotionCodes) {
+        return new Annotations(clusterIds, scores.clone(), emotionCodes.clone(), languages);
+    }
+
+    public boolean hasLanguages() {
+        return languages != null;
+    }
+
+    /**
+     * The language of the mention at {@code index}, or null if it wasn't identified.
+     */
+    public Language language(int index) {
+        return languages != null ? Language.fromCode(languages[index]) : null;
+    }
+
+    /**
+     * @param languageCodes {@link Language#code()} per mention, 0 for undetermined.
+     */
+    public Annotations withLanguages(byte[] languageCodes) {
+        return new Annotations(clusterIds, sentiments, emotions, languageCodes.clone());
+    }
+
+    /**
+     * The annotations of a subset of the mentions; an index of -1 marks a mention that has none.
+     */
+    Annotations select(int[] indices) {
+        if (this == NONE) {
+            return NONE;
+        }
+        long[] selectedClusterIds = clusterIds != null ? new long[indices.length] : null;
+        float[] selectedSentiments = sentiments != null ? new float[indices.length] : null;
+        byte[] selectedEmotions = emotions != null ? new byte[indices.length] : null;
+        byte[] selectedLanguages = languages != null ? new byte[indices.length] : null;
+        for (int i = 0; i < indices.length; i++) {
+            int from = indices[i];
+            if (selectedClusterIds != null) {
+                selectedClusterIds[i] = from >= 0 ? clusterIds[from] : 0;
+            }
+            if (selectedSentiments != null) {
+                selectedSentiments[i] = from >= 0 ? sentiments[from] : Float.NaN;
+            }
+            if (selectedEmotions != null) {
+                selectedEmotions[i] = from >= 0 ? emotions[from] : 0;
+            }
+            if (selectedLanguages != null) {
+                selectedLanguages[i] = from >= 0 ? languages[from] : 0;
+            }
+        }
+        return new Annotations(selectedClusterIds, selectedSentiments, selectedEmotions, selectedLanguages);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Annotations other && Arrays.equals(clusterIds, other.clusterIds)
+                && Arrays.equals(sentiments, other.sentiments) && Arrays.equals(emotions, other.emotions)
+                && Arrays.equals(languages, other.languages);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * Arrays.hashCode(clusterIds) + Arrays.hashCode(sentiments)) + Arrays.hashCode(emotions))
+                + Arrays.hashCode(languages);
+    }
+}
@@ -0,0 +1,20 @@
+package com.lit.fire.api;
+
+/**
+ * Who wrote a mention.
+ *
+ * @param id The platform's stable user ID, when the platform exposes one.
+ * @param handle The unique handle (e.g. X username, Reddit or Instagram user name).
+ * @param displayName The free-form display name shown next to the mention.
+ */
+public record Author(String id, String handle, String displayName) {
+
+    public static final Author UNKNOWN = new Author(null, null, null);
+
+    /**
+     * The value stored in the author column: the display name where there is one, else the handle.
+     */
+    public String label() {
+        return displayName != null ? displayName : handle;
+    }
+}
@@ -0,0 +1,19 @@
+package com.lit.fire.api;
+
+/**
+ * A comment on a piece of content: a YouTube comment on a video, or a crawled comment on a Reddit submission.
+ *
+ * @param parentId The comment this one replies to, or null for a top-level comment.
+ * @param contextId The ID of the content commented on: the YouTube video or Reddit submission ID.
+ * @param contextTitle The title of that content.
+ */
+public record Comment(Platform platform, String id, String keyword, String parentId, String contextId, String contextTitle,
+                      String text, Author author, long createdAtMillis, String permalink, Engagement engagement)
+        implements Mention {
+
+    public Comment {
+        keyword = Keywords.intern(keyword);
+        author = author != null ? author : Author.UNKNOWN;
+        engagement = engagement != null ? engagement : Engagement.NONE;
+    }
+}
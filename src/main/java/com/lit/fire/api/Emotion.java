@@ -0,0 +1,33 @@
+package com.lit.fire.api;
+
+/**
+ * The dominant emotion of a mention, as tagged by the sentiment scorer. The numeric code is what annotations store.
+ */
+public enum Emotion {
+    JOY,
+    ANGER,
+    SADNESS,
+    FEAR,
+    SURPRISE,
+    DISGUST;
+
+    private static final Emotion[] VALUES = values();
+
+    /**
+     * 1-based code; 0 stands for "no emotion".
+     */
+    public byte code() {
+        return (byte) (ordinal() + 1);
+    }
+
+    /**
+     * The lowercase name stored in the database, e.g. "joy".
+     */
+    public String id() {
+        return name().toLowerCase();
+    }
+
+    public static Emotion fromCode(int code) {
+        return code > 0 && code <= VALUES.length ? VALUES[code - 1] : null;
+    }
+}
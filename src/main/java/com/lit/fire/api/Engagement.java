@@ -0,0 +1,16 @@
+package com.lit.fire.api;
+
+/**
+ * Engagement counters at fetch time.
+ *
+ * @param likes Likes, or the net score for Reddit.
+ * @param replies Replies or comments on the mention.
+ */
+public record Engagement(int likes, int replies) {
+
+    public static final Engagement NONE = new Engagement(0, 0);
+
+    public static Engagement of(int likes, int replies) {
+        return likes == 0 && replies == 0 ? NONE : new Engagement(likes, replies);
+    }
+}
@@ -0,0 +1,36 @@
+package com.lit.fire.api;
+
+import java.util.List;
+
+/**
+ * A platform scanner, plugged into the fetch and decode stages of the ingest pipeline.
+ *
+ * {@link #fetch} performs the network calls for one keyword and returns the raw response bodies; {@link #decode}
+ * turns one of them into mentions. Keeping the two apart lets the pipeline run more decoders than fetchers.
+ */
+public interface FetchPlugin {
+
+    Platform platform();
+
+    /**
+     * Loads credentials and settings. Called before the first fetch and again after a failed pass.
+     */
+    void init() throws Exception;
+
+    /**
+     * The keywords to scan on each pass, already in the form this platform searches for.
+     */
+    List<String> keywords() throws Exception;
+
+    /**
+     * The form this platform searches a keyword in, for keywords that come from elsewhere (tenant subscriptions, the
+     * command line). The keyword as given, trimmed, unless the platform searches hashtag-style.
+     */
+    default String searchForm(String keyword) {
+        return keyword.trim();
+    }
+
+    List<RawResponse> fetch(String keyword) throws Exception;
+
+    List<? extends Mention> decode(RawResponse response) throws Exception;
+}
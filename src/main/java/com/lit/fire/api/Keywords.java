@@ -0,0 +1,31 @@
+package com.lit.fire.api;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Canonical keyword instances. Every mention of the same tracked keyword shares one String, so per-keyword maps
+ * hash and compare it cheaply and millions of mentions don't each carry their own copy.
+ */
+public final class Keywords {
+
+    private static final ConcurrentHashMap<String, String> POOL = new ConcurrentHashMap<>();
+
+    private Keywords() {
+    }
+
+    public static String intern(String keyword) {
+        if (keyword == null) {
+            return null;
+        }
+        String existing = POOL.putIfAbsent(keyword, keyword);
+        return existing != null ? existing : keyword;
+    }
+
+    /**
+     * The form keywords are compared in: lowercase without whitespace, since platforms search them in different forms
+     * ("Tere Ishq Mein" on Reddit, "tereishqmein" as a hashtag).
+     */
+    public static String squash(String keyword) {
+        return keyword.replaceAll("\\s+", "").toLowerCase();
+    }
+}
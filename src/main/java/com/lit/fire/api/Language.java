@@ -0,0 +1,47 @@
+package com.lit.fire.api;
+
+/**
+ * The language of a mention, as identified by the normalize stage. Indian languages are often written in Latin
+ * script; those get a language of their own, tagged like "hi-Latn". The numeric code is what annotations store.
+ */
+public enum Language {
+    ENGLISH("en"),
+    HINDI("hi"),
+    HINDI_LATIN("hi-Latn"),
+    TAMIL("ta"),
+    TAMIL_LATIN("ta-Latn"),
+    TELUGU("te"),
+    KANNADA("kn"),
+    MALAYALAM("ml"),
+    BENGALI("bn"),
+    GUJARATI("gu"),
+    PUNJABI("pa"),
+    ODIA("or"),
+    URDU("ur");
+
+    private static final Language[] VALUES = values();
+
+    private final String tag;
+
+    Language(String tag) {
+        this.tag = tag;
+    }
+
+    /**
+     * 1-based code; 0 stands for "undetermined".
+     */
+    public byte code() {
+        return (byte) (ordinal() + 1);
+    }
+
+    /**
+     * The BCP 47 tag stored in the database, e.g. "ta" or "ta-Latn".
+     */
+    public String tag() {
+        return tag;
+    }
+
+    public static Language fromCode(int code) {
+        return code > 0 && code <= VALUES.length ? VALUES[code - 1] : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.lit.fire.api;
+
+/**
+ * A single mention of a tracked keyword, as produced by a scanner and consumed by the sinks.
+ */
+public sealed interface Mention permits Post, Comment {
+
+    Platform platform();
+
+    /**
+     * The platform's ID for the mention; unique within a platform.
+     */
+    String id();
+
+    /**
+     * The tracked keyword the mention was found for (interned through {@link Keywords}).
+     */
+    String keyword();
+
+    String text();
+
+    /**
+     * The text to analyse for this mention; for Reddit submissions the title and body together.
+     */
+    default String fullText() {
+        return text();
+    }
+
+    Author author();
+
+    long createdAtMillis();
+
+    String permalink();
+
+    Engagement engagement();
+}
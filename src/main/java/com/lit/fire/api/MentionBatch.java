@@ -0,0 +1,68 @@
+package com.lit.fire.api;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The mentions decoded from one response, for a single platform and keyword. Batches are the unit that flows
+ * between the pipeline stages after decode and the unit sinks write in one round trip.
+ *
+ * @param annotations Per-mention values added by the enrich stage; {@link Annotations#NONE} before it.
+ */
+public record MentionBatch(Platform platform, String keyword, List<Mention> mentions, Annotations annotations) {
+
+    public MentionBatch {
+        keyword = Keywords.intern(keyword);
+        mentions = List.copyOf(mentions);
+        annotations = annotations != null ? annotations : Annotations.NONE;
+    }
+
+    public MentionBatch(Platform platform, String keyword, List<Mention> mentions) {
+        this(platform, keyword, mentions, Annotations.NONE);
+    }
+
+    /**
+     * A batch holding {@code replacement} instead, typically a subset left by a filter. Annotations follow the
+     * mentions they belong to.
+     */
+    public MentionBatch withMentions(List<Mention> replacement) {
+        if (annotations == Annotations.NONE) {
+            return new MentionBatch(platform, keyword, replacement);
+        }
+        Map<Mention, Integer> positions = new IdentityHashMap<>(mentions.size());
+        for (int i = 0; i < mentions.size(); i++) {
+            positions.put(mentions.get(i), i);
+        }
+        int[] indices = new int[replacement.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = positions.getOrDefault(replacement.get(i), -1);
+        }
+        return new MentionBatch(platform, keyword, replacement, annotations.select(indices));
+    }
+
+    public MentionBatch withAnnotations(Annotations replacement) {
+        return new MentionBatch(platform, keyword, mentions, replacement);
+    }
+
+    public int size() {
+        return mentions.size();
+    }
+
+    public boolean isEmpty() {
+        return mentions.isEmpty();
+    }
+
+    /**
+     * The mentions as a list of one concrete type, e.g. {@code batch.as(Post.class)} for a batch of X posts.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends Mention> List<T> as(Class<T> type) {
+        for (Mention mention : mentions) {
+            if (!type.isInstance(mention)) {
+                throw new ClassCastException(platform + " batch contains " + mention.getClass().getSimpleName() + ", not " + type.getSimpleName());
+            }
+        }
+        return (List<T>) (List<?>) mentions;
+    }
+}
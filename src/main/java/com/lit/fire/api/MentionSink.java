@@ -0,0 +1,35 @@
+package com.lit.fire.api;
+
+import java.io.IOException;
+
+/**
+ * Where stored mentions go: a database, files, memory, or several of these at once.
+ *
+ * The pipeline hands over whole batches, each holding mentions of one platform and keyword, from several sink workers
+ * at once, so implementations must be thread-safe. A batch is the unit of writing: implementations should write it
+ * in one round trip or transaction rather than mention by mention.
+ */
+public interface MentionSink extends AutoCloseable {
+
+    /**
+     * Writes a batch.
+     *
+     * @return The mentions that were new to this sink; mentions it already held are left out, so callers can count
+     *         each mention once even though scans re-fetch recent results.
+     */
+    MentionBatch write(MentionBatch batch) throws Exception;
+
+    /**
+     * Makes everything written so far durable and visible to readers.
+     */
+    default void flush() throws IOException {
+    }
+
+    /**
+     * Flushes and releases the sink's resources.
+     */
+    @Override
+    default void close() throws IOException {
+        flush();
+    }
+}
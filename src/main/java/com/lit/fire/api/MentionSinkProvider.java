@@ -0,0 +1,21 @@
+package com.lit.fire.api;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Creates a {@link MentionSink} by name. Providers are discovered with {@link java.util.ServiceLoader}, so a sink
+ * packaged in its own jar is enabled by listing it in META-INF/services/com.lit.fire.api.MentionSinkProvider and
+ * naming it in the sinks setting.
+ */
+public interface MentionSinkProvider {
+
+    /**
+     * The name the sinks setting refers to, e.g. "postgres".
+     */
+    String name();
+
+    /**
+     * @param settings The sink's own settings by key, e.g. "dir" for sink.file.dir; null for keys not set.
+     */
+    MentionSink create(UnaryOperator<String> settings) throws Exception;
+}
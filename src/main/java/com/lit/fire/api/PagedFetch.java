@@ -0,0 +1,23 @@
+package com.lit.fire.api;
+
+import java.util.List;
+
+/**
+ * A {@link FetchPlugin} that can also page back through a keyword's history, as far as its platform allows, for
+ * backfills.
+ */
+public interface PagedFetch extends FetchPlugin {
+
+    /**
+     * Fetches one page of a keyword's history, newest first.
+     *
+     * @param cursor The {@link Page#next()} of the previous page, or null to start from the newest mentions.
+     */
+    Page fetchPage(String keyword, String cursor) throws Exception;
+
+    /**
+     * @param next An opaque cursor for the following page, or null if this was the last one.
+     */
+    record Page(List<RawResponse> responses, String next) {
+    }
+}
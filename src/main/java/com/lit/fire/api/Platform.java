@@ -0,0 +1,55 @@
+package com.lit.fire.api;
+
+/**
+ * The platforms mentions are collected from. The numeric code is what compact encodings and primitive indexes store.
+ */
+public enum Platform {
+    X(1, "x"),
+    INSTAGRAM(2, "instagram"),
+    REDDIT(3, "reddit"),
+    YOUTUBE(4, "youtube");
+
+    private static final Platform[] BY_CODE = new Platform[5];
+
+    static {
+        for (Platform platform : values()) {
+            BY_CODE[platform.code] = platform;
+        }
+    }
+
+    private final byte code;
+    private final String id;
+
+    Platform(int code, String id) {
+        this.code = (byte) code;
+        this.id = id;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    /**
+     * The lowercase name used in configuration keys, log events and recorded traffic, e.g. "x".
+     */
+    public String id() {
+        return id;
+    }
+
+    public static Platform fromCode(int code) {
+        Platform platform = code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+        if (platform == null) {
+            throw new IllegalArgumentException("Unknown platform code: " + code);
+        }
+        return platform;
+    }
+
+    public static Platform fromId(String id) {
+        for (Platform platform : values()) {
+            if (platform.id.equalsIgnoreCase(id)) {
+                return platform;
+            }
+        }
+        throw new IllegalArgumentException("Unknown platform: " + id);
+    }
+}
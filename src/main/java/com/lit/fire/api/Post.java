@@ -0,0 +1,27 @@
+package com.lit.fire.api;
+
+/**
+ * A top-level post: an X post, an Instagram media item or a Reddit submission.
+ *
+ * @param title The Reddit submission title; null elsewhere.
+ * @param mediaType The Instagram media type (IMAGE, VIDEO, CAROUSEL_ALBUM); null elsewhere.
+ * @param mediaUrl The Instagram media URL; null elsewhere.
+ */
+public record Post(Platform platform, String id, String keyword, String title, String text, Author author,
+                   long createdAtMillis, String permalink, Engagement engagement, String mediaType, String mediaUrl)
+        implements Mention {
+
+    public Post {
+        keyword = Keywords.intern(keyword);
+        author = author != null ? author : Author.UNKNOWN;
+        engagement = engagement != null ? engagement : Engagement.NONE;
+    }
+
+    @Override
+    public String fullText() {
+        if (title == null || title.isEmpty()) {
+            return text;
+        }
+        return text == null || text.isEmpty() ? title : title + "\n" + text;
+    }
+}
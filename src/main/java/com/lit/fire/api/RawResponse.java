@@ -0,0 +1,16 @@
+package com.lit.fire.api;
+
+import java.util.Map;
+
+/**
+ * One undecoded API response body, as handed from the fetch stage to the decode stage.
+ *
+ * @param context Request details the decoder needs but the body doesn't carry, e.g. the YouTube video a comment
+ *                page belongs to.
+ */
+public record RawResponse(Platform platform, String keyword, String body, Map<String, String> context) {
+
+    public RawResponse(Platform platform, String keyword, String body) {
+        this(platform, keyword, body, Map.of());
+    }
+}
@@ -1,5 +0,0 @@
-package com.lit.fire.api;
-
-public interface SocialMediaScanner {
-    public void scan();
-}
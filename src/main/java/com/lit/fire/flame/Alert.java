@@ -0,0 +1,54 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Platform;
+
+import java.time.Instant;
+
+/**
+ * A breakout detected by {@link SpikeDetector}.
+ *
+ * @param bucketStartMillis Start of the time bucket (by mention creation time) that broke out.
+ * @param observed The bucket's mention count, or its share of negative mentions.
+ * @param baseline The EWMA of the same measure over earlier buckets.
+ * @param zScore How many baseline standard deviations {@code observed} is above {@code baseline}.
+ */
+public record Alert(Kind kind, String keyword, Platform platform, long bucketStartMillis, int bucketMinutes,
+                    double observed, double baseline, double zScore) {
+
+    public enum Kind {
+        /**
+         * Mentions per bucket far above the usual rate.
+         */
+        RATE,
+        /**
+         * The share of negative mentions far above the usual share.
+         */
+        NEGATIVE_SHARE
+    }
+
+    String toJson() {
+        return "{\"kind\":\"" + kind.name().toLowerCase() + "\",\"keyword\":\"" + escape(keyword)
+                + "\",\"platform\":\"" + platform.id() + "\",\"bucket_start\":\"" + Instant.ofEpochMilli(bucketStartMillis)
+                + "\",\"bucket_minutes\":" + bucketMinutes + ",\"observed\":" + round(observed)
+                + ",\"baseline\":" + round(baseline) + ",\"z_score\":" + round(zScore) + "}";
+    }
+
+    private static String round(double value) {
+        return Double.isFinite(value) ? Double.toString(Math.round(value * 1000) / 1000.0) : "null";
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package com.lit.fire.flame;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where {@link SpikeDetector} alerts go. Sinks are called on the ingest path and must not block for long.
+ */
+public interface AlertSink {
+
+    void send(Alert alert) throws Exception;
+
+    /**
+     * The sinks listed in alerts.sinks (any of log, file, webhook; default log).
+     */
+    static List<AlertSink> fromConfig() {
+        List<AlertSink> sinks = new ArrayList<>();
+        for (String name : AppProperties.getProperty("alerts.sinks", "log").split(",")) {
+            switch (name.trim()) {
+                case "" -> {
+                }
+                case "log" -> sinks.add(new LogSink());
+                case "file" -> sinks.add(new FileSink(Path.of(AppProperties.getProperty("alerts.file", "alerts.ndjson"))));
+                case "webhook" -> sinks.add(new WebhookSink(URI.create(AppProperties.getProperty("alerts.webhook_url"))));
+                default -> throw new IllegalArgumentException("Unknown alert sink: " + name);
+            }
+        }
+        return sinks;
+    }
+
+    /**
+     * Logs each alert as an alert.fired event at WARN.
+     */
+    final class LogSink implements AlertSink {
+
+        @Override
+        public void send(Alert alert) {
+            Log.warn("alert.fired", "kind", alert.kind(), "keyword", alert.keyword(), "platform", alert.platform().id(),
+                    "bucket_start_ms", alert.bucketStartMillis(), "observed", alert.observed(), "baseline", alert.baseline(),
+                    "z_score", alert.zScore());
+        }
+    }
+
+    /**
+     * Appends each alert to a file as one JSON line.
+     */
+    final class FileSink implements AlertSink {
+
+        private final Path path;
+
+        public FileSink(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public synchronized void send(Alert alert) throws IOException {
+            Files.writeString(path, alert.toJson() + "\n", StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * POSTs each alert as JSON without waiting for the response; failures are logged.
+     */
+    final class WebhookSink implements AlertSink {
+
+        private static final HttpClient CLIENT = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        private final URI uri;
+
+        public WebhookSink(URI uri) {
+            this.uri = uri;
+        }
+
+        @Override
+        public void send(Alert alert) {
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(alert.toJson()))
+                    .build();
+            CLIENT.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                if (error != null) {
+                    Log.error("alert.webhook_failed", error, "keyword", alert.keyword());
+                } else if (response.statusCode() / 100 != 2) {
+                    Log.warn("alert.webhook_rejected", "keyword", alert.keyword(), "status", response.statusCode());
+                }
+            });
+        }
+    }
+}
@@ -10,20 +10,89 @@ public class AppProperties {
     static {
         try (InputStream input = AppProperties.class.getClassLoader().getResourceAsStream("application.properties")) {
             if (input == null) {
-                System.out.println("Sorry, unable to find application.properties");
+                // Every setting has a default, so carry on with those and any -D overrides.
+                System.err.println("application.properties not found; using defaults");
+            } else {
+                properties.load(input);
             }
-            properties.load(input);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * secrets.properties, read on first use and shared by every platform client and the database.
+     */
+    private static final class Secrets {
+        static final Properties PROPERTIES = load();
+
+        private static Properties load() {
+            try (InputStream input = AppProperties.class.getClassLoader().getResourceAsStream("secrets.properties")) {
+                if (input == null) {
+                    return null;
+                }
+                Properties secrets = new Properties();
+                secrets.load(input);
+                return secrets;
+            } catch (Exception e) {
+                e.printStackTrace();
+                return null;
+            }
+        }
+    }
+
+    /**
+     * The contents of secrets.properties, or null if there is none on the classpath.
+     */
+    public static Properties secrets() {
+        return Secrets.PROPERTIES;
+    }
+
+    /**
+     * Thrown when a required credential is not configured; unlike other init failures, retrying will not fix it.
+     */
+    public static final class MissingSecretException extends IllegalStateException {
+
+        private static final long serialVersionUID = 1L;
+
+        MissingSecretException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Returns a credential from secrets.properties. The YOUR_... placeholders of secrets.properties.template count as
+     * missing.
+     *
+     * @throws MissingSecretException if secrets.properties or the credential is missing, so the platform needing it
+     *         is left out rather than the process stopping.
+     */
+    public static String requireSecret(String key) {
+        Properties secrets = secrets();
+        if (secrets == null) {
+            throw new MissingSecretException("secrets.properties not found; " + key + " is required");
+        }
+        String value = secrets.getProperty(key);
+        if (value == null || value.isBlank() || value.startsWith("YOUR_")) {
+            throw new MissingSecretException(key + " is not configured in secrets.properties");
+        }
+        return value;
+    }
+
+    /**
+     * Returns the configured value, letting a -D system property of the same name override application.properties.
+     */
     public static String getProperty(String key) {
-        return properties.getProperty(key);
+        return System.getProperty(key, properties.getProperty(key));
+    }
+
+    public static String getProperty(String key, String defaultValue) {
+        String value = getProperty(key);
+        return value != null ? value : defaultValue;
     }
 
     public static int getIntProperty(String key, int defaultValue) {
-        String value = properties.getProperty(key);
+        String value = getProperty(key);
         if (value != null) {
             try {
                 return Integer.parseInt(value);
@@ -33,4 +102,16 @@ public class AppProperties {
         }
         return defaultValue;
     }
-}
\ No newline at end of file
+
+    public static double getDoubleProperty(String key, double defaultValue) {
+        String value = getProperty(key);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                // Ignore and return default
+            }
+        }
+        return defaultValue;
+    }
+}
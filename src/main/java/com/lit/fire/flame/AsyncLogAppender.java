@@ -0,0 +1,225 @@
+package com.lit.fire.flame;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A bounded multi-producer, single-consumer ring buffer drained by one daemon thread that writes logfmt lines.
+ *
+ * Producers claim a sequence with a CAS and publish the slot by storing sequence + 1 in {@code published}; they
+ * never take a lock and never wait for the writer. If the writer has fallen a full buffer behind, the event is
+ * dropped and counted, and the count is reported as a log.dropped event once there is room again.
+ *
+ * Every event is one logfmt line; an error's stack trace goes into an escaped stack value rather than onto lines of its
+ * own.
+ */
+class AsyncLogAppender implements Runnable {
+
+    record LogEvent(long timestamp, Log.Level level, String thread, String event, Object[] keyValues, Throwable error) {
+    }
+
+    private final LogEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long consumed;
+    private volatile boolean sleeping;
+    private final LongAdder dropped = new LongAdder();
+    private long droppedReported;
+    private final Writer out;
+    private Thread thread;
+
+    AsyncLogAppender(int requestedCapacity, OutputStream target) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.slots = new LogEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.out = new OutputStreamWriter(target, StandardCharsets.UTF_8);
+    }
+
+    static AsyncLogAppender start() {
+        // System.out rather than the raw descriptor, so a redirected stdout (test runners, embedding code) is honoured.
+        OutputStream target = System.out;
+        String file = AppProperties.getProperty("log.file");
+        if (file != null && !file.isBlank()) {
+            try {
+                target = new FileOutputStream(file, true);
+            } catch (IOException e) {
+                System.err.println("Unable to open log file " + file + ", logging to stdout: " + e.getMessage());
+            }
+        }
+        AsyncLogAppender appender = new AsyncLogAppender(AppProperties.getIntProperty("log.buffer_size", 8192),
+                new BufferedOutputStream(target, 64 * 1024));
+        appender.thread = new Thread(appender, "log-appender");
+        appender.thread.setDaemon(true);
+        appender.thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(appender::drain, "log-appender-drain"));
+        return appender;
+    }
+
+    boolean offer(LogEvent event) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed >= slots.length) {
+                dropped.increment();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & mask);
+        slots[index] = event;
+        published.set(index, sequence + 1);
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Waits (bounded) until the writer has caught up with everything claimed so far.
+     */
+    void drain() {
+        long target = claimed.get();
+        long deadline = System.nanoTime() + 2_000_000_000L;
+        while (consumed < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(thread);
+            Thread.onSpinWait();
+            LockSupport.parkNanos(100_000);
+        }
+        synchronized (out) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                // Nothing sensible left to report to
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        StringBuilder line = new StringBuilder(512);
+        boolean dirty = false;
+        while (true) {
+            long sequence = consumed;
+            int index = (int) (sequence & mask);
+            if (published.get(index) == sequence + 1) {
+                LogEvent event = slots[index];
+                slots[index] = null;
+                write(line, event);
+                // Only once written, so drain() does not flush ahead of the event.
+                consumed = sequence + 1;
+                dirty = true;
+                continue;
+            }
+
+            long droppedNow = dropped.sum();
+            if (droppedNow != droppedReported) {
+                write(line, new LogEvent(System.currentTimeMillis(), Log.Level.WARN, "log-appender", "log.dropped",
+                        new Object[]{"count", droppedNow - droppedReported}, null));
+                droppedReported = droppedNow;
+                dirty = true;
+                continue;
+            }
+
+            if (dirty) {
+                flush();
+                dirty = false;
+                continue;
+            }
+
+            sleeping = true;
+            if (published.get(index) != sequence + 1) {
+                LockSupport.parkNanos(this, 10_000_000L);
+            }
+            sleeping = false;
+        }
+    }
+
+    private void flush() {
+        synchronized (out) {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                // Dropping log output is preferable to failing the writer thread
+            }
+        }
+    }
+
+    private void write(StringBuilder line, LogEvent event) {
+        line.setLength(0);
+        line.append("ts=").append(Instant.ofEpochMilli(event.timestamp()))
+                .append(" level=").append(event.level())
+                .append(" thread=");
+        appendValue(line, event.thread());
+        line.append(" event=").append(event.event());
+        Object[] keyValues = event.keyValues();
+        if (keyValues != null) {
+            for (int i = 0; i + 1 < keyValues.length; i += 2) {
+                line.append(' ').append(keyValues[i]).append('=');
+                appendValue(line, keyValues[i + 1]);
+            }
+        }
+        if (event.error() != null) {
+            line.append(" error=");
+            appendValue(line, String.valueOf(event.error().getMessage()));
+            StringWriter trace = new StringWriter();
+            event.error().printStackTrace(new PrintWriter(trace));
+            line.append(" stack=");
+            appendValue(line, trace.toString().stripTrailing());
+        }
+        line.append('\n');
+        synchronized (out) {
+            try {
+                out.append(line);
+            } catch (IOException e) {
+                // See flush()
+            }
+        }
+    }
+
+    /**
+     * Quotes values containing spaces, quotes or '=' and escapes newlines so every event stays on one line.
+     */
+    private static void appendValue(StringBuilder line, Object value) {
+        String text = String.valueOf(value);
+        boolean quote = text.isEmpty();
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c <= ' ' || c == '"' || c == '=';
+        }
+        if (!quote) {
+            line.append(text);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> line.append("\\\"");
+                case '\\' -> line.append("\\\\");
+                case '\n' -> line.append("\\n");
+                case '\r' -> line.append("\\r");
+                case '\t' -> line.append("\\t");
+                default -> line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,346 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Author;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.Platform;
+
+import java.io.Serial;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The authors table: one row per platform and author, with a surrogate ID that the mention tables reference in their
+ * author_id column, the latest profile data, and activity counters that flag likely bots as mentions are stored.
+ *
+ * An author is keyed by the platform's stable user ID, or the handle, or the display name, whichever comes first;
+ * authors with none get no row. A bounded LRU cache of authors.cache_size entries maps keys to surrogate IDs, so a
+ * batch only goes to the table for authors not cached or whose handle or display name changed, in one upsert.
+ *
+ * Each cached author carries its {@link Stats}, updated for every newly stored mention and written back in one
+ * UPDATE per batch: mentions, mentions repeating one of the author's recent texts, and a posting rate. An author is
+ * flagged as a likely bot once it has authors.bot.min_mentions mentions and posts at authors.bot.posts_per_hour or
+ * more, or repeats itself at a ratio of authors.bot.duplicate_ratio or more. Counters of authors evicted from the cache
+ * are read back from the table; the recent texts are not, so duplicates are only detected among texts seen since.
+ * Both statements run on the caller's connection and transaction.
+ */
+public final class Authors {
+
+    /**
+     * Bot thresholds; see the class comment for the matching configuration keys.
+     */
+    record Settings(int minMentions, double postsPerHour, double duplicateRatio) {
+
+        static Settings fromConfig() {
+            return new Settings(AppProperties.getIntProperty("authors.bot.min_mentions", 10),
+                    AppProperties.getDoubleProperty("authors.bot.posts_per_hour", 30),
+                    AppProperties.getDoubleProperty("authors.bot.duplicate_ratio", 0.6));
+        }
+    }
+
+    /**
+     * Incremental activity counters of one author.
+     */
+    static final class Stats {
+        private static final long RATE_WINDOW_MILLIS = 3_600_000;
+        private static final int RECENT_TEXTS = 16;
+        /**
+         * Texts with fewer word characters than this ("nice!", "🔥🔥") are not compared.
+         */
+        private static final int MIN_TEXT_CHARS = 16;
+
+        long mentions;
+        long duplicates;
+        /**
+         * Posts counted with exponentially decaying weight, time constant one hour: about the posts of the last hour.
+         */
+        double postsPerHour;
+        long lastPostedMillis;
+        boolean likelyBot;
+        private final long[] recentTexts = new long[RECENT_TEXTS];
+        private int nextText;
+
+        /**
+         * Counts a mention.
+         *
+         * @return Whether the author now counts as a likely bot and did not before.
+         */
+        boolean observe(long createdAtMillis, String text, Settings settings) {
+            mentions++;
+            long hash = textHash(text);
+            if (hash != 0) {
+                for (long recent : recentTexts) {
+                    if (recent == hash) {
+                        duplicates++;
+                        break;
+                    }
+                }
+                recentTexts[nextText] = hash;
+                nextText = (nextText + 1) % RECENT_TEXTS;
+            }
+            if (lastPostedMillis == 0) {
+                postsPerHour = 1;
+                lastPostedMillis = createdAtMillis;
+            } else if (createdAtMillis >= lastPostedMillis) {
+                postsPerHour = postsPerHour * Math.exp(-(double) (createdAtMillis - lastPostedMillis) / RATE_WINDOW_MILLIS) + 1;
+                lastPostedMillis = createdAtMillis;
+            } else {
+                // Delivered late: it counts with the weight it would have now.
+                postsPerHour += Math.exp(-(double) (lastPostedMillis - createdAtMillis) / RATE_WINDOW_MILLIS);
+            }
+            boolean bot = mentions >= settings.minMentions
+                    && (postsPerHour >= settings.postsPerHour || duplicateRatio() >= settings.duplicateRatio);
+            boolean flagged = bot && !likelyBot;
+            likelyBot |= bot;
+            return flagged;
+        }
+
+        double duplicateRatio() {
+            return mentions == 0 ? 0 : (double) duplicates / mentions;
+        }
+
+        /**
+         * A hash of the text's words, lowercased, without URLs, @handles or punctuation; 0 for texts too short to
+         * compare.
+         */
+        static long textHash(String text) {
+            if (text == null) {
+                return 0;
+            }
+            long h = Words.FNV_OFFSET;
+            int chars = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (Words.isUrlStart(text, i)) {
+                    i = Words.skipUrl(text, i);
+                } else if (c == '@') {
+                    while (i + 1 < text.length() && (Words.isWordChar(text.charAt(i + 1)) || text.charAt(i + 1) == '_')) {
+                        i++;
+                    }
+                } else if (Words.isWordChar(c)) {
+                    h = (h ^ Character.toLowerCase(c)) * Words.FNV_PRIME;
+                    chars++;
+                }
+            }
+            return chars < MIN_TEXT_CHARS ? 0 : Words.mix(h) | 1;
+        }
+    }
+
+    /**
+     * A cached author: its surrogate ID, the profile last written and its counters.
+     */
+    static final class Entry {
+        final long id;
+        String handle;
+        String displayName;
+        final Stats stats = new Stats();
+
+        Entry(long id, String handle, String displayName) {
+            this.id = id;
+            this.handle = handle;
+            this.displayName = displayName;
+        }
+    }
+
+    /**
+     * Least recently used entries go first once the cache is full.
+     */
+    static final class Cache extends LinkedHashMap<String, Entry> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Cache(int capacity) {
+            super(Math.min(capacity, 1 << 16) * 4 / 3 + 1, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > capacity;
+        }
+    }
+
+    private static final Settings SETTINGS = Settings.fromConfig();
+    private static final Cache CACHE = new Cache(Math.max(1, AppProperties.getIntProperty("authors.cache_size", 100_000)));
+
+    private Authors() {
+    }
+
+    /**
+     * The author's key within its platform, or null if it has no identifying field.
+     */
+    static String key(Author author) {
+        return author.id() != null ? author.id() : author.handle() != null ? author.handle() : author.displayName();
+    }
+
+    /**
+     * Resolves the authors of mentions to their surrogate IDs, creating authors seen for the first time and updating
+     * changed profiles in one upsert on the caller's connection.
+     *
+     * @return The author ID of each mention, 0 for mentions without an identifiable author.
+     */
+    static long[] resolve(Connection conn, Platform platform, List<? extends Mention> mentions) throws SQLException {
+        long[] ids = new long[mentions.size()];
+        // Sorted, so concurrent batches lock author rows in the same order.
+        Map<String, Author> upserts = new TreeMap<>();
+        synchronized (CACHE) {
+            for (Mention mention : mentions) {
+                Author author = mention.author();
+                String key = key(author);
+                if (key == null) {
+                    continue;
+                }
+                Entry entry = CACHE.get(platform.id() + ':' + key);
+                if (entry == null || changed(entry.handle, author.handle()) || changed(entry.displayName, author.displayName())) {
+                    upserts.put(key, author);
+                }
+            }
+        }
+        if (!upserts.isEmpty()) {
+            upsert(conn, platform, upserts);
+        }
+        synchronized (CACHE) {
+            for (int i = 0; i < ids.length; i++) {
+                String key = key(mentions.get(i).author());
+                Entry entry = key == null ? null : CACHE.get(platform.id() + ':' + key);
+                ids[i] = entry == null ? 0 : entry.id;
+            }
+        }
+        return ids;
+    }
+
+    private static boolean changed(String cached, String seen) {
+        return seen != null && !seen.equals(cached);
+    }
+
+    private static void upsert(Connection conn, Platform platform, Map<String, Author> authors) throws SQLException {
+        List<String> keys = new ArrayList<>(authors.keySet());
+        String[] userIds = new String[keys.size()];
+        String[] handles = new String[keys.size()];
+        String[] displayNames = new String[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            Author author = authors.get(keys.get(i));
+            userIds[i] = author.id();
+            handles[i] = author.handle();
+            displayNames[i] = author.displayName();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO authors (platform, author_key, user_id, handle, display_name)"
+                        + " SELECT ?, a.key, a.user_id, a.handle, a.display_name"
+                        + " FROM unnest(?::text[], ?::text[], ?::text[], ?::text[]) AS a (key, user_id, handle, display_name)"
+                        + " ON CONFLICT (platform, author_key) DO UPDATE SET"
+                        + " user_id = COALESCE(EXCLUDED.user_id, authors.user_id), handle = COALESCE(EXCLUDED.handle, authors.handle),"
+                        + " display_name = COALESCE(EXCLUDED.display_name, authors.display_name), last_seen = now()"
+                        + " RETURNING author_key, id, handle, display_name, mentions, duplicate_mentions, posts_per_hour,"
+                        + " last_posted_at, likely_bot")) {
+            pstmt.setString(1, platform.id());
+            pstmt.setArray(2, conn.createArrayOf("text", keys.toArray()));
+            pstmt.setArray(3, conn.createArrayOf("text", userIds));
+            pstmt.setArray(4, conn.createArrayOf("text", handles));
+            pstmt.setArray(5, conn.createArrayOf("text", displayNames));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                synchronized (CACHE) {
+                    while (rs.next()) {
+                        String cacheKey = platform.id() + ':' + rs.getString(1);
+                        Entry entry = CACHE.get(cacheKey);
+                        if (entry != null && entry.id == rs.getLong(2)) {
+                            entry.handle = rs.getString(3);
+                            entry.displayName = rs.getString(4);
+                            continue;
+                        }
+                        entry = new Entry(rs.getLong(2), rs.getString(3), rs.getString(4));
+                        entry.stats.mentions = rs.getLong(5);
+                        entry.stats.duplicates = rs.getLong(6);
+                        entry.stats.postsPerHour = rs.getDouble(7);
+                        Timestamp lastPosted = rs.getTimestamp(8);
+                        entry.stats.lastPostedMillis = lastPosted == null ? 0 : lastPosted.getTime();
+                        entry.stats.likelyBot = rs.getBoolean(9);
+                        CACHE.put(cacheKey, entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the mentions that were newly inserted against their authors and writes the changed counters back in one
+     * UPDATE on the caller's connection.
+     *
+     * @param ids The author IDs from {@link #resolve}.
+     * @param counts The executeBatch update counts of the mentions.
+     * @return The number of authors newly flagged as likely bots.
+     */
+    static int record(Connection conn, Platform platform, List<? extends Mention> mentions, long[] ids, int[] counts)
+            throws SQLException {
+        Map<Long, Stats> touched = new TreeMap<>();
+        int flagged = 0;
+        synchronized (CACHE) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == 0 || i >= counts.length || !DatabaseService.wasInserted(counts[i])) {
+                    continue;
+                }
+                Mention mention = mentions.get(i);
+                String key = key(mention.author());
+                Entry entry = CACHE.get(platform.id() + ':' + key);
+                if (entry == null || entry.id != ids[i]) {
+                    continue;
+                }
+                if (entry.stats.observe(mention.createdAtMillis(), mention.fullText(), SETTINGS)) {
+                    flagged++;
+                    Log.info("author.flagged", "platform", platform.id(), "author", key, "mentions", entry.stats.mentions,
+                            "posts_per_hour", Math.round(entry.stats.postsPerHour), "duplicate_ratio", entry.stats.duplicateRatio());
+                }
+                touched.put(entry.id, entry.stats);
+            }
+        }
+        if (touched.isEmpty()) {
+            return flagged;
+        }
+        Long[] authorIds = new Long[touched.size()];
+        Long[] mentionCounts = new Long[touched.size()];
+        Long[] duplicates = new Long[touched.size()];
+        Double[] rates = new Double[touched.size()];
+        Timestamp[] lastPosted = new Timestamp[touched.size()];
+        Boolean[] bots = new Boolean[touched.size()];
+        int n = 0;
+        synchronized (CACHE) {
+            for (Map.Entry<Long, Stats> entry : touched.entrySet()) {
+                Stats stats = entry.getValue();
+                authorIds[n] = entry.getKey();
+                mentionCounts[n] = stats.mentions;
+                duplicates[n] = stats.duplicates;
+                rates[n] = stats.postsPerHour;
+                lastPosted[n] = new Timestamp(stats.lastPostedMillis);
+                bots[n] = stats.likelyBot;
+                n++;
+            }
+        }
+        // Snapshots are taken under the lock but written outside it, so two workers' writes for one author can commit
+        // in either order; the counters only grow and the flag only sets, so the older snapshot must not win.
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "UPDATE authors a SET mentions = GREATEST(a.mentions, u.mentions),"
+                        + " duplicate_mentions = GREATEST(a.duplicate_mentions, u.duplicates),"
+                        + " posts_per_hour = CASE WHEN u.mentions >= a.mentions THEN u.rate ELSE a.posts_per_hour END,"
+                        + " last_posted_at = GREATEST(a.last_posted_at, u.last_posted), likely_bot = a.likely_bot OR u.bot"
+                        + " FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::float8[], ?::timestamptz[], ?::boolean[])"
+                        + " AS u (id, mentions, duplicates, rate, last_posted, bot) WHERE a.id = u.id")) {
+            pstmt.setArray(1, conn.createArrayOf("bigint", authorIds));
+            pstmt.setArray(2, conn.createArrayOf("bigint", mentionCounts));
+            pstmt.setArray(3, conn.createArrayOf("bigint", duplicates));
+            pstmt.setArray(4, conn.createArrayOf("float8", rates));
+            pstmt.setArray(5, conn.createArrayOf("timestamptz", lastPosted));
+            pstmt.setArray(6, conn.createArrayOf("boolean", bots));
+            pstmt.executeUpdate();
+        }
+        return flagged;
+    }
+}
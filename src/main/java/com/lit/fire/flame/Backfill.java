@@ -0,0 +1,258 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Keywords;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.MentionSink;
+import com.lit.fire.api.PagedFetch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.RawResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pages back through the history of keywords, as far as each platform's search allows: X's 7-day search/recent
+ * window, Reddit's sort=new listing, YouTube in publishedBefore windows and Instagram's recent_media cursors.
+ *
+ * Every (platform, keyword) pair is one task on a pool of backfill.parallelism threads. Each page is decoded, run
+ * through the same normalize, filter and enrich processors as live scans and written to the sink in one batch, and
+ * only then is the cursor saved to backfill.state_dir, so an interrupted backfill resumes at the first page it had not
+ * stored. A pair stops when its platform runs out of pages or after backfill.max_pages pages; finished pairs are
+ * skipped on later runs unless restarted.
+ *
+ * Backfill threads draw from the same {@link RateBudget}s as live scans at low priority. Run it inside the scanner
+ * process ({@code Main --backfill}) for that to hold; a separate process has budgets of its own.
+ */
+public class Backfill {
+
+    /**
+     * Progress of one (platform, keyword) pair.
+     *
+     * @param cursor The cursor of the next page to fetch, or null to start from the newest mentions.
+     */
+    record State(String cursor, int pages, long mentions, boolean done) {
+
+        static final State START = new State(null, 0, 0, false);
+
+        void save(Path path) throws IOException {
+            Properties properties = new Properties();
+            if (cursor != null) {
+                properties.setProperty("cursor", cursor);
+            }
+            properties.setProperty("pages", Integer.toString(pages));
+            properties.setProperty("mentions", Long.toString(mentions));
+            properties.setProperty("done", Boolean.toString(done));
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "Backfill state");
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        static State load(Path path) throws IOException {
+            if (!Files.exists(path)) {
+                return START;
+            }
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(path)) {
+                properties.load(in);
+            }
+            return new State(properties.getProperty("cursor"), Integer.parseInt(properties.getProperty("pages", "0")),
+                    Long.parseLong(properties.getProperty("mentions", "0")), Boolean.parseBoolean(properties.getProperty("done")));
+        }
+    }
+
+    private final List<BatchProcessor> processors;
+    private final BatchSink sink;
+    private final boolean restart;
+    private final Path stateDir = Path.of(AppProperties.getProperty("backfill.state_dir", "backfill-state"));
+    private final int parallelism = Math.max(1, AppProperties.getIntProperty("backfill.parallelism", 4));
+    private final int maxPages = AppProperties.getIntProperty("backfill.max_pages", 100);
+
+    /**
+     * @param processors The normalize, filter and enrich processors to apply to each page, in order.
+     * @param restart Whether to discard saved progress and start every pair from the newest mentions again.
+     */
+    public Backfill(List<BatchProcessor> processors, BatchSink sink, boolean restart) {
+        this.processors = List.copyOf(processors);
+        this.sink = sink;
+        this.restart = restart;
+    }
+
+    /**
+     * Backfills the given keywords, or each plugin's own keywords if none are given, and waits until every pair has
+     * finished or failed. The plugins are initialised in parallel; one that fails to is left out.
+     *
+     * @return The number of pairs that failed, their progress kept for the next run, plus one for each plugin that
+     *         failed to initialise for a reason other than missing configuration.
+     */
+    public int run(List<PagedFetch> plugins, List<String> keywords) throws Exception {
+        Files.createDirectories(stateDir);
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(() -> {
+                RateBudget.lowPriority();
+                runnable.run();
+            }, "backfill-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            int failed = 0;
+            for (Bootstrap.Outcome<PagedFetch> outcome : Bootstrap.init(plugins).join()) {
+                if (!outcome.ready()) {
+                    failed += outcome.misconfigured() ? 0 : 1;
+                    continue;
+                }
+                PagedFetch plugin = outcome.plugin();
+                List<String> pluginKeywords = keywords.isEmpty() ? plugin.keywords() : match(plugin, keywords);
+                for (String keyword : pluginKeywords) {
+                    tasks.add(executor.submit(() -> {
+                        backfill(plugin, keyword);
+                        return null;
+                    }));
+                }
+            }
+            for (Future<?> task : tasks) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                }
+            }
+            return failed;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Maps keywords to the form a plugin searches for them in: its own configured keyword when one matches ignoring
+     * case and whitespace, its {@link PagedFetch#searchForm search form} otherwise.
+     */
+    private static List<String> match(PagedFetch plugin, List<String> keywords) throws Exception {
+        List<String> configured = plugin.keywords();
+        List<String> matched = new ArrayList<>(keywords.size());
+        for (String keyword : keywords) {
+            String form = plugin.searchForm(keyword);
+            for (String candidate : configured) {
+                if (Keywords.squash(candidate).equals(Keywords.squash(keyword))) {
+                    form = candidate;
+                    break;
+                }
+            }
+            matched.add(form);
+        }
+        return matched;
+    }
+
+    private void backfill(PagedFetch plugin, String keyword) throws Exception {
+        String platform = plugin.platform().id();
+        Path statePath = stateDir.resolve(platform + "-" + URLEncoder.encode(keyword, StandardCharsets.UTF_8) + ".properties");
+        State state = restart ? State.START : State.load(statePath);
+        if (state.done()) {
+            Log.debug("backfill.skipped", "platform", platform, "keyword", keyword, "pages", state.pages());
+            return;
+        }
+        long start = System.nanoTime();
+        Log.info("backfill.started", "platform", platform, "keyword", keyword, "resumed_at_page", state.pages());
+        IngestEvents.scanning(keyword);
+        try {
+            while (!state.done() && state.pages() < maxPages) {
+                PagedFetch.Page page = plugin.fetchPage(keyword, state.cursor());
+                long written = 0;
+                for (RawResponse response : page.responses()) {
+                    written += write(plugin, response);
+                }
+                state = new State(page.next(), state.pages() + 1, state.mentions() + written, page.next() == null);
+                state.save(statePath);
+                Log.debug("backfill.page", "platform", platform, "keyword", keyword, "page", state.pages(), "mentions", written);
+            }
+        } catch (Exception e) {
+            Log.error("backfill.failed", e, "platform", platform, "keyword", keyword, "pages", state.pages());
+            throw e;
+        } finally {
+            IngestEvents.scanning(null);
+        }
+        Log.info("backfill.finished", "platform", platform, "keyword", keyword, "pages", state.pages(),
+                "mentions", state.mentions(), "complete", state.done(), "duration_ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Decodes, processes and stores one response, returning the number of mentions handed to the sink.
+     */
+    private int write(PagedFetch plugin, RawResponse response) throws Exception {
+        List<? extends Mention> mentions = plugin.decode(response);
+        // Null means nothing to store, as in the pipeline's decode stage.
+        if (mentions == null || mentions.isEmpty()) {
+            return 0;
+        }
+        MentionBatch batch = new MentionBatch(response.platform(), response.keyword(), new ArrayList<>(mentions));
+        for (BatchProcessor processor : processors) {
+            batch = processor.process(batch);
+            if (batch == null || batch.isEmpty()) {
+                return 0;
+            }
+        }
+        sink.write(batch);
+        return batch.size();
+    }
+
+    /**
+     * Runs a standalone backfill: {@code [--platform x,reddit] [--restart] [keyword ...]}. Without keywords every
+     * platform backfills its configured keywords.
+     */
+    public static void main(String[] args) throws Exception {
+        Set<Platform> platforms = EnumSet.allOf(Platform.class);
+        boolean restart = false;
+        List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--platform" -> {
+                    platforms = EnumSet.noneOf(Platform.class);
+                    for (String id : args[++i].split(",")) {
+                        platforms.add(Platform.fromId(id.trim()));
+                    }
+                }
+                case "--restart" -> restart = true;
+                default -> {
+                    if (args[i].startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown argument: " + args[i]);
+                    }
+                    keywords.add(args[i]);
+                }
+            }
+        }
+        try {
+            DatabaseService.applySchema();
+            try (MentionSink store = MentionSinks.fromConfig()) {
+                Backfill backfill = new Backfill(List.of(new DuplicateIdFilter(), new LanguageTagger(), new HandleFilter(),
+                        new NearDuplicateTagger(), new SentimentTagger()), store::write, restart);
+                int failed = backfill.run(Bootstrap.plugins(platforms), keywords);
+                if (failed > 0) {
+                    Log.warn("backfill.incomplete", "failed", failed);
+                }
+            }
+        } finally {
+            Log.flush();
+        }
+    }
+}
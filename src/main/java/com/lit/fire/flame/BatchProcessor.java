@@ -0,0 +1,15 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.MentionBatch;
+
+/**
+ * A transformation applied to each batch in the normalize, filter or enrich stage of the {@link Pipeline}.
+ * Implementations must be thread-safe: a stage runs its processors on several workers at once.
+ */
+public interface BatchProcessor {
+
+    /**
+     * Returns the batch to pass on, which may be the same instance, a smaller or rewritten one, or an empty batch.
+     */
+    MentionBatch process(MentionBatch batch) throws Exception;
+}
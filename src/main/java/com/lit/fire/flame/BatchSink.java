@@ -0,0 +1,11 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.MentionBatch;
+
+/**
+ * The last stage of the {@link Pipeline}: persists or forwards a batch.
+ */
+public interface BatchSink {
+
+    void write(MentionBatch batch) throws Exception;
+}
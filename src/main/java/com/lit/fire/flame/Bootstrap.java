@@ -0,0 +1,132 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.FetchPlugin;
+import com.lit.fire.api.PagedFetch;
+import com.lit.fire.api.Platform;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts the platform clients, all at once.
+ *
+ * Each plugin's {@link FetchPlugin#init init} runs on a thread of its own, so the slow parts of startup (Google's
+ * trust-store load for YouTube, first use of each client's HTTP and JSON classes) overlap with each other and with
+ * whatever the caller does meanwhile. Settings come from {@link AppProperties}, which reads application.properties
+ * and secrets.properties once for every client. A platform whose credentials are missing is disabled and the rest
+ * start regardless; any other init failure keeps the platform, for the caller to retry.
+ *
+ * Run as a main class, it goes through the same startup and exits: the appcds build profile runs it to record which
+ * classes go into the class-data sharing archive.
+ */
+public final class Bootstrap {
+
+    /**
+     * How one plugin's init went.
+     *
+     * @param error Null if the plugin is ready.
+     */
+    public record Outcome<P extends FetchPlugin>(P plugin, Exception error, long millis) {
+
+        public boolean ready() {
+            return error == null;
+        }
+
+        /**
+         * Whether init failed for want of a credential, which retrying will not fix.
+         */
+        public boolean misconfigured() {
+            return error instanceof AppProperties.MissingSecretException;
+        }
+    }
+
+    private Bootstrap() {
+    }
+
+    /**
+     * New instances of the clients of the given platforms.
+     */
+    public static List<PagedFetch> plugins(Set<Platform> platforms) {
+        List<PagedFetch> plugins = new ArrayList<>();
+        for (PagedFetch plugin : List.of(new InstagramService(), new RedditAuthClientWithSearch(), new XService(), new YouTubeMain())) {
+            if (platforms.contains(plugin.platform())) {
+                plugins.add(plugin);
+            }
+        }
+        return plugins;
+    }
+
+    /**
+     * Initialises the plugins in parallel and logs how each went: platform.ready, platform.disabled for a missing
+     * credential, or platform.init_failed.
+     *
+     * @return Completes once every plugin has finished, with the outcomes in plugin order.
+     */
+    public static <P extends FetchPlugin> CompletableFuture<List<Outcome<P>>> init(List<P> plugins) {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, plugins.size()), runnable -> {
+            Thread thread = new Thread(runnable, "bootstrap-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<CompletableFuture<Outcome<P>>> outcomes = new ArrayList<>(plugins.size());
+        for (P plugin : plugins) {
+            outcomes.add(CompletableFuture.supplyAsync(() -> init(plugin), executor));
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> outcomes.stream().map(CompletableFuture::join).toList())
+                .whenComplete((done, error) -> executor.shutdown());
+    }
+
+    private static <P extends FetchPlugin> Outcome<P> init(P plugin) {
+        String platform = plugin.platform().id();
+        long start = System.nanoTime();
+        Exception error = null;
+        try {
+            plugin.init();
+        } catch (Exception e) {
+            error = e;
+        }
+        Outcome<P> outcome = new Outcome<>(plugin, error, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (outcome.ready()) {
+            Log.info("platform.ready", "platform", platform, "init_ms", outcome.millis());
+        } else if (outcome.misconfigured()) {
+            Log.warn("platform.disabled", "platform", platform, "reason", error.getMessage());
+        } else {
+            Log.error("platform.init_failed", error, "platform", platform);
+        }
+        return outcome;
+    }
+
+    /**
+     * Goes through startup without scanning: starts every platform client (and YouTube's transport even without an
+     * API key), then passes a batch-free pipeline through start and shutdown.
+     */
+    public static void main(String[] args) throws Exception {
+        try {
+            List<Outcome<PagedFetch>> outcomes = init(plugins(EnumSet.allOf(Platform.class))).join();
+            YouTubeService.transport();
+            MemorySink sink = new MemorySink();
+            Pipeline pipeline = Pipeline.builder()
+                    .normalize(new DuplicateIdFilter())
+                    .normalize(new LanguageTagger())
+                    .filter(new HandleFilter())
+                    .enrich(new NearDuplicateTagger())
+                    .enrich(new SentimentTagger())
+                    .sink(sink::write)
+                    .build();
+            pipeline.start();
+            pipeline.shutdown(10, TimeUnit.SECONDS);
+            Log.info("bootstrap.done", "ready", outcomes.stream().filter(Outcome::ready).count(), "platforms", outcomes.size());
+        } finally {
+            Log.flush();
+        }
+    }
+}
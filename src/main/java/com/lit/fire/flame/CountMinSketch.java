@@ -0,0 +1,73 @@
+package com.lit.fire.flame;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A Count-Min sketch: depth rows of width counters, each row indexing an item by its own hash. An item's estimate is
+ * the smallest of its counters, never below its true count and, with probability 1 - e^-depth, above it by at most
+ * e·N/width, N being the number of items added. Memory is fixed at depth × width ints whatever the number of distinct
+ * items.
+ *
+ * Items are given as 64-bit hashes; the rows derive their indexes from its two halves (Kirsch-Mitzenmacher), so the
+ * hash should be well mixed.
+ */
+final class CountMinSketch {
+
+    final int depth;
+    final int width;
+    private final int mask;
+    final int[] counts;
+
+    /**
+     * @param width Rounded up to a power of two.
+     */
+    CountMinSketch(int depth, int width) {
+        this.depth = depth;
+        this.width = Integer.highestOneBit(Math.max(2, width) * 2 - 1);
+        this.mask = this.width - 1;
+        this.counts = new int[depth * this.width];
+    }
+
+    void add(long hash) {
+        for (int row = 0; row < depth; row++) {
+            counts[row * width + index(hash, row)]++;
+        }
+    }
+
+    int estimate(long hash) {
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[row * width + index(hash, row)]);
+        }
+        return estimate;
+    }
+
+    /**
+     * The estimate over several sketches of the same shape, as if they were one: the smallest of the item's row sums,
+     * which is never above the sum of the sketches' own estimates.
+     */
+    static long estimate(List<CountMinSketch> sketches, long hash) {
+        CountMinSketch shape = sketches.get(0);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < shape.depth; row++) {
+            int cell = row * shape.width + shape.index(hash, row);
+            long sum = 0;
+            for (CountMinSketch sketch : sketches) {
+                sum += sketch.counts[cell];
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    void clear() {
+        Arrays.fill(counts, 0);
+    }
+
+    private int index(long hash, int row) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        return (h1 + row * h2) & mask;
+    }
+}
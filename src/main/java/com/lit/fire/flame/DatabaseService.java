@@ -1,219 +1,425 @@
 package com.lit.fire.flame;
 
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.lit.fire.api.Annotations;
+import com.lit.fire.api.Comment;
+import com.lit.fire.api.Emotion;
+import com.lit.fire.api.Language;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Post;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.sql.Timestamp;
-import java.time.Instant;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 public class DatabaseService {
 
-    private static Properties loadDbProperties() throws Exception {
-        Properties properties = new Properties();
-        try (InputStream input = DatabaseService.class.getClassLoader().getResourceAsStream("secrets.properties")) {
-            if (input == null) {
-                System.out.println("Sorry, unable to find secrets.properties");
-                return null;
+    private static final int[] NOTHING_WRITTEN = new int[0];
+
+    /**
+     * The database settings, or null if no database is configured.
+     */
+    static Properties loadDbProperties() throws Exception {
+        Properties properties = AppProperties.secrets();
+        if (properties == null) {
+            // Allow running against a database given purely on the command line (e.g. benchmarks).
+            if (System.getProperty("db.url") != null) {
+                return new Properties();
             }
-            properties.load(input);
+            Log.warn("db.unconfigured", "resource", "secrets.properties");
         }
         return properties;
     }
 
-    public static void saveInstagramPosts(JsonArray posts, String keyword) throws Exception {
+    /**
+     * Opens a connection with the configured settings, for readers outside this class.
+     *
+     * @throws SQLException if no database is configured.
+     */
+    static Connection connect() throws Exception {
         Properties dbProperties = loadDbProperties();
         if (dbProperties == null) {
-            return;
+            throw new SQLException("No database configured");
         }
+        return openConnection(dbProperties);
+    }
 
-        String dbUrl = dbProperties.getProperty("db.url", "jdbc:postgresql://localhost:5432/aura");
-        String dbUser = dbProperties.getProperty("db.user", "postgres");
-        String dbPassword = dbProperties.getProperty("db.password", "postgres");
-
-        String sql = "INSERT INTO instagram_posts (id, text, media_type, media_url, permalink, timestamp, keyword, author, like_count, comments_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
-
-        try (Connection conn = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ");
-
-            for (JsonElement postElement : posts) {
-                JsonObject post = postElement.getAsJsonObject();
-
-                pstmt.setString(1, post.get("id").getAsString());
-                pstmt.setString(2, post.has("caption") ? post.get("caption").getAsString() : null);
-                pstmt.setString(3, post.get("media_type").getAsString());
-                pstmt.setString(4, post.has("media_url") ? post.get("media_url").getAsString() : null);
-                pstmt.setString(5, post.get("permalink").getAsString());
-
-                String timestampString = post.get("timestamp").getAsString();
-                ZonedDateTime zonedDateTime = ZonedDateTime.parse(timestampString, formatter);
-                pstmt.setTimestamp(6, Timestamp.from(zonedDateTime.toInstant()));
-                pstmt.setString(7, keyword);
-                pstmt.setString(8, post.has("username") ? post.get("username").getAsString() : null);
-                pstmt.setInt(9, post.has("like_count") ? post.get("like_count").getAsInt() : 0);
-                pstmt.setInt(10, post.has("comments_count") ? post.get("comments_count").getAsInt() : 0);
-
-                pstmt.addBatch();
-            }
-
-            pstmt.executeBatch();
-            System.out.println("Successfully saved " + posts.size() + " posts to the database.");
-
-        } catch (SQLException e) {
-            System.err.println("Database error: " + e.getMessage());
-            e.printStackTrace();
-        }
+    /**
+     * Opens a connection using the db.* settings, where a system property of the same name wins over secrets.properties.
+     */
+    static Connection openConnection(Properties dbProperties) throws SQLException {
+        String dbUrl = System.getProperty("db.url", dbProperties.getProperty("db.url", "jdbc:postgresql://localhost:5432/aura"));
+        String dbUser = System.getProperty("db.user", dbProperties.getProperty("db.user", "postgres"));
+        String dbPassword = System.getProperty("db.password", dbProperties.getProperty("db.password", "postgres"));
+        return DriverManager.getConnection(dbUrl, dbUser, dbPassword);
     }
 
-    public static void saveXPosts(JsonArray posts, String keyword) throws Exception {
+    /**
+     * Creates the mention tables if they do not exist yet, using the statements in schema.sql.
+     */
+    public static void applySchema() throws Exception {
         Properties dbProperties = loadDbProperties();
         if (dbProperties == null) {
             return;
         }
 
-        String dbUrl = dbProperties.getProperty("db.url", "jdbc:postgresql://localhost:5432/aura");
-        String dbUser = dbProperties.getProperty("db.user", "postgres");
-        String dbPassword = dbProperties.getProperty("db.password", "postgres");
-
-        String sql = "INSERT INTO x_posts (id, text, created_at, keyword, permalink, author, likes_count, comment_count) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
-
-        try (Connection conn = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            int savedPosts = 0;
-            for (JsonElement postElement : posts) {
-                JsonObject post = postElement.getAsJsonObject();
-
-                String text = post.has("text") ? post.get("text").getAsString() : null;
-                if (text != null && keyword != null && !keyword.isEmpty()) {
-                    java.util.regex.Pattern pattern = java.util.regex.Pattern.compile("@[\\w_]+");
-                    java.util.regex.Matcher matcher = pattern.matcher(text);
-                    boolean foundBadHandle = false;
-                    while (matcher.find()) {
-                        if (matcher.group().toLowerCase().contains(keyword.toLowerCase())) {
-                            foundBadHandle = true;
-                            break;
-                        }
-                    }
-                    if (foundBadHandle) {
-                        continue; // Skip this post
-                    }
-                }
+        String script;
+        try (InputStream input = DatabaseService.class.getClassLoader().getResourceAsStream("schema.sql")) {
+            if (input == null) {
+                throw new IllegalStateException("schema.sql not found on the classpath");
+            }
+            script = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
 
-                pstmt.setString(1, post.get("id").getAsString());
-                pstmt.setString(2, text);
-                
-                String timestampString = post.get("created_at").getAsString();
-                Instant instant = Instant.parse(timestampString);
-                pstmt.setTimestamp(3, Timestamp.from(instant));
-                pstmt.setString(4, keyword);
-                pstmt.setString(5, post.has("permalink") ? post.get("permalink").getAsString() : null);
-                pstmt.setString(6, post.has("author") ? post.get("author").getAsString() : null);
-                pstmt.setInt(7, post.has("likes_count") ? post.get("likes_count").getAsInt() : 0);
-                pstmt.setInt(8, post.has("comment_count") ? post.get("comment_count").getAsInt() : 0);
-
-                pstmt.addBatch();
-                savedPosts++;
+        try (Connection conn = openConnection(dbProperties);
+             Statement stmt = conn.createStatement()) {
+            for (String sql : splitStatements(script)) {
+                stmt.execute(sql);
             }
+        }
+    }
 
-            pstmt.executeBatch();
-            System.out.println("Successfully saved " + savedPosts + " posts to the database.");
+    /**
+     * Splits a SQL script on top-level semicolons, leaving $$-quoted bodies and -- comments intact.
+     */
+    static List<String> splitStatements(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inDollarQuote = false;
+        for (String line : script.split("\n")) {
+            String trimmed = line.trim();
+            if (!inDollarQuote && (trimmed.isEmpty() || trimmed.startsWith("--"))) {
+                continue;
+            }
+            current.append(line).append('\n');
+            int dollarQuotes = line.split("\\$\\$", -1).length - 1;
+            if (dollarQuotes % 2 == 1) {
+                inDollarQuote = !inDollarQuote;
+            }
+            if (!inDollarQuote && trimmed.endsWith(";")) {
+                statements.add(current.toString().trim());
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Database error: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * Writes a pipeline batch to the table for its platform.
+     *
+     * @return The mentions that were new and actually inserted; rows already stored are skipped by ON CONFLICT and
+     *         left out, so callers can count each mention once even though scans re-fetch recent results.
+     * @throws SQLException If the batch could not be written; nothing of it is stored.
+     */
+    public static MentionBatch save(MentionBatch batch) throws Exception {
+        int[] counts = switch (batch.platform()) {
+            case X -> saveXPosts(batch.as(Post.class), batch.annotations());
+            case INSTAGRAM -> saveInstagramPosts(batch.as(Post.class), batch.annotations());
+            case REDDIT -> RedditCommentCrawler.isComments(batch) ? saveRedditComments(batch.as(Comment.class), batch.annotations())
+                    : saveRedditPosts(batch.as(Post.class), batch.annotations());
+            case YOUTUBE -> saveYouTubeComments(batch.as(Comment.class), batch.annotations());
+        };
+        if (counts.length != batch.size()) {
+            return batch.withMentions(List.of());
         }
+        List<Mention> inserted = new ArrayList<>(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            if (wasInserted(counts[i])) {
+                inserted.add(batch.mentions().get(i));
+            }
+        }
+        return inserted.size() == batch.size() ? batch : batch.withMentions(inserted);
     }
 
-    public static void saveYouTubeComments(JsonArray comments, String keyword) throws Exception {
-        Properties dbProperties = loadDbProperties();
-        if (dbProperties == null) {
-            return;
+    private static int inserted(int[] counts) {
+        int inserted = 0;
+        for (int count : counts) {
+            if (wasInserted(count)) {
+                inserted++;
+            }
         }
+        return inserted;
+    }
 
-        String dbUrl = dbProperties.getProperty("db.url", "jdbc:postgresql://localhost:5432/aura");
-        String dbUser = dbProperties.getProperty("db.user", "postgres");
-        String dbPassword = dbProperties.getProperty("db.password", "postgres");
+    public static int[] saveInstagramPosts(List<Post> posts) throws Exception {
+        return saveInstagramPosts(posts, Annotations.NONE);
+    }
 
-        String sql = "INSERT INTO youtube_comments (id, video_id, video_title, text, author, published_at, permalink, keyword) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+    public static int[] saveInstagramPosts(List<Post> posts, Annotations annotations) throws Exception {
+        String sql = "INSERT INTO instagram_posts (id, text, media_type, media_url, permalink, timestamp, keyword, author, like_count, comments_count, cluster_id, sentiment, emotion, author_id, language, ts_config) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::regconfig) ON CONFLICT (id) DO NOTHING";
+        return insert(Platform.INSTAGRAM, sql, posts, annotations, 11, true, (pstmt, post) -> {
+            pstmt.setString(1, post.id());
+            pstmt.setString(2, post.text());
+            pstmt.setString(3, post.mediaType());
+            pstmt.setString(4, post.mediaUrl());
+            pstmt.setString(5, post.permalink());
+            pstmt.setTimestamp(6, new Timestamp(post.createdAtMillis()));
+            pstmt.setString(7, post.keyword());
+            pstmt.setString(8, storedAuthor(Platform.INSTAGRAM, post));
+            pstmt.setInt(9, post.engagement().likes());
+            pstmt.setInt(10, post.engagement().replies());
+        });
+    }
 
-        try (Connection conn = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    public static int[] saveXPosts(List<Post> posts) throws Exception {
+        return saveXPosts(posts, Annotations.NONE);
+    }
 
-            for (JsonElement commentElement : comments) {
-                JsonObject comment = commentElement.getAsJsonObject();
+    public static int[] saveXPosts(List<Post> posts, Annotations annotations) throws Exception {
+        String sql = "INSERT INTO x_posts (id, text, created_at, keyword, permalink, author, likes_count, comment_count, cluster_id, sentiment, emotion, author_id, language, ts_config) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::regconfig) ON CONFLICT (id) DO NOTHING";
+        return insert(Platform.X, sql, posts, annotations, 9, true, (pstmt, post) -> {
+            pstmt.setString(1, post.id());
+            pstmt.setString(2, post.text());
+            pstmt.setTimestamp(3, new Timestamp(post.createdAtMillis()));
+            pstmt.setString(4, post.keyword());
+            pstmt.setString(5, post.permalink());
+            pstmt.setString(6, storedAuthor(Platform.X, post));
+            pstmt.setInt(7, post.engagement().likes());
+            pstmt.setInt(8, post.engagement().replies());
+        });
+    }
 
-                pstmt.setString(1, comment.get("comment_id").getAsString());
-                pstmt.setString(2, comment.get("video_id").getAsString());
-                pstmt.setString(3, comment.get("video_title").getAsString());
-                pstmt.setString(4, comment.get("text").getAsString());
-                pstmt.setString(5, comment.get("author").getAsString());
+    public static int[] saveYouTubeComments(List<Comment> comments) throws Exception {
+        return saveYouTubeComments(comments, Annotations.NONE);
+    }
 
-                String timestampString = comment.get("published_at").getAsString();
-                Instant instant = Instant.parse(timestampString);
-                pstmt.setTimestamp(6, Timestamp.from(instant));
-                pstmt.setString(7, comment.get("permalink").getAsString());
-                pstmt.setString(8, keyword);
+    public static int[] saveYouTubeComments(List<Comment> comments, Annotations annotations) throws Exception {
+        String sql = "INSERT INTO youtube_comments (id, video_id, video_title, text, author, published_at, permalink, keyword, parent_id, likes_count, reply_count, cluster_id, sentiment, emotion, author_id, language, ts_config) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::regconfig) ON CONFLICT (id) DO NOTHING";
+        return insert(Platform.YOUTUBE, sql, comments, annotations, 12, true, (pstmt, comment) -> {
+            pstmt.setString(1, comment.id());
+            pstmt.setString(2, comment.contextId());
+            pstmt.setString(3, comment.contextTitle());
+            pstmt.setString(4, comment.text());
+            pstmt.setString(5, storedAuthor(Platform.YOUTUBE, comment));
+            pstmt.setTimestamp(6, new Timestamp(comment.createdAtMillis()));
+            pstmt.setString(7, comment.permalink());
+            pstmt.setString(8, comment.keyword());
+            pstmt.setString(9, comment.parentId());
+            pstmt.setInt(10, comment.engagement().likes());
+            pstmt.setInt(11, comment.engagement().replies());
+        });
+    }
 
-                pstmt.addBatch();
-            }
+    public static int[] saveRedditPosts(List<Post> posts) throws Exception {
+        return saveRedditPosts(posts, Annotations.NONE);
+    }
 
-            pstmt.executeBatch();
-            System.out.println("Successfully saved " + comments.size() + " comments to the database.");
+    public static int[] saveRedditPosts(List<Post> posts, Annotations annotations) throws Exception {
+        String sql = "INSERT INTO reddit_posts (id, title, text, created_at, keyword, permalink, author, score, num_comments, cluster_id, sentiment, emotion, author_id, language, ts_config) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::regconfig) ON CONFLICT (id) DO NOTHING";
+        return insert(Platform.REDDIT, sql, posts, annotations, 10, true, (pstmt, post) -> {
+            pstmt.setString(1, post.id());
+            pstmt.setString(2, post.title());
+            pstmt.setString(3, post.text());
+            pstmt.setTimestamp(4, new Timestamp(post.createdAtMillis()));
+            pstmt.setString(5, post.keyword());
+            pstmt.setString(6, post.permalink());
+            pstmt.setString(7, storedAuthor(Platform.REDDIT, post));
+            pstmt.setInt(8, post.engagement().likes());
+            pstmt.setInt(9, post.engagement().replies());
+        });
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Database error: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * The comment counts Reddit submissions had when their comments were last crawled.
+     *
+     * @return Counts by submission ID, missing for submissions never crawled; null if no database is configured.
+     */
+    public static Map<String, Integer> commentCrawlCounts(List<String> postIds) throws Exception {
+        Properties dbProperties = loadDbProperties();
+        if (dbProperties == null) {
+            return null;
+        }
+        Map<String, Integer> counts = new HashMap<>();
+        try (Connection conn = openConnection(dbProperties);
+             PreparedStatement pstmt = conn.prepareStatement("SELECT post_id, num_comments FROM reddit_comment_crawls WHERE post_id = ANY(?)")) {
+            pstmt.setArray(1, conn.createArrayOf("text", postIds.toArray()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    counts.put(rs.getString(1), rs.getInt(2));
+                }
+            }
         }
+        return counts;
     }
 
-    public static void saveRedditPosts(JsonArray posts, String keyword) throws Exception {
+    /**
+     * Records the comment count a submission had when its comments were crawled.
+     */
+    public static void recordCommentCrawl(String postId, int numComments) throws Exception {
         Properties dbProperties = loadDbProperties();
         if (dbProperties == null) {
             return;
         }
+        try (Connection conn = openConnection(dbProperties);
+             PreparedStatement pstmt = conn.prepareStatement("INSERT INTO reddit_comment_crawls (post_id, num_comments, crawled_at) VALUES (?, ?, now())"
+                     + " ON CONFLICT (post_id) DO UPDATE SET num_comments = EXCLUDED.num_comments, crawled_at = EXCLUDED.crawled_at")) {
+            pstmt.setString(1, postId);
+            pstmt.setInt(2, numComments);
+            pstmt.executeUpdate();
+        }
+    }
 
-        String dbUrl = dbProperties.getProperty("db.url", "jdbc:postgresql://localhost:5432/aura");
-        String dbUser = dbProperties.getProperty("db.user", "postgres");
-        String dbPassword = dbProperties.getProperty("db.password", "postgres");
+    /**
+     * Inserts crawled Reddit comments (see {@link RedditCommentCrawler}) into reddit_comments. Comments are not
+     * mentions of their own: they count towards no rollup and link to no tenant.
+     */
+    public static int[] saveRedditComments(List<Comment> comments, Annotations annotations) throws Exception {
+        String sql = "INSERT INTO reddit_comments (id, post_id, parent_id, text, author, created_at, permalink, score, keyword, cluster_id, sentiment, emotion, author_id, language, ts_config) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?::regconfig) ON CONFLICT (id) DO NOTHING";
+        return insert(Platform.REDDIT, sql, comments, annotations, 10, false, (pstmt, comment) -> {
+            pstmt.setString(1, comment.id());
+            pstmt.setString(2, comment.contextId());
+            pstmt.setString(3, comment.parentId());
+            pstmt.setString(4, comment.text());
+            pstmt.setString(5, storedAuthor(Platform.REDDIT, comment));
+            pstmt.setTimestamp(6, new Timestamp(comment.createdAtMillis()));
+            pstmt.setString(7, comment.permalink());
+            pstmt.setInt(8, comment.engagement().likes());
+            pstmt.setString(9, comment.keyword());
+        });
+    }
 
-        String sql = "INSERT INTO reddit_posts (id, title, text, created_at, keyword, permalink, author, score, num_comments) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+    /**
+     * Binds the platform-specific columns of one row; the annotation columns are bound by {@link #insert}.
+     */
+    private interface RowBinder<T extends Mention> {
+        void bind(PreparedStatement pstmt, T mention) throws SQLException;
+    }
 
-        try (Connection conn = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
+    /**
+     * Inserts the rows as one JDBC batch, updates the rollups and author counters for the rows that were new and links
+     * all rows to the tenants subscribed to their keyword, in a single transaction, so the rollups never drift from the
+     * raw tables.
+     *
+     * @param annotationIndex The parameter index of cluster_id, followed by sentiment, emotion, author_id, language and
+     *                        ts_config.
+     * @param mentionTable False for rows that are not mentions (crawled comments): no rollups, no tenant links.
+     * @return The executeBatch update counts; empty if there was nothing to write or no database is configured.
+     * @throws SQLException If the transaction failed and was rolled back, so callers never take the batch as stored.
+     */
+    private static <T extends Mention> int[] insert(Platform platform, String sql, List<T> mentions, Annotations annotations,
+                                                    int annotationIndex, boolean mentionTable, RowBinder<T> binder)
+            throws Exception {
+        Properties dbProperties = loadDbProperties();
+        if (dbProperties == null || mentions.isEmpty()) {
+            return NOTHING_WRITTEN;
+        }
+        String keyword = mentions.get(0).keyword();
+
+        IngestEvents.Persist event = new IngestEvents.Persist();
+        event.begin();
+        event.status = "failed";
+        long start = System.nanoTime();
+        try (Connection conn = openConnection(dbProperties);
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(false);
+            try {
+                long[] authorIds = Authors.resolve(conn, platform, mentions);
+                for (int i = 0; i < mentions.size(); i++) {
+                    binder.bind(pstmt, mentions.get(i));
+                    setAnnotations(pstmt, annotationIndex, annotations, i);
+                    setAuthorId(pstmt, annotationIndex + 3, authorIds[i]);
+                    setLanguage(pstmt, annotationIndex + 4, annotations, i);
+                    pstmt.addBatch();
+                }
 
-            for (JsonElement postElement : posts) {
-                JsonObject post = postElement.getAsJsonObject();
-
-                pstmt.setString(1, post.get("id").getAsString());
-                pstmt.setString(2, post.has("title") ? post.get("title").getAsString() : null);
-                pstmt.setString(3, post.has("text") ? post.get("text").getAsString() : null);
-                
-                long createdUtc = post.get("created_utc").getAsLong();
-                pstmt.setTimestamp(4, Timestamp.from(Instant.ofEpochSecond(createdUtc)));
-                pstmt.setString(5, keyword);
-                pstmt.setString(6, post.has("permalink") ? post.get("permalink").getAsString() : null);
-                pstmt.setString(7, post.has("author") ? post.get("author").getAsString() : null);
-                pstmt.setInt(8, post.has("score") ? post.get("score").getAsInt() : 0);
-                pstmt.setInt(9, post.has("num_comments") ? post.get("num_comments").getAsInt() : 0);
-
-                pstmt.addBatch();
+                int[] counts = pstmt.executeBatch();
+                if (mentionTable) {
+                    MentionRollups.apply(conn, platform, mentions, counts);
+                }
+                int flagged = Authors.record(conn, platform, mentions, authorIds, counts);
+                int linked = mentionTable ? Tenants.link(conn, platform, keyword, mentions) : 0;
+                conn.commit();
+                event.status = "ok";
+                event.inserted = inserted(counts);
+                event.tenantLinks = linked;
+                Log.info("db.saved", "platform", platform.id(), "keyword", keyword, "rows", mentions.size(), "inserted", inserted(counts),
+                        "tenant_links", linked, "bots_flagged", flagged, "latency_ms", (System.nanoTime() - start) / 1_000_000);
+                return counts;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
             }
+        } catch (SQLException e) {
+            Log.error("db.failed", e, "platform", platform.id(), "keyword", keyword);
+            throw e;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.platform = platform.id();
+                event.keyword = keyword;
+                event.rows = mentions.size();
+                event.commit();
+            }
+        }
+    }
 
-            pstmt.executeBatch();
-            System.out.println("Successfully saved " + posts.size() + " Reddit posts to the database.");
+    /**
+     * The author column value for a mention: the display label for X and YouTube, the handle for Instagram and Reddit.
+     */
+    static String storedAuthor(Platform platform, Mention mention) {
+        return switch (platform) {
+            case X, YOUTUBE -> mention.author().label();
+            case INSTAGRAM, REDDIT -> mention.author().handle();
+        };
+    }
 
-        } catch (SQLException e) {
-            System.err.println("Database error: " + e.getMessage());
-            e.printStackTrace();
+    /**
+     * With reWriteBatchedInserts the driver reports SUCCESS_NO_INFO instead of per-row counts; those rows are
+     * assumed new.
+     */
+    static boolean wasInserted(int updateCount) {
+        return updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO;
+    }
+
+    private static void setAuthorId(PreparedStatement pstmt, int index, long authorId) throws SQLException {
+        if (authorId != 0) {
+            pstmt.setLong(index, authorId);
+        } else {
+            pstmt.setNull(index, Types.BIGINT);
+        }
+    }
+
+    /**
+     * Binds language and ts_config: the identified language's tag, or NULL, and the configuration to index it with.
+     */
+    private static void setLanguage(PreparedStatement pstmt, int index, Annotations annotations, int i) throws SQLException {
+        Language language = annotations.language(i);
+        pstmt.setString(index, language != null ? language.tag() : null);
+        pstmt.setString(index + 1, LanguageId.tsConfig(language));
+    }
+
+    /**
+     * Binds cluster_id, sentiment and emotion, starting at parameter {@code index}; values not computed are NULL.
+     */
+    private static void setAnnotations(PreparedStatement pstmt, int index, Annotations annotations, int i) throws SQLException {
+        long clusterId = annotations.clusterId(i);
+        if (clusterId != 0) {
+            pstmt.setLong(index, clusterId);
+        } else {
+            pstmt.setNull(index, Types.BIGINT);
+        }
+        float sentiment = annotations.sentiment(i);
+        if (!Float.isNaN(sentiment)) {
+            pstmt.setFloat(index + 1, sentiment);
+        } else {
+            pstmt.setNull(index + 1, Types.REAL);
         }
+        Emotion emotion = annotations.emotion(i);
+        pstmt.setString(index + 2, emotion != null ? emotion.id() : null);
     }
 }
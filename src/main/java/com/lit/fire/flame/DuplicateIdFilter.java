@@ -0,0 +1,27 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Removes repeated IDs within a batch, which paged responses occasionally return, so sinks write each row once.
+ */
+public class DuplicateIdFilter implements BatchProcessor {
+
+    @Override
+    public MentionBatch process(MentionBatch batch) {
+        Set<String> seen = new HashSet<>(batch.size() * 2);
+        List<Mention> unique = new ArrayList<>(batch.size());
+        for (Mention mention : batch.mentions()) {
+            if (mention.id() != null && seen.add(mention.id())) {
+                unique.add(mention);
+            }
+        }
+        return unique.size() == batch.size() ? batch : batch.withMentions(unique);
+    }
+}
@@ -0,0 +1,72 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.MentionSink;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes every batch to several sinks in turn. The first is the primary: its failures fail the write, and what it
+ * reports as new is what the caller gets back. The others get the full batch; their failures are logged and do not
+ * stop the rest.
+ */
+public class FanOutSink implements MentionSink {
+
+    private final List<MentionSink> sinks;
+
+    public FanOutSink(List<MentionSink> sinks) {
+        if (sinks.isEmpty()) {
+            throw new IllegalArgumentException("A fan-out needs at least one sink");
+        }
+        this.sinks = List.copyOf(sinks);
+    }
+
+    @Override
+    public MentionBatch write(MentionBatch batch) throws Exception {
+        MentionBatch stored = sinks.get(0).write(batch);
+        for (int i = 1; i < sinks.size(); i++) {
+            try {
+                sinks.get(i).write(batch);
+            } catch (Exception e) {
+                Log.error("sink.failed", e, "sink", sinks.get(i).getClass().getSimpleName(), "keyword", batch.keyword());
+            }
+        }
+        return stored;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        forEach(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        forEach(true);
+    }
+
+    /**
+     * Flushes or closes every sink even if some fail, then rethrows the first failure.
+     */
+    private void forEach(boolean close) throws IOException {
+        IOException failure = null;
+        for (MentionSink sink : sinks) {
+            try {
+                if (close) {
+                    sink.close();
+                } else {
+                    sink.flush();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (failure == null) {
+                    failure = e instanceof IOException io ? io : new IOException(e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drops X posts that contain an @handle embedding the keyword, e.g. "@parasakthimovie" for "parasakthi".
+ * Such posts are usually the title's own promo accounts and are not counted as mentions. Text and keyword are compared
+ * normalized (see {@link TextNormalizer}), which also catches handles in styled or fullwidth letters.
+ */
+public class HandleFilter implements BatchProcessor {
+
+    private static final Pattern HANDLE = Pattern.compile("@[\\w_]+");
+
+    @Override
+    public MentionBatch process(MentionBatch batch) {
+        if (batch.platform() != Platform.X) {
+            return batch;
+        }
+        List<Mention> kept = new ArrayList<>(batch.size());
+        for (Mention mention : batch.mentions()) {
+            if (!mentionsKeywordHandle(mention.text(), mention.keyword())) {
+                kept.add(mention);
+            }
+        }
+        return kept.size() == batch.size() ? batch : batch.withMentions(kept);
+    }
+
+    static boolean mentionsKeywordHandle(String text, String keyword) {
+        if (text == null || keyword == null || keyword.isEmpty()) {
+            return false;
+        }
+        String normalizedKeyword = TextNormalizer.normalize(keyword);
+        if (normalizedKeyword.isEmpty()) {
+            return false;
+        }
+        Matcher matcher = HANDLE.matcher(TextNormalizer.normalize(text));
+        while (matcher.find()) {
+            if (matcher.group().contains(normalizedKeyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
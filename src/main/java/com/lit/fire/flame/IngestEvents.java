@@ -0,0 +1,142 @@
+package com.lit.fire.flame;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for the phases of a scan, so a recording shows whether a slow pass spends its time on
+ * platform requests, decoding, the batch processors or the database. Record them with the settings in aura.jfc and
+ * summarize the recording with {@link JfrSummary}.
+ *
+ * Callers follow the usual JFR pattern: create and {@code begin()} the event, do the work, and fill in the fields only
+ * if {@code shouldCommit()}. Unless a recording has the event enabled, that is a constant false the JIT folds away,
+ * and the event object never escapes, so instrumented code runs as fast as it did without.
+ */
+final class IngestEvents {
+
+    private static final ThreadLocal<String> KEYWORD = new ThreadLocal<>();
+
+    private IngestEvents() {
+    }
+
+    /**
+     * Marks the current thread as fetching a keyword, for the platform requests it makes; null clears it.
+     */
+    static void scanning(String keyword) {
+        if (keyword == null) {
+            KEYWORD.remove();
+        } else {
+            KEYWORD.set(keyword);
+        }
+    }
+
+    /**
+     * The keyword the current thread is fetching, or null.
+     */
+    static String scanningKeyword() {
+        return KEYWORD.get();
+    }
+
+    @Name("com.lit.fire.PlatformRequest")
+    @Label("Platform Request")
+    @Description("One HTTP request to a platform API, excluding the wait for its rate budget")
+    @Category({"Aura", "Ingest"})
+    @StackTrace(false)
+    static final class Request extends Event {
+        @Label("Platform")
+        String platform;
+        @Label("Keyword")
+        String keyword;
+        @Label("Path")
+        String path;
+        @Label("Status")
+        int status;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("com.lit.fire.Decode")
+    @Label("Decode")
+    @Description("Parsing one raw response into mentions")
+    @Category({"Aura", "Ingest"})
+    @StackTrace(false)
+    static final class Decode extends Event {
+        @Label("Platform")
+        String platform;
+        @Label("Keyword")
+        String keyword;
+        @Label("Bytes")
+        @DataAmount
+        long bytes;
+        @Label("Mentions")
+        int mentions;
+        @Label("Status")
+        String status;
+    }
+
+    @Name("com.lit.fire.Filter")
+    @Label("Filter")
+    @Description("One batch processor of the normalize, filter or enrich stage applied to a batch")
+    @Category({"Aura", "Ingest"})
+    @StackTrace(false)
+    static final class Filter extends Event {
+        @Label("Platform")
+        String platform;
+        @Label("Keyword")
+        String keyword;
+        @Label("Stage")
+        String stage;
+        @Label("Processor")
+        String processor;
+        @Label("Mentions In")
+        int mentionsIn;
+        @Label("Mentions Out")
+        int mentionsOut;
+    }
+
+    @Name("com.lit.fire.Persist")
+    @Label("Batch Persist")
+    @Description("Storing one batch in the database: the JDBC batch, rollups and tenant links in one transaction")
+    @Category({"Aura", "Ingest"})
+    @StackTrace(false)
+    static final class Persist extends Event {
+        @Label("Platform")
+        String platform;
+        @Label("Keyword")
+        String keyword;
+        @Label("Rows")
+        int rows;
+        @Label("Inserted")
+        int inserted;
+        @Label("Tenant Links")
+        int tenantLinks;
+        @Label("Status")
+        String status;
+    }
+
+    @Name("com.lit.fire.Dispatch")
+    @Label("Scheduler Dispatch")
+    @Description("A due keyword handed to the fetch stage, or held back because the fetch queue was full")
+    @Category({"Aura", "Scheduling"})
+    @StackTrace(false)
+    static final class Dispatch extends Event {
+        @Label("Platform")
+        String platform;
+        @Label("Keyword")
+        String keyword;
+        @Label("Priority")
+        String priority;
+        @Label("Lateness")
+        @Timespan(Timespan.MILLISECONDS)
+        long lateness;
+        @Label("Status")
+        String status;
+    }
+}
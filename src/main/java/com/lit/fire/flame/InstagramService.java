@@ -1,64 +1,51 @@
 package com.lit.fire.flame;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import com.lit.fire.api.SocialMediaScanner;
+import com.lit.fire.api.Author;
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.Keywords;
+import com.lit.fire.api.PagedFetch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+import com.lit.fire.api.RawResponse;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Properties;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
  * A client for searching Instagram posts using the Instagram Graph API.
  * Requires an Instagram Business Account and a User Access Token.
  */
-public class InstagramService implements SocialMediaScanner {
+public class InstagramService implements PagedFetch {
 
     private static String ACCESS_TOKEN;
     private static String INSTAGRAM_BUSINESS_ID;
-    private static final String GRAPH_API_URL = "https://graph.facebook.com/v24.0";
+    private static final String GRAPH_API_URL = AppProperties.getProperty("instagram.graph_api_url", "https://graph.facebook.com/v24.0");
     private static int numberOfPosts;
 
-    private static void loadConfig() throws Exception {
-        Properties properties = new Properties();
-        try (InputStream input = InstagramService.class.getClassLoader().getResourceAsStream("secrets.properties")) {
-            if (input == null) {
-                System.err.println("Error: Unable to find secrets.properties. Please ensure the file exists and contains the required API credentials.");
-                System.exit(1);
-            }
-            properties.load(input);
-        }
-
-        ACCESS_TOKEN = properties.getProperty("instagram.access_token");
-        INSTAGRAM_BUSINESS_ID = properties.getProperty("instagram.business_id");
+    private static void loadConfig() {
+        ACCESS_TOKEN = AppProperties.requireSecret("instagram.access_token");
+        INSTAGRAM_BUSINESS_ID = AppProperties.requireSecret("instagram.business_id");
         numberOfPosts = AppProperties.getIntProperty("number.of.posts", 10);
-
-        if (ACCESS_TOKEN == null || INSTAGRAM_BUSINESS_ID == null || ACCESS_TOKEN.equals("YOUR_USER_ACCESS_TOKEN") || INSTAGRAM_BUSINESS_ID.equals("YOUR_INSTAGRAM_BUSINESS_ID")) {
-            System.err.println("Error: Please configure your Instagram API credentials in the secrets.properties file.");
-            System.exit(1);
-        }
     }
 
     private static List<String> loadKeywords() throws Exception {
         List<String> keywords = new ArrayList<>();
         try (InputStream input = InstagramService.class.getClassLoader().getResourceAsStream("search_queries.txt")) {
             if (input == null) {
-                System.out.println("Sorry, unable to find search_queries.txt");
+                Log.warn("keywords.missing", "platform", "instagram", "resource", "search_queries.txt");
                 return keywords;
             }
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(input))) {
@@ -70,27 +57,93 @@ public class InstagramService implements SocialMediaScanner {
         return keywords;
     }
 
-    public static void search(String query) throws Exception {
+    @Override
+    public Platform platform() {
+        return Platform.INSTAGRAM;
+    }
+
+    @Override
+    public void init() throws Exception {
+        loadConfig();
+    }
+
+    @Override
+    public List<String> keywords() throws Exception {
+        return loadKeywords();
+    }
+
+    @Override
+    public String searchForm(String keyword) {
+        return Keywords.squash(keyword);
+    }
+
+    @Override
+    public List<RawResponse> fetch(String query) throws Exception {
         String hashtagId = getHashtagId(query);
-        if (hashtagId != null) {
-            System.out.println("Found Hashtag ID for '" + query + "': " + hashtagId);
-            getHashtagMedia(hashtagId, query);
+        if (hashtagId == null) {
+            return List.of();
         }
+        Log.debug("hashtag.resolved", "platform", "instagram", "keyword", query, "hashtag_id", hashtagId);
+        String body = getHashtagMedia(hashtagId, query);
+        return body == null ? List.of() : List.of(new RawResponse(Platform.INSTAGRAM, query, body));
     }
 
-    private static String getHashtagId(String query) throws Exception {
-        System.out.println("Searching for hashtag ID for '" + query + "'...");
+    /**
+     * Pages through the hashtag's recent_media (which covers the last 24 hours) with the Graph API after cursors. The
+     * cursor holds the hashtag ID resolved on the first page together with the after cursor.
+     */
+    @Override
+    public Page fetchPage(String query, String cursor) throws Exception {
+        String hashtagId;
+        String after = null;
+        if (cursor == null) {
+            hashtagId = getHashtagId(query);
+            if (hashtagId == null) {
+                return new Page(List.of(), null);
+            }
+        } else {
+            int separator = cursor.indexOf('|');
+            hashtagId = cursor.substring(0, separator);
+            after = cursor.substring(separator + 1);
+        }
+        String fields = "id,caption,media_type,media_url,permalink,timestamp,username,like_count,comments_count";
+        String mediaUrl = String.format("%s/%s/recent_media?user_id=%s&fields=%s&limit=50&access_token=%s",
+                GRAPH_API_URL, hashtagId, INSTAGRAM_BUSINESS_ID, fields, ACCESS_TOKEN);
+        if (after != null) {
+            mediaUrl += "&after=" + URLEncoder.encode(after, StandardCharsets.UTF_8);
+        }
+        String body = sendRequest(mediaUrl);
+        if (body == null) {
+            return new Page(List.of(), null);
+        }
+        JsonObject paging = JsonParser.parseString(body).getAsJsonObject().getAsJsonObject("paging");
+        String next = null;
+        if (paging != null && paging.has("next") && paging.has("cursors") && paging.getAsJsonObject("cursors").has("after")) {
+            next = hashtagId + "|" + paging.getAsJsonObject("cursors").get("after").getAsString();
+        }
+        return new Page(List.of(new RawResponse(Platform.INSTAGRAM, query, body)), next);
+    }
 
+    @Override
+    public List<Post> decode(RawResponse raw) {
+        JsonObject response = JsonParser.parseString(raw.body()).getAsJsonObject();
+        Log.payload("instagram", raw.keyword(), response);
+        return toPosts(response, raw.keyword());
+    }
+
+    private static String getHashtagId(String query) throws Exception {
         String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
         String searchUrl = String.format("%s/ig_hashtag_search?user_id=%s&q=%s&access_token=%s",
                 GRAPH_API_URL, INSTAGRAM_BUSINESS_ID, encodedQuery, ACCESS_TOKEN);
 
-        JsonObject response = sendRequest(searchUrl);
+        String body = sendRequest(searchUrl);
 
-        if (response == null) {
+        if (body == null) {
             return null;
         }
 
+        JsonObject response = JsonParser.parseString(body).getAsJsonObject();
+
         if (response.has("data")) {
             JsonArray data = response.getAsJsonArray("data");
             if (data.size() > 0) {
@@ -100,35 +153,50 @@ public class InstagramService implements SocialMediaScanner {
         return null;
     }
 
-    private static void getHashtagMedia(String hashtagId, String query) throws Exception {
-        System.out.println("\nRetrieving latest " + numberOfPosts + " posts for '" + query + "'...");
-
+    private static String getHashtagMedia(String hashtagId, String query) throws Exception {
         String fields = "id,caption,media_type,media_url,permalink,timestamp,username,like_count,comments_count";
         String mediaUrl = String.format("%s/%s/recent_media?user_id=%s&fields=%s&limit=%d&access_token=%s",
                 GRAPH_API_URL, hashtagId, INSTAGRAM_BUSINESS_ID, fields, numberOfPosts, ACCESS_TOKEN);
 
-        JsonObject response = sendRequest(mediaUrl);
-
-        System.out.println("Search successful. Found posts:");
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        System.out.println(gson.toJson(response));
+        long start = System.nanoTime();
+        String body = sendRequest(mediaUrl);
+        Log.info("search.completed", "platform", "instagram", "keyword", query, "bytes", body == null ? 0 : body.length(),
+                "latency_ms", (System.nanoTime() - start) / 1_000_000);
+        return body;
+    }
 
-        if (response != null && response.has("data")) {
-            DatabaseService.saveInstagramPosts(response.getAsJsonArray("data"), query);
+    /**
+     * Decodes a hashtag recent_media response into posts.
+     */
+    static List<Post> toPosts(JsonObject response, String keyword) {
+        JsonArray data = response.getAsJsonArray("data");
+        if (data == null) {
+            return List.of();
         }
+        List<Post> posts = new ArrayList<>(data.size());
+        for (JsonElement element : data) {
+            JsonObject media = element.getAsJsonObject();
+            Author author = media.has("username") ? new Author(null, media.get("username").getAsString(), null) : Author.UNKNOWN;
+            Engagement engagement = Engagement.of(media.has("like_count") ? media.get("like_count").getAsInt() : 0,
+                    media.has("comments_count") ? media.get("comments_count").getAsInt() : 0);
+            posts.add(new Post(Platform.INSTAGRAM, media.get("id").getAsString(), keyword, null,
+                    media.has("caption") ? media.get("caption").getAsString() : null, author,
+                    Timestamps.isoToMillis(media.get("timestamp").getAsString()), media.get("permalink").getAsString(), engagement,
+                    media.get("media_type").getAsString(), media.has("media_url") ? media.get("media_url").getAsString() : null));
+        }
+        return posts;
     }
 
-    private static JsonObject sendRequest(String url) throws Exception {
-        HttpClient client = HttpClient.newHttpClient();
+    private static String sendRequest(String url) throws Exception {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .GET()
                 .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = PlatformHttp.send("instagram", request);
 
         if (response.statusCode() == 200) {
-            return JsonParser.parseString(response.body()).getAsJsonObject();
+            return response.body();
         }
 
         if (response.statusCode() == 400) {
@@ -137,7 +205,7 @@ public class InstagramService implements SocialMediaScanner {
                 if (errorResponse.has("error")) {
                     JsonObject errorObject = errorResponse.getAsJsonObject("error");
                     if (errorObject.has("error_subcode") && errorObject.get("error_subcode").getAsInt() == 2207024) {
-                        System.err.println("API Error: " + errorObject.get("error_user_msg").getAsString());
+                        Log.warn("api.error", "platform", "instagram", "message", errorObject.get("error_user_msg").getAsString());
                         return null;
                     }
                 }
@@ -148,25 +216,4 @@ public class InstagramService implements SocialMediaScanner {
 
         throw new RuntimeException("API Request failed. Status: " + response.statusCode() + ", Body: " + response.body());
     }
-
-    @Override
-    public void scan() {
-        try {
-            loadConfig();
-            System.out.println("Initializing Instagram Search...");
-            List<String> keywords = loadKeywords();
-
-            for (String keyword : keywords) {
-                System.out.println("\nProcessing keyword: " + keyword);
-                search(keyword);
-                long delay = ThreadLocalRandom.current().nextLong(300000, 600001);
-                System.out.println(System.currentTimeMillis() + ": Waiting for " + (delay / 60000) + " minutes before the next keyword...");
-                Thread.sleep(delay);
-            }
-
-        } catch (Exception e) {
-            System.err.println("An unrecoverable error occurred during the process.");
-            e.printStackTrace();
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.lit.fire.flame;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Turns a flight recording into latency percentiles per scan phase and platform, from the {@link IngestEvents}:
+ * {@code java -cp <application classpath> com.lit.fire.flame.JfrSummary scan.jfr}.
+ *
+ * Every phase is timed by its event's duration, except dispatch, whose events are instants timed by how late the
+ * keyword was handed over. Filter rows are split by stage and processor. Failures are requests answered with a 4xx or
+ * 5xx, failed decodes and persists, and dispatches held back by a full fetch queue.
+ */
+public final class JfrSummary {
+
+    /**
+     * The summary of one phase on one platform.
+     *
+     * @param bytes Response bytes, for requests and decodes.
+     * @param mentions Mentions decoded, left by a processor or newly inserted.
+     */
+    public record Row(String phase, String platform, int count, double p50Millis, double p90Millis, double p99Millis,
+                      double maxMillis, long bytes, long mentions, long failed) {
+    }
+
+    private static final class Group {
+        long[] nanos = new long[64];
+        int count;
+        long bytes;
+        long mentions;
+        long failed;
+
+        void add(long value) {
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = value;
+        }
+    }
+
+    private JfrSummary() {
+    }
+
+    /**
+     * Reads the recording and summarizes it, ordered by phase and platform.
+     */
+    public static List<Row> summarize(Path recording) throws IOException {
+        Map<String, Group> groups = new TreeMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                String type = event.getEventType().getName();
+                if (!type.startsWith("com.lit.fire.")) {
+                    // JDK events recorded alongside.
+                    continue;
+                }
+                String platform = event.getString("platform");
+                switch (type) {
+                    case "com.lit.fire.PlatformRequest" -> {
+                        Group group = group(groups, "request", platform, event.getDuration().toNanos());
+                        group.bytes += event.getLong("bytes");
+                        group.failed += event.getInt("status") >= 400 ? 1 : 0;
+                    }
+                    case "com.lit.fire.Decode" -> {
+                        Group group = group(groups, "decode", platform, event.getDuration().toNanos());
+                        group.bytes += event.getLong("bytes");
+                        group.mentions += event.getInt("mentions");
+                        group.failed += "failed".equals(event.getString("status")) ? 1 : 0;
+                    }
+                    case "com.lit.fire.Filter" -> {
+                        String phase = "filter/" + event.getString("stage") + "/" + event.getString("processor");
+                        group(groups, phase, platform, event.getDuration().toNanos()).mentions += event.getInt("mentionsOut");
+                    }
+                    case "com.lit.fire.Persist" -> {
+                        Group group = group(groups, "persist", platform, event.getDuration().toNanos());
+                        group.mentions += event.getInt("inserted");
+                        group.failed += "failed".equals(event.getString("status")) ? 1 : 0;
+                    }
+                    case "com.lit.fire.Dispatch" -> {
+                        Group group = group(groups, "dispatch", platform, Math.max(0, event.getLong("lateness")) * 1_000_000L);
+                        group.failed += "queue_full".equals(event.getString("status")) ? 1 : 0;
+                    }
+                    default -> {
+                    }
+                }
+            }
+        }
+        List<Row> rows = new ArrayList<>(groups.size());
+        for (Map.Entry<String, Group> entry : groups.entrySet()) {
+            String[] key = entry.getKey().split("\t", 2);
+            Group group = entry.getValue();
+            long[] sorted = Arrays.copyOf(group.nanos, group.count);
+            Arrays.sort(sorted);
+            rows.add(new Row(key[0], key[1], group.count, millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+                    millis(percentile(sorted, 0.99)), millis(sorted[sorted.length - 1]), group.bytes, group.mentions, group.failed));
+        }
+        return rows;
+    }
+
+    private static Group group(Map<String, Group> groups, String phase, String platform, long nanos) {
+        Group group = groups.computeIfAbsent(phase + '\t' + platform, key -> new Group());
+        group.add(nanos);
+        return group;
+    }
+
+    /**
+     * The nearest-rank percentile of sorted values: the smallest value at least a fraction p of them do not exceed.
+     */
+    static long percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("Usage: JfrSummary <recording.jfr>");
+        }
+        System.out.printf("%-36s %-10s %8s %10s %10s %10s %10s %12s %9s %7s%n",
+                "phase", "platform", "count", "p50_ms", "p90_ms", "p99_ms", "max_ms", "bytes", "mentions", "failed");
+        for (Row row : summarize(Path.of(args[0]))) {
+            System.out.printf("%-36s %-10s %8d %10.2f %10.2f %10.2f %10.2f %12d %9d %7d%n", row.phase(), row.platform(), row.count(),
+                    row.p50Millis(), row.p90Millis(), row.p99Millis(), row.maxMillis(), row.bytes(), row.mentions(), row.failed());
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Language;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Identifies the language of normalized text (see {@link TextNormalizer}) without leaving the process.
+ *
+ * Text in an Indic or Arabic script is identified by its letters: each of those scripts is used by one language
+ * among the ones tracked (Arabic script by Urdu). Text in Latin script is English or a transliterated Indian language
+ * and goes to a character trigram model: the samples in language_profiles.txt are compiled at startup into one flat
+ * array of log-probabilities per language, indexed directly by the trigram's letters (a-z and word boundary, 27³
+ * cells), so scoring a text is a single pass of array reads.
+ *
+ * Texts too short to tell, without letters, or scoring almost alike for two languages are undetermined (null).
+ */
+final class LanguageId {
+
+    private static final String RESOURCE = "language_profiles.txt";
+    private static final int CELLS = 27 * 27 * 27;
+    /**
+     * Additive smoothing of the trigram counts, so trigrams missing from a sample don't rule its language out.
+     */
+    private static final double SMOOTHING = 0.1;
+    private static final int MIN_TRIGRAMS = 8;
+    /**
+     * The lead in log-probability per trigram the best language needs over the next.
+     */
+    private static final double MIN_MARGIN = 0.05;
+
+    private static final int LATIN = 0;
+    private static final Language[] SCRIPTS = {null, Language.HINDI, Language.BENGALI, Language.PUNJABI, Language.GUJARATI,
+            Language.ODIA, Language.TAMIL, Language.TELUGU, Language.KANNADA, Language.MALAYALAM, Language.URDU};
+
+    private static final Language[] LANGUAGES;
+    /**
+     * The log-probability of trigram t in language l at {@code l * CELLS + t}.
+     */
+    private static final float[] LOG_PROBS;
+
+    static {
+        List<Language> languages = new ArrayList<>();
+        List<int[]> counts = new ArrayList<>();
+        try (InputStream input = LanguageId.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing " + RESOURCE + " on the classpath");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                int tab = line.indexOf('\t');
+                Language language = tab > 0 ? byTag(line.substring(0, tab)) : null;
+                if (language == null) {
+                    throw new IllegalStateException(RESOURCE + ":" + lineNumber + ": malformed sample");
+                }
+                int index = languages.indexOf(language);
+                if (index < 0) {
+                    languages.add(language);
+                    counts.add(new int[CELLS]);
+                    index = languages.size() - 1;
+                }
+                int[] languageCounts = counts.get(index);
+                trigrams(TextNormalizer.normalize(line.substring(tab + 1)), trigram -> languageCounts[trigram]++);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LANGUAGES = languages.toArray(new Language[0]);
+        LOG_PROBS = new float[LANGUAGES.length * CELLS];
+        for (int l = 0; l < LANGUAGES.length; l++) {
+            long total = 0;
+            for (int count : counts.get(l)) {
+                total += count;
+            }
+            double denominator = Math.log(total + SMOOTHING * CELLS);
+            for (int t = 0; t < CELLS; t++) {
+                LOG_PROBS[l * CELLS + t] = (float) (Math.log(counts.get(l)[t] + SMOOTHING) - denominator);
+            }
+        }
+    }
+
+    private LanguageId() {
+    }
+
+    /**
+     * @param text Normalized text.
+     * @return The language, or null if undetermined.
+     */
+    static Language identify(CharSequence text) {
+        int[] scripts = new int[SCRIPTS.length];
+        int letters = 0;
+        for (int i = 0; i < text.length(); i++) {
+            int script = script(text.charAt(i));
+            if (script >= 0) {
+                scripts[script]++;
+                letters++;
+            }
+        }
+        if (letters == 0) {
+            return null;
+        }
+        int dominant = 0;
+        for (int s = 1; s < scripts.length; s++) {
+            if (scripts[s] > scripts[dominant]) {
+                dominant = s;
+            }
+        }
+        return dominant == LATIN ? identifyLatin(text) : SCRIPTS[dominant];
+    }
+
+    private static Language identifyLatin(CharSequence text) {
+        double[] scores = new double[LANGUAGES.length];
+        int n = trigrams(text, trigram -> {
+            for (int l = 0; l < scores.length; l++) {
+                scores[l] += LOG_PROBS[l * CELLS + trigram];
+            }
+        });
+        if (n < MIN_TRIGRAMS || scores.length == 0) {
+            return null;
+        }
+        int best = 0;
+        double second = Double.NEGATIVE_INFINITY;
+        for (int l = 1; l < scores.length; l++) {
+            if (scores[l] > scores[best]) {
+                second = scores[best];
+                best = l;
+            } else {
+                second = Math.max(second, scores[l]);
+            }
+        }
+        return (scores[best] - second) / n >= MIN_MARGIN ? LANGUAGES[best] : null;
+    }
+
+    private interface TrigramConsumer {
+        void accept(int trigram);
+    }
+
+    /**
+     * Feeds the trigrams of the text's Latin words, padded with a boundary on both sides, skipping @handles.
+     *
+     * @return The number of trigrams.
+     */
+    private static int trigrams(CharSequence text, TrigramConsumer consumer) {
+        int n = 0;
+        int previous = 0;
+        int current = 0;
+        boolean inWord = false;
+        boolean skipping = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            int letter = c >= 'a' && c <= 'z' ? c - 'a' + 1 : 0;
+            if (skipping) {
+                skipping = letter != 0 || c == '_' || (c >= '0' && c <= '9');
+                continue;
+            }
+            if (letter != 0) {
+                if (!inWord) {
+                    previous = 0;
+                    current = 0;
+                    inWord = true;
+                }
+                consumer.accept((previous * 27 + current) * 27 + letter);
+                n++;
+                previous = current;
+                current = letter;
+            } else {
+                if (inWord) {
+                    consumer.accept((previous * 27 + current) * 27);
+                    n++;
+                    inWord = false;
+                }
+                skipping = c == '@';
+            }
+        }
+        return n;
+    }
+
+    /**
+     * The index in {@link #SCRIPTS} of a letter's script, or -1 for other characters.
+     */
+    private static int script(char c) {
+        if (c < 0x80) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') ? LATIN : -1;
+        }
+        if (c >= 0x0600 && c <= 0x06FF) {
+            return 10;
+        }
+        if (c >= 0x0900 && c <= 0x0D7F) {
+            return 1 + (c - 0x0900) / 0x80;
+        }
+        return Character.isLetter(c) && Character.UnicodeScript.of(c) == Character.UnicodeScript.LATIN ? LATIN : -1;
+    }
+
+    private static Language byTag(String tag) {
+        for (Language language : Language.values()) {
+            if (language.tag().equals(tag)) {
+                return language;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The text search configuration rows in this language are indexed with: english for English and for texts too
+     * short to tell, simple (no stemming or stop words) for the languages Postgres has no configuration for.
+     */
+    static String tsConfig(Language language) {
+        return language == null || language == Language.ENGLISH ? "english" : "simple";
+    }
+}
@@ -0,0 +1,30 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Language;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+
+import java.util.List;
+
+/**
+ * Normalize stage processor that identifies the language of every mention (see {@link LanguageId}); the database
+ * sink stores it and indexes the row for search with the matching text search configuration.
+ *
+ * Each worker normalizes into its own reusable buffer, so a batch allocates little more than its code array.
+ */
+public class LanguageTagger implements BatchProcessor {
+
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    @Override
+    public MentionBatch process(MentionBatch batch) {
+        List<Mention> mentions = batch.mentions();
+        StringBuilder buffer = BUFFERS.get();
+        byte[] languages = new byte[mentions.size()];
+        for (int i = 0; i < languages.length; i++) {
+            Language language = LanguageId.identify(TextNormalizer.normalize(mentions.get(i).fullText(), buffer));
+            languages[i] = language != null ? language.code() : 0;
+        }
+        return batch.withAnnotations(batch.annotations().withLanguages(languages));
+    }
+}
@@ -0,0 +1,97 @@
+package com.lit.fire.flame;
+
+import com.google.gson.JsonElement;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Structured, asynchronous logging for the scan and persistence paths.
+ *
+ * Events are an event name plus key/value pairs, e.g.
+ * {@code Log.info("x.search", "keyword", query, "rows", posts.size(), "latency_ms", elapsed)}.
+ * Callers only enqueue the event into {@link AsyncLogAppender}'s ring buffer; formatting and I/O happen on the
+ * appender thread, and when the buffer is full the event is dropped and counted instead of blocking the caller.
+ *
+ * log.level                minimum level written (DEBUG, INFO, WARN, ERROR; default INFO)
+ * log.file                 append to this file instead of stdout
+ * log.buffer_size          ring buffer capacity, rounded up to a power of two (default 8192)
+ * log.payload.sample_rate  fraction of API responses dumped in full at DEBUG (default 0)
+ */
+public class Log {
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static volatile Level threshold = parseLevel(AppProperties.getProperty("log.level", "INFO"));
+    private static final double PAYLOAD_SAMPLE_RATE = AppProperties.getDoubleProperty("log.payload.sample_rate", 0.0);
+    private static final AsyncLogAppender APPENDER = AsyncLogAppender.start();
+
+    private Log() {
+    }
+
+    private static Level parseLevel(String value) {
+        try {
+            return Level.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level;
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold.ordinal();
+    }
+
+    public static void debug(String event, Object... keyValues) {
+        log(Level.DEBUG, event, null, keyValues);
+    }
+
+    public static void info(String event, Object... keyValues) {
+        log(Level.INFO, event, null, keyValues);
+    }
+
+    public static void warn(String event, Object... keyValues) {
+        log(Level.WARN, event, null, keyValues);
+    }
+
+    public static void error(String event, Throwable error, Object... keyValues) {
+        log(Level.ERROR, event, error, keyValues);
+    }
+
+    public static void log(Level level, String event, Throwable error, Object... keyValues) {
+        if (isEnabled(level)) {
+            APPENDER.offer(new AsyncLogAppender.LogEvent(System.currentTimeMillis(), level, Thread.currentThread().getName(), event, keyValues, error));
+        }
+    }
+
+    /**
+     * Dumps a full API response for a sampled fraction of calls. The payload is only serialized when it is sampled.
+     */
+    public static void payload(String platform, String keyword, JsonElement payload) {
+        if (payload == null || PAYLOAD_SAMPLE_RATE <= 0 || !isEnabled(Level.DEBUG)) {
+            return;
+        }
+        if (PAYLOAD_SAMPLE_RATE < 1.0 && ThreadLocalRandom.current().nextDouble() >= PAYLOAD_SAMPLE_RATE) {
+            return;
+        }
+        debug("payload", "platform", platform, "keyword", keyword, "body", payload.toString());
+    }
+
+    /**
+     * Number of events dropped because the ring buffer was full.
+     */
+    public static long droppedCount() {
+        return APPENDER.droppedCount();
+    }
+
+    /**
+     * Blocks until everything enqueued so far has been written. Meant for shutdown and tests, not the hot path.
+     */
+    public static void flush() {
+        APPENDER.drain();
+    }
+}
@@ -1,57 +1,128 @@
 package com.lit.fire.flame;
 
-import com.lit.fire.api.SocialMediaScanner;
-import java.util.ArrayList;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.MentionSink;
+import com.lit.fire.api.PagedFetch;
+import com.lit.fire.api.Platform;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class Main {
 
-    private static class ScannableService implements Runnable {
-        private final SocialMediaScanner scanner;
-        private final String name;
-        private long nextScanTime;
+    /**
+     * Scans the keywords of every platform on their schedules. With {@code --backfill [keyword ...]} it also backfills
+     * the given keywords (or all of them) alongside, sharing the scanners' rate budgets at low priority.
+     */
+    public static void main(String[] args) throws Exception {
+        if ("replay".equalsIgnoreCase(AppProperties.getProperty("traffic.mode", "live"))) {
+            // Serve recorded traffic locally and scan every keyword right away unless staggering was configured explicitly.
+            ReplayServer.startAll();
+            if (AppProperties.getProperty("scan.stagger") == null) {
+                System.setProperty("scan.stagger", "false");
+            }
+        }
+
+        // Platform clients start in the background while the database and sinks are set up.
+        CompletableFuture<List<Bootstrap.Outcome<PagedFetch>>> platforms = Bootstrap.init(Bootstrap.plugins(EnumSet.allOf(Platform.class)));
+
+        DatabaseService.applySchema();
 
-        public ScannableService(SocialMediaScanner scanner, String name) {
-            this.scanner = scanner;
-            this.name = name;
-            this.nextScanTime = System.currentTimeMillis();
+        MentionCounters counters = new MentionCounters();
+        try {
+            counters.rebuild();
+        } catch (Exception e) {
+            Log.error("counters.rebuild_failed", e);
         }
 
-        @Override
-        public void run() {
-            while (true) {
-                long sleepTime = nextScanTime - System.currentTimeMillis();
-                if (sleepTime > 0) {
-                    try {
-                        Thread.sleep(sleepTime);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }
+        MentionSink store = MentionSinks.fromConfig();
+        MentionLog mentionLog = MentionLog.open();
+        SpikeDetector spikes = new SpikeDetector(AlertSink.fromConfig());
+        TrendingTerms trending = new TrendingTerms();
+        trending.startSnapshots();
+        MentionArchive.startSchedule();
+        RedditCommentCrawler commentCrawler = new RedditCommentCrawler();
+
+        DuplicateIdFilter duplicateIds = new DuplicateIdFilter();
+        LanguageTagger languages = new LanguageTagger();
+        HandleFilter handles = new HandleFilter();
+        NearDuplicateTagger nearDuplicates = new NearDuplicateTagger();
+        SentimentTagger sentiment = new SentimentTagger();
 
+        Pipeline pipeline = Pipeline.builder()
+                .normalize(duplicateIds)
+                .normalize(languages)
+                .filter(handles)
+                .enrich(nearDuplicates)
+                .enrich(sentiment)
+                .sink(batch -> {
+                    MentionBatch saved = store.write(batch);
+                    if (RedditCommentCrawler.isComments(batch)) {
+                        // Comments are stored, not counted: counters, spikes, trending and the mention log follow the
+                        // mention tables.
+                        return;
+                    }
+                    counters.record(saved);
+                    spikes.record(saved);
+                    trending.record(saved);
+                    if (mentionLog != null) {
+                        mentionLog.append(saved);
+                    }
+                    commentCrawler.submit(batch);
+                })
+                .build();
+        pipeline.start();
+        commentCrawler.start(pipeline);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                pipeline.shutdown(10, TimeUnit.SECONDS);
+                store.close();
+            } catch (Exception e) {
+                Log.error("sink.close_failed", e);
+            }
+            if (mentionLog != null) {
                 try {
-                    System.out.println("Scanning " + name + "...");
-                    scanner.scan();
-                    System.out.println("Successfully scanned " + name + ".");
-                    nextScanTime = System.currentTimeMillis() + 60 * 60 * 1000; // 1 hour
-                } catch (Exception e) {
-                    System.err.println("An error occurred during " + name + " scanning: " + e.getMessage());
-                    e.printStackTrace();
-                    nextScanTime = System.currentTimeMillis() + 6 * 60 * 60 * 1000; // 6 hours
+                    mentionLog.close();
+                } catch (IOException e) {
+                    Log.error("mentionlog.close_failed", e);
                 }
             }
-        }
-    }
+            Log.flush();
+        }, "shutdown"));
 
-    public static void main(String[] args) {
-        List<ScannableService> services = new ArrayList<>();
-        services.add(new ScannableService(new InstagramService(), "Instagram"));
-        services.add(new ScannableService(new RedditAuthClientWithSearch(), "Reddit"));
-        services.add(new ScannableService(new XService(), "X"));
-        services.add(new ScannableService(new YouTubeMain(), "YouTube"));
+        ScanScheduler scheduler = new ScanScheduler(pipeline);
+        for (Bootstrap.Outcome<PagedFetch> platform : platforms.join()) {
+            // A platform that failed for another reason is retried at its next keyword refresh.
+            if (!platform.misconfigured()) {
+                scheduler.add(platform.plugin());
+            }
+        }
+        scheduler.start();
 
-        for (ScannableService service : services) {
-            new Thread(service).start();
+        if (args.length > 0 && "--backfill".equals(args[0])) {
+            // Historical mentions bypass the spike detector: their buckets are long closed. Trending skips those older
+            // than its window by itself, so a backfill reaching into the last hours still counts there.
+            Backfill backfill = new Backfill(List.of(duplicateIds, languages, handles, nearDuplicates, sentiment), batch -> {
+                MentionBatch saved = store.write(batch);
+                counters.record(saved);
+                trending.record(saved);
+                if (mentionLog != null) {
+                    mentionLog.append(saved);
+                }
+            }, false);
+            List<String> keywords = Arrays.asList(args).subList(1, args.length);
+            new Thread(() -> {
+                try {
+                    int failed = backfill.run(Bootstrap.plugins(EnumSet.allOf(Platform.class)), keywords);
+                    Log.info("backfill.done", "failed", failed);
+                } catch (Exception e) {
+                    Log.error("backfill.aborted", e);
+                }
+            }, "backfill").start();
         }
     }
 }
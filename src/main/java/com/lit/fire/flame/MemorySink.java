@@ -0,0 +1,69 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.MentionSink;
+import com.lit.fire.api.MentionSinkProvider;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps every batch in memory, for tests and benchmarks that should not need a database. Like the database, it
+ * treats a mention it already holds (same platform and ID) as not new.
+ */
+public class MemorySink implements MentionSink {
+
+    private final List<MentionBatch> batches = new ArrayList<>();
+    private final Set<String> seen = new HashSet<>();
+
+    @Override
+    public synchronized MentionBatch write(MentionBatch batch) {
+        List<Mention> added = new ArrayList<>(batch.size());
+        for (Mention mention : batch.mentions()) {
+            if (seen.add(batch.platform().id() + ':' + mention.id())) {
+                added.add(mention);
+            }
+        }
+        MentionBatch stored = added.size() == batch.size() ? batch : batch.withMentions(added);
+        if (!stored.isEmpty()) {
+            batches.add(stored);
+        }
+        return stored;
+    }
+
+    /**
+     * The batches written, each holding only the mentions that were new.
+     */
+    public synchronized List<MentionBatch> batches() {
+        return List.copyOf(batches);
+    }
+
+    /**
+     * The number of distinct mentions held.
+     */
+    public synchronized int size() {
+        return seen.size();
+    }
+
+    public synchronized void clear() {
+        batches.clear();
+        seen.clear();
+    }
+
+    public static final class Provider implements MentionSinkProvider {
+
+        @Override
+        public String name() {
+            return "memory";
+        }
+
+        @Override
+        public MentionSink create(UnaryOperator<String> settings) {
+            return new MemorySink();
+        }
+    }
+}
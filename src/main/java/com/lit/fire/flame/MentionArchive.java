@@ -0,0 +1,711 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Platform;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The cold tier: mentions older than archive.after_days, moved out of the four mention tables into immutable segment
+ * files under archive.dir, and read back merged with the rows still in Postgres by {@link MentionExporter} and
+ * {@link MentionSearch}, so Postgres only holds the working set.
+ *
+ * A segment holds one platform's rows of one time range (at most a UTC month) in (creation time, id) order, as a
+ * {@link MentionColumnFile}. Next to it, {@code <segment>.idx} records the range, the smallest and largest creation
+ * time and the rows per keyword, so readers skip segments without opening them. Segments hold the fields of a
+ * {@link MentionRow}, which is all readers need; {@code <segment>.rows.gz} keeps every archived row whole, every
+ * column but the generated search vector, as gzipped lines of JSON (Postgres' {@code to_jsonb}), so nothing is lost
+ * and a row can be put back with {@code jsonb_populate_record}.
+ *
+ * A range is archived in one repeatable-read transaction: its rows are streamed into the segment and the full rows
+ * file, both files and the segment's index (as {@code .idx.pending}) are made durable, the same rows and the range's
+ * rollup author sets are deleted, and only after the commit does the index get its final name. A run interrupted in
+ * between is settled by the next one: if the segment's last row is still in its table the delete never committed and
+ * the segment is dropped, otherwise the index is completed.
+ */
+public class MentionArchive {
+
+    /**
+     * A source of rows in (creation time, id) order.
+     */
+    interface RowCursor extends AutoCloseable {
+
+        /**
+         * The next row, or null at the end.
+         */
+        MentionRow next() throws IOException, SQLException;
+
+        @Override
+        default void close() throws IOException {
+        }
+    }
+
+    /**
+     * A segment as described by its index.
+     *
+     * @param fromMillis Inclusive start of the archived range.
+     * @param toMillis Exclusive end of the archived range.
+     * @param keywords Rows per keyword.
+     */
+    record Segment(Path file, Platform platform, long fromMillis, long toMillis, long minCreatedAt, long maxCreatedAt,
+                   long rows, String lastId, Map<String, Long> keywords) {
+
+        /**
+         * Whether the segment may hold rows for the keyword (null for any) created in [fromMillis, toMillis).
+         */
+        boolean covers(String keyword, long fromMillis, long toMillis) {
+            return (keyword == null || keywords.containsKey(keyword)) && maxCreatedAt >= fromMillis && minCreatedAt < toMillis;
+        }
+
+        void save(Path path) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("platform", platform.id());
+            properties.setProperty("from", Instant.ofEpochMilli(fromMillis).toString());
+            properties.setProperty("to", Instant.ofEpochMilli(toMillis).toString());
+            properties.setProperty("min_created_at", Instant.ofEpochMilli(minCreatedAt).toString());
+            properties.setProperty("max_created_at", Instant.ofEpochMilli(maxCreatedAt).toString());
+            properties.setProperty("rows", Long.toString(rows));
+            properties.setProperty("last_id", lastId);
+            for (Map.Entry<String, Long> keyword : keywords.entrySet()) {
+                properties.setProperty("keyword." + keyword.getKey(), Long.toString(keyword.getValue()));
+            }
+            try (OutputStream out = Files.newOutputStream(path)) {
+                properties.store(out, "MentionArchive segment");
+            }
+        }
+
+        static Segment load(Path path) throws IOException {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(path)) {
+                properties.load(in);
+            }
+            Map<String, Long> keywords = new TreeMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith("keyword.")) {
+                    keywords.put(name.substring("keyword.".length()), Long.parseLong(properties.getProperty(name)));
+                }
+            }
+            String file = path.getFileName().toString();
+            return new Segment(path.resolveSibling(file.substring(0, file.indexOf(".idx")) + SEGMENT_SUFFIX),
+                    Platform.fromId(properties.getProperty("platform")), millis(properties, "from"), millis(properties, "to"),
+                    millis(properties, "min_created_at"), millis(properties, "max_created_at"),
+                    Long.parseLong(properties.getProperty("rows")), properties.getProperty("last_id"), keywords);
+        }
+
+        private static long millis(Properties properties, String name) {
+            return Instant.parse(properties.getProperty(name)).toEpochMilli();
+        }
+    }
+
+    private static final String SEGMENT_SUFFIX = ".mcol";
+    private static final String FULL_ROWS_SUFFIX = SEGMENT_SUFFIX + ".rows.gz";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final String PENDING_SUFFIX = ".idx.pending";
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    /**
+     * The SQL side orders by (creation time, id COLLATE "C"): byte order, which is {@link String#compareTo}'s order for
+     * the ASCII IDs every platform uses.
+     */
+    private static final Comparator<MentionRow> ROW_ORDER = Comparator.comparingLong(MentionRow::createdAtMillis)
+            .thenComparing(MentionRow::id);
+
+    static Path dir() {
+        return Path.of(AppProperties.getProperty("archive.dir", "mention-archive"));
+    }
+
+    /**
+     * Archives every row created before the cutoff, rounded down to a UTC day, one platform and UTC month at a time.
+     * Whole days are archived so no hourly or daily rollup bucket is split between the archive and Postgres.
+     *
+     * @return The number of rows archived.
+     */
+    public static long archive(Path dir, Instant cutoff) throws Exception {
+        long end = cutoff.truncatedTo(ChronoUnit.DAYS).toEpochMilli();
+        long start = System.nanoTime();
+        long archived = 0;
+        try (Connection conn = DatabaseService.connect()) {
+            recover(conn, dir);
+            for (MentionTable source : MentionTable.values()) {
+                long floor = 0;
+                while (true) {
+                    Long oldest = oldest(conn, source, floor, end);
+                    if (oldest == null) {
+                        break;
+                    }
+                    ZonedDateTime month = Instant.ofEpochMilli(oldest).atZone(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS).withDayOfMonth(1);
+                    long from = month.toInstant().toEpochMilli();
+                    long to = Math.min(month.plusMonths(1).toInstant().toEpochMilli(), end);
+                    archived += archiveRange(conn, dir, source, from, to);
+                    floor = to;
+                }
+            }
+        }
+        Log.info("archive.completed", "dir", dir, "cutoff", Instant.ofEpochMilli(end), "rows", archived,
+                "latency_ms", (System.nanoTime() - start) / 1_000_000);
+        return archived;
+    }
+
+    private static Long oldest(Connection conn, MentionTable source, long floor, long cutoff) throws Exception {
+        conn.setAutoCommit(true);
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT min(" + source.timeColumn + ") FROM " + source.table
+                + " WHERE " + source.timeColumn + " >= ? AND " + source.timeColumn + " < ?")) {
+            pstmt.setTimestamp(1, new Timestamp(floor));
+            pstmt.setTimestamp(2, new Timestamp(cutoff));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+                return oldest != null ? oldest.getTime() : null;
+            }
+        }
+    }
+
+    private static long archiveRange(Connection conn, Path dir, MentionTable source, long from, long to) throws Exception {
+        Path platformDir = Files.createDirectories(dir.resolve(source.platform.id()));
+        String name = STAMP.format(Instant.ofEpochMilli(from)) + "-" + STAMP.format(Instant.ofEpochMilli(to)) + "-"
+                + System.currentTimeMillis();
+        Path temp = platformDir.resolve(name + SEGMENT_SUFFIX + ".tmp");
+        Path file = platformDir.resolve(name + SEGMENT_SUFFIX);
+        Path rowsTemp = platformDir.resolve(name + FULL_ROWS_SUFFIX + ".tmp");
+        Path rowsFile = platformDir.resolve(name + FULL_ROWS_SUFFIX);
+        Path pending = platformDir.resolve(name + PENDING_SUFFIX);
+
+        conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        conn.setAutoCommit(false);
+        boolean committed = false;
+        try {
+            Segment segment;
+            MentionExporter.Filter range = new MentionExporter.Filter(null, EnumSet.of(source.platform),
+                    Instant.ofEpochMilli(from), Instant.ofEpochMilli(to));
+            String fullRow = "to_jsonb(" + source.table + ".*) - 'search_vector' AS full_row";
+            try (PreparedStatement select = conn.prepareStatement(MentionExporter.buildSql(source, range, false, fullRow))) {
+                select.setFetchSize(AppProperties.getIntProperty("export.fetch_size", 1000));
+                select.setTimestamp(1, new Timestamp(from));
+                select.setTimestamp(2, new Timestamp(to));
+                try (ResultSet rs = select.executeQuery();
+                     Writer fullRows = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                             Files.newOutputStream(rowsTemp, StandardOpenOption.CREATE_NEW), 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+                    segment = writeSegment(temp, file, source.platform, from, to, () -> {
+                        if (!rs.next()) {
+                            return null;
+                        }
+                        fullRows.write(rs.getString("full_row"));
+                        fullRows.write('\n');
+                        return MentionExporter.read(source.platform, rs);
+                    });
+                }
+            }
+            if (segment.rows() == 0) {
+                Files.deleteIfExists(temp);
+                Files.deleteIfExists(rowsTemp);
+                conn.commit();
+                return 0;
+            }
+            sync(temp);
+            sync(rowsTemp);
+            Files.move(rowsTemp, rowsFile, StandardCopyOption.ATOMIC_MOVE);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            segment.save(pending);
+            sync(pending);
+
+            int deleted;
+            try (PreparedStatement delete = conn.prepareStatement("DELETE FROM " + source.table + " WHERE "
+                    + source.timeColumn + " >= ? AND " + source.timeColumn + " < ?")) {
+                delete.setTimestamp(1, new Timestamp(from));
+                delete.setTimestamp(2, new Timestamp(to));
+                deleted = delete.executeUpdate();
+            }
+            if (deleted != segment.rows()) {
+                throw new IllegalStateException("Archived " + segment.rows() + " rows of " + source.table + " but " + deleted
+                        + " matched the delete");
+            }
+            int pruned = MentionRollups.prune(conn, source.platform, from, to);
+            conn.commit();
+            committed = true;
+            Files.move(pending, platformDir.resolve(name + INDEX_SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+            Log.info("archive.segment", "platform", source.platform.id(), "from", Instant.ofEpochMilli(from),
+                    "to", Instant.ofEpochMilli(to), "rows", segment.rows(), "bytes", Files.size(file), "authors_pruned", pruned);
+            return segment.rows();
+        } catch (Exception e) {
+            if (committed) {
+                // The rows are only in the segment now; the next run completes its index.
+                throw e;
+            }
+            conn.rollback();
+            Files.deleteIfExists(pending);
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(temp);
+            Files.deleteIfExists(rowsFile);
+            Files.deleteIfExists(rowsTemp);
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+            conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        }
+    }
+
+    /**
+     * Forces a written file to disk, so the rows are durable before the transaction deletes them.
+     */
+    private static void sync(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Writes the rows to {@code temp}, to be moved to {@code file}, and describes them.
+     */
+    static Segment writeSegment(Path temp, Path file, Platform platform, long from, long to, RowCursor rows) throws Exception {
+        long count = 0;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        String lastId = null;
+        Map<String, Long> keywords = new TreeMap<>();
+        try (MentionColumnFile.Writer writer = new MentionColumnFile.Writer(FileChannel.open(temp,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE))) {
+            MentionRow row;
+            while ((row = rows.next()) != null) {
+                writer.write(row);
+                count++;
+                min = Math.min(min, row.createdAtMillis());
+                max = Math.max(max, row.createdAtMillis());
+                lastId = row.id();
+                if (row.keyword() != null) {
+                    keywords.merge(row.keyword(), 1L, Long::sum);
+                }
+            }
+        }
+        return new Segment(file, platform, from, to, min, max, count, lastId, keywords);
+    }
+
+    /**
+     * Settles segments left pending by an interrupted run and removes files no index refers to.
+     */
+    private static void recover(Connection conn, Path dir) throws Exception {
+        for (MentionTable source : MentionTable.values()) {
+            Path platformDir = dir.resolve(source.platform.id());
+            if (!Files.isDirectory(platformDir)) {
+                continue;
+            }
+            try (DirectoryStream<Path> pendings = Files.newDirectoryStream(platformDir, "*" + PENDING_SUFFIX)) {
+                for (Path pending : pendings) {
+                    Segment segment = Segment.load(pending);
+                    boolean committed;
+                    try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM " + source.table + " WHERE id = ?")) {
+                        pstmt.setString(1, segment.lastId());
+                        try (ResultSet rs = pstmt.executeQuery()) {
+                            committed = !rs.next();
+                        }
+                    }
+                    String name = pending.getFileName().toString();
+                    if (committed) {
+                        Files.move(pending, pending.resolveSibling(name.substring(0, name.length() - ".pending".length())),
+                                StandardCopyOption.ATOMIC_MOVE);
+                    } else {
+                        Files.delete(pending);
+                    }
+                    Log.info("archive.recovered", "segment", segment.file(), "committed", committed);
+                }
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(platformDir, "*" + SEGMENT_SUFFIX + "*")) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    String base = name.substring(0, name.indexOf(SEGMENT_SUFFIX));
+                    if (!Files.exists(file.resolveSibling(base + INDEX_SUFFIX))) {
+                        Files.delete(file);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The end of the archived time range of a platform, rounded up to a UTC day: rows before it may be in segments, and
+     * rows from it on are all in Postgres. 0 if nothing of the platform is archived.
+     */
+    static long archivedUntil(Path dir, Platform platform) throws IOException {
+        long until = 0;
+        for (Segment segment : segments(dir)) {
+            if (segment.platform() == platform) {
+                until = Math.max(until, segment.toMillis());
+            }
+        }
+        return until == 0 ? 0 : Math.ceilDiv(until, 86_400_000L) * 86_400_000L;
+    }
+
+    /**
+     * The complete segments under dir, newest data first.
+     */
+    static List<Segment> segments(Path dir) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        for (Platform platform : Platform.values()) {
+            Path platformDir = dir.resolve(platform.id());
+            if (!Files.isDirectory(platformDir)) {
+                continue;
+            }
+            try (DirectoryStream<Path> indexes = Files.newDirectoryStream(platformDir, "*" + INDEX_SUFFIX)) {
+                for (Path index : indexes) {
+                    segments.add(Segment.load(index));
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(Segment::maxCreatedAt).reversed());
+        return segments;
+    }
+
+    /**
+     * The archived rows of one platform matching the filter, in (creation time, id) order and after the given key.
+     *
+     * @param afterId With afterCreatedAt, the key of the last row already read; null to start at the beginning.
+     */
+    static RowCursor rows(Path dir, Platform platform, MentionExporter.Filter filter, long afterCreatedAt, String afterId)
+            throws IOException, SQLException {
+        long from = filter.from() != null ? filter.from().toEpochMilli() : Long.MIN_VALUE;
+        long to = filter.to() != null ? filter.to().toEpochMilli() : Long.MAX_VALUE;
+        List<RowCursor> cursors = new ArrayList<>();
+        for (Segment segment : segments(dir)) {
+            if (segment.platform() != platform || !segment.covers(filter.keyword(), from, to)
+                    || (afterId != null && segment.maxCreatedAt() < afterCreatedAt)) {
+                continue;
+            }
+            MentionColumnFile.Reader reader = new MentionColumnFile.Reader(Files.newInputStream(segment.file()));
+            cursors.add(new RowCursor() {
+                @Override
+                public MentionRow next() throws IOException {
+                    MentionRow row;
+                    while ((row = reader.next()) != null) {
+                        long createdAt = row.createdAtMillis();
+                        if (createdAt >= from && createdAt < to
+                                && (filter.keyword() == null || filter.keyword().equals(row.keyword()))
+                                && (afterId == null || createdAt > afterCreatedAt
+                                || (createdAt == afterCreatedAt && row.id().compareTo(afterId) > 0))) {
+                            return row;
+                        }
+                    }
+                    return null;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    reader.close();
+                }
+            });
+        }
+        return merge(cursors);
+    }
+
+    /**
+     * Merges cursors that are each in (creation time, id) order into one, keeping the first of rows with equal keys.
+     */
+    static RowCursor merge(List<RowCursor> cursors) throws IOException, SQLException {
+        record Head(MentionRow row, RowCursor cursor) {
+        }
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, cursors.size()), Comparator.comparing(Head::row, ROW_ORDER));
+        for (RowCursor cursor : cursors) {
+            MentionRow row = cursor.next();
+            if (row != null) {
+                heads.add(new Head(row, cursor));
+            }
+        }
+        return new RowCursor() {
+            private MentionRow last;
+
+            @Override
+            public MentionRow next() throws IOException, SQLException {
+                while (!heads.isEmpty()) {
+                    Head head = heads.poll();
+                    MentionRow following = head.cursor().next();
+                    if (following != null) {
+                        heads.add(new Head(following, head.cursor()));
+                    }
+                    if (last == null || ROW_ORDER.compare(head.row(), last) != 0) {
+                        last = head.row();
+                        return last;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public void close() throws IOException {
+                IOException failure = null;
+                for (RowCursor cursor : cursors) {
+                    try {
+                        cursor.close();
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+                if (failure != null) {
+                    throw failure;
+                }
+            }
+        };
+    }
+
+    /**
+     * The archived mentions matching a web search style query, in the search order and after the cursor, at most
+     * {@code limit} of them. Archived rows have no search vector: words and phrases are matched exactly on normalized
+     * text (no stemming), and every hit ranks 0, after any match still in Postgres.
+     *
+     * @param bound The last hit of a full page from Postgres, or null: only archived hits ordered before it can make
+     *              the merged page, so the scan stops at the first segment too old to hold one, and a relevance page
+     *              of positive-rank Postgres hits skips the archive altogether.
+     */
+    static List<MentionSearch.Hit> search(Path dir, String text, String keyword, Set<Platform> platforms,
+                                          MentionSearch.Order order, MentionSearch.Cursor after, MentionSearch.Hit bound,
+                                          int limit) throws IOException {
+        if (bound != null && order == MentionSearch.Order.RELEVANCE && bound.rank() > 0) {
+            return List.of();
+        }
+        SearchQuery query = SearchQuery.parse(text);
+        List<Segment> segments = segments(dir);
+        if (query == null || segments.isEmpty()) {
+            return List.of();
+        }
+        Comparator<MentionSearch.Hit> hitOrder = MentionSearch.order(order);
+        MentionSearch.Hit cursor = after != null ? new MentionSearch.Hit(Platform.fromCode(after.platformCode()), after.id(),
+                null, null, null, null, after.createdAtMillis(), null, after.rank()) : null;
+        // The best hits so far, worst on top.
+        PriorityQueue<MentionSearch.Hit> best = new PriorityQueue<>(limit + 1, hitOrder.reversed());
+        StringBuilder buffer = new StringBuilder(512);
+        for (Segment segment : segments) {
+            if (!platforms.contains(segment.platform()) || !segment.covers(keyword, Long.MIN_VALUE, Long.MAX_VALUE)) {
+                continue;
+            }
+            // Segments come newest first and every archived hit ranks alike, so older segments can't improve a full page,
+            // whether it is full of archived hits or of Postgres hits.
+            MentionSearch.Hit worst = best.size() == limit ? best.peek() : null;
+            if (bound != null && (worst == null || hitOrder.compare(bound, worst) < 0)) {
+                worst = bound;
+            }
+            if (worst != null && segment.maxCreatedAt() < worst.createdAtMillis()) {
+                break;
+            }
+            if (cursor != null && (order == MentionSearch.Order.RECENT || cursor.rank() <= 0)
+                    && segment.minCreatedAt() > cursor.createdAtMillis()) {
+                continue;
+            }
+            try (MentionColumnFile.Reader reader = new MentionColumnFile.Reader(Files.newInputStream(segment.file()))) {
+                MentionRow row;
+                while ((row = reader.next()) != null) {
+                    if ((keyword != null && !keyword.equals(row.keyword()))
+                            || !query.matches(SearchQuery.searchable(row.title(), row.text(), buffer).toString())) {
+                        continue;
+                    }
+                    MentionSearch.Hit hit = new MentionSearch.Hit(row.platform(), row.id(), row.keyword(), row.title(),
+                            row.text(), row.author(), row.createdAtMillis(), row.permalink(), 0f);
+                    if ((cursor != null && hitOrder.compare(hit, cursor) <= 0)
+                            || (bound != null && hitOrder.compare(hit, bound) >= 0)) {
+                        continue;
+                    }
+                    best.add(hit);
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+        }
+        List<MentionSearch.Hit> hits = new ArrayList<>(best);
+        hits.sort(hitOrder);
+        return hits;
+    }
+
+    /**
+     * A query in web search syntax, as websearch_to_tsquery reads it: words and "quoted phrases" are all required,
+     * "or" between two of them makes either enough, and a leading "-" excludes one.
+     */
+    static final class SearchQuery {
+
+        private record Term(String words, boolean excluded) {
+        }
+
+        /**
+         * Required groups; a group matches if any of its terms does.
+         */
+        private final List<List<Term>> groups;
+
+        private SearchQuery(List<List<Term>> groups) {
+            this.groups = groups;
+        }
+
+        /**
+         * @return The query, or null if it has no term to look for.
+         */
+        static SearchQuery parse(String text) {
+            List<List<Term>> groups = new ArrayList<>();
+            boolean joinNext = false;
+            boolean positive = false;
+            StringBuilder buffer = new StringBuilder();
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                    continue;
+                }
+                boolean excluded = c == '-';
+                if (excluded) {
+                    i++;
+                }
+                int end;
+                String raw;
+                if (i < text.length() && text.charAt(i) == '"') {
+                    end = text.indexOf('"', i + 1);
+                    end = end < 0 ? text.length() : end;
+                    raw = text.substring(i + 1, end);
+                    end++;
+                } else {
+                    end = i;
+                    while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+                        end++;
+                    }
+                    raw = text.substring(i, end);
+                }
+                i = end;
+                if (!excluded && raw.equalsIgnoreCase("or")) {
+                    joinNext = !groups.isEmpty();
+                    continue;
+                }
+                String words = searchable(null, raw, buffer).toString();
+                if (words.isEmpty()) {
+                    continue;
+                }
+                Term term = new Term(words, excluded);
+                positive |= !excluded;
+                if (joinNext) {
+                    groups.get(groups.size() - 1).add(term);
+                } else {
+                    groups.add(new ArrayList<>(List.of(term)));
+                }
+                joinNext = false;
+            }
+            return positive ? new SearchQuery(groups) : null;
+        }
+
+        boolean matches(String searchable) {
+            for (List<Term> group : groups) {
+                boolean any = false;
+                for (Term term : group) {
+                    if (containsWords(searchable, term.words()) != term.excluded()) {
+                        any = true;
+                        break;
+                    }
+                }
+                if (!any) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Title and text normalized (see {@link TextNormalizer}) down to words separated by single spaces.
+         */
+        static StringBuilder searchable(String title, String text, StringBuilder out) {
+            TextNormalizer.normalize(title != null ? title + " " + text : text, out);
+            int length = 0;
+            for (int i = 0; i < out.length(); i++) {
+                char c = out.charAt(i);
+                if (Words.isWordChar(c)) {
+                    out.setCharAt(length++, c);
+                } else if (length > 0 && out.charAt(length - 1) != ' ') {
+                    out.setCharAt(length++, ' ');
+                }
+            }
+            if (length > 0 && out.charAt(length - 1) == ' ') {
+                length--;
+            }
+            out.setLength(length);
+            return out;
+        }
+
+        private static boolean containsWords(String haystack, String words) {
+            for (int i = haystack.indexOf(words); i >= 0; i = haystack.indexOf(words, i + 1)) {
+                int end = i + words.length();
+                if ((i == 0 || haystack.charAt(i - 1) == ' ') && (end == haystack.length() || haystack.charAt(end) == ' ')) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Archives every archive.interval_hours in the background; a no-op while that is 0, the default, which leaves
+     * archiving to {@link #main}.
+     */
+    public static void startSchedule() {
+        long intervalMillis = AppProperties.getIntProperty("archive.interval_hours", 0) * 3_600_000L;
+        if (intervalMillis <= 0) {
+            return;
+        }
+        Thread archiver = new Thread(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(intervalMillis);
+                    try {
+                        archive(dir(), Instant.now().minus(AppProperties.getIntProperty("archive.after_days", 120), ChronoUnit.DAYS));
+                    } catch (Exception e) {
+                        Log.error("archive.failed", e);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Shutting down
+            }
+        }, "archiver");
+        archiver.setDaemon(true);
+        archiver.start();
+    }
+
+    /**
+     * {@code MentionArchive [--dir <dir>] [--before <instant>]}: archives the mentions created before the given
+     * instant, by default archive.after_days ago.
+     */
+    public static void main(String[] args) throws Exception {
+        Path dir = dir();
+        Instant cutoff = Instant.now().minus(AppProperties.getIntProperty("archive.after_days", 120), ChronoUnit.DAYS);
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--dir" -> dir = Path.of(args[++i]);
+                case "--before" -> cutoff = Instant.parse(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        try {
+            archive(dir, cutoff);
+        } finally {
+            Log.flush();
+        }
+    }
+}
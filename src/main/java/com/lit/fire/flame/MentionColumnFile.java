@@ -0,0 +1,362 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Platform;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A compressed columnar file of {@link MentionRow}s.
+ *
+ * The file is a header followed by row groups of up to {@link #GROUP_ROWS} rows. Each group stores every column as
+ * its own deflated block, so similar values sit together: strings are length-prefixed UTF-8, creation times are
+ * zigzag varint deltas, counts are varints and sentiment and cluster ids are fixed width. There is no footer, so a
+ * file is readable after any complete group and can be truncated to a group boundary and appended to.
+ *
+ * Layout, big-endian:
+ * <pre>
+ *   file   = "MCOL" version:int group*
+ *   group  = "MCRG" rows:int block[COLUMNS]
+ *   block  = rawLength:int compressedLength:int deflated-bytes
+ * </pre>
+ */
+final class MentionColumnFile {
+
+    static final int GROUP_ROWS = 4096;
+
+    private static final int FILE_MAGIC = 0x4D434F4C;
+    private static final int GROUP_MAGIC = 0x4D435247;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 8;
+
+    private static final int PLATFORM = 0;
+    private static final int ID = 1;
+    private static final int KEYWORD = 2;
+    private static final int CREATED_AT = 3;
+    private static final int AUTHOR = 4;
+    private static final int TITLE = 5;
+    private static final int TEXT = 6;
+    private static final int PERMALINK = 7;
+    private static final int LIKES = 8;
+    private static final int REPLIES = 9;
+    private static final int SENTIMENT = 10;
+    private static final int EMOTION = 11;
+    private static final int CLUSTER_ID = 12;
+    private static final int COLUMNS = 13;
+
+    private MentionColumnFile() {
+    }
+
+    static final class Writer implements MentionRowWriter {
+
+        private final ChannelOutput out;
+        private final Column[] columns = new Column[COLUMNS];
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private byte[] compressed = new byte[1 << 16];
+        private int rows;
+        private long previousCreatedAt;
+
+        /**
+         * Writes to the channel's current position; the header is written first if that is the start of the file.
+         */
+        Writer(FileChannel channel) throws IOException {
+            this.out = new ChannelOutput(channel, 1 << 16);
+            for (int i = 0; i < COLUMNS; i++) {
+                columns[i] = new Column();
+            }
+            if (channel.position() == 0) {
+                out.putInt(FILE_MAGIC);
+                out.putInt(VERSION);
+            } else if (channel.position() < HEADER_BYTES) {
+                throw new IOException("Cannot append to a columnar file without a complete header");
+            }
+        }
+
+        @Override
+        public void write(MentionRow row) throws IOException {
+            columns[PLATFORM].writeByte(row.platform().code());
+            columns[ID].writeString(row.id());
+            columns[KEYWORD].writeString(row.keyword());
+            columns[CREATED_AT].writeVarLong(zigzag(row.createdAtMillis() - previousCreatedAt));
+            previousCreatedAt = row.createdAtMillis();
+            columns[AUTHOR].writeString(row.author());
+            columns[TITLE].writeString(row.title());
+            columns[TEXT].writeString(row.text());
+            columns[PERMALINK].writeString(row.permalink());
+            columns[LIKES].writeVarLong(zigzag(row.likes()));
+            columns[REPLIES].writeVarLong(zigzag(row.replies()));
+            columns[SENTIMENT].writeInt(Float.floatToIntBits(row.sentiment()));
+            columns[EMOTION].writeString(row.emotion());
+            columns[CLUSTER_ID].writeLong(row.clusterId());
+            if (++rows == GROUP_ROWS) {
+                writeGroup();
+            }
+        }
+
+        private void writeGroup() throws IOException {
+            if (rows == 0) {
+                return;
+            }
+            out.putInt(GROUP_MAGIC);
+            out.putInt(rows);
+            for (Column column : columns) {
+                deflater.reset();
+                deflater.setInput(column.bytes, 0, column.length);
+                deflater.finish();
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    }
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+                out.putInt(column.length);
+                out.putInt(length);
+                out.put(compressed, 0, length);
+                column.length = 0;
+            }
+            rows = 0;
+            previousCreatedAt = 0;
+        }
+
+        /**
+         * Ends the current row group early, so the position returned is a group boundary.
+         */
+        @Override
+        public long checkpoint() throws IOException {
+            writeGroup();
+            return out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writeGroup();
+                out.close();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Reads the rows of a file in order, one row group in memory at a time.
+     */
+    static final class Reader implements AutoCloseable {
+
+        private final DataInputStream in;
+        private final Column[] columns = new Column[COLUMNS];
+        private final Inflater inflater = new Inflater();
+        private byte[] compressed = new byte[1 << 16];
+        private int remaining;
+        private long previousCreatedAt;
+
+        Reader(InputStream input) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(input, 1 << 16));
+            for (int i = 0; i < COLUMNS; i++) {
+                columns[i] = new Column();
+            }
+            if (in.readInt() != FILE_MAGIC) {
+                throw new IOException("Not a mention columnar file");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported columnar file version " + version);
+            }
+        }
+
+        /**
+         * The next row, or null at the end of the file.
+         */
+        MentionRow next() throws IOException {
+            if (remaining == 0 && !readGroup()) {
+                return null;
+            }
+            remaining--;
+            long createdAt = previousCreatedAt + unzigzag(columns[CREATED_AT].readVarLong());
+            previousCreatedAt = createdAt;
+            Platform platform = Platform.fromCode(columns[PLATFORM].readByte());
+            return new MentionRow(platform, columns[ID].readString(), columns[KEYWORD].readString(), createdAt,
+                    columns[AUTHOR].readString(), columns[TITLE].readString(), columns[TEXT].readString(),
+                    columns[PERMALINK].readString(), (int) unzigzag(columns[LIKES].readVarLong()),
+                    (int) unzigzag(columns[REPLIES].readVarLong()), Float.intBitsToFloat(columns[SENTIMENT].readInt()),
+                    columns[EMOTION].readString(), columns[CLUSTER_ID].readLong());
+        }
+
+        private boolean readGroup() throws IOException {
+            int magic;
+            try {
+                magic = in.readInt();
+            } catch (EOFException end) {
+                return false;
+            }
+            if (magic != GROUP_MAGIC) {
+                throw new IOException("Corrupt columnar file: bad row group marker");
+            }
+            remaining = in.readInt();
+            previousCreatedAt = 0;
+            for (Column column : columns) {
+                int rawLength = in.readInt();
+                int length = in.readInt();
+                if (compressed.length < length) {
+                    compressed = new byte[Math.max(length, compressed.length * 2)];
+                }
+                in.readFully(compressed, 0, length);
+                column.reset(rawLength);
+                inflater.reset();
+                inflater.setInput(compressed, 0, length);
+                try {
+                    if (inflater.inflate(column.bytes, 0, rawLength) != rawLength) {
+                        throw new IOException("Corrupt columnar file: short column block");
+                    }
+                } catch (DataFormatException e) {
+                    throw new IOException("Corrupt columnar file", e);
+                }
+            }
+            return remaining > 0 || readGroup();
+        }
+
+        @Override
+        public void close() throws IOException {
+            inflater.end();
+            in.close();
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * A growable byte buffer with a read cursor; written by the writer, filled and consumed by the reader.
+     */
+    private static final class Column {
+
+        byte[] bytes = new byte[1 << 12];
+        int length;
+        private int position;
+
+        void reset(int size) {
+            if (bytes.length < size) {
+                bytes = new byte[Math.max(size, bytes.length * 2)];
+            }
+            length = size;
+            position = 0;
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(length + extra, bytes.length * 2));
+            }
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[length++] = (byte) value;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            for (int shift = 24; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                bytes[length++] = (byte) (value >>> shift);
+            }
+        }
+
+        /**
+         * Length + 1 as a varint, then the UTF-8 bytes; a null string is a single 0.
+         */
+        void writeString(String value) {
+            if (value == null) {
+                writeVarLong(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length + 1L);
+            ensure(utf8.length);
+            System.arraycopy(utf8, 0, bytes, length, utf8.length);
+            length += utf8.length;
+        }
+
+        byte readByte() throws IOException {
+            check(1);
+            return bytes[position++];
+        }
+
+        long readVarLong() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Corrupt columnar file: varint too long");
+        }
+
+        int readInt() throws IOException {
+            check(4);
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        long readLong() throws IOException {
+            check(8);
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (bytes[position++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() throws IOException {
+            long prefix = readVarLong();
+            if (prefix == 0) {
+                return null;
+            }
+            int size = (int) (prefix - 1);
+            check(size);
+            String value = new String(bytes, position, size, StandardCharsets.UTF_8);
+            position += size;
+            return value;
+        }
+
+        private void check(int size) throws IOException {
+            if (position + size > length) {
+                throw new IOException("Corrupt columnar file: column ends early");
+            }
+        }
+    }
+}
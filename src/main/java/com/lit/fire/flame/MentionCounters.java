@@ -0,0 +1,240 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Keywords;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Live mention counts and engagement sums per keyword and platform over the last 24 hours, kept in memory as batches
+ * are stored, so dashboards can read "mentions in the last hour" without touching the database.
+ *
+ * Keywords are counted by their {@link Keywords#squash key}, like {@link TrendingTerms} and {@link Tenants} do, so
+ * "Tere Ishq Mein" and "tereishqmein" share one count. Each (keyword, platform) has a ring of 1440 minute buckets indexed by the mention's creation minute. A bucket still
+ * holding an older minute is replaced with a fresh one by compare-and-set, so writers never lock and a slot is
+ * recycled the first time its minute comes round again. Counts are LongAdders, so concurrent sink workers don't
+ * contend. Reads sum the buckets inside the window: at most 1440 array reads, independent of the data volume.
+ *
+ * Only newly inserted mentions should be recorded (see {@link DatabaseService#save}); {@link #rebuild()} restores the
+ * last 24 hours from the tables after a restart.
+ */
+public class MentionCounters {
+
+    static final int MINUTES = 24 * 60;
+    private static final long MILLIS_PER_MINUTE = 60_000;
+
+    /**
+     * Totals over a window.
+     *
+     * @param likes Summed likes (net score for Reddit) at fetch time.
+     * @param replies Summed replies or comments at fetch time.
+     */
+    public record Totals(long mentions, long likes, long replies) {
+    }
+
+    private static final class Bucket {
+        final long minute;
+        final LongAdder mentions = new LongAdder();
+        final LongAdder likes = new LongAdder();
+        final LongAdder replies = new LongAdder();
+
+        Bucket(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    private static final class Window {
+        final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(MINUTES);
+
+        /**
+         * The bucket for {@code minute}, recycling its slot if it holds an older minute; null if the slot already
+         * holds a newer one, meaning {@code minute} has left the window.
+         */
+        Bucket bucket(long minute) {
+            int slot = (int) Math.floorMod(minute, (long) MINUTES);
+            while (true) {
+                Bucket bucket = buckets.get(slot);
+                if (bucket != null && bucket.minute == minute) {
+                    return bucket;
+                }
+                if (bucket != null && bucket.minute > minute) {
+                    return null;
+                }
+                Bucket fresh = new Bucket(minute);
+                if (buckets.compareAndSet(slot, bucket, fresh)) {
+                    return fresh;
+                }
+            }
+        }
+
+        Bucket peek(long minute) {
+            Bucket bucket = buckets.get((int) Math.floorMod(minute, (long) MINUTES));
+            return bucket != null && bucket.minute == minute ? bucket : null;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Window[]> windows = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public MentionCounters() {
+        this(System::currentTimeMillis);
+    }
+
+    MentionCounters(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Counts the mentions of a stored batch.
+     */
+    public void record(MentionBatch batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Window window = window(batch.keyword(), batch.platform());
+        long now = currentMinute();
+        for (Mention mention : batch.mentions()) {
+            add(window, now, mention.createdAtMillis() / MILLIS_PER_MINUTE, 1,
+                    mention.engagement().likes(), mention.engagement().replies());
+        }
+    }
+
+    /**
+     * Mention and engagement totals over the last {@code period} (at most 24 hours), for one platform or, with a null
+     * platform, all of them.
+     *
+     * @param keyword In any platform's form; compared by its key.
+     */
+    public Totals totals(String keyword, Platform platform, Duration period) {
+        Window[] byPlatform = windows.get(Keywords.squash(keyword));
+        if (byPlatform == null) {
+            return new Totals(0, 0, 0);
+        }
+        long now = currentMinute();
+        long from = now - Math.min(MINUTES, Math.max(1, period.toMinutes())) + 1;
+        long mentions = 0;
+        long likes = 0;
+        long replies = 0;
+        for (Platform p : Platform.values()) {
+            if (platform != null && p != platform) {
+                continue;
+            }
+            Window window = byPlatform[p.code()];
+            for (long minute = from; minute <= now; minute++) {
+                Bucket bucket = window.peek(minute);
+                if (bucket != null) {
+                    mentions += bucket.mentions.sum();
+                    likes += bucket.likes.sum();
+                    replies += bucket.replies.sum();
+                }
+            }
+        }
+        return new Totals(mentions, likes, replies);
+    }
+
+    /**
+     * Mentions per minute over the last {@code minutes} minutes, oldest first, e.g. for a sparkline.
+     */
+    public long[] perMinute(String keyword, Platform platform, int minutes) {
+        minutes = Math.min(MINUTES, Math.max(1, minutes));
+        long[] series = new long[minutes];
+        Window[] byPlatform = windows.get(Keywords.squash(keyword));
+        if (byPlatform == null) {
+            return series;
+        }
+        long from = currentMinute() - minutes + 1;
+        for (Platform p : Platform.values()) {
+            if (platform != null && p != platform) {
+                continue;
+            }
+            for (int i = 0; i < minutes; i++) {
+                Bucket bucket = byPlatform[p.code()].peek(from + i);
+                if (bucket != null) {
+                    series[i] += bucket.mentions.sum();
+                }
+            }
+        }
+        return series;
+    }
+
+    /**
+     * The keys of the keywords counted so far.
+     */
+    public Set<String> keywords() {
+        return Set.copyOf(windows.keySet());
+    }
+
+    /**
+     * Reloads the last 24 hours of counts from the mention tables; run once at startup, before the pipeline stores
+     * anything, so no mention is counted twice.
+     */
+    public void rebuild() throws Exception {
+        long start = System.nanoTime();
+        long now = currentMinute();
+        long rows = 0;
+        try (Connection conn = DatabaseService.connect();
+             Statement stmt = conn.createStatement()) {
+            for (MentionTable table : MentionTable.values()) {
+                rows += load(stmt, now, table);
+            }
+        }
+        Log.info("counters.rebuilt", "keywords", windows.size(), "mentions", rows,
+                "latency_ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private long load(Statement stmt, long now, MentionTable table) throws Exception {
+        String sql = "SELECT keyword, floor(extract(epoch FROM " + table.timeColumn + ") / 60)::bigint AS minute, count(*) AS mentions,"
+                + " coalesce(sum(" + table.likes() + "), 0) AS likes, coalesce(sum(" + table.replies() + "), 0) AS replies"
+                + " FROM " + table.table + " WHERE " + table.timeColumn + " >= now() - interval '24 hours' GROUP BY 1, 2";
+        long rows = 0;
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                long mentions = rs.getLong("mentions");
+                add(window(rs.getString("keyword"), table.platform), now, rs.getLong("minute"), mentions, rs.getLong("likes"),
+                        rs.getLong("replies"));
+                rows += mentions;
+            }
+        }
+        return rows;
+    }
+
+    private void add(Window window, long now, long minute, long mentions, long likes, long replies) {
+        if (minute > now) {
+            // Clock skew between us and the platform; count it as now rather than in a bucket that can't be read yet.
+            minute = now;
+        }
+        if (minute <= now - MINUTES) {
+            return;
+        }
+        Bucket bucket = window.bucket(minute);
+        if (bucket != null) {
+            bucket.mentions.add(mentions);
+            bucket.likes.add(likes);
+            bucket.replies.add(replies);
+        }
+    }
+
+    private Window window(String keyword, Platform platform) {
+        return windows.computeIfAbsent(Keywords.squash(keyword), k -> {
+            Window[] byPlatform = new Window[Platform.values().length + 1];
+            for (Platform p : Platform.values()) {
+                byPlatform[p.code()] = new Window();
+            }
+            return byPlatform;
+        })[platform.code()];
+    }
+
+    private long currentMinute() {
+        return clock.getAsLong() / MILLIS_PER_MINUTE;
+    }
+}
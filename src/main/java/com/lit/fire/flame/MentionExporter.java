@@ -0,0 +1,276 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Platform;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Streams stored mentions to an NDJSON or {@link MentionColumnFile columnar} file.
+ *
+ * Each platform table is read in (creation time, id) order through a server-side cursor (autocommit off, fetch size
+ * export.fetch_size), merged in that order with the platform's archived rows (see {@link MentionArchive}), so memory
+ * use does not depend on the number of rows exported. Every export.checkpoint_rows rows
+ * the output is flushed and {@code <out>.checkpoint} records the filters, the last exported key and the file length;
+ * a resumed export truncates the file to that length and continues after that key. The checkpoint is deleted once the
+ * export completes.
+ */
+public class MentionExporter {
+
+    public enum Format {
+        NDJSON,
+        COLUMNAR
+    }
+
+    /**
+     * @param keyword Only mentions collected for this tracked keyword, or null for all.
+     * @param from Inclusive lower bound on creation time, or null.
+     * @param to Exclusive upper bound on creation time, or null.
+     */
+    public record Filter(String keyword, Set<Platform> platforms, Instant from, Instant to) {
+
+        public static Filter all() {
+            return new Filter(null, EnumSet.allOf(Platform.class), null, null);
+        }
+
+        String describe() {
+            StringJoiner ids = new StringJoiner(",");
+            for (MentionTable source : MentionTable.values()) {
+                if (platforms.contains(source.platform)) {
+                    ids.add(source.platform.id());
+                }
+            }
+            return "keyword=" + keyword + ";platforms=" + ids + ";from=" + from + ";to=" + to;
+        }
+    }
+
+    /**
+     * Where an interrupted export stopped: the platform being read, its last exported key and the output length.
+     */
+    record Checkpoint(Format format, String filter, Platform platform, Instant lastCreatedAt, String lastId,
+                      long position, long rows) {
+
+        void save(Path path) throws IOException {
+            Properties properties = new Properties();
+            properties.setProperty("format", format.name());
+            properties.setProperty("filter", filter);
+            properties.setProperty("platform", platform.id());
+            properties.setProperty("last_created_at", lastCreatedAt.toString());
+            properties.setProperty("last_id", lastId);
+            properties.setProperty("position", Long.toString(position));
+            properties.setProperty("rows", Long.toString(rows));
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "MentionExporter checkpoint");
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        static Checkpoint load(Path path) throws IOException {
+            Properties properties = new Properties();
+            try (InputStream in = Files.newInputStream(path)) {
+                properties.load(in);
+            }
+            return new Checkpoint(Format.valueOf(properties.getProperty("format")), properties.getProperty("filter"),
+                    Platform.fromId(properties.getProperty("platform")),
+                    Instant.parse(properties.getProperty("last_created_at")), properties.getProperty("last_id"),
+                    Long.parseLong(properties.getProperty("position")), Long.parseLong(properties.getProperty("rows")));
+        }
+    }
+
+    /**
+     * Exports the mentions matching the filter to {@code out}, replacing it, or continuing it from its checkpoint if
+     * {@code resume} is set and one exists.
+     *
+     * @return The total number of rows in the file.
+     */
+    public static long export(Path out, Format format, Filter filter, boolean resume) throws Exception {
+        Path checkpointPath = out.resolveSibling(out.getFileName() + ".checkpoint");
+        Checkpoint from = null;
+        if (resume && Files.exists(checkpointPath)) {
+            from = Checkpoint.load(checkpointPath);
+            if (from.format() != format || !from.filter().equals(filter.describe())) {
+                throw new IllegalArgumentException("Checkpoint " + checkpointPath + " was written for a different export: "
+                        + from.format() + " " + from.filter());
+            }
+        } else {
+            Files.deleteIfExists(checkpointPath);
+        }
+
+        int fetchSize = AppProperties.getIntProperty("export.fetch_size", 1000);
+        int checkpointRows = AppProperties.getIntProperty("export.checkpoint_rows", 50_000);
+        long start = System.nanoTime();
+        long rows = from != null ? from.rows() : 0;
+
+        FileChannel channel;
+        if (from != null) {
+            channel = FileChannel.open(out, StandardOpenOption.WRITE);
+            channel.truncate(from.position());
+            channel.position(from.position());
+        } else {
+            channel = FileChannel.open(out, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        MentionRowWriter output;
+        try {
+            output = format == Format.NDJSON ? new NdjsonRowWriter(channel) : new MentionColumnFile.Writer(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        Log.info("export.started", "out", out, "format", format, "filter", filter.describe(), "resumed_rows", rows);
+
+        try (MentionRowWriter writer = output;
+             Connection conn = DatabaseService.connect()) {
+            conn.setAutoCommit(false);
+            conn.setReadOnly(true);
+            for (MentionTable source : MentionTable.values()) {
+                if (!filter.platforms().contains(source.platform)
+                        || (from != null && source.ordinal() < MentionTable.of(from.platform()).ordinal())) {
+                    continue;
+                }
+                boolean after = from != null && from.platform() == source.platform;
+                try (PreparedStatement pstmt = conn.prepareStatement(buildSql(source, filter, after))) {
+                    pstmt.setFetchSize(fetchSize);
+                    int index = 1;
+                    if (filter.keyword() != null) {
+                        pstmt.setString(index++, filter.keyword());
+                    }
+                    if (filter.from() != null) {
+                        pstmt.setTimestamp(index++, Timestamp.from(filter.from()));
+                    }
+                    if (filter.to() != null) {
+                        pstmt.setTimestamp(index++, Timestamp.from(filter.to()));
+                    }
+                    if (after) {
+                        pstmt.setTimestamp(index++, Timestamp.from(from.lastCreatedAt()));
+                        pstmt.setString(index, from.lastId());
+                    }
+
+                    try (ResultSet rs = pstmt.executeQuery();
+                         MentionArchive.RowCursor merged = MentionArchive.merge(List.of(
+                                 () -> rs.next() ? read(source.platform, rs) : null,
+                                 MentionArchive.rows(MentionArchive.dir(), source.platform, filter,
+                                         after ? from.lastCreatedAt().toEpochMilli() : 0, after ? from.lastId() : null)))) {
+                        long sinceCheckpoint = 0;
+                        MentionRow row;
+                        while ((row = merged.next()) != null) {
+                            writer.write(row);
+                            rows++;
+                            if (++sinceCheckpoint == checkpointRows) {
+                                long position = writer.checkpoint();
+                                new Checkpoint(format, filter.describe(), source.platform,
+                                        Instant.ofEpochMilli(row.createdAtMillis()), row.id(), position, rows).save(checkpointPath);
+                                sinceCheckpoint = 0;
+                                Log.debug("export.checkpoint", "platform", source.platform.id(), "rows", rows);
+                            }
+                        }
+                    }
+                }
+            }
+            conn.commit();
+        }
+        Files.deleteIfExists(checkpointPath);
+        Log.info("export.completed", "out", out, "rows", rows, "latency_ms", (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    static String buildSql(MentionTable source, Filter filter, boolean after) {
+        return buildSql(source, filter, after, null);
+    }
+
+    /**
+     * @param extraColumn A further select list entry after the {@link MentionRow} columns, or null.
+     */
+    static String buildSql(MentionTable source, Filter filter, boolean after, String extraColumn) {
+        StringBuilder sql = new StringBuilder("SELECT id, keyword, ")
+                .append(source.timeColumn).append(" AS created_at, author, ")
+                .append(source.title()).append(" AS title, text, permalink, ")
+                .append(source.likes()).append(" AS likes, ").append(source.replies()).append(" AS replies, ")
+                .append("sentiment, emotion, cluster_id");
+        if (extraColumn != null) {
+            sql.append(", ").append(extraColumn);
+        }
+        sql.append(" FROM ").append(source.table).append(" WHERE TRUE");
+        if (filter.keyword() != null) {
+            sql.append(" AND keyword = ?");
+        }
+        if (filter.from() != null) {
+            sql.append(" AND ").append(source.timeColumn).append(" >= ?");
+        }
+        if (filter.to() != null) {
+            sql.append(" AND ").append(source.timeColumn).append(" < ?");
+        }
+        if (after) {
+            sql.append(" AND (").append(source.timeColumn).append(", id COLLATE \"C\") > (?, ?)");
+        }
+        // Byte order, as the archive and the merge compare IDs, whatever the database's default collation.
+        return sql.append(" ORDER BY ").append(source.timeColumn).append(", id COLLATE \"C\"").toString();
+    }
+
+    static MentionRow read(Platform platform, ResultSet rs) throws SQLException {
+        float sentiment = rs.getFloat("sentiment");
+        if (rs.wasNull()) {
+            sentiment = Float.NaN;
+        }
+        return new MentionRow(platform, rs.getString("id"), rs.getString("keyword"), rs.getTimestamp("created_at").getTime(),
+                rs.getString("author"), rs.getString("title"), rs.getString("text"), rs.getString("permalink"),
+                rs.getInt("likes"), rs.getInt("replies"), sentiment, rs.getString("emotion"), rs.getLong("cluster_id"));
+    }
+
+    /**
+     * {@code MentionExporter --out <file> [--format ndjson|columnar] [--keyword <keyword>]
+     * [--platform x,instagram,reddit,youtube] [--from <instant>] [--to <instant>] [--resume]}
+     */
+    public static void main(String[] args) throws Exception {
+        Path out = null;
+        Format format = Format.NDJSON;
+        String keyword = null;
+        Set<Platform> platforms = EnumSet.allOf(Platform.class);
+        Instant from = null;
+        Instant to = null;
+        boolean resume = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = Path.of(args[++i]);
+                case "--format" -> format = Format.valueOf(args[++i].toUpperCase());
+                case "--keyword" -> keyword = args[++i];
+                case "--platform" -> {
+                    platforms = EnumSet.noneOf(Platform.class);
+                    for (String id : args[++i].split(",")) {
+                        platforms.add(Platform.fromId(id.trim()));
+                    }
+                }
+                case "--from" -> from = Instant.parse(args[++i]);
+                case "--to" -> to = Instant.parse(args[++i]);
+                case "--resume" -> resume = true;
+                default -> throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("--out is required");
+        }
+        try {
+            export(out, format, new Filter(keyword, platforms, from, to), resume);
+        } finally {
+            Log.flush();
+        }
+    }
+}
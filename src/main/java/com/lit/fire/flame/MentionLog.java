@@ -0,0 +1,580 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * An append-only log of every persisted mention, for other services to tail instead of polling Postgres.
+ *
+ * Each mention gets a sequential offset. The log is a directory of segments named after their first offset; a segment
+ * is a memory-mapped file of mentionlog.segment_bytes holding frames, plus a memory-mapped sparse index with one
+ * (offset, position) entry every mentionlog.index_interval_bytes. Only the newest mentionlog.retained_segments segments
+ * are kept. Frames are
+ * <pre>
+ *   frame = length:int crc32c:int offset:long payload[length]
+ * </pre>
+ * and the length is written last, so a zero length marks the end of the data. After a crash the tail is recovered by
+ * scanning forward from the last index entry while frames check out.
+ *
+ * Writes land in the page cache when {@link #append} returns, so readers in other processes see them at once; they
+ * reach the disk when the segment is rolled, on {@link #flush()} and on {@link #close()}.
+ *
+ * {@link Consumer}s tail the log from a stored offset in batches, blocking until new mentions arrive. For replication
+ * to another process, {@link #transferTo} sends whole frames straight from the segment file to a channel, and
+ * {@link #readFrame} decodes them on the other side.
+ */
+public final class MentionLog implements AutoCloseable {
+
+    /**
+     * A mention and its offset in the log.
+     */
+    public record Entry(long offset, MentionRow row) {
+    }
+
+    private static final int HEADER_BYTES = 16;
+    private static final int INDEX_ENTRY_BYTES = 8;
+    private static final String LOG_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".index";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int indexIntervalBytes;
+    private final int retainedSegments;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer payload = ByteBuffer.allocate(1 << 12);
+    private Segment active;
+    private volatile long nextOffset;
+
+    private MentionLog(Path dir, int segmentBytes, int indexIntervalBytes, int retainedSegments) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.indexIntervalBytes = indexIntervalBytes;
+        this.retainedSegments = retainedSegments;
+    }
+
+    /**
+     * Opens the log configured by mentionlog.dir, or returns null if that is blank.
+     */
+    public static MentionLog open() throws IOException {
+        String dir = AppProperties.getProperty("mentionlog.dir", "");
+        if (dir.isBlank()) {
+            return null;
+        }
+        return open(Path.of(dir), AppProperties.getIntProperty("mentionlog.segment_bytes", 64 << 20),
+                AppProperties.getIntProperty("mentionlog.index_interval_bytes", 4096),
+                AppProperties.getIntProperty("mentionlog.retained_segments", 16));
+    }
+
+    /**
+     * Opens the log in {@code dir}, creating it if needed and recovering the tail of the newest segment.
+     *
+     * @param retainedSegments Segments to keep, or 0 to keep all.
+     */
+    public static MentionLog open(Path dir, int segmentBytes, int indexIntervalBytes, int retainedSegments) throws IOException {
+        if (segmentBytes < HEADER_BYTES * 2 || indexIntervalBytes <= 0) {
+            throw new IllegalArgumentException("Invalid mention log sizes: segment " + segmentBytes + ", index interval " + indexIntervalBytes);
+        }
+        Files.createDirectories(dir);
+        MentionLog log = new MentionLog(dir, segmentBytes, indexIntervalBytes, retainedSegments);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + LOG_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long baseOffset = Long.parseLong(name.substring(0, name.length() - LOG_SUFFIX.length()));
+                log.segments.put(baseOffset, log.openSegment(baseOffset));
+            }
+        }
+        if (log.segments.isEmpty()) {
+            log.segments.put(0L, log.openSegment(0));
+        }
+        for (Segment segment : log.segments.values()) {
+            segment.recover();
+        }
+        log.active = log.segments.lastEntry().getValue();
+        log.active.data.putInt(log.active.size, 0);
+        log.nextOffset = log.active.endOffset;
+        Log.info("mentionlog.opened", "dir", dir, "segments", log.segments.size(), "next_offset", log.nextOffset);
+        return log;
+    }
+
+    /**
+     * Appends the mentions of a batch (normally the rows just inserted) and returns the offset of the first one.
+     */
+    public long append(MentionBatch batch) throws IOException {
+        List<MentionRow> rows = new ArrayList<>(batch.mentions().size());
+        for (int i = 0; i < batch.mentions().size(); i++) {
+            rows.add(MentionRow.of(batch, i));
+        }
+        return append(rows);
+    }
+
+    public long append(List<MentionRow> rows) throws IOException {
+        lock.lock();
+        try {
+            long first = nextOffset;
+            long offset = first;
+            try {
+                for (MentionRow row : rows) {
+                    encode(row);
+                    int length = payload.position();
+                    if (HEADER_BYTES + length + Integer.BYTES > segmentBytes) {
+                        throw new IllegalArgumentException("Mention " + row.id() + " is too large for a log segment: " + length + " bytes");
+                    }
+                    if (active.size + HEADER_BYTES + length + Integer.BYTES > active.capacity()) {
+                        roll(offset);
+                    }
+                    active.write(offset, payload.array(), length);
+                    offset++;
+                }
+            } finally {
+                // Publish whatever was written, even if a later row failed, so offsets are never reused.
+                if (offset != first) {
+                    nextOffset = offset;
+                    appended.signalAll();
+                }
+            }
+            return first;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll(long baseOffset) throws IOException {
+        active.flush();
+        active = openSegment(baseOffset);
+        active.endOffset = baseOffset;
+        segments.put(baseOffset, active);
+        while (retainedSegments > 0 && segments.size() > retainedSegments) {
+            Segment oldest = segments.pollFirstEntry().getValue();
+            oldest.delete();
+            Log.info("mentionlog.segment_deleted", "base_offset", oldest.baseOffset);
+        }
+        Log.debug("mentionlog.segment_rolled", "base_offset", baseOffset);
+    }
+
+    /**
+     * The offset of the oldest retained mention.
+     */
+    public long startOffset() {
+        return segments.firstKey();
+    }
+
+    /**
+     * The offset the next appended mention will get.
+     */
+    public long endOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * A consumer that starts at the offset last committed under {@code name}, or at the end of the log (only new
+     * mentions) if there is none.
+     */
+    public Consumer consumer(String name) throws IOException {
+        Path file = dir.resolve("consumers").resolve(name + ".offset");
+        long offset = Files.exists(file) ? Long.parseLong(Files.readString(file).trim()) : nextOffset;
+        return new Consumer(file, offset);
+    }
+
+    /**
+     * Writes whole frames from {@code offset} on to the channel with {@link FileChannel#transferTo}, so the bytes go
+     * from the page cache to e.g. a socket without passing through the heap. Stops at the end of the segment, after
+     * at least one frame once {@code maxBytes} would be exceeded, or at the end of the log.
+     *
+     * @return The offset after the last frame sent; {@code offset} itself if there was nothing to send.
+     */
+    public long transferTo(long offset, long maxBytes, WritableByteChannel target) throws IOException {
+        long end = nextOffset;
+        if (offset >= end) {
+            return offset;
+        }
+        Segment segment = segmentFor(offset);
+        int start = segment.positionOf(offset);
+        int position = start;
+        long next = offset;
+        while (next < end && next < segment.endOffset) {
+            int frame = HEADER_BYTES + segment.data.getInt(position);
+            if (next > offset && position + frame - start > maxBytes) {
+                break;
+            }
+            position += frame;
+            next++;
+        }
+        long sent = start;
+        while (sent < position) {
+            sent += segment.channel.transferTo(sent, position - sent, target);
+        }
+        return next;
+    }
+
+    /**
+     * Decodes the frame at the buffer's position, as sent by {@link #transferTo}, and advances past it.
+     *
+     * @return The entry, or null if the buffer doesn't hold the whole frame yet (the position is left unchanged).
+     * @throws IOException If the frame fails its checksum.
+     */
+    public static Entry readFrame(ByteBuffer frames) throws IOException {
+        if (frames.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int start = frames.position();
+        int length = frames.getInt(start);
+        if (length <= 0) {
+            throw new IOException("Corrupt mention log frame at " + start);
+        }
+        if (frames.remaining() < HEADER_BYTES + length) {
+            return null;
+        }
+        int checksum = frames.getInt(start + 4);
+        long offset = frames.getLong(start + 8);
+        ByteBuffer body = frames.slice(start + HEADER_BYTES, length);
+        CRC32C crc = new CRC32C();
+        crc.update(body.duplicate());
+        if ((int) crc.getValue() != checksum) {
+            throw new IOException("Mention log frame " + offset + " failed its checksum");
+        }
+        frames.position(start + HEADER_BYTES + length);
+        return new Entry(offset, decode(body));
+    }
+
+    /**
+     * Forces the active segment to disk.
+     */
+    public void flush() {
+        lock.lock();
+        try {
+            active.flush();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            active.flush();
+            for (Segment segment : segments.values()) {
+                segment.close();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Segment segmentFor(long offset) {
+        Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+        if (entry == null) {
+            throw new IllegalArgumentException("Offset " + offset + " is no longer retained; the log starts at " + startOffset());
+        }
+        return entry.getValue();
+    }
+
+    private Segment openSegment(long baseOffset) throws IOException {
+        String name = String.format("%020d", baseOffset);
+        return new Segment(baseOffset, dir.resolve(name + LOG_SUFFIX), dir.resolve(name + INDEX_SUFFIX));
+    }
+
+    /**
+     * Tails the log from an offset. Not thread-safe; each reading thread should have its own.
+     */
+    public final class Consumer {
+
+        private final Path offsetFile;
+        private long position;
+        private Segment segment;
+        private int filePosition;
+
+        private Consumer(Path offsetFile, long position) {
+            this.offsetFile = offsetFile;
+            seek(position);
+        }
+
+        /**
+         * The offset of the next mention {@link #poll} returns.
+         */
+        public long position() {
+            return position;
+        }
+
+        public void seek(long offset) {
+            position = offset;
+            segment = null;
+        }
+
+        /**
+         * Returns up to {@code maxEntries} mentions from the current position, waiting up to {@code timeout} for the
+         * first one if the consumer has caught up. Returns an empty list on timeout.
+         */
+        public List<Entry> poll(int maxEntries, long timeout, TimeUnit unit) throws IOException, InterruptedException {
+            if (position >= nextOffset) {
+                long remaining = unit.toNanos(timeout);
+                lock.lock();
+                try {
+                    while (position >= nextOffset && remaining > 0) {
+                        remaining = appended.awaitNanos(remaining);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            long end = nextOffset;
+            List<Entry> entries = new ArrayList<>(Math.min(maxEntries, (int) Math.max(0, Math.min(end - position, 1024))));
+            while (entries.size() < maxEntries && position < end) {
+                if (segment == null || position >= segment.endOffset) {
+                    locate();
+                }
+                int length = segment.data.getInt(filePosition);
+                ByteBuffer body = segment.data.slice(filePosition + HEADER_BYTES, length);
+                entries.add(new Entry(position, decode(body)));
+                filePosition += HEADER_BYTES + length;
+                position++;
+            }
+            return entries;
+        }
+
+        private void locate() {
+            if (position < startOffset()) {
+                Log.warn("mentionlog.consumer_behind", "consumer", offsetFile.getFileName(), "offset", position,
+                        "start_offset", startOffset());
+                position = startOffset();
+            }
+            segment = segmentFor(position);
+            filePosition = segment.positionOf(position);
+        }
+
+        /**
+         * Stores the current position under the consumer's name.
+         */
+        public void commit() throws IOException {
+            Files.createDirectories(offsetFile.getParent());
+            Path temp = offsetFile.resolveSibling(offsetFile.getFileName() + ".tmp");
+            Files.writeString(temp, Long.toString(position));
+            Files.move(temp, offsetFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * One segment file and its sparse index. Written only by the appending thread under the log's lock; readers use
+     * absolute gets bounded by {@link #endOffset}, which is published after each frame.
+     */
+    private final class Segment {
+
+        final long baseOffset;
+        final Path logPath;
+        final Path indexPath;
+        final FileChannel channel;
+        final MappedByteBuffer data;
+        private final FileChannel indexChannel;
+        private final MappedByteBuffer index;
+        volatile int size;
+        volatile long endOffset;
+        private volatile int indexEntries;
+        private int bytesSinceIndex;
+
+        Segment(long baseOffset, Path logPath, Path indexPath) throws IOException {
+            this.baseOffset = baseOffset;
+            this.logPath = logPath;
+            this.indexPath = indexPath;
+            this.channel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long capacity = Math.max(channel.size(), segmentBytes);
+            this.data = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            this.indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long indexCapacity = Math.max(indexChannel.size(), (capacity / indexIntervalBytes + 1) * INDEX_ENTRY_BYTES);
+            this.index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexCapacity);
+            this.endOffset = baseOffset;
+        }
+
+        int capacity() {
+            return data.capacity();
+        }
+
+        void write(long offset, byte[] bytes, int length) {
+            int position = size;
+            if (bytesSinceIndex >= indexIntervalBytes) {
+                index.putInt(indexEntries * INDEX_ENTRY_BYTES, (int) (offset - baseOffset));
+                index.putInt(indexEntries * INDEX_ENTRY_BYTES + 4, position);
+                indexEntries++;
+                bytesSinceIndex = 0;
+            }
+            crc.reset();
+            crc.update(bytes, 0, length);
+            data.putLong(position + 8, offset);
+            data.put(position + HEADER_BYTES, bytes, 0, length);
+            data.putInt(position + 4, (int) crc.getValue());
+            data.putInt(position + HEADER_BYTES + length, 0);
+            data.putInt(position, length);
+            bytesSinceIndex += HEADER_BYTES + length;
+            size = position + HEADER_BYTES + length;
+            endOffset = offset + 1;
+        }
+
+        /**
+         * The file position of the frame for {@code offset}: the closest index entry at or before it, then a scan.
+         */
+        int positionOf(long offset) {
+            int low = 0;
+            int high = indexEntries - 1;
+            long relative = offset - baseOffset;
+            long foundOffset = baseOffset;
+            int position = 0;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int entryOffset = index.getInt(mid * INDEX_ENTRY_BYTES);
+                if (entryOffset <= relative) {
+                    foundOffset = baseOffset + entryOffset;
+                    position = index.getInt(mid * INDEX_ENTRY_BYTES + 4);
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            for (long current = foundOffset; current < offset; current++) {
+                position += HEADER_BYTES + data.getInt(position);
+            }
+            return position;
+        }
+
+        /**
+         * Loads the index and finds the end of the data by checking frames from the last index entry on.
+         */
+        void recover() {
+            int entries = 0;
+            while ((entries + 1) * INDEX_ENTRY_BYTES <= index.capacity() && index.getInt(entries * INDEX_ENTRY_BYTES + 4) != 0) {
+                entries++;
+            }
+            int position = 0;
+            long offset = baseOffset;
+            if (entries > 0) {
+                offset = baseOffset + index.getInt((entries - 1) * INDEX_ENTRY_BYTES);
+                position = index.getInt((entries - 1) * INDEX_ENTRY_BYTES + 4);
+            }
+            int lastIndexed = position;
+            while (position + HEADER_BYTES <= data.capacity()) {
+                int length = data.getInt(position);
+                if (length <= 0 || position + HEADER_BYTES + length > data.capacity() || data.getLong(position + 8) != offset) {
+                    break;
+                }
+                crc.reset();
+                crc.update(data.slice(position + HEADER_BYTES, length));
+                if ((int) crc.getValue() != data.getInt(position + 4)) {
+                    break;
+                }
+                position += HEADER_BYTES + length;
+                offset++;
+            }
+            indexEntries = entries;
+            bytesSinceIndex = entries > 0 ? position - lastIndexed : position;
+            size = position;
+            endOffset = offset;
+        }
+
+        void flush() {
+            data.force();
+            index.force();
+        }
+
+        void close() throws IOException {
+            channel.close();
+            indexChannel.close();
+        }
+
+        /**
+         * Closes and deletes the files. The mappings stay valid for consumers still reading until they are collected.
+         */
+        void delete() throws IOException {
+            close();
+            Files.deleteIfExists(logPath);
+            Files.deleteIfExists(indexPath);
+        }
+    }
+
+    private void encode(MentionRow row) {
+        payload.clear();
+        ensure(64);
+        payload.put(row.platform().code());
+        payload.putLong(row.createdAtMillis());
+        payload.putInt(row.likes());
+        payload.putInt(row.replies());
+        payload.putFloat(row.sentiment());
+        payload.putLong(row.clusterId());
+        putString(row.id());
+        putString(row.keyword());
+        putString(row.author());
+        putString(row.title());
+        putString(row.text());
+        putString(row.permalink());
+        putString(row.emotion());
+    }
+
+    private void putString(String value) {
+        if (value == null) {
+            ensure(Integer.BYTES);
+            payload.putInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        ensure(Integer.BYTES + utf8.length);
+        payload.putInt(utf8.length);
+        payload.put(utf8);
+    }
+
+    private void ensure(int bytes) {
+        if (payload.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(payload.capacity() * 2, payload.position() + bytes));
+            payload.flip();
+            grown.put(payload);
+            payload = grown;
+        }
+    }
+
+    private static MentionRow decode(ByteBuffer body) {
+        Platform platform = Platform.fromCode(body.get());
+        long createdAt = body.getLong();
+        int likes = body.getInt();
+        int replies = body.getInt();
+        float sentiment = body.getFloat();
+        long clusterId = body.getLong();
+        String id = getString(body);
+        String keyword = getString(body);
+        String author = getString(body);
+        String title = getString(body);
+        String text = getString(body);
+        String permalink = getString(body);
+        String emotion = getString(body);
+        return new MentionRow(platform, id, keyword, createdAt, author, title, text, permalink, likes, replies, sentiment,
+                emotion, clusterId);
+    }
+
+    private static String getString(ByteBuffer body) {
+        int length = body.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        body.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
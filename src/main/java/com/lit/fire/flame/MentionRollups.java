@@ -0,0 +1,228 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.Platform;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Hourly and daily rollups per keyword and platform (mention_rollups_hourly, mention_rollups_daily): mention count,
+ * unique authors and engagement sums, so reports don't aggregate the raw tables again and again.
+ *
+ * {@link #apply} updates them incrementally inside the transaction that inserts a batch, from the rows that batch
+ * actually inserted. Unique authors are kept exact with a set table (mention_rollup_authors): an author adds to a
+ * bucket's count only the first time their row goes into the set, and {@link MentionArchive} prunes the sets of the days
+ * it archives. Engagement is summed as it was when a mention was
+ * first stored, matching the raw tables, which keep the first copy of a row.
+ *
+ * Run the class's main to rebuild the rollups from the raw tables, e.g. after adding them to an existing database;
+ * buckets of archived months are left alone.
+ */
+public final class MentionRollups {
+
+    private static final long HOUR_MILLIS = 3_600_000L;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    private enum Grain {
+        HOUR("hour", "mention_rollups_hourly", HOUR_MILLIS),
+        DAY("day", "mention_rollups_daily", DAY_MILLIS);
+
+        final String id;
+        final String table;
+        final long millis;
+
+        Grain(String id, String table, long millis) {
+            this.id = id;
+            this.table = table;
+            this.millis = millis;
+        }
+    }
+
+    private record Key(Grain grain, long bucket, String keyword) {
+    }
+
+    /**
+     * Keys are written in this order by every transaction, so concurrent sink workers lock rollup rows in the same
+     * order and can't deadlock.
+     */
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::grain)
+            .thenComparingLong(Key::bucket)
+            .thenComparing(Key::keyword);
+
+    private static final class Delta {
+        long mentions;
+        long likes;
+        long replies;
+        long newAuthors;
+        final Set<String> authors = new TreeSet<>();
+    }
+
+    private MentionRollups() {
+    }
+
+    /**
+     * Adds the inserted rows of a batch to the rollups, on the caller's connection and transaction.
+     *
+     * @param counts The executeBatch update counts of the insert, aligned with {@code mentions}.
+     */
+    static void apply(Connection conn, Platform platform, List<? extends Mention> mentions, int[] counts) throws SQLException {
+        Map<Key, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (int i = 0; i < mentions.size(); i++) {
+            if (!DatabaseService.wasInserted(counts[i])) {
+                continue;
+            }
+            Mention mention = mentions.get(i);
+            String author = DatabaseService.storedAuthor(platform, mention);
+            for (Grain grain : Grain.values()) {
+                long bucket = mention.createdAtMillis() - Math.floorMod(mention.createdAtMillis(), grain.millis);
+                Delta delta = deltas.computeIfAbsent(new Key(grain, bucket, mention.keyword()), k -> new Delta());
+                delta.mentions++;
+                delta.likes += mention.engagement().likes();
+                delta.replies += mention.engagement().replies();
+                if (author != null) {
+                    delta.authors.add(author);
+                }
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO mention_rollup_authors (grain, bucket, keyword, platform, author) VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING")) {
+            List<Delta> rows = new ArrayList<>();
+            for (Map.Entry<Key, Delta> entry : deltas.entrySet()) {
+                Key key = entry.getKey();
+                for (String author : entry.getValue().authors) {
+                    pstmt.setString(1, key.grain().id);
+                    pstmt.setTimestamp(2, new Timestamp(key.bucket()));
+                    pstmt.setString(3, key.keyword());
+                    pstmt.setString(4, platform.id());
+                    pstmt.setString(5, author);
+                    pstmt.addBatch();
+                    rows.add(entry.getValue());
+                }
+            }
+            if (!rows.isEmpty()) {
+                int[] added = pstmt.executeBatch();
+                for (int i = 0; i < added.length; i++) {
+                    if (DatabaseService.wasInserted(added[i])) {
+                        rows.get(i).newAuthors++;
+                    }
+                }
+            }
+        }
+
+        for (Grain grain : Grain.values()) {
+            String sql = "INSERT INTO " + grain.table + " AS r (bucket, keyword, platform, mentions, unique_authors, likes, replies)"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (keyword, platform, bucket) DO UPDATE SET"
+                    + " mentions = r.mentions + EXCLUDED.mentions, unique_authors = r.unique_authors + EXCLUDED.unique_authors,"
+                    + " likes = r.likes + EXCLUDED.likes, replies = r.replies + EXCLUDED.replies";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (Map.Entry<Key, Delta> entry : deltas.entrySet()) {
+                    Key key = entry.getKey();
+                    if (key.grain() != grain) {
+                        continue;
+                    }
+                    Delta delta = entry.getValue();
+                    pstmt.setTimestamp(1, new Timestamp(key.bucket()));
+                    pstmt.setString(2, key.keyword());
+                    pstmt.setString(3, platform.id());
+                    pstmt.setLong(4, delta.mentions);
+                    pstmt.setLong(5, delta.newAuthors);
+                    pstmt.setLong(6, delta.likes);
+                    pstmt.setLong(7, delta.replies);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Drops the author sets of a platform's buckets in [from, to), on the caller's connection and transaction. The
+     * archiver calls this for the whole days it moves out of Postgres: their counts are final, so the sets are no
+     * longer needed. A mention stored later for such a day may count its author there a second time.
+     *
+     * @return The number of set rows deleted.
+     */
+    static int prune(Connection conn, Platform platform, long from, long to) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "DELETE FROM mention_rollup_authors WHERE platform = ? AND bucket >= ? AND bucket < ?")) {
+            pstmt.setString(1, platform.id());
+            pstmt.setTimestamp(2, new Timestamp(from));
+            pstmt.setTimestamp(3, new Timestamp(to));
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recomputes the rollups of one platform from its raw table, in one transaction. The raw table is locked against
+     * inserts meanwhile, so batches stored during the backfill wait instead of being counted twice or not at all.
+     *
+     * Only buckets from the end of the archived range on (see {@link MentionArchive#archivedUntil}) are rebuilt: older
+     * ones were counted before their rows moved to the archive and are kept as they are.
+     */
+    static void backfill(Platform platform) throws Exception {
+        MentionTable source = MentionTable.of(platform);
+        String platformId = "'" + platform.id() + "'";
+        long horizon = MentionArchive.archivedUntil(MentionArchive.dir(), platform);
+        String since = "'" + Instant.ofEpochMilli(horizon) + "'::timestamptz";
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseService.connect();
+             Statement stmt = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            try {
+                stmt.execute("LOCK TABLE " + source.table + " IN SHARE MODE");
+                stmt.execute("DELETE FROM mention_rollup_authors WHERE platform = " + platformId + " AND bucket >= " + since);
+                for (Grain grain : Grain.values()) {
+                    String bucket = "date_trunc('" + grain.id + "', " + source.timeColumn + " AT TIME ZONE 'UTC') AT TIME ZONE 'UTC'";
+                    String hot = " WHERE " + source.timeColumn + " >= " + since;
+                    stmt.execute("DELETE FROM " + grain.table + " WHERE platform = " + platformId + " AND bucket >= " + since);
+                    stmt.execute("INSERT INTO mention_rollup_authors (grain, bucket, keyword, platform, author)"
+                            + " SELECT DISTINCT '" + grain.id + "', " + bucket + ", keyword, " + platformId + ", author"
+                            + " FROM " + source.table + hot + " AND author IS NOT NULL");
+                    stmt.execute("INSERT INTO " + grain.table + " (bucket, keyword, platform, mentions, unique_authors, likes, replies)"
+                            + " SELECT " + bucket + ", keyword, " + platformId + ", count(*), count(DISTINCT author), "
+                            + "sum(" + source.likes() + "), sum(" + source.replies() + ")"
+                            + " FROM " + source.table + hot + " GROUP BY 1, 2");
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        Log.info("rollups.backfilled", "platform", platform.id(), "since", Instant.ofEpochMilli(horizon), "latency_ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Rebuilds the rollups from the raw tables: all platforms, or the ones named as arguments (x, instagram, reddit,
+     * youtube).
+     */
+    public static void main(String[] args) throws Exception {
+        DatabaseService.applySchema();
+        if (args.length == 0) {
+            for (Platform platform : Platform.values()) {
+                backfill(platform);
+            }
+        } else {
+            for (String id : args) {
+                backfill(Platform.fromId(id));
+            }
+        }
+        Log.flush();
+    }
+}
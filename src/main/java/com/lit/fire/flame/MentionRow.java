@@ -0,0 +1,39 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Comment;
+import com.lit.fire.api.Emotion;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+
+/**
+ * One stored mention with the fields all platforms share, as the exporter, the columnar files and the mention log
+ * carry it.
+ *
+ * @param author The stored author column (see {@link DatabaseService#storedAuthor}).
+ * @param title The Reddit submission or YouTube video title; null elsewhere.
+ * @param sentiment NaN if the row wasn't scored.
+ * @param emotion The dominant emotion's id, or null.
+ * @param clusterId The near-duplicate cluster, or 0.
+ */
+public record MentionRow(Platform platform, String id, String keyword, long createdAtMillis, String author, String title,
+                         String text, String permalink, int likes, int replies, float sentiment, String emotion,
+                         long clusterId) {
+
+    /**
+     * The row the mention at {@code index} of the batch is stored as.
+     */
+    static MentionRow of(MentionBatch batch, int index) {
+        Mention mention = batch.mentions().get(index);
+        String title = switch (mention) {
+            case Post post -> post.title();
+            case Comment comment -> comment.contextTitle();
+        };
+        Emotion emotion = batch.annotations().emotion(index);
+        return new MentionRow(batch.platform(), mention.id(), mention.keyword(), mention.createdAtMillis(),
+                DatabaseService.storedAuthor(batch.platform(), mention), title, mention.text(), mention.permalink(),
+                mention.engagement().likes(), mention.engagement().replies(), batch.annotations().sentiment(index),
+                emotion != null ? emotion.id() : null, batch.annotations().clusterId(index));
+    }
+}
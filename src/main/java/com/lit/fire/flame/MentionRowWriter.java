@@ -0,0 +1,20 @@
+package com.lit.fire.flame;
+
+import java.io.IOException;
+
+/**
+ * An export file format.
+ */
+interface MentionRowWriter extends AutoCloseable {
+
+    void write(MentionRow row) throws IOException;
+
+    /**
+     * Makes everything written so far durable and self-contained in the file, and returns the file position a resumed
+     * export can truncate to and continue from.
+     */
+    long checkpoint() throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
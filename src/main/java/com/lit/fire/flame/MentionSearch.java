@@ -0,0 +1,217 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Platform;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Full-text search over the stored mentions of all platforms, ranked and keyset-paginated in a single query.
+ *
+ * Matching goes through each table's generated search_vector column and its GIN index, so the cost depends on the
+ * number of matches rather than the table size. The query text uses web search syntax ("quoted phrases", or, -not)
+ * and is parsed once per configuration listed in search.ts_configs (default english,simple); a row matches if any
+ * of them does, which covers rows indexed with either configuration. The query is NFKC-normalized first, like the text
+ * LanguageTagger identifies, so fullwidth or styled query letters match plain ones.
+ *
+ * Each platform contributes its own best {@code limit} rows in the requested order, and the union is cut to
+ * {@code limit} again, so a page never needs more than {@code 4 * limit} rows. Pages continue from an opaque
+ * {@link Cursor} holding the sort key of the last hit instead of an OFFSET, so deep pages cost the same as the first.
+ *
+ * Archived mentions (see {@link MentionArchive}) are searched too and merged into the page; they are scanned rather
+ * than indexed, rank after every match still in Postgres and only match words exactly. The scan stops at the last hit
+ * of a full Postgres page, so it is skipped for relevance pages that Postgres fills.
+ */
+public class MentionSearch {
+
+    public enum Order {
+        /**
+         * Best match first (ts_rank_cd, titles weighted over bodies), newest first among equals.
+         */
+        RELEVANCE,
+        /**
+         * Newest first.
+         */
+        RECENT
+    }
+
+    /**
+     * One matching mention.
+     *
+     * @param title The Reddit submission title or YouTube video title; null elsewhere.
+     * @param rank The ts_rank_cd score; comparable within one search only.
+     */
+    public record Hit(Platform platform, String id, String keyword, String title, String text, String author,
+                      long createdAtMillis, String permalink, float rank) {
+    }
+
+    /**
+     * The sort key of the last hit on a page. {@link #encode()} gives a URL-safe token for handing to API clients.
+     */
+    public record Cursor(float rank, long createdAtMillis, byte platformCode, String id) {
+
+        public String encode() {
+            String raw = Float.floatToIntBits(rank) + ":" + createdAtMillis + ":" + platformCode + ":" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        public static Cursor decode(String token) {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed search cursor");
+            }
+            return new Cursor(Float.intBitsToFloat(Integer.parseInt(parts[0])), Long.parseLong(parts[1]),
+                    Byte.parseByte(parts[2]), parts[3]);
+        }
+    }
+
+    /**
+     * @param next The cursor for the following page, or null if this is the last one.
+     */
+    public record Page(List<Hit> hits, Cursor next) {
+    }
+
+    private static final int MAX_LIMIT = 200;
+
+    public static Page search(String text, Order order, Cursor after, int limit) throws Exception {
+        return search(text, null, EnumSet.allOf(Platform.class), order, after, limit);
+    }
+
+    /**
+     * @param keyword Only mentions collected for this tracked keyword, or null for all.
+     * @param platforms The platforms to search.
+     * @param after The cursor of the previous page, or null for the first page.
+     * @param limit Hits per page, at most 200.
+     */
+    public static Page search(String text, String keyword, Set<Platform> platforms, Order order, Cursor after, int limit)
+            throws Exception {
+        if (text == null || text.isBlank() || platforms.isEmpty()) {
+            return new Page(List.of(), null);
+        }
+        limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<String> configs = configs();
+        String query = TextNormalizer.nfkc(text);
+        String sql = buildSql(configs, keyword != null, platforms, order, after != null);
+
+        long start = System.nanoTime();
+        List<Hit> hits = new ArrayList<>(limit);
+        try (Connection conn = DatabaseService.connect();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (String config : configs) {
+                pstmt.setString(index++, config);
+                pstmt.setString(index++, query);
+            }
+            for (MentionTable source : MentionTable.values()) {
+                if (!platforms.contains(source.platform)) {
+                    continue;
+                }
+                if (keyword != null) {
+                    pstmt.setString(index++, keyword);
+                }
+                if (after != null) {
+                    if (order == Order.RELEVANCE) {
+                        pstmt.setFloat(index++, after.rank());
+                    }
+                    pstmt.setTimestamp(index++, new Timestamp(after.createdAtMillis()));
+                    pstmt.setShort(index++, after.platformCode());
+                    pstmt.setString(index++, after.id());
+                }
+                pstmt.setInt(index++, limit);
+            }
+            pstmt.setInt(index, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    hits.add(new Hit(Platform.fromCode(rs.getShort("platform")), rs.getString("id"), rs.getString("keyword"),
+                            rs.getString("title"), rs.getString("text"), rs.getString("author"),
+                            rs.getTimestamp("created_at").getTime(), rs.getString("permalink"), rs.getFloat("rank")));
+                }
+            }
+        }
+        // A full page from Postgres bounds the archive scan: archived hits ordered after its last one can't make the page.
+        Hit bound = hits.size() == limit ? hits.get(limit - 1) : null;
+        List<Hit> archived = MentionArchive.search(MentionArchive.dir(), text, keyword, platforms, order, after, bound, limit);
+        if (!archived.isEmpty()) {
+            hits.addAll(archived);
+            hits.sort(order(order));
+            hits = new ArrayList<>(hits.subList(0, Math.min(limit, hits.size())));
+        }
+        Log.debug("search.completed", "order", order, "hits", hits.size(), "archived", archived.size(), "latency_ms", (System.nanoTime() - start) / 1_000_000);
+
+        Cursor next = null;
+        if (hits.size() == limit) {
+            Hit last = hits.get(hits.size() - 1);
+            next = new Cursor(last.rank(), last.createdAtMillis(), last.platform().code(), last.id());
+        }
+        return new Page(hits, next);
+    }
+
+    /**
+     * The order of hits on a page, as the SQL sorts them; IDs are selected with the "C" collation, so they sort as
+     * {@link String#compareTo} does.
+     */
+    static Comparator<Hit> order(Order order) {
+        Comparator<Hit> recent = Comparator.comparingLong(Hit::createdAtMillis)
+                .thenComparingInt(hit -> hit.platform().code())
+                .thenComparing(Hit::id)
+                .reversed();
+        return order == Order.RELEVANCE ? Comparator.comparingDouble((Hit hit) -> hit.rank()).reversed().thenComparing(recent) : recent;
+    }
+
+    static String buildSql(List<String> configs, boolean byKeyword, Set<Platform> platforms, Order order, boolean paged) {
+        StringBuilder sql = new StringBuilder("WITH q AS (SELECT ");
+        for (int i = 0; i < configs.size(); i++) {
+            sql.append(i > 0 ? " || " : "").append("websearch_to_tsquery(?::regconfig, ?)");
+        }
+        sql.append(" AS query)\n");
+
+        String orderBy = order == Order.RELEVANCE ? "rank DESC, created_at DESC, platform DESC, id DESC"
+                : "created_at DESC, platform DESC, id DESC";
+        boolean first = true;
+        for (MentionTable source : MentionTable.values()) {
+            if (!platforms.contains(source.platform)) {
+                continue;
+            }
+            String rank = "ts_rank_cd(" + source.table + ".search_vector, q.query)";
+            sql.append(first ? "" : "UNION ALL\n")
+                    .append("(SELECT ").append(source.platform.code()).append("::smallint AS platform, id COLLATE \"C\" AS id, keyword, ")
+                    .append(source.title()).append(" AS title, text, author, ")
+                    .append(source.timeColumn).append(" AS created_at, permalink, ").append(rank).append(" AS rank\n")
+                    .append(" FROM ").append(source.table).append(", q\n")
+                    .append(" WHERE ").append(source.table).append(".search_vector @@ q.query");
+            if (byKeyword) {
+                sql.append(" AND keyword = ?");
+            }
+            if (paged) {
+                sql.append(order == Order.RELEVANCE
+                        ? " AND (" + rank + ", " + source.timeColumn + ", " + source.platform.code() + "::smallint, id COLLATE \"C\") < (?, ?, ?, ?)"
+                        : " AND (" + source.timeColumn + ", " + source.platform.code() + "::smallint, id COLLATE \"C\") < (?, ?, ?)");
+            }
+            sql.append("\n ORDER BY ").append(orderBy).append(" LIMIT ?)\n");
+            first = false;
+        }
+        sql.append("ORDER BY ").append(orderBy).append(" LIMIT ?");
+        return sql.toString();
+    }
+
+    private static List<String> configs() {
+        List<String> configs = new ArrayList<>();
+        for (String config : AppProperties.getProperty("search.ts_configs", "english,simple").split(",")) {
+            if (!config.isBlank()) {
+                configs.add(config.trim());
+            }
+        }
+        return configs;
+    }
+}
@@ -0,0 +1,51 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.MentionSink;
+import com.lit.fire.api.MentionSinkProvider;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+
+/**
+ * Builds the configured {@link MentionSink} from the providers on the classpath.
+ */
+public final class MentionSinks {
+
+    private MentionSinks() {
+    }
+
+    /**
+     * The sinks listed in the sinks setting (default postgres), each configured from its sink.&lt;name&gt;.* settings;
+     * several are combined into a {@link FanOutSink} with the first as primary.
+     */
+    public static MentionSink fromConfig() throws Exception {
+        return create(AppProperties.getProperty("sinks", "postgres").split(","));
+    }
+
+    static MentionSink create(String... names) throws Exception {
+        Map<String, MentionSinkProvider> providers = new HashMap<>();
+        for (MentionSinkProvider provider : ServiceLoader.load(MentionSinkProvider.class)) {
+            providers.putIfAbsent(provider.name(), provider);
+        }
+        List<MentionSink> sinks = new ArrayList<>();
+        for (String name : names) {
+            String id = name.trim();
+            if (id.isEmpty()) {
+                continue;
+            }
+            MentionSinkProvider provider = providers.get(id);
+            if (provider == null) {
+                throw new IllegalArgumentException("Unknown mention sink: " + id + " (available: " + providers.keySet() + ")");
+            }
+            sinks.add(provider.create(key -> AppProperties.getProperty("sink." + id + "." + key)));
+        }
+        if (sinks.isEmpty()) {
+            throw new IllegalArgumentException("No mention sink configured");
+        }
+        Log.info("sink.configured", "sinks", String.join(",", names));
+        return sinks.size() == 1 ? sinks.get(0) : new FanOutSink(sinks);
+    }
+}
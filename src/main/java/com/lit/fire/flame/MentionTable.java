@@ -0,0 +1,55 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Platform;
+
+/**
+ * The mention table of each platform and how its columns map onto the fields every platform shares, for the readers
+ * that query all four tables alike (search, counters, rollups, export).
+ */
+enum MentionTable {
+    X(Platform.X, "x_posts", "created_at", null, "likes_count", "comment_count"),
+    INSTAGRAM(Platform.INSTAGRAM, "instagram_posts", "timestamp", null, "like_count", "comments_count"),
+    REDDIT(Platform.REDDIT, "reddit_posts", "created_at", "title", "score", "num_comments"),
+    YOUTUBE(Platform.YOUTUBE, "youtube_comments", "published_at", "video_title", "likes_count", "reply_count");
+
+    final Platform platform;
+    final String table;
+    /**
+     * The creation time column.
+     */
+    final String timeColumn;
+    private final String titleColumn;
+    private final String likesColumn;
+    private final String repliesColumn;
+
+    MentionTable(Platform platform, String table, String timeColumn, String titleColumn, String likesColumn, String repliesColumn) {
+        this.platform = platform;
+        this.table = table;
+        this.timeColumn = timeColumn;
+        this.titleColumn = titleColumn;
+        this.likesColumn = likesColumn;
+        this.repliesColumn = repliesColumn;
+    }
+
+    static MentionTable of(Platform platform) {
+        return values()[platform.ordinal()];
+    }
+
+    /**
+     * SQL expression for the title: the Reddit submission or YouTube video title, NULL elsewhere.
+     */
+    String title() {
+        return titleColumn != null ? titleColumn : "NULL::text";
+    }
+
+    /**
+     * The likes column (the net score for Reddit).
+     */
+    String likes() {
+        return likesColumn;
+    }
+
+    String replies() {
+        return repliesColumn;
+    }
+}
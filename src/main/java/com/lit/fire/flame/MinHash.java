@@ -0,0 +1,102 @@
+package com.lit.fire.flame;
+
+import java.util.Arrays;
+
+/**
+ * MinHash signatures of mention text, for estimating the word-set (Jaccard) similarity of two texts without
+ * comparing the texts themselves. Word sets hold up well on short social posts: a reworded promo keeps most of its
+ * words even when their order and the surrounding emoji and links change.
+ *
+ * The text is normalized on the fly without allocating: words are runs of letters, digits and combining marks,
+ * lower-cased, so "#TereIshqMein" and "tereishqmein" are the same word; URLs are skipped because shorteners make
+ * every copy of the same promo differ.
+ */
+public final class MinHash {
+
+    /**
+     * Signature length; the similarity estimate has a standard error of about 1 / sqrt(HASHES).
+     */
+    public static final int HASHES = 32;
+
+    private static final long[] MULTIPLIERS = new long[HASHES];
+    private static final long[] INCREMENTS = new long[HASHES];
+
+    static {
+        long seed = 0x5eed_1d0c_a11b_0a7dL;
+        for (int i = 0; i < HASHES; i++) {
+            MULTIPLIERS[i] = Words.mix(seed += 0x9e3779b97f4a7c15L) | 1;
+            INCREMENTS[i] = Words.mix(seed += 0x9e3779b97f4a7c15L);
+        }
+    }
+
+    private MinHash() {
+    }
+
+    /**
+     * Computes the signature of {@code text} into {@code signature} (length {@link #HASHES}).
+     *
+     * @return false if the text has fewer than {@code minWords} words and is too short to compare.
+     */
+    public static boolean compute(String text, int minWords, int[] signature) {
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        if (text == null) {
+            return false;
+        }
+        int words = 0;
+        long word = Words.FNV_OFFSET;
+        int wordLength = 0;
+        int length = text.length();
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (wordLength == 0 && c == 'h' && Words.isUrlStart(text, i)) {
+                i = Words.skipUrl(text, i);
+                continue;
+            }
+            if (Words.isWordChar(c)) {
+                word = (word ^ Character.toLowerCase(c)) * Words.FNV_PRIME;
+                wordLength++;
+            } else if (wordLength > 0) {
+                addWord(signature, Words.mix(word));
+                words++;
+                word = Words.FNV_OFFSET;
+                wordLength = 0;
+            }
+        }
+        return words >= minWords;
+    }
+
+    /**
+     * The fraction of positions at which two signatures agree, an estimate of the Jaccard similarity of the word sets.
+     */
+    public static double similarity(int[] a, int aOffset, int[] b, int bOffset) {
+        int equal = 0;
+        for (int i = 0; i < HASHES; i++) {
+            if (a[aOffset + i] == b[bOffset + i]) {
+                equal++;
+            }
+        }
+        return equal / (double) HASHES;
+    }
+
+    /**
+     * A 64-bit digest of signature positions {@code [from, to)}, used for LSH band keys and cluster IDs. Never 0.
+     */
+    public static long digest(int[] signature, int offset, int from, int to) {
+        long h = Words.FNV_OFFSET;
+        for (int i = from; i < to; i++) {
+            h = Words.mix(h ^ signature[offset + i]);
+        }
+        return h != 0 ? h : 1;
+    }
+
+    private static void addWord(int[] signature, long hash) {
+        for (int i = 0; i < HASHES; i++) {
+            // Multiply-shift hashing: the top 31 bits of a random odd multiple give a non-negative int.
+            int value = (int) ((hash * MULTIPLIERS[i] + INCREMENTS[i]) >>> 33);
+            if (value < signature[i]) {
+                signature[i] = value;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.lit.fire.flame;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.time.Instant;
+
+/**
+ * Writes one JSON object per line. Strings are escaped and encoded straight into the channel buffer.
+ */
+final class NdjsonRowWriter implements MentionRowWriter {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ChannelOutput out;
+    private final StringBuilder scratch = new StringBuilder(256);
+
+    NdjsonRowWriter(FileChannel channel) {
+        this.out = new ChannelOutput(channel, 1 << 16);
+    }
+
+    @Override
+    public void write(MentionRow row) throws IOException {
+        out.putAscii("{\"platform\":\"");
+        out.putAscii(row.platform().id());
+        out.putAscii("\",\"id\":");
+        string(row.id());
+        out.putAscii(",\"keyword\":");
+        string(row.keyword());
+        out.putAscii(",\"created_at\":\"");
+        out.putAscii(Instant.ofEpochMilli(row.createdAtMillis()).toString());
+        out.putAscii("\",\"author\":");
+        string(row.author());
+        out.putAscii(",\"title\":");
+        string(row.title());
+        out.putAscii(",\"text\":");
+        string(row.text());
+        out.putAscii(",\"permalink\":");
+        string(row.permalink());
+        out.putAscii(",\"likes\":");
+        out.putAscii(Integer.toString(row.likes()));
+        out.putAscii(",\"replies\":");
+        out.putAscii(Integer.toString(row.replies()));
+        out.putAscii(",\"sentiment\":");
+        out.putAscii(Float.isNaN(row.sentiment()) ? "null" : Float.toString(row.sentiment()));
+        out.putAscii(",\"emotion\":");
+        string(row.emotion());
+        out.putAscii(",\"cluster_id\":");
+        out.putAscii(row.clusterId() != 0 ? "\"" + Long.toUnsignedString(row.clusterId(), 16) + "\"" : "null");
+        out.putAscii("}\n");
+    }
+
+    private void string(String value) throws IOException {
+        if (value == null) {
+            out.putAscii("null");
+            return;
+        }
+        scratch.setLength(0);
+        scratch.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> scratch.append("\\\"");
+                case '\\' -> scratch.append("\\\\");
+                case '\n' -> scratch.append("\\n");
+                case '\r' -> scratch.append("\\r");
+                case '\t' -> scratch.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        scratch.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        scratch.append(c);
+                    }
+                }
+            }
+        }
+        scratch.append('"');
+        out.putUtf8(scratch);
+    }
+
+    @Override
+    public long checkpoint() throws IOException {
+        return out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
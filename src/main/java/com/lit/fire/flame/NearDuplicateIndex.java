@@ -0,0 +1,154 @@
+package com.lit.fire.flame;
+
+import java.util.Arrays;
+
+/**
+ * A sliding window over the most recent MinHash signatures, indexed for near-duplicate lookup with locality-sensitive
+ * hashing.
+ *
+ * Each signature is cut into 8 bands of 4 values and filed under the digest of every band. Texts whose word sets have
+ * Jaccard similarity s share at least one band with probability 1 - (1 - s^4)^8: about 98% at 0.8, 40% at 0.5 and 6%
+ * at 0.3. Those candidates are then checked against the minimum similarity.
+ *
+ * Everything lives in primitive arrays sized up front: a ring of signatures and cluster IDs, and per band an
+ * open hash table of bucket heads with doubly linked chains through the ring slots, so the oldest entry can be
+ * unlinked in constant time when the ring wraps. The index is guarded by its own monitor; callers should compute
+ * signatures outside it.
+ */
+public class NearDuplicateIndex {
+
+    private static final int BANDS = 8;
+    private static final int ROWS = MinHash.HASHES / BANDS;
+    private static final int EMPTY = -1;
+    /**
+     * Chain entries examined per band before giving up; bounds the cost of a bucket crowded by one huge cluster.
+     */
+    private static final int MAX_PROBES = 256;
+
+    private final int capacity;
+    private final double minSimilarity;
+    private final int[] signatures;
+    private final long[] clusters;
+    private final long[][] bandKeys;
+    private final int[][] heads;
+    private final int[][] next;
+    private final int[][] prev;
+    private final int bucketMask;
+    private final long[] keys = new long[BANDS];
+    private int cursor;
+    private int size;
+    private long matches;
+
+    public NearDuplicateIndex(int capacity, double minSimilarity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.minSimilarity = minSimilarity;
+        this.signatures = new int[capacity * MinHash.HASHES];
+        this.clusters = new long[capacity];
+        this.bandKeys = new long[BANDS][capacity];
+        this.next = new int[BANDS][capacity];
+        this.prev = new int[BANDS][capacity];
+        int buckets = Integer.highestOneBit(Math.max(capacity, 1 << 10) * 2 - 1);
+        this.heads = new int[BANDS][buckets];
+        this.bucketMask = buckets - 1;
+        for (int[] bucketHeads : heads) {
+            Arrays.fill(bucketHeads, EMPTY);
+        }
+    }
+
+    /**
+     * Adds a signature to the window and returns its cluster: the cluster of the most similar signature at or above
+     * the minimum similarity, or a new cluster identified by the signature's digest.
+     */
+    public synchronized long assign(int[] signature) {
+        for (int band = 0; band < BANDS; band++) {
+            keys[band] = MinHash.digest(signature, 0, band * ROWS, (band + 1) * ROWS);
+        }
+        int match = nearest(signature);
+        long cluster;
+        if (match != EMPTY) {
+            cluster = clusters[match];
+            matches++;
+        } else {
+            cluster = MinHash.digest(signature, 0, 0, MinHash.HASHES);
+        }
+
+        int slot = cursor;
+        if (size == capacity) {
+            unlink(slot);
+        } else {
+            size++;
+        }
+        System.arraycopy(signature, 0, signatures, slot * MinHash.HASHES, MinHash.HASHES);
+        clusters[slot] = cluster;
+        link(slot);
+        cursor = slot + 1 == capacity ? 0 : slot + 1;
+        return cluster;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Signatures assigned to an existing cluster so far.
+     */
+    public synchronized long matchCount() {
+        return matches;
+    }
+
+    private int nearest(int[] signature) {
+        int best = EMPTY;
+        double bestSimilarity = minSimilarity;
+        for (int band = 0; band < BANDS; band++) {
+            long key = keys[band];
+            int probes = 0;
+            for (int slot = heads[band][(int) key & bucketMask]; slot != EMPTY && probes < MAX_PROBES; slot = next[band][slot]) {
+                probes++;
+                if (bandKeys[band][slot] != key) {
+                    continue;
+                }
+                double similarity = MinHash.similarity(signatures, slot * MinHash.HASHES, signature, 0);
+                if (similarity >= bestSimilarity && (best == EMPTY || similarity > bestSimilarity)) {
+                    if (similarity == 1.0) {
+                        return slot;
+                    }
+                    best = slot;
+                    bestSimilarity = similarity;
+                }
+            }
+        }
+        return best;
+    }
+
+    private void link(int slot) {
+        for (int band = 0; band < BANDS; band++) {
+            bandKeys[band][slot] = keys[band];
+            int bucket = (int) keys[band] & bucketMask;
+            int head = heads[band][bucket];
+            next[band][slot] = head;
+            prev[band][slot] = EMPTY;
+            if (head != EMPTY) {
+                prev[band][head] = slot;
+            }
+            heads[band][bucket] = slot;
+        }
+    }
+
+    private void unlink(int slot) {
+        for (int band = 0; band < BANDS; band++) {
+            int before = prev[band][slot];
+            int after = next[band][slot];
+            if (before != EMPTY) {
+                next[band][before] = after;
+            } else {
+                heads[band][(int) bandKeys[band][slot] & bucketMask] = after;
+            }
+            if (after != EMPTY) {
+                prev[band][after] = before;
+            }
+        }
+    }
+}
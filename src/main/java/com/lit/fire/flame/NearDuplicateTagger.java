@@ -0,0 +1,51 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+
+import java.util.List;
+
+/**
+ * Enrich stage processor that tags every mention with its near-duplicate cluster, so the same promo copy or bot
+ * spam posted across platforms can be counted once. Signatures are computed on the calling worker thread; only the
+ * index lookup is serialized.
+ *
+ * Configured by dedup.window_size (signatures remembered, default 100000), dedup.min_similarity (estimated share of
+ * words two texts must have in common, default 0.7) and dedup.min_words (shorter texts aren't clustered, default 4).
+ */
+public class NearDuplicateTagger implements BatchProcessor {
+
+    private final NearDuplicateIndex index;
+    private final int minWords;
+
+    public NearDuplicateTagger() {
+        this(new NearDuplicateIndex(AppProperties.getIntProperty("dedup.window_size", 100_000),
+                AppProperties.getDoubleProperty("dedup.min_similarity", 0.7)),
+                AppProperties.getIntProperty("dedup.min_words", 4));
+    }
+
+    NearDuplicateTagger(NearDuplicateIndex index, int minWords) {
+        this.index = index;
+        this.minWords = minWords;
+    }
+
+    @Override
+    public MentionBatch process(MentionBatch batch) {
+        List<Mention> mentions = batch.mentions();
+        int[] signature = new int[MinHash.HASHES];
+        long[] clusterIds = new long[mentions.size()];
+        for (int i = 0; i < clusterIds.length; i++) {
+            if (MinHash.compute(mentions.get(i).fullText(), minWords, signature)) {
+                clusterIds[i] = index.assign(signature);
+            }
+        }
+        return batch.withAnnotations(batch.annotations().withClusterIds(clusterIds));
+    }
+
+    /**
+     * Mentions found to be a near duplicate of an earlier one so far.
+     */
+    public long duplicateCount() {
+        return index.matchCount();
+    }
+}
@@ -0,0 +1,346 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.FetchPlugin;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.RawResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The staged ingest pipeline: fetch → decode → normalize → filter → enrich → sink.
+ *
+ * Each stage owns a bounded queue and a pool of worker threads. Workers hand their output to the next stage with a
+ * blocking put, so a slow stage fills its queue and stalls the stage before it, all the way back to
+ * {@link #submit}. Parallelism and queue capacity are set per stage through pipeline.&lt;stage&gt;.parallelism and
+ * pipeline.&lt;stage&gt;.queue_capacity, and {@link #stats()} exposes throughput and queue depth for each stage.
+ */
+public class Pipeline {
+
+    /**
+     * A keyword waiting to be fetched.
+     */
+    record FetchTask(FetchPlugin plugin, String keyword) {
+    }
+
+    /**
+     * A fetched response together with the plugin that knows how to decode it.
+     */
+    record Fetched(FetchPlugin plugin, RawResponse response) {
+    }
+
+    /**
+     * Processing logic of one stage: consumes an item and emits zero or more results downstream.
+     */
+    interface StageFunction<I, O> {
+        void apply(I item, Emitter<O> emitter) throws Exception;
+    }
+
+    interface Emitter<O> {
+        void emit(O item) throws InterruptedException;
+    }
+
+    /**
+     * A point-in-time view of one stage.
+     *
+     * @param received Items taken off the stage's queue so far.
+     * @param emitted Items handed to the next stage so far.
+     * @param busyMillis Total worker time spent processing, across all workers.
+     */
+    public record StageStats(String name, int parallelism, int queueDepth, int queueCapacity, long received, long emitted,
+                             long errors, long busyMillis) {
+    }
+
+    private final Stage<FetchTask, Fetched> fetch;
+    private final Stage<Fetched, MentionBatch> decode;
+    private final Stage<MentionBatch, MentionBatch> normalize;
+    private final Stage<MentionBatch, MentionBatch> filter;
+    private final Stage<MentionBatch, MentionBatch> enrich;
+    private final Stage<MentionBatch, Void> sink;
+    private final List<Stage<?, ?>> stages;
+    private Thread statsReporter;
+
+    private Pipeline(Builder builder) {
+        sink = new Stage<>("sink", (batch, out) -> builder.sink.write(batch), null);
+        enrich = new Stage<>("enrich", processors("enrich", builder.enrichers), sink);
+        filter = new Stage<>("filter", processors("filter", builder.filters), enrich);
+        normalize = new Stage<>("normalize", processors("normalize", builder.normalizers), filter);
+        decode = new Stage<>("decode", Pipeline::decode, normalize);
+        fetch = new Stage<>("fetch", Pipeline::fetch, decode);
+        stages = List.of(fetch, decode, normalize, filter, enrich, sink);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static void fetch(FetchTask task, Emitter<Fetched> out) throws Exception {
+        List<RawResponse> responses;
+        IngestEvents.scanning(task.keyword());
+        try {
+            responses = task.plugin().fetch(task.keyword());
+        } finally {
+            IngestEvents.scanning(null);
+        }
+        for (RawResponse response : responses) {
+            out.emit(new Fetched(task.plugin(), response));
+        }
+    }
+
+    private static void decode(Fetched fetched, Emitter<MentionBatch> out) throws Exception {
+        RawResponse response = fetched.response();
+        IngestEvents.Decode event = new IngestEvents.Decode();
+        event.begin();
+        List<? extends Mention> mentions = null;
+        boolean decoded = false;
+        try {
+            mentions = fetched.plugin().decode(response);
+            decoded = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.platform = response.platform().id();
+                event.keyword = response.keyword();
+                event.bytes = response.body() == null ? 0 : response.body().length();
+                event.mentions = mentions == null ? 0 : mentions.size();
+                event.status = decoded ? "ok" : "failed";
+                event.commit();
+            }
+        }
+        // A plugin may return null for a response that holds nothing, e.g. an empty page.
+        if (mentions != null && !mentions.isEmpty()) {
+            out.emit(new MentionBatch(response.platform(), response.keyword(), new ArrayList<>(mentions)));
+        }
+    }
+
+    private static StageFunction<MentionBatch, MentionBatch> processors(String stage, List<BatchProcessor> processors) {
+        List<BatchProcessor> chain = List.copyOf(processors);
+        return (batch, out) -> {
+            MentionBatch current = batch;
+            for (BatchProcessor processor : chain) {
+                IngestEvents.Filter event = new IngestEvents.Filter();
+                event.begin();
+                MentionBatch in = current;
+                current = processor.process(in);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.platform = in.platform().id();
+                    event.keyword = in.keyword();
+                    event.stage = stage;
+                    event.processor = processor.getClass().getSimpleName();
+                    event.mentionsIn = in.size();
+                    event.mentionsOut = current == null ? 0 : current.size();
+                    event.commit();
+                }
+                if (current == null || current.isEmpty()) {
+                    return;
+                }
+            }
+            out.emit(current);
+        };
+    }
+
+    public void start() {
+        for (Stage<?, ?> stage : stages) {
+            stage.start();
+        }
+        long intervalSeconds = AppProperties.getIntProperty("pipeline.stats_interval_s", 60);
+        if (intervalSeconds > 0) {
+            statsReporter = new Thread(() -> reportStats(intervalSeconds), "pipeline-stats");
+            statsReporter.setDaemon(true);
+            statsReporter.start();
+        }
+    }
+
+    /**
+     * Queues a keyword for fetching, blocking while the fetch queue is full.
+     */
+    public void submit(FetchPlugin plugin, String keyword) throws InterruptedException {
+        fetch.queue.put(new FetchTask(plugin, keyword));
+    }
+
+    /**
+     * Queues a batch decoded elsewhere, such as crawled comments, at the normalize stage, blocking while it is full.
+     */
+    public void submit(MentionBatch batch) throws InterruptedException {
+        normalize.queue.put(batch);
+    }
+
+    /**
+     * Queues a keyword for fetching if there is room, without blocking.
+     */
+    public boolean offer(FetchPlugin plugin, String keyword) {
+        return fetch.queue.offer(new FetchTask(plugin, keyword));
+    }
+
+    /**
+     * Stops accepting work and waits for everything already queued to flow through to the sink.
+     */
+    public void shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Stage<?, ?> stage : stages) {
+            stage.close();
+            if (!stage.awaitTermination(deadline - System.nanoTime())) {
+                Log.warn("pipeline.shutdown_timeout", "stage", stage.name, "queued", stage.queue.size());
+                break;
+            }
+        }
+        if (statsReporter != null) {
+            statsReporter.interrupt();
+        }
+    }
+
+    public List<StageStats> stats() {
+        List<StageStats> snapshot = new ArrayList<>(stages.size());
+        for (Stage<?, ?> stage : stages) {
+            snapshot.add(stage.stats());
+        }
+        return snapshot;
+    }
+
+    private void reportStats(long intervalSeconds) {
+        try {
+            while (true) {
+                Thread.sleep(intervalSeconds * 1000);
+                for (StageStats s : stats()) {
+                    Log.info("pipeline.stats", "stage", s.name(), "parallelism", s.parallelism(), "queue_depth", s.queueDepth(),
+                            "queue_capacity", s.queueCapacity(), "received", s.received(), "emitted", s.emitted(),
+                            "errors", s.errors(), "busy_ms", s.busyMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            // Pipeline shut down
+        }
+    }
+
+    /**
+     * One stage: a bounded input queue drained by a fixed set of workers.
+     */
+    static final class Stage<I, O> {
+        final String name;
+        final BlockingQueue<I> queue;
+        private final int parallelism;
+        private final StageFunction<I, O> function;
+        private final Stage<O, ?> next;
+        private final LongAdder received = new LongAdder();
+        private final LongAdder emitted = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final CountDownLatch finished;
+        private volatile boolean closed;
+
+        Stage(String name, StageFunction<I, O> function, Stage<O, ?> next) {
+            this.name = name;
+            this.function = function;
+            this.next = next;
+            this.parallelism = Math.max(1, AppProperties.getIntProperty("pipeline." + name + ".parallelism", defaultParallelism(name)));
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, AppProperties.getIntProperty("pipeline." + name + ".queue_capacity", 64)));
+            this.finished = new CountDownLatch(parallelism);
+        }
+
+        private static int defaultParallelism(String name) {
+            return switch (name) {
+                case "fetch" -> 4;
+                case "decode", "normalize", "filter", "enrich" -> Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+                default -> 2;
+            };
+        }
+
+        void start() {
+            for (int i = 0; i < parallelism; i++) {
+                Thread worker = new Thread(this::work, "pipeline-" + name + "-" + i);
+                worker.setDaemon(true);
+                worker.start();
+            }
+        }
+
+        private void work() {
+            Emitter<O> emitter = item -> {
+                if (next != null) {
+                    next.queue.put(item);
+                }
+                emitted.increment();
+            };
+            try {
+                while (!closed || !queue.isEmpty()) {
+                    I item = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (item == null) {
+                        continue;
+                    }
+                    received.increment();
+                    long start = System.nanoTime();
+                    try {
+                        function.apply(item, emitter);
+                    } catch (InterruptedException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        errors.increment();
+                        Log.error("pipeline.stage_failed", e, "stage", name);
+                    } finally {
+                        busyNanos.add(System.nanoTime() - start);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        void close() {
+            closed = true;
+        }
+
+        boolean awaitTermination(long nanos) throws InterruptedException {
+            return finished.await(Math.max(0, nanos), TimeUnit.NANOSECONDS);
+        }
+
+        StageStats stats() {
+            return new StageStats(name, parallelism, queue.size(), queue.size() + queue.remainingCapacity(), received.sum(),
+                    emitted.sum(), errors.sum(), busyNanos.sum() / 1_000_000);
+        }
+    }
+
+    public static final class Builder {
+        private final List<BatchProcessor> normalizers = new ArrayList<>();
+        private final List<BatchProcessor> filters = new ArrayList<>();
+        private final List<BatchProcessor> enrichers = new ArrayList<>();
+        private BatchSink sink;
+
+        private Builder() {
+        }
+
+        public Builder normalize(BatchProcessor processor) {
+            normalizers.add(processor);
+            return this;
+        }
+
+        public Builder filter(BatchProcessor processor) {
+            filters.add(processor);
+            return this;
+        }
+
+        public Builder enrich(BatchProcessor processor) {
+            enrichers.add(processor);
+            return this;
+        }
+
+        public Builder sink(BatchSink sink) {
+            this.sink = sink;
+            return this;
+        }
+
+        public Pipeline build() {
+            if (sink == null) {
+                throw new IllegalStateException("A pipeline needs a sink");
+            }
+            return new Pipeline(this);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.lit.fire.flame;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * Shared HTTP entry point for the platform clients.
+ * Every request goes through one pooled {@link HttpClient}, waits for the platform's {@link RateBudget}, and responses
+ * are handed to {@link TrafficRecorder} so a scan can be captured and later replayed offline.
+ */
+public class PlatformHttp {
+
+    private static final HttpClient CLIENT = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    private PlatformHttp() {
+    }
+
+    /**
+     * Sends the request and returns the response with its body as a string.
+     *
+     * @param platform The platform the request belongs to, e.g. "x" or "reddit".
+     * @param request The request to send.
+     */
+    public static HttpResponse<String> send(String platform, HttpRequest request) throws Exception {
+        RateBudget budget = RateBudget.of(platform);
+        budget.acquire();
+        IngestEvents.Request event = new IngestEvents.Request();
+        event.begin();
+        long start = System.nanoTime();
+        HttpResponse<String> response = CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+        event.end();
+        if (event.shouldCommit()) {
+            event.platform = platform;
+            event.keyword = IngestEvents.scanningKeyword();
+            event.path = request.uri().getPath();
+            event.status = response.statusCode();
+            event.bytes = response.body() == null ? 0 : response.body().length();
+            event.commit();
+        }
+        budget.observe(response.headers());
+        Log.debug("http.response", "platform", platform, "path", request.uri().getPath(), "status", response.statusCode(),
+                "bytes", response.body() == null ? 0 : response.body().length(), "latency_ms", (System.nanoTime() - start) / 1_000_000);
+        TrafficRecorder.record(platform, request.method(), request.uri(), response.statusCode(), response.headers().map(), response.body());
+        return response;
+    }
+}
@@ -0,0 +1,33 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.MentionSink;
+import com.lit.fire.api.MentionSinkProvider;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Writes each batch to its platform table through {@link DatabaseService#save}: one JDBC batch, with the rollups and
+ * tenant links, in one transaction. Rows already stored are skipped and not returned; a failed transaction is thrown
+ * rather than reported as nothing new, so a fan-out never hands its secondaries a batch the database dropped.
+ */
+public class PostgresSink implements MentionSink {
+
+    @Override
+    public MentionBatch write(MentionBatch batch) throws Exception {
+        return DatabaseService.save(batch);
+    }
+
+    public static final class Provider implements MentionSinkProvider {
+
+        @Override
+        public String name() {
+            return "postgres";
+        }
+
+        @Override
+        public MentionSink create(UnaryOperator<String> settings) {
+            return new PostgresSink();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.lit.fire.flame;
+
+import java.net.http.HttpHeaders;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The request budget of one platform, shared by everything that calls it (searches, crawlers, token refreshes).
+ *
+ * A token bucket refilled at ratelimit.&lt;platform&gt;.requests_per_minute (0 or unset: unlimited) and holding up to
+ * ratelimit.&lt;platform&gt;.burst requests. On top of that, a response reporting its quota as spent
+ * (x-ratelimit-remaining or x-rate-limit-remaining below 1) holds every caller until the reported reset has passed.
+ *
+ * Threads marked {@link #lowPriority()} (backfills) only take a request while more than half the burst is left, so
+ * live scans keep their headroom and backfills use what they leave idle.
+ */
+public final class RateBudget {
+
+    private static final ConcurrentHashMap<String, RateBudget> BUDGETS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Boolean> LOW_PRIORITY = ThreadLocal.withInitial(() -> false);
+
+    private final String platform;
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+    private long blockedUntil = refilledAt;
+
+    RateBudget(String platform, int requestsPerMinute, int burst) {
+        this.platform = platform;
+        this.tokensPerNano = requestsPerMinute / 60e9;
+        this.capacity = Math.max(1, burst);
+        this.tokens = capacity;
+    }
+
+    /**
+     * The budget of a platform, e.g. "reddit".
+     */
+    public static RateBudget of(String platform) {
+        return BUDGETS.computeIfAbsent(platform, id -> {
+            int perMinute = AppProperties.getIntProperty("ratelimit." + id + ".requests_per_minute", 0);
+            return new RateBudget(id, perMinute, AppProperties.getIntProperty("ratelimit." + id + ".burst", Math.max(1, perMinute / 6)));
+        });
+    }
+
+    /**
+     * Marks the calling thread's requests as low priority, for all budgets.
+     */
+    public static void lowPriority() {
+        LOW_PRIORITY.set(true);
+    }
+
+    /**
+     * Takes one request from the budget, waiting until it is available. Callers are served in arrival order, except
+     * that low-priority callers yield to everyone else.
+     */
+    public void acquire() throws InterruptedException {
+        if (LOW_PRIORITY.get()) {
+            acquireSpare();
+            return;
+        }
+        long wait;
+        synchronized (this) {
+            long now = System.nanoTime();
+            wait = Math.max(0, blockedUntil - now);
+            if (tokensPerNano > 0) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+                tokens -= 1;
+                if (tokens < 0) {
+                    wait = Math.max(wait, (long) (-tokens / tokensPerNano));
+                }
+            }
+        }
+        if (wait > 0) {
+            Log.debug("ratelimit.wait", "platform", platform, "wait_ms", wait / 1_000_000);
+            Thread.sleep(wait / 1_000_000, (int) (wait % 1_000_000));
+        }
+    }
+
+    /**
+     * The number of requests that could be taken right now without waiting, without taking any.
+     * {@link Integer#MAX_VALUE} if the budget is unlimited.
+     */
+    public synchronized int available() {
+        long now = System.nanoTime();
+        if (blockedUntil - now > 0) {
+            return 0;
+        }
+        if (tokensPerNano == 0) {
+            return Integer.MAX_VALUE;
+        }
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        return (int) Math.max(0, Math.floor(tokens));
+    }
+
+    /**
+     * Waits until a request can be taken while leaving half the burst to normal callers.
+     */
+    private void acquireSpare() throws InterruptedException {
+        double reserve = tokensPerNano > 0 ? capacity / 2 : 0;
+        while (true) {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                wait = blockedUntil - now;
+                if (wait <= 0) {
+                    if (tokensPerNano == 0) {
+                        return;
+                    }
+                    tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                    refilledAt = now;
+                    if (tokens >= reserve + 1) {
+                        tokens -= 1;
+                        return;
+                    }
+                    wait = (long) ((reserve + 1 - tokens) / tokensPerNano);
+                }
+            }
+            // Re-checked after every wait, since normal callers may have taken the refill in the meantime.
+            Thread.sleep(Math.max(1, wait / 1_000_000));
+        }
+    }
+
+    /**
+     * Honours the quota the platform reports in a response, if it reports one.
+     */
+    public void observe(HttpHeaders headers) {
+        long waitMillis = exhaustedFor(headers, System.currentTimeMillis());
+        if (waitMillis < 0) {
+            return;
+        }
+        synchronized (this) {
+            blockedUntil = Math.max(blockedUntil, System.nanoTime() + waitMillis * 1_000_000);
+        }
+        Log.warn("ratelimit.exhausted", "platform", platform, "reset_ms", waitMillis);
+    }
+
+    /**
+     * How long to hold callers after a response reporting its quota as spent, in milliseconds; -1 if the quota is not
+     * spent or not reported. Reddit sends x-ratelimit-reset in seconds from now, X sends x-rate-limit-reset as the
+     * epoch second the window ends.
+     */
+    long exhaustedFor(HttpHeaders headers, long nowMillis) {
+        String remaining = headers.firstValue("x-ratelimit-remaining").orElse(null);
+        String reset = headers.firstValue("x-ratelimit-reset").orElse(null);
+        boolean relative = remaining != null && reset != null;
+        if (!relative) {
+            remaining = headers.firstValue("x-rate-limit-remaining").orElse(null);
+            reset = headers.firstValue("x-rate-limit-reset").orElse(null);
+            if (remaining == null || reset == null) {
+                return -1;
+            }
+        }
+        try {
+            if (Double.parseDouble(remaining) >= 1) {
+                return -1;
+            }
+            double resetMillis = Double.parseDouble(reset) * 1000;
+            return Math.max(0, relative ? (long) resetMillis : (long) resetMillis - nowMillis);
+        } catch (NumberFormatException e) {
+            Log.debug("ratelimit.unparsable", "platform", platform, "remaining", remaining, "reset", reset);
+            return -1;
+        }
+    }
+}
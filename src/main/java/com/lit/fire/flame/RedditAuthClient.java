@@ -2,13 +2,11 @@ package com.lit.fire.flame;
 
 import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
-import java.io.InputStream;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.Base64;
-import java.util.Properties;
 
 /**
  * A client for authenticating with the Reddit API using the OAuth 2.0
@@ -23,33 +21,10 @@ public class RedditAuthClient {
 
     private static final String TOKEN_ENDPOINT = "https://www.reddit.com/api/v1/access_token";
 
-    static {
-        try {
-            loadConfig();
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.exit(1);
-        }
-    }
-
-    private static void loadConfig() throws Exception {
-        Properties properties = new Properties();
-        try (InputStream input = RedditAuthClient.class.getClassLoader().getResourceAsStream("secrets.properties")) {
-            if (input == null) {
-                System.err.println("Error: Unable to find secrets.properties. Please ensure the file exists and contains the required API credentials.");
-                System.exit(1);
-            }
-            properties.load(input);
-        }
-
-        CLIENT_ID = properties.getProperty("reddit.client_id");
-        CLIENT_SECRET = properties.getProperty("reddit.client_secret");
-        REDDIT_USERNAME = properties.getProperty("reddit.username");
-
-        if (CLIENT_ID == null || CLIENT_SECRET == null || REDDIT_USERNAME == null) {
-            System.err.println("Error: Please configure your Reddit API credentials in the secrets.properties file.");
-            System.exit(1);
-        }
+    private static void loadConfig() {
+        CLIENT_ID = AppProperties.requireSecret("reddit.client_id");
+        CLIENT_SECRET = AppProperties.requireSecret("reddit.client_secret");
+        REDDIT_USERNAME = AppProperties.requireSecret("reddit.username");
         USER_AGENT = String.format("java:com.example.redditauth:v1.0 (by /u/%s)", REDDIT_USERNAME);
     }
 
@@ -75,6 +50,9 @@ public class RedditAuthClient {
      * @throws Exception if the request fails or returns an error.
      */
     public static String getAccessToken() throws Exception {
+        if (CLIENT_ID == null) {
+            loadConfig();
+        }
         String credentials = CLIENT_ID + ":" + CLIENT_SECRET;
         String encodedCredentials = Base64.getEncoder().encodeToString(credentials.getBytes());
         String authHeaderValue = "Basic " + encodedCredentials;
@@ -7,63 +7,46 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import com.lit.fire.api.SocialMediaScanner;
+import com.lit.fire.api.Author;
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.PagedFetch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+import com.lit.fire.api.RawResponse;
 
 import java.io.BufferedReader;
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
-import java.util.Properties;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.List;
 
 /**
  * A client for authenticating with the Reddit API using the OAuth 2.0
  * Client Credentials Grant Flow and performing a basic search.
  */
-public class RedditAuthClientWithSearch implements SocialMediaScanner {
+public class RedditAuthClientWithSearch implements PagedFetch {
 
     private static String CLIENT_ID;
     private static String CLIENT_SECRET;
     private static String REDDIT_USERNAME;
     private static String USER_AGENT;
 
-    private static final String TOKEN_ENDPOINT = "https://www.reddit.com/api/v1/access_token";
-    private static final String API_BASE_URL = "https://oauth.reddit.com";
+    private static String cachedToken;
+    private static long cachedTokenExpiresAt;
 
-    static {
-        try {
-            loadConfig();
-        } catch (Exception e) {
-            e.printStackTrace();
-            System.exit(1);
-        }
-    }
-
-    private static void loadConfig() throws Exception {
-        Properties properties = new Properties();
-        try (InputStream input = RedditAuthClientWithSearch.class.getClassLoader().getResourceAsStream("secrets.properties")) {
-            if (input == null) {
-                System.err.println("Error: Unable to find secrets.properties. Please ensure the file exists and contains the required API credentials.");
-                System.exit(1);
-            }
-            properties.load(input);
-        }
+    private static final String TOKEN_ENDPOINT = AppProperties.getProperty("reddit.token_endpoint", "https://www.reddit.com/api/v1/access_token");
+    private static final String API_BASE_URL = AppProperties.getProperty("reddit.api_base_url", "https://oauth.reddit.com");
 
-        CLIENT_ID = properties.getProperty("reddit.client_id");
-        CLIENT_SECRET = properties.getProperty("reddit.client_secret");
-        REDDIT_USERNAME = properties.getProperty("reddit.username");
-
-        if (CLIENT_ID == null || CLIENT_SECRET == null || REDDIT_USERNAME == null) {
-            System.err.println("Error: Please configure your Reddit API credentials in the secrets.properties file.");
-            System.exit(1);
-        }
+    private static void loadConfig() {
+        CLIENT_ID = AppProperties.requireSecret("reddit.client_id");
+        CLIENT_SECRET = AppProperties.requireSecret("reddit.client_secret");
+        REDDIT_USERNAME = AppProperties.requireSecret("reddit.username");
         USER_AGENT = String.format("java:com.example.redditauth:v1.0 (by /u/%s)", REDDIT_USERNAME);
     }
 
@@ -73,12 +56,14 @@ public class RedditAuthClientWithSearch implements SocialMediaScanner {
      * @throws Exception if the request fails or returns an error.
      */
     public static String getAccessToken() throws Exception {
+        return requestToken().getAccessToken();
+    }
+
+    private static RedditToken requestToken() throws Exception {
         String credentials = CLIENT_ID + ":" + CLIENT_SECRET;
         String encodedCredentials = Base64.getEncoder().encodeToString(credentials.getBytes());
         String authHeaderValue = "Basic " + encodedCredentials;
 
-        HttpClient client = HttpClient.newHttpClient();
-
         String requestBody = "grant_type=client_credentials";
 
         HttpRequest request = HttpRequest.newBuilder()
@@ -89,16 +74,12 @@ public class RedditAuthClientWithSearch implements SocialMediaScanner {
                 .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                 .build();
 
-        System.out.println("Sending token request to Reddit...");
-
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = PlatformHttp.send("reddit", request);
 
         if (response.statusCode()!= 200) {
             throw new RuntimeException("Token request failed. Status Code: " + response.statusCode() + ", Body: " + response.body());
         }
 
-        System.out.println("Response received successfully. Parsing token...");
-
         Gson gson = new Gson();
         String responseBody = response.body();
         RedditToken token = gson.fromJson(responseBody, RedditToken.class);
@@ -107,24 +88,35 @@ public class RedditAuthClientWithSearch implements SocialMediaScanner {
             throw new RuntimeException("Failed to parse access token from response body: " + responseBody);
         }
 
-        System.out.println("Token expires in: " + token.getExpiresIn() + " seconds.");
-        return token.getAccessToken();
+        Log.info("token.acquired", "platform", "reddit", "expires_in_s", token.getExpiresIn());
+        return token;
     }
 
     /**
-     * Searches for the latest 10 posts on Reddit matching a query.
+     * Returns a valid access token, requesting a new one shortly before the current one expires.
+     */
+    static synchronized String currentAccessToken() throws Exception {
+        if (cachedToken == null || System.currentTimeMillis() >= cachedTokenExpiresAt) {
+            RedditToken token = requestToken();
+            cachedToken = token.getAccessToken();
+            cachedTokenExpiresAt = System.currentTimeMillis() + Math.max(0, token.getExpiresIn() - 60) * 1000L;
+        }
+        return cachedToken;
+    }
+
+    /**
+     * Searches for the latest 50 posts on Reddit matching a query.
      * @param accessToken The OAuth 2.0 access token.
      * @param query The search term.
+     * @return The raw search.json listing.
      * @throws Exception if the request fails.
      */
-    public static JsonArray searchPosts(String accessToken, String query) throws Exception {
-        System.out.println("\nSearching for the latest 50 posts mentioning '" + query + "'...");
-
+    public static String searchPosts(String accessToken, String query) throws Exception {
+        long start = System.nanoTime();
         String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
 
         String searchUrl = String.format("%s/search.json?q=%s&limit=50&sort=new", API_BASE_URL, encodedQuery);
 
-        HttpClient client = HttpClient.newHttpClient();
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(searchUrl))
                 .header("Authorization", "bearer " + accessToken)
@@ -132,80 +124,156 @@ public class RedditAuthClientWithSearch implements SocialMediaScanner {
                 .GET()
                 .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = PlatformHttp.send("reddit", request);
 
         if (response.statusCode()!= 200) {
             throw new RuntimeException("Search request failed. Status Code: " + response.statusCode() + ", Body: " + response.body());
         }
 
-        System.out.println("Search successful. Found posts:");
+        Log.info("search.completed", "platform", "reddit", "keyword", query, "bytes", response.body().length(),
+                "latency_ms", (System.nanoTime() - start) / 1_000_000);
+        return response.body();
+    }
 
-        String responseBody = response.body();
-        JsonArray posts = new JsonArray();
-
-        if (responseBody != null && !responseBody.isEmpty()) {
-            JsonObject root = JsonParser.parseString(responseBody).getAsJsonObject();
-            JsonObject data = root.getAsJsonObject("data");
-            JsonArray children = data.getAsJsonArray("children");
-
-            for (JsonElement childElement : children) {
-                JsonObject postData = childElement.getAsJsonObject().getAsJsonObject("data");
-                
-                JsonObject postToSave = new JsonObject();
-                postToSave.add("id", postData.get("id"));
-                postToSave.add("title", postData.get("title"));
-                postToSave.add("text", postData.get("selftext"));
-                postToSave.add("created_utc", postData.get("created_utc"));
-                postToSave.add("permalink", postData.get("permalink"));
-                postToSave.add("author", postData.get("author"));
-                postToSave.add("score", postData.get("score"));
-                postToSave.add("num_comments", postData.get("num_comments"));
-
-                posts.add(postToSave);
-            }
+    /**
+     * Fetches one page of up to 100 matching posts, newest first.
+     * @param after The fullname of the last post on the previous page, or null for the first page.
+     * @return The raw search.json listing.
+     * @throws Exception if the request fails.
+     */
+    public static String searchPostsPage(String accessToken, String query, String after) throws Exception {
+        String url = String.format("%s/search.json?q=%s&limit=100&sort=new", API_BASE_URL, URLEncoder.encode(query, StandardCharsets.UTF_8));
+        if (after != null) {
+            url += "&after=" + URLEncoder.encode(after, StandardCharsets.UTF_8);
         }
-        return posts;
+        return get(accessToken, url, "Search");
+    }
+
+    /**
+     * Fetches the comment tree of a submission, newest first.
+     * @param postId The submission ID without its t3_ prefix.
+     * @param depth The maximum reply depth to return.
+     * @param limit The maximum number of comments to return.
+     * @return The raw two-listing response (the submission, then its comments).
+     * @throws Exception if the request fails.
+     */
+    public static String getComments(String accessToken, String postId, int depth, int limit) throws Exception {
+        String url = String.format("%s/comments/%s.json?sort=new&raw_json=1&depth=%d&limit=%d", API_BASE_URL,
+                URLEncoder.encode(postId, StandardCharsets.UTF_8), depth, limit);
+        return get(accessToken, url, "Comments");
+    }
+
+    /**
+     * Expands "more" stubs of a comment tree. Reddit asks for one such call at a time per client.
+     * @param postId The submission ID without its t3_ prefix.
+     * @param childIds At most 100 comment IDs from the stubs.
+     * @return The raw api_type=json response listing the expanded comments.
+     * @throws Exception if the request fails.
+     */
+    public static synchronized String getMoreChildren(String accessToken, String postId, List<String> childIds) throws Exception {
+        String url = String.format("%s/api/morechildren?api_type=json&raw_json=1&sort=new&limit_children=false&link_id=t3_%s&children=%s",
+                API_BASE_URL, URLEncoder.encode(postId, StandardCharsets.UTF_8),
+                URLEncoder.encode(String.join(",", childIds), StandardCharsets.UTF_8));
+        return get(accessToken, url, "More children");
+    }
+
+    private static String get(String accessToken, String url, String what) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Authorization", "bearer " + accessToken)
+                .header("User-Agent", USER_AGENT)
+                .GET()
+                .build();
+
+        HttpResponse<String> response = PlatformHttp.send("reddit", request);
+
+        if (response.statusCode() != 200) {
+            throw new RuntimeException(what + " request failed. Status Code: " + response.statusCode() + ", Body: " + response.body());
+        }
+        return response.body();
     }
 
     @Override
-    public void scan() {
-        String resourceName = "search_queries.txt";
+    public Platform platform() {
+        return Platform.REDDIT;
+    }
 
-        try {
-            String accessToken = getAccessToken();
-            System.out.println("Successfully retrieved Reddit API Access Token.");
+    @Override
+    public void init() throws Exception {
+        loadConfig();
+    }
 
-            try (InputStream is = RedditAuthClientWithSearch.class.getClassLoader().getResourceAsStream(resourceName)) {
-                if (is == null) {
-                    System.err.println("Resource not found: " + resourceName);
-                    return;
-                }
-                try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
-                    String searchQuery;
-
-                    while ((searchQuery = br.readLine()) != null) {
-                        searchQuery = searchQuery.trim();
-
-                        if (!searchQuery.isEmpty()) {
-                            System.out.println("Searching for: " + searchQuery);
-                            JsonArray posts = searchPosts(accessToken, searchQuery);
-                            if (posts.size() > 0) {
-                                DatabaseService.saveRedditPosts(posts, searchQuery);
-                            }
-                            long delay = ThreadLocalRandom.current().nextLong(300000, 600001);
-                            System.out.println(System.currentTimeMillis() + ": Waiting for " + (delay / 60000) + " minutes before the next keyword...");
-                            Thread.sleep(delay);
-                        }
+    @Override
+    public List<String> keywords() throws Exception {
+        String resourceName = "search_queries.txt";
+        List<String> keywords = new ArrayList<>();
+        try (InputStream is = RedditAuthClientWithSearch.class.getClassLoader().getResourceAsStream(resourceName)) {
+            if (is == null) {
+                Log.warn("keywords.missing", "platform", "reddit", "resource", resourceName);
+                return keywords;
+            }
+            try (BufferedReader br = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8))) {
+                String searchQuery;
+                while ((searchQuery = br.readLine()) != null) {
+                    searchQuery = searchQuery.trim();
+                    if (!searchQuery.isEmpty()) {
+                        keywords.add(searchQuery);
                     }
                 }
-            } catch (IOException e) {
-                System.err.println("Error reading the file: " + e.getMessage());
             }
+        }
+        return keywords;
+    }
 
-        } catch (Exception e) {
-            System.err.println("An error occurred during the process.");
-            e.printStackTrace();
+    @Override
+    public List<RawResponse> fetch(String query) throws Exception {
+        return List.of(new RawResponse(Platform.REDDIT, query, searchPosts(currentAccessToken(), query)));
+    }
+
+    /**
+     * Pages through sort=new search results with Reddit's after cursor, as far back as the listing goes (about 1000
+     * posts).
+     */
+    @Override
+    public Page fetchPage(String query, String cursor) throws Exception {
+        String body = searchPostsPage(currentAccessToken(), query, cursor);
+        JsonObject data = JsonParser.parseString(body).getAsJsonObject().getAsJsonObject("data");
+        return new Page(List.of(new RawResponse(Platform.REDDIT, query, body)), data != null ? stringOrNull(data, "after") : null);
+    }
+
+    @Override
+    public List<Post> decode(RawResponse raw) {
+        return parseSearchResponse(raw.body(), raw.keyword());
+    }
+
+    /**
+     * Decodes a search.json listing into posts.
+     */
+    static List<Post> parseSearchResponse(String responseBody, String keyword) {
+        if (responseBody == null || responseBody.isEmpty()) {
+            return List.of();
         }
+
+        JsonObject root = JsonParser.parseString(responseBody).getAsJsonObject();
+        JsonArray children = root.getAsJsonObject("data").getAsJsonArray("children");
+        List<Post> posts = new ArrayList<>(children.size());
+
+        for (JsonElement childElement : children) {
+            JsonObject postData = childElement.getAsJsonObject().getAsJsonObject("data");
+            Author author = new Author(stringOrNull(postData, "author_fullname"), stringOrNull(postData, "author"), null);
+            Engagement engagement = Engagement.of(postData.has("score") ? postData.get("score").getAsInt() : 0,
+                    postData.has("num_comments") ? postData.get("num_comments").getAsInt() : 0);
+            posts.add(new Post(Platform.REDDIT, postData.get("id").getAsString(), keyword,
+                    stringOrNull(postData, "title"), stringOrNull(postData, "selftext"), author,
+                    Timestamps.epochSecondsToMillis(postData.get("created_utc").getAsDouble()),
+                    stringOrNull(postData, "permalink"), engagement, null, null));
+        }
+        return posts;
+    }
+
+    static String stringOrNull(JsonObject object, String member) {
+        JsonElement value = object.get(member);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
     }
 
     /**
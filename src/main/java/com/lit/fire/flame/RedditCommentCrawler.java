@@ -0,0 +1,265 @@
+package com.lit.fire.flame;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.lit.fire.api.Author;
+import com.lit.fire.api.Comment;
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Crawls the comment trees of matched Reddit submissions and feeds them to the {@link Pipeline}.
+ *
+ * The sink hands over every Reddit batch; a submission is crawled when its num_comments has grown since the last crawl
+ * (recorded in reddit_comment_crawls), so unchanged threads cost nothing on later passes. Crawls run on
+ * reddit.comments.parallelism worker threads behind a queue of reddit.comments.queue_capacity submissions; when the
+ * queue is full a submission is skipped and picked up again on a later pass. Every request draws from the shared
+ * Reddit {@link RateBudget}.
+ *
+ * A crawl fetches /comments/{id} down to reddit.comments.max_depth levels, then expands the "more" stubs through
+ * /api/morechildren, 100 IDs per call, until the tree is complete, reddit.comments.max_per_post comments have been
+ * collected or reddit.comments.max_requests_per_post requests have been made. The comments of a submission are queued as
+ * one batch at the pipeline's normalize stage, so they pass the same processors as mentions and reach the configured
+ * {@link com.lit.fire.api.MentionSink}, which stores them in reddit_comments; the new crawl count is recorded once the
+ * batch is queued. A batch that a failing sink drops is crawled again once the submission gains comments.
+ */
+public class RedditCommentCrawler {
+
+    static final int MORE_CHILDREN_BATCH = 100;
+
+    /**
+     * The comments collected for one submission so far and the stub IDs still to expand.
+     */
+    static final class Tree {
+        final Post post;
+        final int maxDepth;
+        final int maxComments;
+        final List<Comment> comments = new ArrayList<>();
+        final Deque<String> more = new ArrayDeque<>();
+        private final Map<String, Integer> depths = new HashMap<>();
+
+        Tree(Post post, int maxDepth, int maxComments) {
+            this.post = post;
+            this.maxDepth = maxDepth;
+            this.maxComments = maxComments;
+        }
+
+        boolean full() {
+            return comments.size() >= maxComments;
+        }
+
+        /**
+         * Adds the comments of a /comments/{id} response, walking nested replies.
+         */
+        void addListing(String body) {
+            JsonArray listings = JsonParser.parseString(body).getAsJsonArray();
+            if (listings.size() > 1) {
+                addChildren(listings.get(1).getAsJsonObject(), 0);
+            }
+        }
+
+        /**
+         * Adds the flat list of comments and stubs of a /api/morechildren response.
+         */
+        void addMoreChildren(String body) {
+            JsonObject json = JsonParser.parseString(body).getAsJsonObject().getAsJsonObject("json");
+            JsonObject data = json != null ? json.getAsJsonObject("data") : null;
+            if (data == null || !data.has("things")) {
+                return;
+            }
+            for (JsonElement thing : data.getAsJsonArray("things")) {
+                add(thing.getAsJsonObject(), -1);
+            }
+        }
+
+        private void addChildren(JsonObject listing, int depth) {
+            JsonObject data = listing.getAsJsonObject("data");
+            if (data == null || !data.has("children")) {
+                return;
+            }
+            for (JsonElement child : data.getAsJsonArray("children")) {
+                add(child.getAsJsonObject(), depth);
+            }
+        }
+
+        /**
+         * @param depth The depth implied by the position in the tree, or -1 to take it from the thing or its parent.
+         */
+        private void add(JsonObject thing, int depth) {
+            String kind = thing.get("kind").getAsString();
+            JsonObject data = thing.getAsJsonObject("data");
+            if (depth < 0) {
+                depth = data.has("depth") ? data.get("depth").getAsInt() : depthOfChild(RedditAuthClientWithSearch.stringOrNull(data, "parent_id"));
+            }
+            if (depth >= maxDepth) {
+                return;
+            }
+            if ("more".equals(kind)) {
+                // A stub without children is a "continue this thread" link beyond the depth requested.
+                for (JsonElement id : data.getAsJsonArray("children")) {
+                    more.add(id.getAsString());
+                }
+                return;
+            }
+            if (!"t1".equals(kind) || full()) {
+                return;
+            }
+            String id = data.get("id").getAsString();
+            String parent = RedditAuthClientWithSearch.stringOrNull(data, "parent_id");
+            depths.put(id, depth);
+            comments.add(new Comment(Platform.REDDIT, id, post.keyword(),
+                    parent != null && parent.startsWith("t1_") ? parent.substring(3) : null, post.id(), post.title(),
+                    RedditAuthClientWithSearch.stringOrNull(data, "body"),
+                    new Author(RedditAuthClientWithSearch.stringOrNull(data, "author_fullname"),
+                            RedditAuthClientWithSearch.stringOrNull(data, "author"), null),
+                    Timestamps.epochSecondsToMillis(data.get("created_utc").getAsDouble()),
+                    RedditAuthClientWithSearch.stringOrNull(data, "permalink"),
+                    Engagement.of(data.has("score") ? data.get("score").getAsInt() : 0, 0)));
+            JsonElement replies = data.get("replies");
+            if (replies != null && replies.isJsonObject()) {
+                addChildren(replies.getAsJsonObject(), depth + 1);
+            }
+        }
+
+        private int depthOfChild(String parentId) {
+            if (parentId == null || !parentId.startsWith("t1_")) {
+                return 0;
+            }
+            Integer parentDepth = depths.get(parentId.substring(3));
+            return parentDepth != null ? parentDepth + 1 : 0;
+        }
+
+        /**
+         * Takes the next batch of stub IDs to expand.
+         */
+        List<String> nextMore() {
+            List<String> ids = new ArrayList<>(Math.min(more.size(), MORE_CHILDREN_BATCH));
+            while (!more.isEmpty() && ids.size() < MORE_CHILDREN_BATCH) {
+                ids.add(more.poll());
+            }
+            return ids;
+        }
+    }
+
+    private final int maxDepth = AppProperties.getIntProperty("reddit.comments.max_depth", 5);
+    private final int maxComments = AppProperties.getIntProperty("reddit.comments.max_per_post", 500);
+    private final int maxRequests = AppProperties.getIntProperty("reddit.comments.max_requests_per_post", 20);
+    private final ThreadPoolExecutor executor;
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private volatile Pipeline pipeline;
+
+    public RedditCommentCrawler() {
+        int parallelism = Math.max(1, AppProperties.getIntProperty("reddit.comments.parallelism", 2));
+        AtomicInteger threads = new AtomicInteger();
+        executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, AppProperties.getIntProperty("reddit.comments.queue_capacity", 200))),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "reddit-comments-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Whether a batch holds crawled comments rather than Reddit submissions.
+     */
+    static boolean isComments(MentionBatch batch) {
+        return batch.platform() == Platform.REDDIT && !batch.mentions().isEmpty() && batch.mentions().get(0) instanceof Comment;
+    }
+
+    /**
+     * Starts crawling; comments are fed to the given pipeline. Batches submitted before this are ignored.
+     */
+    public void start(Pipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /**
+     * Queues the submissions of a Reddit batch whose comment count has grown since they were last crawled.
+     */
+    public void submit(MentionBatch batch) {
+        if (pipeline == null || batch.platform() != Platform.REDDIT || isComments(batch)) {
+            return;
+        }
+        List<String> ids = new ArrayList<>();
+        for (Mention mention : batch.mentions()) {
+            if (mention.engagement().replies() > 0) {
+                ids.add(mention.id());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        Map<String, Integer> crawled;
+        try {
+            crawled = DatabaseService.commentCrawlCounts(ids);
+        } catch (Exception e) {
+            Log.error("reddit.comments.state_failed", e, "keyword", batch.keyword());
+            return;
+        }
+        if (crawled == null) {
+            return;
+        }
+        for (Mention mention : batch.mentions()) {
+            int comments = mention.engagement().replies();
+            if (comments <= crawled.getOrDefault(mention.id(), 0) || !(mention instanceof Post post) || !queued.add(post.id())) {
+                continue;
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        crawl(post, comments);
+                    } finally {
+                        queued.remove(post.id());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                queued.remove(post.id());
+                Log.debug("reddit.comments.skipped", "post_id", post.id(), "queued", executor.getQueue().size());
+            }
+        }
+    }
+
+    private void crawl(Post post, int numComments) {
+        long start = System.nanoTime();
+        try {
+            String token = RedditAuthClientWithSearch.currentAccessToken();
+            Tree tree = new Tree(post, maxDepth, maxComments);
+            tree.addListing(RedditAuthClientWithSearch.getComments(token, post.id(), maxDepth, Math.min(maxComments, 500)));
+            int requests = 1;
+            while (!tree.full() && !tree.more.isEmpty() && requests < maxRequests) {
+                tree.addMoreChildren(RedditAuthClientWithSearch.getMoreChildren(token, post.id(), tree.nextMore()));
+                requests++;
+            }
+            if (!tree.comments.isEmpty()) {
+                pipeline.submit(new MentionBatch(Platform.REDDIT, post.keyword(), new ArrayList<>(tree.comments)));
+            }
+            DatabaseService.recordCommentCrawl(post.id(), numComments);
+            Log.info("reddit.comments.crawled", "post_id", post.id(), "keyword", post.keyword(), "comments", tree.comments.size(),
+                    "requests", requests, "latency_ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            Log.error("reddit.comments.failed", e, "post_id", post.id());
+        }
+    }
+}
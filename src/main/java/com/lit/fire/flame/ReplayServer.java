@@ -0,0 +1,277 @@
+package com.lit.fire.flame;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A local stand-in for one platform API that serves responses captured by {@link TrafficRecorder}.
+ *
+ * Requests are matched on method, path and query (credentials ignored). When there is no exact match the
+ * recordings for the same path are served round-robin, so scans for keywords that were never recorded still
+ * get realistic payloads. Latency, rate-limit headers and injected errors are configurable:
+ *
+ * replay.latency_ms / replay.latency_jitter_ms       added delay per request
+ * replay.error_rate / replay.error_status            fraction of requests answered with an error (default 503)
+ * replay.rate_limit.requests / .window_seconds       request budget per window; 429 once it is spent
+ * replay.&lt;platform&gt;.port                            listen port (defaults 18081-18084)
+ *
+ * Run {@link #main} to start all four servers, then point the scanners at them through x.api_url,
+ * instagram.graph_api_url, reddit.api_base_url, reddit.token_endpoint and youtube.root_url, or simply set
+ * traffic.mode=replay and let {@link Main} do both.
+ */
+public class ReplayServer {
+
+    public static final List<String> PLATFORMS = List.of("x", "instagram", "reddit", "youtube");
+
+    private static final Map<String, Integer> DEFAULT_PORTS = Map.of("x", 18081, "instagram", 18082, "reddit", 18083, "youtube", 18084);
+    private static final Set<String> HOP_HEADERS = Set.of("content-length", "transfer-encoding", "content-encoding", "connection", "date");
+
+    private final String platform;
+    private final int port;
+    private final Map<String, JsonObject> byKey = new HashMap<>();
+    private final Map<String, List<JsonObject>> byPath = new HashMap<>();
+    private final Map<String, AtomicInteger> pathCursors = new ConcurrentHashMap<>();
+
+    private final long latencyMs = AppProperties.getIntProperty("replay.latency_ms", 0);
+    private final long latencyJitterMs = AppProperties.getIntProperty("replay.latency_jitter_ms", 0);
+    private final double errorRate = AppProperties.getDoubleProperty("replay.error_rate", 0.0);
+    private final int errorStatus = AppProperties.getIntProperty("replay.error_status", 503);
+    private final int rateLimit = AppProperties.getIntProperty("replay.rate_limit.requests", 0);
+    private final long rateWindowMs = AppProperties.getIntProperty("replay.rate_limit.window_seconds", 900) * 1000L;
+
+    private final Object rateLock = new Object();
+    private long windowStart = System.currentTimeMillis();
+    private int windowUsed;
+
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private HttpServer server;
+
+    public ReplayServer(String platform) {
+        this(platform, AppProperties.getIntProperty("replay." + platform + ".port", DEFAULT_PORTS.getOrDefault(platform, 18080)));
+    }
+
+    public ReplayServer(String platform, int port) {
+        this.platform = platform;
+        this.port = port;
+    }
+
+    /**
+     * Loads the recordings for this platform and starts listening. Handlers run on virtual threads so injected
+     * latency never limits the number of in-flight requests.
+     */
+    public ReplayServer start() throws IOException {
+        loadRecordings(TrafficRecorder.trafficDir().resolve(platform));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+        Log.info("replay.started", "platform", platform, "recordings", byKey.size(), "url", baseUrl());
+        return this;
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port;
+    }
+
+    public long servedCount() {
+        return served.get();
+    }
+
+    public long injectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    public long throttledCount() {
+        return throttled.get();
+    }
+
+    private void loadRecordings(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            Log.warn("replay.no_recordings", "platform", platform, "dir", dir);
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : files) {
+                try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    JsonObject exchange = JsonParser.parseReader(reader).getAsJsonObject();
+                    String method = exchange.get("method").getAsString();
+                    String path = exchange.get("path").getAsString();
+                    String query = exchange.get("query").getAsString();
+                    byKey.put(key(method, path, query), exchange);
+                    byPath.computeIfAbsent(method + " " + path, k -> new ArrayList<>()).add(exchange);
+                }
+            }
+        }
+    }
+
+    private static String key(String method, String path, String canonicalQuery) {
+        return method + " " + path + "?" + canonicalQuery;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            served.incrementAndGet();
+
+            long delay = latencyMs + (latencyJitterMs > 0 ? ThreadLocalRandom.current().nextLong(latencyJitterMs + 1) : 0);
+            if (delay > 0) {
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            Map<String, String> rateHeaders = new LinkedHashMap<>();
+            boolean allowed = takeRateBudget(rateHeaders);
+            rateHeaders.forEach((name, value) -> exchange.getResponseHeaders().set(name, value));
+
+            if (!allowed) {
+                throttled.incrementAndGet();
+                respond(exchange, 429, "{\"title\":\"Too Many Requests\",\"detail\":\"Replay rate limit exceeded\",\"status\":429}");
+                return;
+            }
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.incrementAndGet();
+                respond(exchange, errorStatus, "{\"error\":\"injected by replay server\",\"status\":" + errorStatus + "}");
+                return;
+            }
+
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getRawPath();
+            JsonObject recorded = lookup(method, path, TrafficRecorder.canonicalQuery(exchange.getRequestURI().getRawQuery()));
+            if (recorded == null) {
+                if (path.endsWith("/access_token")) {
+                    respond(exchange, 200, "{\"access_token\":\"replay-token\",\"token_type\":\"bearer\",\"expires_in\":86400,\"scope\":\"*\"}");
+                } else {
+                    respond(exchange, 404, "{\"error\":\"no recording for " + method + " " + path + "\"}");
+                }
+                return;
+            }
+
+            for (Map.Entry<String, JsonElement> header : recorded.getAsJsonObject("headers").entrySet()) {
+                String name = header.getKey();
+                if (!HOP_HEADERS.contains(name) && !rateHeaders.containsKey(name)) {
+                    exchange.getResponseHeaders().set(name, header.getValue().getAsString());
+                }
+            }
+            JsonElement body = recorded.get("body");
+            respond(exchange, recorded.get("status").getAsInt(), body == null || body.isJsonNull() ? "" : body.getAsString());
+        }
+    }
+
+    private JsonObject lookup(String method, String path, String canonicalQuery) {
+        JsonObject exact = byKey.get(key(method, path, canonicalQuery));
+        if (exact != null) {
+            return exact;
+        }
+        List<JsonObject> samePath = byPath.get(method + " " + path);
+        if (samePath == null || samePath.isEmpty()) {
+            return null;
+        }
+        int next = pathCursors.computeIfAbsent(method + " " + path, k -> new AtomicInteger()).getAndIncrement();
+        return samePath.get(Math.floorMod(next, samePath.size()));
+    }
+
+    /**
+     * Spends one request from the current window and fills in both the X (x-rate-limit-*) and Reddit
+     * (x-ratelimit-*) header styles, so each client sees the headers it expects.
+     */
+    private boolean takeRateBudget(Map<String, String> headers) {
+        if (rateLimit <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        boolean allowed;
+        int used;
+        long resetAt;
+        synchronized (rateLock) {
+            if (now - windowStart >= rateWindowMs) {
+                windowStart = now;
+                windowUsed = 0;
+            }
+            allowed = windowUsed < rateLimit;
+            if (allowed) {
+                windowUsed++;
+            }
+            used = windowUsed;
+            resetAt = windowStart + rateWindowMs;
+        }
+        int remaining = Math.max(0, rateLimit - used);
+        headers.put("x-rate-limit-limit", String.valueOf(rateLimit));
+        headers.put("x-rate-limit-remaining", String.valueOf(remaining));
+        headers.put("x-rate-limit-reset", String.valueOf(resetAt / 1000));
+        headers.put("x-ratelimit-used", String.valueOf(used));
+        headers.put("x-ratelimit-remaining", String.valueOf(remaining));
+        headers.put("x-ratelimit-reset", String.valueOf(Math.max(0, (resetAt - now) / 1000)));
+        return allowed;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (!exchange.getResponseHeaders().containsKey("content-type")) {
+            exchange.getResponseHeaders().set("content-type", "application/json; charset=UTF-8");
+        }
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    /**
+     * Starts a replay server per platform and points the scanners' base URLs at them through system properties.
+     * Must run before the scanner classes are loaded, since they read their base URLs once.
+     */
+    public static List<ReplayServer> startAll() throws IOException {
+        List<ReplayServer> servers = new ArrayList<>();
+        for (String platform : PLATFORMS) {
+            servers.add(new ReplayServer(platform).start());
+        }
+        System.setProperty("x.api_url", servers.get(0).baseUrl() + "/2");
+        System.setProperty("instagram.graph_api_url", servers.get(1).baseUrl() + "/v24.0");
+        System.setProperty("reddit.api_base_url", servers.get(2).baseUrl());
+        System.setProperty("reddit.token_endpoint", servers.get(2).baseUrl() + "/api/v1/access_token");
+        System.setProperty("youtube.root_url", servers.get(3).baseUrl() + "/");
+        return servers;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> platforms = args.length > 0 ? List.of(args) : PLATFORMS;
+        for (String platform : platforms) {
+            new ReplayServer(platform).start();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.MentionSink;
+import com.lit.fire.api.MentionSinkProvider;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.function.UnaryOperator;
+
+/**
+ * Appends every mention to rolling NDJSON or {@link MentionColumnFile columnar} files in a directory, through the
+ * same buffered row writers as {@link MentionExporter}.
+ *
+ * The file being written is named {@code mentions-<UTC start time>-<sequence>.<ext>.part}; it is completed and
+ * renamed without the .part suffix once it reaches sink.file.roll_bytes or has been open sink.file.roll_minutes,
+ * so readers only pick up finished files. Buffered rows are flushed to the open file at most sink.file.flush_ms
+ * apart (a columnar file ends its row group there). Every mention written is returned as new: the sink keeps no
+ * index of what it holds.
+ */
+public class RollingFileSink implements MentionSink {
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmssSSS").withZone(ZoneOffset.UTC);
+
+    private final Path dir;
+    private final MentionExporter.Format format;
+    private final long rollBytes;
+    private final long rollMillis;
+    private final long flushMillis;
+    private FileChannel channel;
+    private MentionRowWriter writer;
+    private Path part;
+    private long openedAt;
+    private long flushedAt;
+    private int sequence;
+
+    public RollingFileSink(Path dir, MentionExporter.Format format, long rollBytes, long rollMillis, long flushMillis) throws IOException {
+        this.dir = dir;
+        this.format = format;
+        this.rollBytes = rollBytes;
+        this.rollMillis = rollMillis;
+        this.flushMillis = flushMillis;
+        Files.createDirectories(dir);
+    }
+
+    @Override
+    public synchronized MentionBatch write(MentionBatch batch) throws IOException {
+        long now = System.currentTimeMillis();
+        if (writer != null && (channel.position() >= rollBytes || now - openedAt >= rollMillis)) {
+            roll();
+        }
+        if (writer == null) {
+            open(now);
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            writer.write(MentionRow.of(batch, i));
+        }
+        if (now - flushedAt >= flushMillis) {
+            writer.checkpoint();
+            flushedAt = now;
+        }
+        return batch;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (writer != null) {
+            writer.checkpoint();
+            channel.force(false);
+            flushedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Completes the open file, if any.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            roll();
+        }
+    }
+
+    private void open(long now) throws IOException {
+        String name = "mentions-" + FILE_TIME.format(Instant.ofEpochMilli(now)) + "-" + (sequence++)
+                + (format == MentionExporter.Format.NDJSON ? ".ndjson" : ".mcol");
+        part = dir.resolve(name + ".part");
+        channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            writer = format == MentionExporter.Format.NDJSON ? new NdjsonRowWriter(channel) : new MentionColumnFile.Writer(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        openedAt = now;
+        flushedAt = now;
+    }
+
+    private void roll() throws IOException {
+        MentionRowWriter closing = writer;
+        Path completed = part.resolveSibling(part.getFileName().toString().replaceFirst("\\.part$", ""));
+        writer = null;
+        try {
+            closing.checkpoint();
+            channel.force(false);
+            closing.close();
+        } finally {
+            channel.close();
+        }
+        Files.move(part, completed, StandardCopyOption.ATOMIC_MOVE);
+        Log.info("sink.file_rolled", "file", completed);
+    }
+
+    public static final class Provider implements MentionSinkProvider {
+
+        @Override
+        public String name() {
+            return "file";
+        }
+
+        /**
+         * Settings: dir (default mention-files), format (ndjson or columnar), roll_bytes, roll_minutes and flush_ms.
+         */
+        @Override
+        public MentionSink create(UnaryOperator<String> settings) throws IOException {
+            return new RollingFileSink(Path.of(setting(settings, "dir", "mention-files")),
+                    MentionExporter.Format.valueOf(setting(settings, "format", "ndjson").toUpperCase()),
+                    Long.parseLong(setting(settings, "roll_bytes", "268435456")),
+                    Long.parseLong(setting(settings, "roll_minutes", "60")) * 60_000L,
+                    Long.parseLong(setting(settings, "flush_ms", "1000")));
+        }
+
+        private static String setting(UnaryOperator<String> settings, String key, String defaultValue) {
+            String value = settings.apply(key);
+            return value != null && !value.isBlank() ? value : defaultValue;
+        }
+    }
+}
@@ -0,0 +1,370 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.FetchPlugin;
+import com.lit.fire.api.Keywords;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Schedules the scan of every tracked (platform, keyword) pair on one {@link TimerWheel}, so tens of thousands of
+ * keywords cost a wheel entry each rather than a thread or a sleep.
+ *
+ * Each keyword belongs to a priority class, which sets how often it is scanned (scan.interval_minutes.&lt;class&gt;);
+ * keywords listed in scan.keywords.high or scan.keywords.low take those classes, all others are normal. Due times
+ * are jittered by scan.jitter of the interval, and new keywords start at a random point of their first interval, so
+ * scans of many keywords spread out instead of arriving together.
+ *
+ * A single thread advances the wheel every scan.tick_ms and moves due keywords to their platform's ready queues. From
+ * there they are handed to the {@link Pipeline}, the highest class first, while the platform's {@link RateBudget} has
+ * requests to spare (at most scan.dispatch.max_per_tick per platform and tick) and the fetch queue has room; otherwise
+ * they wait. A keyword dispatched more than scan.deadline_slack_s after it was due counts as a missed deadline.
+ *
+ * Every scan.keywords_refresh_minutes each platform is re-initialised and its keyword list reloaded together with the
+ * {@link Tenants} subscriptions; keywords that disappeared are cancelled. Keywords are tracked once per platform
+ * however many tenants subscribe to them, at the highest priority any of them asked for.
+ */
+public class ScanScheduler {
+
+    public enum Priority {
+        HIGH(15),
+        NORMAL(60),
+        LOW(360);
+
+        private final long intervalMillis;
+
+        Priority(int defaultMinutes) {
+            this.intervalMillis = AppProperties.getIntProperty("scan.interval_minutes." + name().toLowerCase(), defaultMinutes) * 60_000L;
+        }
+    }
+
+    /**
+     * Dispatch counters of one priority class since the scheduler started.
+     *
+     * @param maxLatenessMillis The longest a keyword of this class has waited past its due time.
+     */
+    public record ClassStats(Priority priority, int tracked, int ready, long dispatched, long missed, long maxLatenessMillis) {
+    }
+
+    /**
+     * One tracked keyword.
+     */
+    private static final class ScanTask {
+        final Lane lane;
+        /**
+         * The {@link Keywords#squash key} keywords are deduplicated by.
+         */
+        final String key;
+        /**
+         * The form the platform searches for.
+         */
+        final String keyword;
+        Priority priority;
+        long dueMillis;
+        TimerWheel.Timeout<Object> timeout;
+        boolean cancelled;
+
+        ScanTask(Lane lane, String key, String keyword, Priority priority) {
+            this.lane = lane;
+            this.key = key;
+            this.keyword = keyword;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * The keyword list reload of one platform.
+     */
+    private record Refresh(Lane lane) {
+    }
+
+    /**
+     * The keywords of one platform and those waiting for its budget.
+     */
+    private static final class Lane {
+        final FetchPlugin plugin;
+        final RateBudget budget;
+        final Map<String, ScanTask> tasks = new HashMap<>();
+        final List<ArrayDeque<ScanTask>> ready = new ArrayList<>();
+
+        Lane(FetchPlugin plugin) {
+            this.plugin = plugin;
+            this.budget = RateBudget.of(plugin.platform().id());
+            for (int i = 0; i < Priority.values().length; i++) {
+                ready.add(new ArrayDeque<>());
+            }
+        }
+    }
+
+    private final Pipeline pipeline;
+    private final long tickMillis = Math.max(10, AppProperties.getIntProperty("scan.tick_ms", 1000));
+    private final double jitter = AppProperties.getDoubleProperty("scan.jitter", 0.1);
+    private final boolean stagger = Boolean.parseBoolean(AppProperties.getProperty("scan.stagger", "true"));
+    private final int maxPerTick = Math.max(1, AppProperties.getIntProperty("scan.dispatch.max_per_tick", 4));
+    private final long slackMillis = AppProperties.getIntProperty("scan.deadline_slack_s", 60) * 1000L;
+    private final long refreshMillis = AppProperties.getIntProperty("scan.keywords_refresh_minutes", 60) * 60_000L;
+    private final long retryMillis = AppProperties.getIntProperty("scan.retry_minutes", 360) * 60_000L;
+    private final Set<String> highKeywords = keywordSet("scan.keywords.high");
+    private final Set<String> lowKeywords = keywordSet("scan.keywords.low");
+    private final TimerWheel<Object> wheel = new TimerWheel<>(tickMillis, System.currentTimeMillis());
+    private final List<Lane> lanes = new ArrayList<>();
+    private final long[] dispatched = new long[Priority.values().length];
+    private final long[] missed = new long[Priority.values().length];
+    private final long[] maxLateness = new long[Priority.values().length];
+    private final ExecutorService refresher;
+    private Thread ticker;
+
+    public ScanScheduler(Pipeline pipeline) {
+        this.pipeline = pipeline;
+        AtomicInteger threads = new AtomicInteger();
+        refresher = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "scan-refresh-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a platform; its keywords are loaded once the scheduler starts.
+     */
+    public synchronized void add(FetchPlugin plugin) {
+        Lane lane = new Lane(plugin);
+        lanes.add(lane);
+        wheel.schedule(new Refresh(lane), System.currentTimeMillis());
+    }
+
+    public synchronized void start() {
+        ticker = new Thread(this::tick, "scan-scheduler");
+        ticker.setDaemon(true);
+        ticker.start();
+        long intervalSeconds = AppProperties.getIntProperty("pipeline.stats_interval_s", 60);
+        if (intervalSeconds > 0) {
+            Thread reporter = new Thread(() -> reportStats(intervalSeconds), "scan-stats");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
+    }
+
+    public synchronized List<ClassStats> stats() {
+        List<ClassStats> snapshot = new ArrayList<>();
+        for (Priority priority : Priority.values()) {
+            int tracked = 0;
+            int ready = 0;
+            for (Lane lane : lanes) {
+                ready += lane.ready.get(priority.ordinal()).size();
+                for (ScanTask task : lane.tasks.values()) {
+                    if (task.priority == priority) {
+                        tracked++;
+                    }
+                }
+            }
+            int i = priority.ordinal();
+            snapshot.add(new ClassStats(priority, tracked, ready, dispatched[i], missed[i], maxLateness[i]));
+        }
+        return snapshot;
+    }
+
+    private void tick() {
+        try {
+            while (true) {
+                long now = System.currentTimeMillis();
+                synchronized (this) {
+                    wheel.advance(now, timeout -> expire(timeout.task));
+                    dispatch(now);
+                }
+                Thread.sleep(tickMillis - Math.floorMod(System.currentTimeMillis() - now, tickMillis));
+            }
+        } catch (InterruptedException e) {
+            Log.warn("scan.scheduler_interrupted");
+        }
+    }
+
+    private void expire(Object entry) {
+        if (entry instanceof ScanTask task) {
+            task.timeout = null;
+            if (!task.cancelled) {
+                task.lane.ready.get(task.priority.ordinal()).add(task);
+            }
+        } else if (entry instanceof Refresh refresh) {
+            refresher.execute(() -> refresh(refresh.lane));
+        }
+    }
+
+    /**
+     * Hands ready keywords to the pipeline, highest class first, as far as budgets and the fetch queue allow.
+     */
+    private void dispatch(long now) {
+        for (Lane lane : lanes) {
+            int allowance = Math.min(maxPerTick, lane.budget.available());
+            for (ArrayDeque<ScanTask> ready : lane.ready) {
+                while (allowance > 0 && !ready.isEmpty()) {
+                    ScanTask task = ready.peek();
+                    if (task.cancelled) {
+                        ready.poll();
+                        continue;
+                    }
+                    if (!pipeline.offer(lane.plugin, task.keyword)) {
+                        // The fetch stage is saturated; everything waits for the next tick.
+                        recordDispatch(task, now, "queue_full");
+                        return;
+                    }
+                    ready.poll();
+                    allowance--;
+                    recordDispatch(task, now, "dispatched");
+                    account(task, now);
+                    reschedule(task, now);
+                }
+            }
+        }
+    }
+
+    private static void recordDispatch(ScanTask task, long now, String status) {
+        IngestEvents.Dispatch event = new IngestEvents.Dispatch();
+        if (event.shouldCommit()) {
+            event.platform = task.lane.plugin.platform().id();
+            event.keyword = task.keyword;
+            event.priority = task.priority.name().toLowerCase();
+            event.lateness = now - task.dueMillis;
+            event.status = status;
+            event.commit();
+        }
+    }
+
+    private void account(ScanTask task, long now) {
+        int i = task.priority.ordinal();
+        long lateness = now - task.dueMillis;
+        dispatched[i]++;
+        maxLateness[i] = Math.max(maxLateness[i], lateness);
+        if (lateness > slackMillis) {
+            missed[i]++;
+            Log.debug("scan.deadline_missed", "platform", task.lane.plugin.platform().id(), "keyword", task.keyword,
+                    "priority", task.priority.name().toLowerCase(), "late_ms", lateness);
+        }
+    }
+
+    /**
+     * Schedules the next scan one interval after the due time just served, so late dispatches don't drift the
+     * schedule, but never in the past.
+     */
+    private void reschedule(ScanTask task, long now) {
+        long due = jittered(task.dueMillis, task.priority.intervalMillis);
+        if (due <= now) {
+            due = jittered(now, task.priority.intervalMillis);
+        }
+        task.dueMillis = due;
+        task.timeout = wheel.schedule(task, due);
+    }
+
+    private long jittered(long from, long interval) {
+        long spread = (long) (interval * jitter);
+        return from + interval + (spread > 0 ? ThreadLocalRandom.current().nextLong(-spread, spread + 1) : 0);
+    }
+
+    /**
+     * Re-initialises a platform and brings its tracked keywords in line with its keyword list and the tenants'
+     * subscriptions, each unique keyword once. Runs off the ticker thread, since both may call the network.
+     */
+    private void refresh(Lane lane) {
+        String platform = lane.plugin.platform().id();
+        long next = refreshMillis;
+        try {
+            lane.plugin.init();
+            Map<String, String> keywords = new LinkedHashMap<>();
+            for (String keyword : lane.plugin.keywords()) {
+                keywords.putIfAbsent(Keywords.squash(keyword), keyword);
+            }
+            Map<String, Tenants.Subscription> subscriptions = Tenants.subscriptions();
+            for (Map.Entry<String, Tenants.Subscription> entry : subscriptions.entrySet()) {
+                keywords.putIfAbsent(entry.getKey(), lane.plugin.searchForm(entry.getValue().keyword()));
+            }
+            int added = 0;
+            int removed = 0;
+            synchronized (this) {
+                long now = System.currentTimeMillis();
+                for (ScanTask task : new ArrayList<>(lane.tasks.values())) {
+                    if (!keywords.containsKey(task.key)) {
+                        cancel(task);
+                        removed++;
+                    }
+                }
+                for (Map.Entry<String, String> entry : keywords.entrySet()) {
+                    Tenants.Subscription subscription = subscriptions.get(entry.getKey());
+                    Priority priority = priorityOf(entry.getKey(), subscription != null ? subscription.priority() : Priority.LOW);
+                    ScanTask existing = lane.tasks.get(entry.getKey());
+                    if (existing != null) {
+                        // Takes effect from the next due time.
+                        existing.priority = priority;
+                        continue;
+                    }
+                    ScanTask task = new ScanTask(lane, entry.getKey(), entry.getValue(), priority);
+                    long offset = stagger ? ThreadLocalRandom.current().nextLong(task.priority.intervalMillis) : 0;
+                    task.dueMillis = now + offset;
+                    task.timeout = wheel.schedule(task, task.dueMillis);
+                    lane.tasks.put(task.key, task);
+                    added++;
+                }
+            }
+            Log.info("scan.keywords_loaded", "platform", platform, "keywords", keywords.size(), "subscribed", subscriptions.size(),
+                    "added", added, "removed", removed);
+        } catch (Exception e) {
+            Log.error("scan.failed", e, "platform", platform);
+            next = retryMillis;
+        }
+        synchronized (this) {
+            wheel.schedule(new Refresh(lane), System.currentTimeMillis() + next);
+        }
+    }
+
+    private void cancel(ScanTask task) {
+        task.cancelled = true;
+        if (task.timeout != null) {
+            wheel.cancel(task.timeout);
+            task.timeout = null;
+        }
+        task.lane.tasks.remove(task.key);
+    }
+
+    /**
+     * The class of a keyword: the higher of the configured one and {@code subscribed}, the highest any subscribing
+     * tenant asked for.
+     */
+    private Priority priorityOf(String key, Priority subscribed) {
+        Priority configured = highKeywords.contains(key) ? Priority.HIGH : lowKeywords.contains(key) ? Priority.LOW : Priority.NORMAL;
+        return configured.ordinal() < subscribed.ordinal() ? configured : subscribed;
+    }
+
+    private static Set<String> keywordSet(String property) {
+        Set<String> keywords = new HashSet<>();
+        for (String keyword : AppProperties.getProperty(property, "").split(",")) {
+            if (!keyword.isBlank()) {
+                keywords.add(Keywords.squash(keyword));
+            }
+        }
+        return keywords;
+    }
+
+    private void reportStats(long intervalSeconds) {
+        try {
+            while (true) {
+                Thread.sleep(intervalSeconds * 1000);
+                for (ClassStats s : stats()) {
+                    Log.info("scan.stats", "priority", s.priority().name().toLowerCase(), "tracked", s.tracked(),
+                            "ready", s.ready(), "dispatched", s.dispatched(), "missed", s.missed(),
+                            "max_late_ms", s.maxLatenessMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            // Scheduler shut down
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Emotion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The sentiment lexicon (sentiment_lexicon.tsv on the classpath), compiled into a {@link LongIntHashMap} from word
+ * hash to a packed entry so the scorer never builds a token string.
+ *
+ * An entry packs the valence in tenths as a signed byte (bits 0-7), the emotion bit set by {@link Emotion} ordinal
+ * (bits 8-15) and the {@code KIND_*} of word (bits 16-18). 0 means "not in the lexicon".
+ */
+final class SentimentLexicon {
+
+    static final int KIND_WORD = 0;
+    static final int KIND_NEGATE = 1;
+    static final int KIND_BOOST = 2;
+    static final int KIND_DAMPEN = 3;
+    static final int KIND_BUT = 4;
+
+    private static final String RESOURCE = "sentiment_lexicon.tsv";
+
+    private final LongIntHashMap entries;
+
+    private SentimentLexicon(LongIntHashMap entries) {
+        this.entries = entries;
+    }
+
+    static SentimentLexicon load() {
+        try (InputStream input = SentimentLexicon.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+            if (input == null) {
+                throw new IllegalStateException("Missing " + RESOURCE + " on the classpath");
+            }
+            LongIntHashMap entries = new LongIntHashMap(512);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                long hash = hashOf(fields[0]);
+                if (hash == 0 || fields.length < 2) {
+                    throw new IllegalStateException(RESOURCE + ":" + lineNumber + ": malformed entry");
+                }
+                entries.put(hash, compile(fields, RESOURCE + ":" + lineNumber));
+            }
+            return new SentimentLexicon(entries);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int compile(String[] fields, String where) {
+        switch (fields[1]) {
+            case "NEGATE":
+                return KIND_NEGATE << 16;
+            case "BOOST":
+                return KIND_BOOST << 16;
+            case "DAMPEN":
+                return KIND_DAMPEN << 16;
+            case "BUT":
+                return KIND_BUT << 16;
+            default:
+                break;
+        }
+        int valence = Math.round(Float.parseFloat(fields[1]) * 10);
+        if (valence < -40 || valence > 40) {
+            throw new IllegalStateException(where + ": valence must be within -4..4");
+        }
+        int emotions = 0;
+        if (fields.length > 2 && !fields[2].equals("-")) {
+            for (String emotion : fields[2].split(",")) {
+                emotions |= 1 << Emotion.valueOf(emotion.trim().toUpperCase()).ordinal();
+            }
+        }
+        // A neutral word without emotions carries no information; keep it distinguishable from "missing" anyway.
+        return (KIND_WORD << 16) | (emotions << 8) | (valence & 0xFF) | (valence == 0 && emotions == 0 ? 1 << 19 : 0);
+    }
+
+    int lookup(long hash) {
+        return entries.get(hash, 0);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    static int kind(int entry) {
+        return (entry >>> 16) & 0x7;
+    }
+
+    static float valence(int entry) {
+        return (byte) entry / 10f;
+    }
+
+    static int emotions(int entry) {
+        return (entry >>> 8) & 0xFF;
+    }
+
+    /**
+     * The hash the scorer computes for {@code token} when it meets it in a text.
+     */
+    static long hashOf(String token) {
+        int first = token.codePointAt(0);
+        if (Words.isEmoji(first)) {
+            return emojiHash(first);
+        }
+        long word = Words.FNV_OFFSET;
+        boolean any = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (Words.isWordChar(c)) {
+                word = (word ^ Character.toLowerCase(c)) * Words.FNV_PRIME;
+                any = true;
+            }
+        }
+        return any ? Words.mix(word) : 0;
+    }
+
+    static long emojiHash(int codePoint) {
+        return Words.mix((Words.FNV_OFFSET ^ codePoint) * Words.FNV_PRIME);
+    }
+}
@@ -0,0 +1,181 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Emotion;
+
+/**
+ * Lexicon and rule based sentiment and emotion scoring, in the spirit of VADER: word valences from the lexicon,
+ * flipped by a preceding negation, shifted by intensifiers ("very") and dampeners ("slightly"), emphasized by ALL
+ * CAPS and exclamation marks, with the clause after "but" outweighing the one before it. The summed valence is
+ * squashed into a compound score from -1 to 1.
+ *
+ * The text is scanned once, hashing each word in place, so scoring allocates nothing. A scorer holds per-text scratch
+ * state and must not be shared between threads; the lexicon is shared.
+ */
+public final class SentimentScorer {
+
+    private static final SentimentLexicon LEXICON = SentimentLexicon.load();
+
+    /**
+     * Words after a negation that it still flips.
+     */
+    private static final int NEGATION_SCOPE = 3;
+    private static final float NEGATION_FACTOR = -0.74f;
+    private static final float BOOST = 0.293f;
+    private static final float CAPS_BOOST = 0.733f;
+    private static final float EXCLAMATION_BOOST = 0.292f;
+    private static final int MAX_EXCLAMATIONS = 4;
+    /**
+     * Normalization constant; a summed valence of about ±3.9 (one strongly charged word) maps to ±0.7.
+     */
+    private static final float ALPHA = 15f;
+    private static final int EMOTIONS = Emotion.values().length;
+
+    private float sum;
+    private float weight;
+    private float boost;
+    private int negation;
+    private long emotionCounts;
+    private int emotion;
+
+    /**
+     * Scores {@code text}, returning the compound sentiment; {@link #emotion()} then holds its dominant emotion.
+     */
+    public float score(String text) {
+        sum = 0;
+        weight = 1;
+        boost = 0;
+        negation = 0;
+        emotionCounts = 0;
+        emotion = 0;
+        if (text == null) {
+            return 0;
+        }
+
+        int exclamations = 0;
+        long word = Words.FNV_OFFSET;
+        int wordLength = 0;
+        boolean hasLower = false;
+        boolean hasUpper = false;
+        int length = text.length();
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (wordLength == 0 && c == 'h' && Words.isUrlStart(text, i)) {
+                i = Words.skipUrl(text, i);
+                continue;
+            }
+            if (Words.isWordChar(c)) {
+                word = (word ^ Character.toLowerCase(c)) * Words.FNV_PRIME;
+                wordLength++;
+                hasLower |= Character.isLowerCase(c);
+                hasUpper |= Character.isUpperCase(c);
+                continue;
+            }
+            if (wordLength > 0 && Words.isApostrophe(c)) {
+                continue;
+            }
+            if (wordLength > 0) {
+                apply(LEXICON.lookup(Words.mix(word)), hasUpper && !hasLower && wordLength > 2);
+                word = Words.FNV_OFFSET;
+                wordLength = 0;
+                hasLower = false;
+                hasUpper = false;
+            }
+            if (c == '!') {
+                exclamations++;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length) {
+                int codePoint = text.codePointAt(i);
+                if (Words.isEmoji(codePoint)) {
+                    apply(LEXICON.lookup(SentimentLexicon.emojiHash(codePoint)), false);
+                }
+                i++;
+            } else if (Words.isEmoji(c)) {
+                apply(LEXICON.lookup(SentimentLexicon.emojiHash(c)), false);
+            }
+        }
+
+        if (sum != 0 && exclamations > 0) {
+            sum += Math.signum(sum) * EXCLAMATION_BOOST * Math.min(exclamations, MAX_EXCLAMATIONS);
+        }
+        emotion = dominantEmotion(emotionCounts);
+        return (float) (sum / Math.sqrt(sum * sum + ALPHA));
+    }
+
+    /**
+     * The {@link Emotion#code()} of the dominant emotion of the last text scored, or 0 if it expressed none.
+     */
+    public int emotion() {
+        return emotion;
+    }
+
+    private void apply(int entry, boolean caps) {
+        if (entry == 0) {
+            boost = 0;
+            if (negation > 0) {
+                negation--;
+            }
+            return;
+        }
+        switch (SentimentLexicon.kind(entry)) {
+            case SentimentLexicon.KIND_NEGATE:
+                negation = NEGATION_SCOPE;
+                boost = 0;
+                return;
+            case SentimentLexicon.KIND_BOOST:
+                boost += BOOST;
+                break;
+            case SentimentLexicon.KIND_DAMPEN:
+                boost -= BOOST;
+                break;
+            case SentimentLexicon.KIND_BUT:
+                sum *= 0.5f;
+                weight = 1.5f;
+                boost = 0;
+                negation = 0;
+                return;
+            default:
+                float valence = SentimentLexicon.valence(entry);
+                if (valence != 0) {
+                    valence += Math.signum(valence) * (boost + (caps ? CAPS_BOOST : 0));
+                    if (negation > 0) {
+                        valence *= NEGATION_FACTOR;
+                    }
+                    sum += valence * weight;
+                }
+                if (negation == 0) {
+                    countEmotions(SentimentLexicon.emotions(entry));
+                }
+                boost = 0;
+                break;
+        }
+        if (negation > 0) {
+            negation--;
+        }
+    }
+
+    /**
+     * Emotion counts are packed eight bits per emotion into one long, saturating at 255.
+     */
+    private void countEmotions(int emotions) {
+        while (emotions != 0) {
+            int ordinal = Integer.numberOfTrailingZeros(emotions);
+            if (((emotionCounts >>> (ordinal * 8)) & 0xFF) != 0xFF) {
+                emotionCounts += 1L << (ordinal * 8);
+            }
+            emotions &= emotions - 1;
+        }
+    }
+
+    private static int dominantEmotion(long counts) {
+        int best = 0;
+        long bestCount = 0;
+        for (int ordinal = 0; ordinal < EMOTIONS; ordinal++) {
+            long count = (counts >>> (ordinal * 8)) & 0xFF;
+            if (count > bestCount) {
+                best = ordinal + 1;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,89 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+
+import java.io.Serial;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Enrich stage processor that scores the sentiment and dominant emotion of every mention before it is persisted.
+ *
+ * Batches of sentiment.parallel_threshold mentions or more (default 512, e.g. from a backfill) are split across the
+ * common fork/join pool; ordinary API-sized batches are scored on the calling worker, which the enrich stage already
+ * runs in parallel.
+ */
+public class SentimentTagger implements BatchProcessor {
+
+    /**
+     * Mentions a fork/join leaf scores sequentially.
+     */
+    private static final int LEAF_SIZE = 128;
+
+    private static final ThreadLocal<SentimentScorer> SCORERS = ThreadLocal.withInitial(SentimentScorer::new);
+
+    private final int parallelThreshold;
+
+    public SentimentTagger() {
+        this(AppProperties.getIntProperty("sentiment.parallel_threshold", 512));
+    }
+
+    SentimentTagger(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    @Override
+    public MentionBatch process(MentionBatch batch) {
+        List<Mention> mentions = batch.mentions();
+        float[] scores = new float[mentions.size()];
+        byte[] emotions = new byte[mentions.size()];
+        if (mentions.size() >= parallelThreshold) {
+            ForkJoinPool.commonPool().invoke(new ScoreTask(mentions, 0, mentions.size(), scores, emotions));
+        } else {
+            score(mentions, 0, mentions.size(), scores, emotions);
+        }
+        return batch.withAnnotations(batch.annotations().withSentiment(scores, emotions));
+    }
+
+    private static void score(List<Mention> mentions, int from, int to, float[] scores, byte[] emotions) {
+        SentimentScorer scorer = SCORERS.get();
+        for (int i = from; i < to; i++) {
+            scores[i] = scorer.score(mentions.get(i).fullText());
+            emotions[i] = (byte) scorer.emotion();
+        }
+    }
+
+    private static final class ScoreTask extends RecursiveAction {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // Tasks never leave the pool, so the batch's list need not be serializable.
+        @SuppressWarnings("serial")
+        private final List<Mention> mentions;
+        private final int from;
+        private final int to;
+        private final float[] scores;
+        private final byte[] emotions;
+
+        ScoreTask(List<Mention> mentions, int from, int to, float[] scores, byte[] emotions) {
+            this.mentions = mentions;
+            this.from = from;
+            this.to = to;
+            this.scores = scores;
+            this.emotions = emotions;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                score(mentions, from, to, scores, emotions);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ScoreTask(mentions, from, middle, scores, emotions),
+                    new ScoreTask(mentions, middle, to, scores, emotions));
+        }
+    }
+}
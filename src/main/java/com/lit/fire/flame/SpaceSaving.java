@@ -0,0 +1,135 @@
+package com.lit.fire.flame;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The Space-Saving top-k summary (Metwally, Agrawal and El Abbadi): at most capacity monitored items, each with a
+ * count. An item not monitored takes the place of the one with the smallest count and starts from that count, which
+ * it records as its error. Every count is then an upper bound, off by at most its error, and every item that occurred
+ * more than N/capacity times among N is monitored.
+ *
+ * The items sit in a binary min-heap on their counts, so an add costs O(log capacity).
+ */
+final class SpaceSaving {
+
+    private final String[] items;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+
+    SpaceSaving(int capacity) {
+        items = new String[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        positions = new HashMap<>(capacity * 2);
+    }
+
+    void add(String item) {
+        Integer position = positions.get(item);
+        if (position != null) {
+            counts[position]++;
+            siftDown(position);
+        } else if (size < items.length) {
+            put(size++, item, 1, 0);
+            siftUp(size - 1);
+        } else {
+            positions.remove(items[0]);
+            put(0, item, counts[0] + 1, counts[0]);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * An upper bound on the item's count: its own count if monitored, otherwise the smallest monitored count (or 0
+     * while the summary has room, since then every item seen is monitored).
+     */
+    long upperBound(String item) {
+        Integer position = positions.get(item);
+        return position != null ? counts[position] : min();
+    }
+
+    long min() {
+        return size < items.length ? 0 : counts[0];
+    }
+
+    int size() {
+        return size;
+    }
+
+    String item(int i) {
+        return items[i];
+    }
+
+    long count(int i) {
+        return counts[i];
+    }
+
+    long error(int i) {
+        return errors[i];
+    }
+
+    /**
+     * Adds a monitored item with its count and error as saved, e.g. from a snapshot. Ignored once the summary is full.
+     */
+    void restore(String item, long count, long error) {
+        if (size < items.length && !positions.containsKey(item)) {
+            put(size++, item, count, error);
+            siftUp(size - 1);
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            items[i] = null;
+        }
+        positions.clear();
+        size = 0;
+    }
+
+    private void put(int i, String item, long count, long error) {
+        items[i] = item;
+        counts[i] = count;
+        errors[i] = error;
+        positions.put(item, i);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (counts[parent] <= counts[i]) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < size && counts[left] < counts[smallest]) {
+                smallest = left;
+            }
+            if (right < size && counts[right] < counts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String item = items[a];
+        long count = counts[a];
+        long error = errors[a];
+        put(a, items[b], counts[b], errors[b]);
+        put(b, item, count, error);
+    }
+}
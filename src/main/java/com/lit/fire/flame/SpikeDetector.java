@@ -0,0 +1,236 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming breakout detection on mention velocity and negative sentiment per keyword and platform.
+ *
+ * Mentions are counted into buckets of alerts.bucket_minutes by creation time. Each (keyword, platform) keeps the last
+ * alerts.window_buckets buckets open, since scans deliver recent mentions late and out of order; when a bucket falls
+ * out of that window it is folded into exponentially weighted moving averages (weight alerts.alpha) of the count per
+ * bucket and the negative share, with their variance. Memory per key is constant.
+ *
+ * Every recorded mention re-checks only its own bucket against the baseline, in constant time: the bucket alerts when
+ * its count exceeds the mean by alerts.z_threshold standard deviations, or its share of negative mentions does and has
+ * risen by at least alerts.negative.min_rise. Buckets need alerts.min_mentions mentions, the baseline needs
+ * alerts.warmup_buckets folded buckets, and after an alert the same kind stays quiet for that key for
+ * alerts.cooldown_minutes of bucket time.
+ *
+ * Like {@link MentionCounters}, only newly inserted mentions should be recorded.
+ */
+public class SpikeDetector {
+
+    /**
+     * Mentions scored at or below this are negative, as in VADER.
+     */
+    static final float NEGATIVE_SENTIMENT = -0.05f;
+    /**
+     * Gaps longer than this many buckets fold only this many empty buckets; the baseline has decayed by then.
+     */
+    private static final int MAX_FOLDED_GAP = 1000;
+
+    /**
+     * Detection parameters; see the class comment for the matching configuration keys.
+     */
+    record Settings(int bucketMinutes, int windowBuckets, double alpha, double zThreshold, int minMentions,
+                    int warmupBuckets, int cooldownMinutes, double minNegativeRise) {
+
+        static Settings fromConfig() {
+            return new Settings(AppProperties.getIntProperty("alerts.bucket_minutes", 5),
+                    AppProperties.getIntProperty("alerts.window_buckets", 12),
+                    AppProperties.getDoubleProperty("alerts.alpha", 0.1),
+                    AppProperties.getDoubleProperty("alerts.z_threshold", 4.0),
+                    AppProperties.getIntProperty("alerts.min_mentions", 20),
+                    AppProperties.getIntProperty("alerts.warmup_buckets", 12),
+                    AppProperties.getIntProperty("alerts.cooldown_minutes", 60),
+                    AppProperties.getDoubleProperty("alerts.negative.min_rise", 0.15));
+        }
+    }
+
+    /**
+     * Exponentially weighted mean and variance of one measure.
+     */
+    private static final class Ewma {
+        double mean;
+        double variance;
+        int samples;
+
+        void add(double value, double alpha) {
+            if (samples++ == 0) {
+                mean = value;
+                return;
+            }
+            double diff = value - mean;
+            double increment = alpha * diff;
+            mean += increment;
+            variance = (1 - alpha) * (variance + diff * increment);
+        }
+    }
+
+    private final class State {
+        final long[] bucketOf = new long[settings.windowBuckets];
+        final int[] counts = new int[settings.windowBuckets];
+        final int[] scored = new int[settings.windowBuckets];
+        final int[] negatives = new int[settings.windowBuckets];
+        final Ewma rate = new Ewma();
+        final Ewma negativeShare = new Ewma();
+        long first = Long.MIN_VALUE;
+        long newest;
+        long lastRateAlert = Long.MIN_VALUE;
+        long lastShareAlert = Long.MIN_VALUE;
+
+        /**
+         * Counts the mention and returns the alert it triggers, if any.
+         */
+        Alert observe(String keyword, Platform platform, long bucket, float sentiment) {
+            if (first == Long.MIN_VALUE) {
+                first = bucket;
+                newest = bucket;
+            }
+            if (bucket > newest) {
+                advance(bucket);
+            }
+            if (bucket <= newest - settings.windowBuckets || bucket < first) {
+                return null;
+            }
+            int slot = (int) Math.floorMod(bucket, (long) settings.windowBuckets);
+            if (bucketOf[slot] != bucket) {
+                bucketOf[slot] = bucket;
+                counts[slot] = 0;
+                scored[slot] = 0;
+                negatives[slot] = 0;
+            }
+            counts[slot]++;
+            if (!Float.isNaN(sentiment)) {
+                scored[slot]++;
+                if (sentiment <= NEGATIVE_SENTIMENT) {
+                    negatives[slot]++;
+                }
+            }
+            return evaluate(keyword, platform, slot, bucket);
+        }
+
+        /**
+         * Folds the buckets that leave the window when {@code bucket} becomes the newest; buckets never seen count
+         * as empty.
+         */
+        private void advance(long bucket) {
+            long from = Math.max(first, newest - settings.windowBuckets + 1);
+            long to = Math.min(bucket - settings.windowBuckets, from + MAX_FOLDED_GAP);
+            for (long b = from; b <= to; b++) {
+                int slot = (int) Math.floorMod(b, (long) settings.windowBuckets);
+                boolean seen = bucketOf[slot] == b;
+                rate.add(seen ? counts[slot] : 0, settings.alpha);
+                if (seen && scored[slot] >= settings.minMentions) {
+                    negativeShare.add((double) negatives[slot] / scored[slot], settings.alpha);
+                }
+            }
+            newest = bucket;
+        }
+
+        private Alert evaluate(String keyword, Platform platform, int slot, long bucket) {
+            int count = counts[slot];
+            if (count < settings.minMentions) {
+                return null;
+            }
+            if (rate.samples >= settings.warmupBuckets && bucket >= lastRateAlert + cooldownBuckets) {
+                // Counts are roughly Poisson, so the deviation is never taken below sqrt(mean) (or 1).
+                double deviation = Math.max(Math.sqrt(rate.variance), Math.max(Math.sqrt(rate.mean), 1));
+                double z = (count - rate.mean) / deviation;
+                if (z > settings.zThreshold) {
+                    lastRateAlert = bucket;
+                    return alert(Alert.Kind.RATE, keyword, platform, bucket, count, rate.mean, z);
+                }
+            }
+            if (scored[slot] >= settings.minMentions && negativeShare.samples >= settings.warmupBuckets
+                    && bucket >= lastShareAlert + cooldownBuckets) {
+                double share = (double) negatives[slot] / scored[slot];
+                double deviation = Math.max(Math.sqrt(negativeShare.variance), 0.05);
+                double z = (share - negativeShare.mean) / deviation;
+                if (z > settings.zThreshold && share - negativeShare.mean >= settings.minNegativeRise) {
+                    lastShareAlert = bucket;
+                    return alert(Alert.Kind.NEGATIVE_SHARE, keyword, platform, bucket, share, negativeShare.mean, z);
+                }
+            }
+            return null;
+        }
+
+        private Alert alert(Alert.Kind kind, String keyword, Platform platform, long bucket, double observed,
+                            double baseline, double z) {
+            return new Alert(kind, keyword, platform, bucket * bucketMillis, settings.bucketMinutes, observed, baseline, z);
+        }
+    }
+
+    private final Settings settings;
+    private final List<AlertSink> sinks;
+    private final long bucketMillis;
+    private final long cooldownBuckets;
+    private final ConcurrentHashMap<String, State[]> states = new ConcurrentHashMap<>();
+
+    public SpikeDetector(List<AlertSink> sinks) {
+        this(Settings.fromConfig(), sinks);
+    }
+
+    SpikeDetector(Settings settings, List<AlertSink> sinks) {
+        this.settings = settings;
+        this.sinks = List.copyOf(sinks);
+        this.bucketMillis = settings.bucketMinutes * 60_000L;
+        this.cooldownBuckets = Math.max(1, (settings.cooldownMinutes + settings.bucketMinutes - 1) / settings.bucketMinutes);
+    }
+
+    /**
+     * Counts the mentions of a batch of newly inserted rows and delivers any alerts they trigger.
+     */
+    public void record(MentionBatch batch) {
+        List<Alert> alerts = null;
+        List<? extends Mention> mentions = batch.mentions();
+        for (int i = 0; i < mentions.size(); i++) {
+            Mention mention = mentions.get(i);
+            State state = state(mention.keyword(), batch.platform());
+            Alert alert;
+            synchronized (state) {
+                alert = state.observe(mention.keyword(), batch.platform(), Math.floorDiv(mention.createdAtMillis(), bucketMillis),
+                        batch.annotations().sentiment(i));
+            }
+            if (alert != null) {
+                if (alerts == null) {
+                    alerts = new ArrayList<>();
+                }
+                alerts.add(alert);
+            }
+        }
+        if (alerts != null) {
+            for (Alert alert : alerts) {
+                deliver(alert);
+            }
+        }
+    }
+
+    private State state(String keyword, Platform platform) {
+        State[] perPlatform = states.computeIfAbsent(keyword, k -> new State[Platform.values().length]);
+        synchronized (perPlatform) {
+            State state = perPlatform[platform.ordinal()];
+            if (state == null) {
+                state = new State();
+                perPlatform[platform.ordinal()] = state;
+            }
+            return state;
+        }
+    }
+
+    private void deliver(Alert alert) {
+        for (AlertSink sink : sinks) {
+            try {
+                sink.send(alert);
+            } catch (Exception e) {
+                Log.error("alert.delivery_failed", e, "sink", sink.getClass().getSimpleName(), "keyword", alert.keyword());
+            }
+        }
+    }
+}
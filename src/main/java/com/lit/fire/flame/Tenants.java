@@ -0,0 +1,166 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Keywords;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.Platform;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tenants and their keyword subscriptions, in the tenants, tenant_keywords and tenant_mentions tables.
+ *
+ * Keywords are deduplicated across tenants by their {@link Keywords#squash key}: the {@link ScanScheduler} tracks each
+ * key once, at the highest priority any subscriber asked for, so API cost grows with the number of unique keywords
+ * rather than tenants. Every batch stored for a keyword is then linked to all of its subscribers by one INSERT ...
+ * SELECT in the batch's own transaction ({@link #link}), including mentions that were already stored, so a tenant
+ * subscribing to a keyword another tenant tracks sees its mentions from the next scan on.
+ */
+public final class Tenants {
+
+    /**
+     * A deduplicated keyword: the form its first subscriber wrote it in and the highest priority asked for.
+     */
+    public record Subscription(String keyword, ScanScheduler.Priority priority) {
+    }
+
+    private Tenants() {
+    }
+
+    /**
+     * The keywords subscribed to by any tenant, by key.
+     *
+     * @return Empty if no database is configured.
+     */
+    public static Map<String, Subscription> subscriptions() throws Exception {
+        Map<String, Subscription> subscriptions = new LinkedHashMap<>();
+        if (DatabaseService.loadDbProperties() == null) {
+            return subscriptions;
+        }
+        try (Connection conn = DatabaseService.connect();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT keyword_key, keyword, priority FROM tenant_keywords ORDER BY keyword_key, tenant_id");
+             ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                ScanScheduler.Priority priority = ScanScheduler.Priority.valueOf(rs.getString(3).toUpperCase());
+                subscriptions.merge(rs.getString(1), new Subscription(rs.getString(2), priority),
+                        (existing, added) -> added.priority().ordinal() < existing.priority().ordinal()
+                                ? new Subscription(existing.keyword(), added.priority()) : existing);
+            }
+        }
+        return subscriptions;
+    }
+
+    /**
+     * Links the mentions of a batch to every tenant subscribed to its keyword, on the caller's connection and
+     * transaction. Mentions already linked are skipped.
+     *
+     * @return The number of links added.
+     */
+    static int link(Connection conn, Platform platform, String keyword, List<? extends Mention> mentions) throws SQLException {
+        String[] ids = new String[mentions.size()];
+        Timestamp[] createdAt = new Timestamp[mentions.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = mentions.get(i).id();
+            createdAt[i] = new Timestamp(mentions.get(i).createdAtMillis());
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO tenant_mentions (tenant_id, platform, mention_id, keyword, created_at)"
+                        + " SELECT s.tenant_id, ?, m.id, ?, m.created_at FROM tenant_keywords s"
+                        + " CROSS JOIN unnest(?::text[], ?::timestamptz[]) AS m (id, created_at)"
+                        + " WHERE s.keyword_key = ? ON CONFLICT DO NOTHING")) {
+            pstmt.setString(1, platform.id());
+            pstmt.setString(2, keyword);
+            pstmt.setArray(3, conn.createArrayOf("text", ids));
+            pstmt.setArray(4, conn.createArrayOf("timestamptz", createdAt));
+            pstmt.setString(5, Keywords.squash(keyword));
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Subscribes a tenant to keywords, creating the tenant if needed; an existing subscription takes the new priority.
+     */
+    public static void subscribe(String tenant, ScanScheduler.Priority priority, List<String> keywords) throws Exception {
+        try (Connection conn = DatabaseService.connect()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insertTenant = conn.prepareStatement("INSERT INTO tenants (id) VALUES (?) ON CONFLICT DO NOTHING");
+                 PreparedStatement insertKeyword = conn.prepareStatement(
+                         "INSERT INTO tenant_keywords (tenant_id, keyword_key, keyword, priority) VALUES (?, ?, ?, ?)"
+                                 + " ON CONFLICT (tenant_id, keyword_key) DO UPDATE SET priority = EXCLUDED.priority")) {
+                insertTenant.setString(1, tenant);
+                insertTenant.executeUpdate();
+                for (String keyword : keywords) {
+                    insertKeyword.setString(1, tenant);
+                    insertKeyword.setString(2, Keywords.squash(keyword));
+                    insertKeyword.setString(3, keyword.trim());
+                    insertKeyword.setString(4, priority.name().toLowerCase());
+                    insertKeyword.addBatch();
+                }
+                insertKeyword.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Ends a tenant's subscriptions to keywords. Mentions already linked stay linked.
+     */
+    public static int unsubscribe(String tenant, List<String> keywords) throws Exception {
+        List<String> keys = new ArrayList<>(keywords.size());
+        for (String keyword : keywords) {
+            keys.add(Keywords.squash(keyword));
+        }
+        try (Connection conn = DatabaseService.connect();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM tenant_keywords WHERE tenant_id = ? AND keyword_key = ANY(?)")) {
+            pstmt.setString(1, tenant);
+            pstmt.setArray(2, conn.createArrayOf("text", keys.toArray()));
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Manages subscriptions: {@code subscribe <tenant> [--priority high|normal|low] <keyword> ...},
+     * {@code unsubscribe <tenant> <keyword> ...} or {@code list}. The scanner picks changes up at its next keyword
+     * refresh.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: subscribe|unsubscribe <tenant> [--priority p] <keyword> ... | list");
+        }
+        try {
+            switch (args[0]) {
+                case "subscribe" -> {
+                    ScanScheduler.Priority priority = ScanScheduler.Priority.NORMAL;
+                    List<String> keywords = new ArrayList<>();
+                    for (int i = 2; i < args.length; i++) {
+                        if ("--priority".equals(args[i])) {
+                            priority = ScanScheduler.Priority.valueOf(args[++i].toUpperCase());
+                        } else {
+                            keywords.add(args[i]);
+                        }
+                    }
+                    subscribe(args[1], priority, keywords);
+                }
+                case "unsubscribe" -> unsubscribe(args[1], List.of(args).subList(2, args.length));
+                case "list" -> {
+                    for (Map.Entry<String, Subscription> entry : subscriptions().entrySet()) {
+                        System.out.println(entry.getValue().keyword() + "\t" + entry.getValue().priority().name().toLowerCase());
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown command: " + args[0]);
+            }
+        } finally {
+            Log.flush();
+        }
+    }
+}
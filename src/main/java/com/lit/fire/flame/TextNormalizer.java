@@ -0,0 +1,128 @@
+package com.lit.fire.flame;
+
+import java.text.Normalizer;
+
+/**
+ * The canonical form of mention text for matching and language identification: Unicode NFKC (which maps fullwidth
+ * letters, ligatures and the "𝐛𝐨𝐥𝐝" letters of styled posts to plain ones), without URLs, emoji, zero-width joiners
+ * or variation selectors, whitespace collapsed, and folded to lowercase.
+ *
+ * Folding is locale-independent and transliteration-aware: Latin letters with the diacritics of romanized Indian
+ * names (Parāsakthi, Tēre Ishq) fold to their base letter, while the vowel signs of Indic scripts, which are
+ * combining marks too, are kept. @handles and #hashtags stay, so filters can match them.
+ *
+ * Text that is ASCII or already NFKC skips the normalizer; the rest of the work is one pass into a caller's builder.
+ */
+final class TextNormalizer {
+
+    private static final char FOLD_FROM = 0x00C0;
+    private static final char FOLD_TO = 0x024F;
+    private static final char EXTENDED_FROM = 0x1E00;
+    private static final char EXTENDED_TO = 0x1EFF;
+
+    /**
+     * The lowercase ASCII base letter of each Latin letter with diacritics in the two ranges, or 0 if it has none.
+     */
+    private static final char[] LATIN_FOLD = new char[(FOLD_TO - FOLD_FROM + 1) + (EXTENDED_TO - EXTENDED_FROM + 1)];
+
+    static {
+        for (char c = FOLD_FROM; c <= FOLD_TO; c++) {
+            LATIN_FOLD[c - FOLD_FROM] = baseLetter(c);
+        }
+        for (char c = EXTENDED_FROM; c <= EXTENDED_TO; c++) {
+            LATIN_FOLD[(FOLD_TO - FOLD_FROM + 1) + c - EXTENDED_FROM] = baseLetter(c);
+        }
+    }
+
+    private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private TextNormalizer() {
+    }
+
+    static String normalize(String text) {
+        return normalize(text, BUFFERS.get()).toString();
+    }
+
+    /**
+     * Normalizes text into {@code out}, which is cleared first.
+     *
+     * @return {@code out}.
+     */
+    static StringBuilder normalize(String text, StringBuilder out) {
+        out.setLength(0);
+        if (text == null) {
+            return out;
+        }
+        String s = nfkc(text);
+        for (int i = 0; i < s.length(); ) {
+            if (Words.isUrlStart(s, i)) {
+                i = Words.skipUrl(s, i) + 1;
+                space(out);
+                continue;
+            }
+            int cp = s.codePointAt(i);
+            i += Character.charCount(cp);
+            if (isIgnorable(cp)) {
+                continue;
+            }
+            if (Words.isEmoji(cp) || Character.isWhitespace(cp) || Character.isSpaceChar(cp)) {
+                space(out);
+            } else {
+                out.appendCodePoint(fold(cp));
+            }
+        }
+        if (out.length() > 0 && out.charAt(out.length() - 1) == ' ') {
+            out.setLength(out.length() - 1);
+        }
+        return out;
+    }
+
+    /**
+     * The text in NFKC; the text itself if it is ASCII or already normalized.
+     */
+    static String nfkc(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return Normalizer.isNormalized(text, Normalizer.Form.NFKC) ? text : Normalizer.normalize(text, Normalizer.Form.NFKC);
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Lowercases a code point independently of the default locale, folding Latin diacritics and curly apostrophes.
+     */
+    static int fold(int cp) {
+        if (cp < 0x80) {
+            return cp >= 'A' && cp <= 'Z' ? cp + ('a' - 'A') : cp;
+        }
+        if (cp >= FOLD_FROM && cp <= FOLD_TO && LATIN_FOLD[cp - FOLD_FROM] != 0) {
+            return LATIN_FOLD[cp - FOLD_FROM];
+        }
+        if (cp >= EXTENDED_FROM && cp <= EXTENDED_TO && LATIN_FOLD[(FOLD_TO - FOLD_FROM + 1) + cp - EXTENDED_FROM] != 0) {
+            return LATIN_FOLD[(FOLD_TO - FOLD_FROM + 1) + cp - EXTENDED_FROM];
+        }
+        return cp == '’' ? '\'' : Character.toLowerCase(cp);
+    }
+
+    /**
+     * Zero-width joiners and non-joiners (which only steer how Indic conjuncts and emoji sequences are drawn), soft
+     * hyphens and variation selectors.
+     */
+    private static boolean isIgnorable(int cp) {
+        return cp == 0x200B || cp == 0x200C || cp == 0x200D || cp == 0x00AD || cp == 0x2060 || cp == 0xFEFF
+                || (cp >= 0xFE00 && cp <= 0xFE0F);
+    }
+
+    private static void space(StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+
+    private static char baseLetter(char c) {
+        String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+        char base = Character.toLowerCase(decomposed.charAt(0));
+        return decomposed.length() > 1 && base >= 'a' && base <= 'z' ? base : 0;
+    }
+}
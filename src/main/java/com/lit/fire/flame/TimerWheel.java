@@ -0,0 +1,169 @@
+package com.lit.fire.flame;
+
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timer wheel: {@link #LEVELS} wheels of {@link #SLOTS} slots each, the first a slot per tick and every
+ * next one a slot per full turn of the one below. A timeout goes into the lowest wheel whose span covers its deadline,
+ * and moves down a wheel each time the wheel above reaches its slot, until it expires from the first. Scheduling and
+ * cancelling are O(1) (a slot is a doubly linked list), and advancing costs one slot per tick plus the timeouts moved.
+ *
+ * Four wheels of 64 slots span 2^24 ticks, about 194 days at one-second ticks; later deadlines are parked in the top
+ * wheel and re-placed as it turns. Not thread-safe.
+ */
+final class TimerWheel<T> {
+
+    static final int LEVELS = 4;
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    /**
+     * A scheduled task; the handle for cancelling it.
+     */
+    static final class Timeout<T> {
+        final T task;
+        final long deadlineTick;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T task, long deadlineTick) {
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        boolean pending() {
+            return prev != null;
+        }
+    }
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Timeout<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    TimerWheel(long tickMillis, long startMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.startMillis = startMillis;
+        wheels = newWheels();
+        for (Timeout<T>[] wheel : wheels) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timeout<T> sentinel = new Timeout<>(null, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                wheel[i] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * Java cannot create a generic array; the wildcard array only ever holds this wheel's own timeouts, so the cast is
+     * safe.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> Timeout<T>[][] newWheels() {
+        return (Timeout<T>[][]) new Timeout<?>[LEVELS][SLOTS];
+    }
+
+    /**
+     * Schedules a task to expire on the first tick at or after {@code dueMillis}; past deadlines expire on the next
+     * tick.
+     */
+    Timeout<T> schedule(T task, long dueMillis) {
+        long tick = Math.floorDiv(dueMillis - startMillis + tickMillis - 1, tickMillis);
+        Timeout<T> timeout = new Timeout<>(task, Math.max(tick, currentTick + 1));
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Removes a pending timeout. Returns false if it already expired or was cancelled.
+     */
+    boolean cancel(Timeout<T> timeout) {
+        if (!timeout.pending()) {
+            return false;
+        }
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to {@code nowMillis}, handing every timeout that expires on the way to {@code expired} in
+     * deadline order.
+     *
+     * @return The number of timeouts expired.
+     */
+    int advance(long nowMillis, Consumer<Timeout<T>> expired) {
+        long target = Math.floorDiv(nowMillis - startMillis, tickMillis);
+        int count = 0;
+        while (currentTick < target) {
+            currentTick++;
+            // Wheels whose slot boundary this tick crosses hand their current slot down, the highest first.
+            int level = 1;
+            while (level < LEVELS && (currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                level++;
+            }
+            for (int l = level - 1; l >= 1; l--) {
+                Timeout<T> sentinel = wheels[l][(int) (currentTick >>> (SLOT_BITS * l)) & MASK];
+                Timeout<T> timeout = sentinel.next;
+                sentinel.next = sentinel;
+                sentinel.prev = sentinel;
+                while (timeout != sentinel) {
+                    Timeout<T> next = timeout.next;
+                    place(timeout);
+                    timeout = next;
+                }
+            }
+            Timeout<T> sentinel = wheels[0][(int) currentTick & MASK];
+            while (sentinel.next != sentinel) {
+                Timeout<T> timeout = sentinel.next;
+                unlink(timeout);
+                size--;
+                count++;
+                expired.accept(timeout);
+            }
+        }
+        return count;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * The time the wheel has been advanced to.
+     */
+    long nowMillis() {
+        return startMillis + currentTick * tickMillis;
+    }
+
+    private void place(Timeout<T> timeout) {
+        // Deadlines beyond the top wheel are parked at its far end and placed again when it gets there.
+        long deadline = Math.min(timeout.deadlineTick, currentTick + SPAN - 1);
+        long delta = deadline - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (delta <= 0) {
+            // Moved down on its own deadline tick: expires with the first wheel's current slot.
+            deadline = currentTick;
+        }
+        Timeout<T> sentinel = wheels[level][(int) (deadline >>> (SLOT_BITS * level)) & MASK];
+        timeout.prev = sentinel.prev;
+        timeout.next = sentinel;
+        sentinel.prev.next = timeout;
+        sentinel.prev = timeout;
+    }
+
+    private static <T> void unlink(Timeout<T> timeout) {
+        timeout.prev.next = timeout.next;
+        timeout.next.prev = timeout.prev;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+}
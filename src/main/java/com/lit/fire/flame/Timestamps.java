@@ -0,0 +1,113 @@
+package com.lit.fire.flame;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Converts the platforms' timestamp formats to epoch millis.
+ *
+ * X and YouTube return ISO-8601 UTC ("2025-10-14T18:42:07.000Z"), Instagram uses a numeric offset
+ * ("2025-10-14T18:42:07+0000") and Reddit epoch seconds. The fixed-layout forms are decoded directly from the
+ * characters; anything unusual falls back to java.time.
+ */
+public final class Timestamps {
+
+    private static final DateTimeFormatter NUMERIC_OFFSET_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss[.SSS]Z");
+
+    private Timestamps() {
+    }
+
+    public static long epochSecondsToMillis(double epochSeconds) {
+        return (long) (epochSeconds * 1000d);
+    }
+
+    /**
+     * Parses "yyyy-MM-ddTHH:mm:ss[.fraction](Z|+hhmm|+hh:mm|-hhmm|-hh:mm)".
+     */
+    public static long isoToMillis(String value) {
+        long millis = parseFixedLayout(value);
+        if (millis != Long.MIN_VALUE) {
+            return millis;
+        }
+        try {
+            return Instant.parse(value).toEpochMilli();
+        } catch (RuntimeException e) {
+            return ZonedDateTime.parse(value, NUMERIC_OFFSET_FORMAT).toInstant().toEpochMilli();
+        }
+    }
+
+    private static long parseFixedLayout(String s) {
+        int length = s.length();
+        if (length < 20 || s.charAt(4) != '-' || s.charAt(7) != '-' || s.charAt(10) != 'T' || s.charAt(13) != ':' || s.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(s, 0, 4);
+        int month = digits(s, 5, 2);
+        int day = digits(s, 8, 2);
+        int hour = digits(s, 11, 2);
+        int minute = digits(s, 14, 2);
+        int second = digits(s, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31 || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return Long.MIN_VALUE;
+        }
+
+        int pos = 19;
+        int millis = 0;
+        if (s.charAt(pos) == '.') {
+            pos++;
+            int scale = 100;
+            while (pos < length && Character.isDigit(s.charAt(pos))) {
+                millis += (s.charAt(pos) - '0') * scale;
+                scale /= 10;
+                pos++;
+            }
+        }
+
+        int offsetSeconds;
+        if (pos == length - 1 && s.charAt(pos) == 'Z') {
+            offsetSeconds = 0;
+        } else if (pos < length && (s.charAt(pos) == '+' || s.charAt(pos) == '-')) {
+            int sign = s.charAt(pos) == '+' ? 1 : -1;
+            int offsetHours = digits(s, pos + 1, 2);
+            int minutePos = length - pos == 6 && s.charAt(pos + 3) == ':' ? pos + 4 : pos + 3;
+            int offsetMinutes = digits(s, minutePos, 2);
+            if (offsetHours < 0 || offsetMinutes < 0 || minutePos + 2 != length) {
+                return Long.MIN_VALUE;
+            }
+            offsetSeconds = sign * (offsetHours * 3600 + offsetMinutes * 60);
+        } else {
+            return Long.MIN_VALUE;
+        }
+
+        long epochSeconds = daysFromCivil(year, month, day) * 86400L + hour * 3600L + minute * 60L + second - offsetSeconds;
+        return epochSeconds * 1000L + millis;
+    }
+
+    private static int digits(String s, int start, int count) {
+        if (start + count > s.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Days since 1970-01-01 for a proleptic Gregorian date (H. Hinnant's days_from_civil).
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        int era = (year >= 0 ? year : year - 399) / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
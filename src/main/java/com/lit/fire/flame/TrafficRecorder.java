@@ -0,0 +1,181 @@
+package com.lit.fire.flame;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Captures raw platform responses to disk when traffic.mode=record.
+ *
+ * Each distinct request (method, path and query minus credentials) is stored as one JSON file under
+ * traffic.dir/&lt;platform&gt;/, holding the status, response headers and body, with credentials in the query or in
+ * JSON body fields redacted. {@link ReplayServer} serves
+ * the same files back, so the key computed here is shared with it.
+ */
+public class TrafficRecorder {
+
+    /** Query parameters that carry credentials; they are neither stored nor part of the lookup key. */
+    static final Set<String> SECRET_PARAMS = Set.of("access_token", "key");
+
+    /**
+     * JSON body fields that carry credentials, e.g. in Reddit's OAuth token response; their values are stored as
+     * {@link #REDACTED}. ReplayServer answers token requests itself, so replays never need them.
+     */
+    static final Set<String> SECRET_FIELDS = Set.of("access_token", "refresh_token", "id_token");
+
+    static final String REDACTED = "REDACTED";
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create();
+    private static final Gson COMPACT = new GsonBuilder().disableHtmlEscaping().create();
+
+    private TrafficRecorder() {
+    }
+
+    public static boolean isRecording() {
+        return "record".equalsIgnoreCase(AppProperties.getProperty("traffic.mode", "live"));
+    }
+
+    static Path trafficDir() {
+        return Paths.get(AppProperties.getProperty("traffic.dir", "traffic"));
+    }
+
+    /**
+     * Writes the exchange to disk if recording is enabled. Failures are reported but never break the scan.
+     */
+    public static void record(String platform, String method, URI uri, int status, Map<String, List<String>> headers, String body) {
+        if (!isRecording()) {
+            return;
+        }
+
+        JsonObject exchange = new JsonObject();
+        exchange.addProperty("platform", platform);
+        exchange.addProperty("method", method);
+        exchange.addProperty("path", uri.getRawPath());
+        exchange.addProperty("query", canonicalQuery(uri.getRawQuery()));
+        exchange.addProperty("status", status);
+        exchange.addProperty("recorded_at", System.currentTimeMillis());
+        JsonObject headerJson = new JsonObject();
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            if (header.getKey() != null && !header.getKey().startsWith(":")) {
+                headerJson.addProperty(header.getKey().toLowerCase(), String.join(",", header.getValue()));
+            }
+        }
+        exchange.add("headers", headerJson);
+        exchange.addProperty("body", redact(body));
+
+        Path file = trafficDir().resolve(platform).resolve(requestKey(method, uri.getRawPath(), uri.getRawQuery()) + ".json");
+        try {
+            Files.createDirectories(file.getParent());
+            try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                GSON.toJson(exchange, writer);
+            }
+        } catch (IOException e) {
+            Log.error("traffic.record_failed", e, "platform", platform, "file", file);
+        }
+    }
+
+    /**
+     * The body with the values of {@link #SECRET_FIELDS} replaced, at any depth; bodies that are not JSON, or carry no
+     * such field, are returned as they are.
+     */
+    static String redact(String body) {
+        if (body == null || !body.contains("_token")) {
+            return body;
+        }
+        JsonElement json;
+        try {
+            json = JsonParser.parseString(body);
+        } catch (JsonParseException e) {
+            return body;
+        }
+        return redact(json) ? COMPACT.toJson(json) : body;
+    }
+
+    private static boolean redact(JsonElement json) {
+        boolean redacted = false;
+        if (json.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> field : json.getAsJsonObject().entrySet()) {
+                if (SECRET_FIELDS.contains(field.getKey()) && field.getValue().isJsonPrimitive()) {
+                    field.setValue(new JsonPrimitive(REDACTED));
+                    redacted = true;
+                } else {
+                    redacted |= redact(field.getValue());
+                }
+            }
+        } else if (json.isJsonArray()) {
+            for (JsonElement element : json.getAsJsonArray()) {
+                redacted |= redact(element);
+            }
+        }
+        return redacted;
+    }
+
+    /**
+     * Sorted, decoded query string without credential parameters, so the same logical request always maps to the same key.
+     */
+    static String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return "";
+        }
+        Map<String, String> params = new TreeMap<>();
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            if (!SECRET_PARAMS.contains(name)) {
+                params.put(name, value);
+            }
+        }
+        StringBuilder canonical = new StringBuilder();
+        for (Map.Entry<String, String> param : params.entrySet()) {
+            if (canonical.length() > 0) {
+                canonical.append('&');
+            }
+            canonical.append(param.getKey()).append('=').append(param.getValue());
+        }
+        return canonical.toString();
+    }
+
+    /**
+     * File-name-safe key: method, the last path segments, and a digest of the full path and canonical query.
+     */
+    static String requestKey(String method, String rawPath, String rawQuery) {
+        String path = rawPath == null ? "" : rawPath;
+        String readable = path.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_+|_+$", "");
+        if (readable.length() > 60) {
+            readable = readable.substring(readable.length() - 60);
+        }
+        return method.toLowerCase() + "_" + readable + "_" + digest(path + "?" + canonicalQuery(rawQuery));
+    }
+
+    private static String digest(String value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 6; i++) {
+                hex.append(String.format("%02x", hash[i]));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
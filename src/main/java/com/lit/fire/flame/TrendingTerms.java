@@ -0,0 +1,469 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Keywords;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * The terms and hashtags mentioned together with each keyword over the last hour or so, counted as mentions stream
+ * in, so "what is trending alongside Parasakthi" needs no SQL over the raw text.
+ *
+ * Every mention's text is split into distinct terms: lowercased words of three or more characters, hashtags (kept
+ * with their #), minus URLs, @handles, common stop words and the keyword's own words. Each keyword (by its
+ * {@link Keywords#squash key}, so all platforms count together) keeps a ring of trending.window_buckets buckets of
+ * trending.bucket_minutes by creation time; each bucket holds a {@link CountMinSketch} of the term counts and a
+ * {@link SpaceSaving} summary of its trending.capacity most frequent terms. A bucket is cleared and reused once its
+ * time leaves the window, so memory per keyword is fixed.
+ *
+ * {@link #top} takes the terms monitored in any live bucket as candidates and ranks them by the smaller of two upper
+ * bounds on their window count: the merged sketches' estimate and the sum of the summaries' counts.
+ *
+ * The state is saved to trending.snapshot_file every trending.snapshot_minutes and on shutdown, and read back on
+ * startup, so a restart does not empty the window. Like {@link MentionCounters}, only newly inserted mentions should be
+ * recorded.
+ */
+public class TrendingTerms {
+
+    private static final int SNAPSHOT_MAGIC = 0x54524e44;
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "the", "and", "for", "are", "but", "not", "you", "all", "any", "can", "had", "her", "was", "one", "our", "out",
+            "has", "have", "him", "his", "how", "its", "may", "new", "now", "see", "two", "who", "did", "get", "got", "let",
+            "say", "she", "too", "use", "that", "this", "with", "from", "they", "will", "what", "when", "your", "just",
+            "like", "than", "then", "them", "been", "were", "there", "their", "about", "would", "which", "these", "into",
+            "more", "some", "very", "also", "only", "over", "such", "here", "don", "amp", "https", "http",
+            "www", "com", "movie", "film");
+
+    /**
+     * Window and sketch sizes; see the class comment for the matching configuration keys.
+     */
+    record Settings(int bucketMinutes, int windowBuckets, int sketchDepth, int sketchWidth, int capacity) {
+
+        static Settings fromConfig() {
+            return new Settings(AppProperties.getIntProperty("trending.bucket_minutes", 10),
+                    AppProperties.getIntProperty("trending.window_buckets", 6),
+                    AppProperties.getIntProperty("trending.sketch.depth", 4),
+                    AppProperties.getIntProperty("trending.sketch.width", 1024),
+                    AppProperties.getIntProperty("trending.capacity", 200));
+        }
+    }
+
+    /**
+     * A term and its estimated count over the window.
+     *
+     * @param count An upper bound on the mentions containing the term.
+     * @param share The count as a fraction of all the keyword's mentions in the window.
+     */
+    public record Term(String term, long count, double share) {
+    }
+
+    private final class State {
+        final String keyword;
+        final Set<String> own;
+        final long[] bucketOf = new long[settings.windowBuckets];
+        final int[] mentions = new int[settings.windowBuckets];
+        final CountMinSketch[] sketches = new CountMinSketch[settings.windowBuckets];
+        final SpaceSaving[] summaries = new SpaceSaving[settings.windowBuckets];
+
+        State(String keyword) {
+            this.keyword = keyword;
+            own = ownTerms(keyword);
+            Arrays.fill(bucketOf, Long.MIN_VALUE);
+            for (int i = 0; i < settings.windowBuckets; i++) {
+                sketches[i] = new CountMinSketch(settings.sketchDepth, settings.sketchWidth);
+                summaries[i] = new SpaceSaving(settings.capacity);
+            }
+        }
+
+        /**
+         * The slot holding {@code bucket}, clearing an older bucket out of it; -1 if it holds a newer one.
+         */
+        int slot(long bucket) {
+            int slot = (int) Math.floorMod(bucket, (long) settings.windowBuckets);
+            if (bucketOf[slot] > bucket) {
+                return -1;
+            }
+            if (bucketOf[slot] < bucket) {
+                bucketOf[slot] = bucket;
+                mentions[slot] = 0;
+                sketches[slot].clear();
+                summaries[slot].clear();
+            }
+            return slot;
+        }
+
+        void observe(long bucket, Set<String> terms) {
+            int slot = slot(bucket);
+            if (slot < 0) {
+                return;
+            }
+            mentions[slot]++;
+            for (String term : terms) {
+                if (!own.contains(term)) {
+                    sketches[slot].add(hash(term));
+                    summaries[slot].add(term);
+                }
+            }
+        }
+
+        List<Term> top(long nowBucket, int limit) {
+            List<Integer> live = new ArrayList<>();
+            long total = 0;
+            for (int slot = 0; slot < settings.windowBuckets; slot++) {
+                if (bucketOf[slot] > nowBucket - settings.windowBuckets && bucketOf[slot] <= nowBucket) {
+                    live.add(slot);
+                    total += mentions[slot];
+                }
+            }
+            if (live.isEmpty()) {
+                return List.of();
+            }
+            List<CountMinSketch> liveSketches = new ArrayList<>(live.size());
+            Set<String> candidates = new HashSet<>();
+            for (int slot : live) {
+                liveSketches.add(sketches[slot]);
+                SpaceSaving summary = summaries[slot];
+                for (int i = 0; i < summary.size(); i++) {
+                    candidates.add(summary.item(i));
+                }
+            }
+            List<Term> terms = new ArrayList<>(candidates.size());
+            for (String term : candidates) {
+                long summed = 0;
+                for (int slot : live) {
+                    summed += summaries[slot].upperBound(term);
+                }
+                long count = Math.min(summed, CountMinSketch.estimate(liveSketches, hash(term)));
+                terms.add(new Term(term, count, (double) count / total));
+            }
+            terms.sort(Comparator.comparingLong(Term::count).reversed().thenComparing(Term::term));
+            return terms.size() > limit ? List.copyOf(terms.subList(0, limit)) : terms;
+        }
+    }
+
+    private final Settings settings;
+    private final long bucketMillis;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, State> states = new ConcurrentHashMap<>();
+
+    public TrendingTerms() {
+        this(Settings.fromConfig(), System::currentTimeMillis);
+    }
+
+    TrendingTerms(Settings settings, LongSupplier clock) {
+        this.settings = settings;
+        this.bucketMillis = settings.bucketMinutes * 60_000L;
+        this.clock = clock;
+    }
+
+    /**
+     * Counts the terms of a batch of newly inserted mentions. Mentions created before the window are skipped; those
+     * dated in the future (clock skew) count in the current bucket.
+     */
+    public void record(MentionBatch batch) {
+        long nowBucket = Math.floorDiv(clock.getAsLong(), bucketMillis);
+        for (Mention mention : batch.mentions()) {
+            long bucket = Math.min(Math.floorDiv(mention.createdAtMillis(), bucketMillis), nowBucket);
+            if (bucket <= nowBucket - settings.windowBuckets) {
+                continue;
+            }
+            Set<String> terms = terms(mention.fullText());
+            State state = states.computeIfAbsent(Keywords.squash(mention.keyword()), key -> new State(mention.keyword()));
+            synchronized (state) {
+                state.observe(bucket, terms);
+            }
+        }
+    }
+
+    /**
+     * The terms mentioned most often with a keyword over the window ending now, most frequent first.
+     *
+     * @param keyword In any platform's form; compared by its key.
+     */
+    public List<Term> top(String keyword, int limit) {
+        State state = states.get(Keywords.squash(keyword));
+        if (state == null) {
+            return List.of();
+        }
+        long nowBucket = Math.floorDiv(clock.getAsLong(), bucketMillis);
+        synchronized (state) {
+            return state.top(nowBucket, limit);
+        }
+    }
+
+    /**
+     * The keys of the keywords with terms counted.
+     */
+    public Set<String> keywords() {
+        return Set.copyOf(states.keySet());
+    }
+
+    /**
+     * The distinct terms of a text, in order of first appearance.
+     */
+    static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null) {
+            return terms;
+        }
+        int n = text.length();
+        for (int i = 0; i < n; i++) {
+            char c = text.charAt(i);
+            if (Words.isUrlStart(text, i)) {
+                i = Words.skipUrl(text, i);
+                continue;
+            }
+            boolean hashtag = c == '#';
+            boolean handle = c == '@';
+            int start = hashtag || handle ? i + 1 : i;
+            int end = start;
+            // Handles and hashtags run on through underscores (@sk_fans, #adi_alaye).
+            while (end < n && (Words.isWordChar(text.charAt(end)) || (start > i && text.charAt(end) == '_'))) {
+                end++;
+            }
+            if (end == start) {
+                continue;
+            }
+            i = end - 1;
+            if (handle) {
+                continue;
+            }
+            String word = text.substring(start, end).toLowerCase(Locale.ROOT);
+            if (hashtag) {
+                terms.add('#' + word);
+            } else if (word.length() >= 3 && !STOP_WORDS.contains(word) && !isNumber(word)) {
+                terms.add(word);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * The terms a keyword's own text produces, and their hashtag and squashed forms, which say nothing about what
+     * trends with it.
+     */
+    private static Set<String> ownTerms(String keyword) {
+        Set<String> own = new HashSet<>();
+        for (String term : terms(keyword)) {
+            own.add(term);
+            own.add(term.startsWith("#") ? term.substring(1) : '#' + term);
+        }
+        String squashed = Keywords.squash(keyword);
+        own.add(squashed);
+        own.add('#' + squashed);
+        return own;
+    }
+
+    private static boolean isNumber(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String term) {
+        long h = Words.FNV_OFFSET;
+        for (int i = 0; i < term.length(); i++) {
+            h = (h ^ term.charAt(i)) * Words.FNV_PRIME;
+        }
+        return Words.mix(h);
+    }
+
+    /**
+     * Writes every live bucket to {@code file} through a temporary file, so a crash mid-write leaves the previous
+     * snapshot intact.
+     */
+    public void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        long nowBucket = Math.floorDiv(clock.getAsLong(), bucketMillis);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeInt(settings.bucketMinutes);
+            out.writeInt(settings.windowBuckets);
+            out.writeInt(settings.sketchDepth);
+            out.writeInt(settings.sketchWidth);
+            out.writeInt(settings.capacity);
+            for (Map.Entry<String, State> entry : states.entrySet()) {
+                State state = entry.getValue();
+                synchronized (state) {
+                    for (int slot = 0; slot < settings.windowBuckets; slot++) {
+                        if (state.bucketOf[slot] <= nowBucket - settings.windowBuckets) {
+                            continue;
+                        }
+                        out.writeBoolean(true);
+                        out.writeUTF(entry.getKey());
+                        out.writeUTF(state.keyword);
+                        out.writeLong(state.bucketOf[slot]);
+                        out.writeInt(state.mentions[slot]);
+                        int[] counts = state.sketches[slot].counts;
+                        out.writeInt(counts.length);
+                        for (int count : counts) {
+                            out.writeInt(count);
+                        }
+                        SpaceSaving summary = state.summaries[slot];
+                        out.writeInt(summary.size());
+                        for (int i = 0; i < summary.size(); i++) {
+                            out.writeUTF(summary.item(i));
+                            out.writeLong(summary.count(i));
+                            out.writeLong(summary.error(i));
+                        }
+                    }
+                }
+            }
+            out.writeBoolean(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the buckets of a snapshot that are still inside the window. A missing snapshot, or one taken with other
+     * window or sketch sizes, is ignored.
+     *
+     * @return The number of buckets restored.
+     */
+    public int load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                Log.warn("trending.snapshot_unreadable", "file", file);
+                return 0;
+            }
+            Settings saved = new Settings(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            if (!saved.equals(settings)) {
+                Log.warn("trending.snapshot_mismatch", "file", file, "saved", saved, "configured", settings);
+                return 0;
+            }
+            long nowBucket = Math.floorDiv(clock.getAsLong(), bucketMillis);
+            int restored = 0;
+            while (in.readBoolean()) {
+                String key = in.readUTF();
+                String keyword = in.readUTF();
+                long bucket = in.readLong();
+                int mentions = in.readInt();
+                int[] counts = new int[in.readInt()];
+                for (int i = 0; i < counts.length; i++) {
+                    counts[i] = in.readInt();
+                }
+                int size = in.readInt();
+                String[] items = new String[size];
+                long[] itemCounts = new long[size];
+                long[] errors = new long[size];
+                for (int i = 0; i < size; i++) {
+                    items[i] = in.readUTF();
+                    itemCounts[i] = in.readLong();
+                    errors[i] = in.readLong();
+                }
+                if (bucket <= nowBucket - settings.windowBuckets || bucket > nowBucket) {
+                    continue;
+                }
+                State state = states.computeIfAbsent(key, absent -> new State(keyword));
+                synchronized (state) {
+                    int slot = state.slot(bucket);
+                    if (slot < 0) {
+                        continue;
+                    }
+                    state.mentions[slot] = mentions;
+                    System.arraycopy(counts, 0, state.sketches[slot].counts, 0, counts.length);
+                    state.summaries[slot].clear();
+                    for (int i = 0; i < size; i++) {
+                        state.summaries[slot].restore(items[i], itemCounts[i], errors[i]);
+                    }
+                }
+                restored++;
+            }
+            return restored;
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Restores the configured snapshot and saves a new one every trending.snapshot_minutes on a daemon thread, and
+     * once more on shutdown.
+     */
+    public void startSnapshots() {
+        Path file = Path.of(AppProperties.getProperty("trending.snapshot_file", "trending.snapshot"));
+        try {
+            Log.info("trending.restored", "file", file, "buckets", load(file));
+        } catch (IOException e) {
+            Log.error("trending.restore_failed", e, "file", file);
+        }
+        long intervalMillis = AppProperties.getIntProperty("trending.snapshot_minutes", 5) * 60_000L;
+        if (intervalMillis > 0) {
+            Thread snapshots = new Thread(() -> {
+                try {
+                    while (true) {
+                        Thread.sleep(intervalMillis);
+                        snapshot(file);
+                    }
+                } catch (InterruptedException e) {
+                    // Shutting down
+                }
+            }, "trending-snapshots");
+            snapshots.setDaemon(true);
+            snapshots.start();
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> snapshot(file), "trending-snapshot"));
+    }
+
+    private void snapshot(Path file) {
+        try {
+            save(file);
+        } catch (IOException e) {
+            Log.error("trending.snapshot_failed", e, "file", file);
+        }
+    }
+
+    /**
+     * Prints the top terms of keywords from a snapshot: {@code [--limit n] <keyword> ...}, or every keyword in it.
+     */
+    public static void main(String[] args) throws Exception {
+        int limit = 20;
+        List<String> keywords = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("--limit".equals(args[i])) {
+                limit = Integer.parseInt(args[++i]);
+            } else {
+                keywords.add(args[i]);
+            }
+        }
+        TrendingTerms trending = new TrendingTerms();
+        trending.load(Path.of(AppProperties.getProperty("trending.snapshot_file", "trending.snapshot")));
+        for (String keyword : keywords.isEmpty() ? List.copyOf(trending.keywords()) : keywords) {
+            System.out.println(keyword);
+            for (Term term : trending.top(keyword, limit)) {
+                System.out.printf("  %-30s %8d %6.1f%%%n", term.term(), term.count(), term.share() * 100);
+            }
+        }
+        Log.flush();
+    }
+}
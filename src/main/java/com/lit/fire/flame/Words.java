@@ -0,0 +1,67 @@
+package com.lit.fire.flame;
+
+/**
+ * Character classes and hashing shared by the text scanners (MinHash, SentimentScorer). The scanners walk a text
+ * once, hashing each word as they go instead of building token strings.
+ */
+final class Words {
+
+    static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    static final long FNV_PRIME = 0x100000001b3L;
+
+    private Words() {
+    }
+
+    /**
+     * Letters, digits and combining marks; Devanagari, Tamil etc. write vowels as combining marks, which belong to
+     * the word.
+     */
+    static boolean isWordChar(char c) {
+        if (c < 0x80) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9');
+        }
+        if (Character.isLetterOrDigit(c)) {
+            return true;
+        }
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    static boolean isApostrophe(char c) {
+        return c == '\'' || c == '’';
+    }
+
+    /**
+     * Pictographic emoji, which carry sentiment on their own ("🔥", "😡").
+     */
+    static boolean isEmoji(int codePoint) {
+        return (codePoint >= 0x1F300 && codePoint <= 0x1FAFF) || (codePoint >= 0x2600 && codePoint <= 0x27BF)
+                || (codePoint >= 0x2B00 && codePoint <= 0x2BFF);
+    }
+
+    static boolean isUrlStart(String text, int i) {
+        return text.startsWith("http://", i) || text.startsWith("https://", i);
+    }
+
+    /**
+     * The index of the last character of the URL starting at {@code i}.
+     */
+    static int skipUrl(String text, int i) {
+        while (i + 1 < text.length() && !Character.isWhitespace(text.charAt(i + 1))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * MurmurHash3's 64-bit finalizer; spreads FNV's weak low bits across the whole word.
+     */
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,19 +1,22 @@
 package com.lit.fire.flame;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
-import com.lit.fire.api.SocialMediaScanner;
+import com.lit.fire.api.Author;
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.Keywords;
+import com.lit.fire.api.PagedFetch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+import com.lit.fire.api.RawResponse;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
@@ -21,43 +24,27 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
 
 /**
  * A client for searching X/Twitter posts.
  */
-public class XService implements SocialMediaScanner {
+public class XService implements PagedFetch {
 
     private static String ACCESS_TOKEN;
-    private static final String API_URL = "https://api.twitter.com/2";
+    private static final String API_URL = AppProperties.getProperty("x.api_url", "https://api.twitter.com/2");
     private static int numberOfPosts;
 
-    private static void loadConfig() throws Exception {
-        Properties properties = new Properties();
-        try (InputStream input = XService.class.getClassLoader().getResourceAsStream("secrets.properties")) {
-            if (input == null) {
-                System.err.println("Error: Unable to find secrets.properties. Please ensure the file exists and contains the required API credentials.");
-                System.exit(1);
-            }
-            properties.load(input);
-        }
-
-        ACCESS_TOKEN = properties.getProperty("x.access_token");
+    private static void loadConfig() {
+        ACCESS_TOKEN = AppProperties.requireSecret("x.access_token");
         numberOfPosts = AppProperties.getIntProperty("number.of.posts", 10);
-
-        if (ACCESS_TOKEN == null || ACCESS_TOKEN.equals("YOUR_ACCESS_TOKEN")) {
-            System.err.println("Error: Please configure your X API credentials in the secrets.properties file.");
-            System.exit(1);
-        }
     }
 
     private static List<String> loadKeywords() throws Exception {
         List<String> keywords = new ArrayList<>();
         try (InputStream input = XService.class.getClassLoader().getResourceAsStream("search_queries.txt")) {
             if (input == null) {
-                System.out.println("Sorry, unable to find search_queries.txt");
+                Log.warn("keywords.missing", "platform", "x", "resource", "search_queries.txt");
                 return keywords;
             }
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(input))) {
@@ -69,9 +56,28 @@ public class XService implements SocialMediaScanner {
         return keywords;
     }
 
-    public static void search(String query) throws Exception {
-        System.out.println("\nRetrieving latest " + numberOfPosts + " posts for '" + query + "'...");
+    @Override
+    public Platform platform() {
+        return Platform.X;
+    }
+
+    @Override
+    public void init() throws Exception {
+        loadConfig();
+    }
+
+    @Override
+    public List<String> keywords() throws Exception {
+        return loadKeywords();
+    }
+
+    @Override
+    public String searchForm(String keyword) {
+        return Keywords.squash(keyword);
+    }
 
+    @Override
+    public List<RawResponse> fetch(String query) throws Exception {
         String encodedQuery = URLEncoder.encode(query, StandardCharsets.UTF_8);
         String fields = "id,text,created_at,author_id,public_metrics";
         String expansions = "author_id";
@@ -79,82 +85,98 @@ public class XService implements SocialMediaScanner {
         String searchUrl = String.format("%s/tweets/search/recent?query=%s&tweet.fields=%s&expansions=%s&user.fields=%s&max_results=%d",
                 API_URL, encodedQuery, fields, expansions, userFields, numberOfPosts);
 
-        JsonObject response = sendRequest(searchUrl);
-
-        System.out.println("Search successful. Found posts:");
-        Gson gson = new GsonBuilder().setPrettyPrinting().create();
-        System.out.println(gson.toJson(response));
-
-        if (response != null && response.has("data")) {
-            JsonArray posts = response.getAsJsonArray("data");
-            JsonObject includes = response.getAsJsonObject("includes");
-            Map<String, JsonObject> users = new HashMap<>();
-            if (includes != null && includes.has("users")) {
-                for (JsonElement userElement : includes.getAsJsonArray("users")) {
-                    JsonObject user = userElement.getAsJsonObject();
-                    users.put(user.get("id").getAsString(), user);
-                }
+        long start = System.nanoTime();
+        String body = sendRequest(searchUrl);
+        Log.info("search.completed", "platform", "x", "keyword", query, "bytes", body.length(),
+                "latency_ms", (System.nanoTime() - start) / 1_000_000);
+        return List.of(new RawResponse(Platform.X, query, body));
+    }
+
+    /**
+     * Pages through search/recent, 100 posts at a time, back to the start of its 7-day window. The cursor is the
+     * next_token alone: without start_time X searches its whole window as of each request, so a page fetched or
+     * resumed later never asks for a start that has meanwhile fallen out of it.
+     */
+    @Override
+    public Page fetchPage(String query, String cursor) throws Exception {
+        String searchUrl = String.format("%s/tweets/search/recent?query=%s&tweet.fields=%s&expansions=%s&user.fields=%s&max_results=100",
+                API_URL, URLEncoder.encode(query, StandardCharsets.UTF_8), "id,text,created_at,author_id,public_metrics", "author_id",
+                "username,name");
+        if (cursor != null) {
+            // State saved before the cursor was the token alone reads "<start_time>|<next_token>".
+            String nextToken = cursor.substring(cursor.indexOf('|') + 1);
+            searchUrl += "&next_token=" + URLEncoder.encode(nextToken, StandardCharsets.UTF_8);
+        }
+
+        String body = sendRequest(searchUrl);
+        JsonObject meta = JsonParser.parseString(body).getAsJsonObject().getAsJsonObject("meta");
+        String next = meta != null && meta.has("next_token") ? meta.get("next_token").getAsString() : null;
+        return new Page(List.of(new RawResponse(Platform.X, query, body)), next);
+    }
+
+    @Override
+    public List<Post> decode(RawResponse raw) {
+        JsonObject response = JsonParser.parseString(raw.body()).getAsJsonObject();
+        Log.payload("x", raw.keyword(), response);
+        return toPosts(response, raw.keyword());
+    }
+
+    /**
+     * Decodes a search/recent response into posts, resolving each author from the expanded includes.users list.
+     */
+    static List<Post> toPosts(JsonObject response, String keyword) {
+        JsonArray data = response.getAsJsonArray("data");
+        if (data == null) {
+            return List.of();
+        }
+        JsonObject includes = response.getAsJsonObject("includes");
+        Map<String, Author> users = new HashMap<>();
+        if (includes != null && includes.has("users")) {
+            for (JsonElement userElement : includes.getAsJsonArray("users")) {
+                JsonObject user = userElement.getAsJsonObject();
+                String id = user.get("id").getAsString();
+                users.put(id, new Author(id, user.get("username").getAsString(), user.get("name").getAsString()));
             }
+        }
 
-            for (JsonElement postElement : posts) {
-                JsonObject post = postElement.getAsJsonObject();
-                String authorId = post.get("author_id").getAsString();
-                JsonObject user = users.get(authorId);
-                if (user != null) {
-                    String username = user.get("username").getAsString();
-                    post.addProperty("author", user.get("name").getAsString());
-                    String permalink = "https://twitter.com/" + username + "/status/" + post.get("id").getAsString();
-                    post.addProperty("permalink", permalink);
-                }
-
-                if (post.has("public_metrics")) {
-                    JsonObject publicMetrics = post.getAsJsonObject("public_metrics");
-                    post.addProperty("likes_count", publicMetrics.get("like_count").getAsInt());
-                    post.addProperty("comment_count", publicMetrics.get("reply_count").getAsInt());
-                } else {
-                    post.addProperty("likes_count", 0);
-                    post.addProperty("comment_count", 0);
-                }
+        List<Post> posts = new ArrayList<>(data.size());
+        for (JsonElement postElement : data) {
+            JsonObject post = postElement.getAsJsonObject();
+            String id = post.get("id").getAsString();
+            String authorId = post.get("author_id").getAsString();
+            Author author = users.get(authorId);
+            String permalink = null;
+            if (author != null) {
+                permalink = "https://twitter.com/" + author.handle() + "/status/" + id;
+            } else {
+                author = new Author(authorId, null, null);
             }
-            DatabaseService.saveXPosts(posts, query);
+
+            Engagement engagement = Engagement.NONE;
+            if (post.has("public_metrics")) {
+                JsonObject publicMetrics = post.getAsJsonObject("public_metrics");
+                engagement = Engagement.of(publicMetrics.get("like_count").getAsInt(), publicMetrics.get("reply_count").getAsInt());
+            }
+
+            posts.add(new Post(Platform.X, id, keyword, null, post.has("text") ? post.get("text").getAsString() : null, author,
+                    Timestamps.isoToMillis(post.get("created_at").getAsString()), permalink, engagement, null, null));
         }
+        return posts;
     }
 
-    private static JsonObject sendRequest(String url) throws Exception {
-        HttpClient client = HttpClient.newHttpClient();
+    private static String sendRequest(String url) throws Exception {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(url))
                 .header("Authorization", "Bearer " + ACCESS_TOKEN)
                 .GET()
                 .build();
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = PlatformHttp.send("x", request);
 
         if (response.statusCode() == 200) {
-            return JsonParser.parseString(response.body()).getAsJsonObject();
+            return response.body();
         }
         
         throw new RuntimeException("API Request failed. Status: " + response.statusCode() + ", Body: " + response.body());
     }
-
-    @Override
-    public void scan() {
-        try {
-            loadConfig();
-            System.out.println("Initializing X Search...");
-            List<String> keywords = loadKeywords();
-
-            for (String keyword : keywords) {
-                System.out.println("\nProcessing keyword: " + keyword);
-                search(keyword);
-                long delay = ThreadLocalRandom.current().nextLong(300000, 600001);
-                System.out.println(System.currentTimeMillis() + ": Waiting for " + (delay / 60000) + " minutes before the next keyword...");
-                Thread.sleep(delay);
-            }
-
-        } catch (Exception e) {
-            System.err.println("An unrecoverable error occurred during the process.");
-            e.printStackTrace();
-        }
-    }
-}
\ No newline at end of file
+}
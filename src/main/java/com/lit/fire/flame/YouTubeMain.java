@@ -1,53 +1,55 @@
 package com.lit.fire.flame;
 
+import com.google.api.client.util.DateTime;
 import com.google.api.services.youtube.model.CommentSnippet;
+import com.google.api.services.youtube.model.CommentListResponse;
 import com.google.api.services.youtube.model.CommentThread;
+import com.google.api.services.youtube.model.CommentThreadListResponse;
+import com.google.api.services.youtube.model.CommentThreadReplies;
 import com.google.api.services.youtube.model.SearchResult;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.lit.fire.api.SocialMediaScanner;
+import com.lit.fire.api.Author;
+import com.lit.fire.api.Comment;
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.Keywords;
+import com.lit.fire.api.PagedFetch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.RawResponse;
 
 import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
 import java.util.stream.Collectors;
 
-public class YouTubeMain implements SocialMediaScanner {
+public class YouTubeMain implements PagedFetch {
 
     private static String API_KEY;
     private static int numberOfVideos;
     private static int numberOfComments;
+    private static int maxThreadPages;
+    private static int maxReplyRequests;
+    private static int backfillMaxAgeDays;
 
-    private static void loadConfig() throws Exception {
-        Properties properties = new Properties();
-        try (InputStream input = YouTubeMain.class.getClassLoader().getResourceAsStream("secrets.properties")) {
-            if (input == null) {
-                System.err.println("Error: Unable to find secrets.properties. Please ensure the file exists and contains the required API credentials.");
-                System.exit(1);
-            }
-            properties.load(input);
-        }
+    private YouTubeService service;
 
-        API_KEY = properties.getProperty("youtube.api_key");
+    private static void loadConfig() {
+        API_KEY = AppProperties.requireSecret("youtube.api_key");
         numberOfVideos = AppProperties.getIntProperty("number.of.videos", 10);
         numberOfComments = AppProperties.getIntProperty("number.of.comments", 10);
-
-        if (API_KEY == null || API_KEY.equals("YOUR_YOUTUBE_API_KEY")) {
-            System.err.println("Error: Please configure your YouTube API key in the secrets.properties file.");
-            System.exit(1);
-        }
+        maxThreadPages = AppProperties.getIntProperty("youtube.comments.max_pages", 5);
+        maxReplyRequests = AppProperties.getIntProperty("youtube.comments.max_reply_requests", 20);
+        backfillMaxAgeDays = AppProperties.getIntProperty("youtube.backfill.max_age_days", 30);
     }
 
     private static List<String> loadKeywords() throws Exception {
         List<String> keywords = new ArrayList<>();
         try (InputStream input = YouTubeMain.class.getClassLoader().getResourceAsStream("search_queries.txt")) {
             if (input == null) {
-                System.out.println("Sorry, unable to find search_queries.txt");
+                Log.warn("keywords.missing", "platform", "youtube", "resource", "search_queries.txt");
                 return keywords;
             }
             try (BufferedReader reader = new BufferedReader(new InputStreamReader(input))) {
@@ -59,66 +61,193 @@ public class YouTubeMain implements SocialMediaScanner {
         return keywords;
     }
 
-    public static void search(String query) throws Exception {
-        System.out.println("\nRetrieving latest " + numberOfVideos + " videos for '" + query + "'...");
-
-        YouTubeService service = new YouTubeService("YouTubeSearchApp", API_KEY);
-        List<SearchResult> videos = service.searchVideos(query, numberOfVideos);
+    @Override
+    public Platform platform() {
+        return Platform.YOUTUBE;
+    }
 
-        if (videos.isEmpty()) {
-            System.out.println("No videos found for the query: '" + query + "'");
-            return;
+    @Override
+    public void init() throws Exception {
+        loadConfig();
+        if (service == null) {
+            service = new YouTubeService("YouTubeSearchApp", API_KEY);
         }
+    }
 
-        System.out.println("Search successful. Found " + videos.size() + " videos.");
-        JsonArray videoComments = new JsonArray();
+    @Override
+    public List<String> keywords() throws Exception {
+        return loadKeywords();
+    }
+
+    @Override
+    public String searchForm(String keyword) {
+        return Keywords.squash(keyword);
+    }
+
+    /**
+     * Searches for recent videos and returns one response per video holding its comment threads with all their
+     * replies, tagged with the video it belongs to, so each video is decoded and written as one batch.
+     */
+    @Override
+    public List<RawResponse> fetch(String query) throws Exception {
+        List<SearchResult> videos = service.searchVideos(query, numberOfVideos);
+        List<RawResponse> responses = new ArrayList<>(videos.size());
 
         for (SearchResult video : videos) {
             String videoId = video.getId().getVideoId();
-            System.out.println("\nFetching " + numberOfComments + " comments for video: " + video.getSnippet().getTitle() + " (ID: " + videoId + ")");
-            List<CommentThread> comments = service.getComments(videoId, numberOfComments);
+            CommentThreadListResponse threads = fetchThreads(videoId);
+            if (threads == null) {
+                continue;
+            }
+            String title = video.getSnippet().getTitle();
+            responses.add(new RawResponse(Platform.YOUTUBE, query, YouTubeService.toJson(threads),
+                    Map.of("video_id", videoId, "video_title", title == null ? "" : title)));
+        }
+        return responses;
+    }
 
-            if (comments.isEmpty()) {
-                System.out.println("No comments found for video ID: " + videoId);
+    /**
+     * Pages back through the videos matching a term, number.of.videos per page, in publishedBefore windows: the cursor
+     * is the publish time of the oldest video of the previous page, and paging stops at videos older than
+     * youtube.backfill.max_age_days. Each video yields one response with its comment threads, as in {@link #fetch}.
+     */
+    @Override
+    public Page fetchPage(String query, String cursor) throws Exception {
+        Instant before = cursor == null ? Instant.now() : Instant.parse(cursor);
+        Instant oldest = Instant.now().minus(Duration.ofDays(backfillMaxAgeDays));
+        List<SearchResult> videos = service.searchVideosBefore(query, numberOfVideos, new DateTime(before.toEpochMilli()));
+        List<RawResponse> responses = new ArrayList<>(videos.size());
+        Instant last = null;
+        boolean tooOld = false;
+        for (SearchResult video : videos) {
+            Instant published = Instant.ofEpochMilli(video.getSnippet().getPublishedAt().getValue());
+            if (published.isBefore(oldest)) {
+                tooOld = true;
+                break;
+            }
+            last = last == null || published.isBefore(last) ? published : last;
+            String videoId = video.getId().getVideoId();
+            CommentThreadListResponse threads = fetchThreads(videoId);
+            if (threads == null) {
                 continue;
             }
+            String title = video.getSnippet().getTitle();
+            responses.add(new RawResponse(Platform.YOUTUBE, query, YouTubeService.toJson(threads),
+                    Map.of("video_id", videoId, "video_title", title == null ? "" : title)));
+        }
+        // A short page, or one cut off at the age limit, was the last.
+        String next = last != null && !tooOld && videos.size() >= numberOfVideos ? last.toString() : null;
+        return new Page(responses, next);
+    }
 
-            for (CommentThread commentThread : comments) {
-                CommentSnippet snippet = commentThread.getSnippet().getTopLevelComment().getSnippet();
-                JsonObject commentJson = new JsonObject();
-                commentJson.addProperty("video_id", videoId);
-                commentJson.addProperty("video_title", video.getSnippet().getTitle());
-                commentJson.addProperty("comment_id", commentThread.getId());
-                commentJson.addProperty("text", snippet.getTextDisplay());
-                commentJson.addProperty("author", snippet.getAuthorDisplayName());
-                commentJson.addProperty("likes_count", snippet.getLikeCount());
-                commentJson.addProperty("reply_count", commentThread.getSnippet().getTotalReplyCount());
-                commentJson.addProperty("published_at", snippet.getPublishedAt().toString());
-                commentJson.addProperty("permalink", "https://www.youtube.com/watch?v=" + videoId + "&lc=" + commentThread.getId());
-                videoComments.add(commentJson);
+    /**
+     * Pages through a video's comment threads (up to youtube.comments.max_pages pages of number.of.comments), then
+     * completes the replies of threads with more replies than the few the API returns inline, spending at most
+     * youtube.comments.max_reply_requests comments.list calls on the video.
+     *
+     * @return All threads merged into one response, or null if the first page failed.
+     */
+    private CommentThreadListResponse fetchThreads(String videoId) throws Exception {
+        List<CommentThread> threads = new ArrayList<>();
+        String pageToken = null;
+        int pages = 0;
+        do {
+            String body = service.getCommentThreadsJson(videoId, numberOfComments, pageToken);
+            if (body == null) {
+                break;
+            }
+            CommentThreadListResponse page = YouTubeService.parseCommentThreads(body);
+            if (page.getItems() != null) {
+                threads.addAll(page.getItems());
             }
+            pageToken = page.getNextPageToken();
+        } while (pageToken != null && ++pages < maxThreadPages);
+        if (threads.isEmpty()) {
+            // Comments are disabled, the request failed or the video has none.
+            return null;
         }
 
-        if (videoComments.size() > 0) {
-            DatabaseService.saveYouTubeComments(videoComments, query);
+        int replyRequests = 0;
+        for (CommentThread thread : threads) {
+            long total = thread.getSnippet().getTotalReplyCount() == null ? 0 : thread.getSnippet().getTotalReplyCount();
+            List<com.google.api.services.youtube.model.Comment> inline = thread.getReplies() != null && thread.getReplies().getComments() != null
+                    ? thread.getReplies().getComments() : List.of();
+            if (total <= inline.size() || replyRequests >= maxReplyRequests) {
+                continue;
+            }
+            List<com.google.api.services.youtube.model.Comment> replies = new ArrayList<>();
+            String replyToken = null;
+            do {
+                String body = service.getRepliesJson(thread.getId(), 100, replyToken);
+                replyRequests++;
+                if (body == null) {
+                    break;
+                }
+                CommentListResponse page = YouTubeService.parseComments(body);
+                if (page.getItems() != null) {
+                    replies.addAll(page.getItems());
+                }
+                replyToken = page.getNextPageToken();
+            } while (replyToken != null && replyRequests < maxReplyRequests);
+            if (replies.size() > inline.size()) {
+                thread.setReplies(new CommentThreadReplies().setComments(replies));
+            }
         }
+        Log.debug("comments.threads_fetched", "platform", "youtube", "video_id", videoId, "threads", threads.size(),
+                "reply_requests", replyRequests);
+        return new CommentThreadListResponse().setItems(threads);
     }
 
     @Override
-    public void scan() {
-        try {
-            loadConfig();
-            System.out.println("Initializing YouTube Search...");
-            List<String> keywords = loadKeywords();
-
-            for (String keyword : keywords) {
-                System.out.println("\nProcessing keyword: " + keyword);
-                search(keyword);
+    public List<Comment> decode(RawResponse raw) throws Exception {
+        List<CommentThread> threads = YouTubeService.parseCommentThreads(raw.body()).getItems();
+        if (threads == null || threads.isEmpty()) {
+            return List.of();
+        }
+        return toComments(raw.context().get("video_id"), raw.context().get("video_title"), threads, raw.keyword());
+    }
+
+    /**
+     * Maps the top-level comment of each thread and its replies to comment mentions; replies carry the top-level
+     * comment as their parent.
+     */
+    static List<Comment> toComments(String videoId, String videoTitle, List<CommentThread> threads, String keyword) {
+        List<Comment> comments = new ArrayList<>(threads.size());
+        for (CommentThread commentThread : threads) {
+            CommentSnippet snippet = commentThread.getSnippet().getTopLevelComment().getSnippet();
+            comments.add(toComment(commentThread.getId(), null, snippet, videoId, videoTitle, keyword,
+                    toInt(commentThread.getSnippet().getTotalReplyCount())));
+            if (commentThread.getReplies() == null || commentThread.getReplies().getComments() == null) {
+                continue;
+            }
+            for (com.google.api.services.youtube.model.Comment reply : commentThread.getReplies().getComments()) {
+                CommentSnippet replySnippet = reply.getSnippet();
+                String parentId = replySnippet.getParentId() != null ? replySnippet.getParentId() : commentThread.getId();
+                comments.add(toComment(reply.getId(), parentId, replySnippet, videoId, videoTitle, keyword, 0));
             }
+        }
+        return comments;
+    }
+
+    private static Comment toComment(String id, String parentId, CommentSnippet snippet, String videoId, String videoTitle,
+                                     String keyword, int replies) {
+        Author author = new Author(channelId(snippet), null, snippet.getAuthorDisplayName());
+        return new Comment(Platform.YOUTUBE, id, keyword, parentId, videoId, videoTitle, snippet.getTextDisplay(), author,
+                snippet.getPublishedAt().getValue(), "https://www.youtube.com/watch?v=" + videoId + "&lc=" + id,
+                Engagement.of(toInt(snippet.getLikeCount()), replies));
+    }
 
-        } catch (Exception e) {
-            System.err.println("An unrecoverable error occurred during the process.");
-            e.printStackTrace();
+    /**
+     * The author's channel ID, which the client library exposes as an untyped {"value": ...} map.
+     */
+    private static String channelId(CommentSnippet snippet) {
+        if (snippet.getAuthorChannelId() instanceof Map<?, ?> channel && channel.get("value") != null) {
+            return channel.get("value").toString();
         }
+        return null;
+    }
+
+    private static int toInt(Long value) {
+        return value == null ? 0 : (int) Math.min(Integer.MAX_VALUE, value);
     }
-}
\ No newline at end of file
+}
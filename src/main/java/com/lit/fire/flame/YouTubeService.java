@@ -1,10 +1,14 @@
 package com.lit.fire.flame;
 
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpResponse;
 import com.google.api.client.http.HttpTransport;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.util.DateTime;
 import com.google.api.services.youtube.YouTube;
+import com.google.api.services.youtube.YouTubeRequest;
+import com.google.api.services.youtube.model.CommentListResponse;
 import com.google.api.services.youtube.model.CommentThread;
 import com.google.api.services.youtube.model.CommentThreadListResponse;
 import com.google.api.services.youtube.model.SearchListResponse;
@@ -13,8 +17,9 @@ import com.google.api.services.youtube.model.SearchResult;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.Map;
 
 /**
  * A reusable service class for interacting with the YouTube Data API v3.
@@ -23,6 +28,8 @@ public class YouTubeService {
 
     private static final JsonFactory JSON_FACTORY = GsonFactory.getDefaultInstance();
 
+    private static HttpTransport transport;
+
     private final YouTube youtubeService;
     private final String apiKey;
 
@@ -40,12 +47,83 @@ public class YouTubeService {
         }
         this.apiKey = apiKey;
 
-        final HttpTransport httpTransport = GoogleNetHttpTransport.newTrustedTransport();
-        this.youtubeService = new YouTube.Builder(httpTransport, JSON_FACTORY, null)
+        this.youtubeService = new YouTube.Builder(transport(), JSON_FACTORY, null)
                 .setApplicationName(applicationName)
+                .setRootUrl(AppProperties.getProperty("youtube.root_url", YouTube.DEFAULT_ROOT_URL))
                 .build();
     }
 
+    /**
+     * The HTTP transport shared by every service. Creating one loads Google's trust store, which takes a noticeable
+     * part of startup, so it is done once.
+     */
+    static synchronized HttpTransport transport() throws GeneralSecurityException, IOException {
+        if (transport == null) {
+            transport = GoogleNetHttpTransport.newTrustedTransport();
+        }
+        return transport;
+    }
+
+    /**
+     * Executes the request and returns the raw JSON body, capturing it when traffic recording is on.
+     */
+    private String executeRaw(YouTubeRequest<?> request) throws IOException {
+        try {
+            RateBudget.of("youtube").acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the YouTube request budget", e);
+        }
+        IngestEvents.Request event = new IngestEvents.Request();
+        event.begin();
+        HttpResponse response = request.executeUnparsed();
+        String body = response.parseAsString();
+        event.end();
+        if (event.shouldCommit()) {
+            event.platform = "youtube";
+            event.keyword = IngestEvents.scanningKeyword();
+            event.path = request.buildHttpRequestUrl().getRawPath();
+            event.status = response.getStatusCode();
+            event.bytes = body == null ? 0 : body.length();
+            event.commit();
+        }
+        if (TrafficRecorder.isRecording()) {
+            Map<String, List<String>> headers = new HashMap<>();
+            for (Map.Entry<String, Object> header : response.getHeaders().entrySet()) {
+                if (header.getValue() != null) {
+                    headers.put(header.getKey(), List.of(String.valueOf(header.getValue())));
+                }
+            }
+            TrafficRecorder.record("youtube", "GET", request.buildHttpRequestUrl().toURI(), response.getStatusCode(), headers, body);
+        }
+        return body;
+    }
+
+    private <T> T execute(YouTubeRequest<T> request) throws IOException {
+        return JSON_FACTORY.fromString(executeRaw(request), request.getResponseClass());
+    }
+
+    /**
+     * Decodes a commentThreads.list body returned by {@link #getCommentThreadsJson}.
+     */
+    public static CommentThreadListResponse parseCommentThreads(String body) throws IOException {
+        return JSON_FACTORY.fromString(body, CommentThreadListResponse.class);
+    }
+
+    /**
+     * Decodes a comments.list body returned by {@link #getRepliesJson}.
+     */
+    public static CommentListResponse parseComments(String body) throws IOException {
+        return JSON_FACTORY.fromString(body, CommentListResponse.class);
+    }
+
+    /**
+     * Encodes an API model object back to JSON, e.g. comment threads merged across pages.
+     */
+    public static String toJson(Object model) throws IOException {
+        return JSON_FACTORY.toString(model);
+    }
+
     /**
      * Searches for YouTube videos matching a given query term.
      *
@@ -55,8 +133,6 @@ public class YouTubeService {
      */
     public List<SearchResult> searchVideos(String queryTerm, long maxResults) {
         try {
-            System.out.println("Executing search for query: " + queryTerm);
-
             // Create and configure the search request.
             YouTube.Search.List searchRequest = youtubeService.search()
                     .list("snippet"); // The 'part' parameter is mandatory.
@@ -71,11 +147,12 @@ public class YouTubeService {
             // This reduces payload size and processing time.
             searchRequest.setFields("items(id/videoId,snippet/title,snippet/thumbnails/default/url)");
 
-            long delay = ThreadLocalRandom.current().nextLong(300000, 600001);
-            System.out.println(System.currentTimeMillis() + ": Waiting for " + (delay / 60000) + " minutes before the next keyword...");
-            Thread.sleep(delay);
             // Execute the request and get the response.
-            SearchListResponse searchResponse = searchRequest.execute();
+            long start = System.nanoTime();
+            SearchListResponse searchResponse = execute(searchRequest);
+            Log.info("search.completed", "platform", "youtube", "keyword", queryTerm,
+                    "videos", searchResponse.getItems() == null ? 0 : searchResponse.getItems().size(),
+                    "latency_ms", (System.nanoTime() - start) / 1_000_000);
 
             // Return the list of items from the response.
             List<SearchResult> items = searchResponse.getItems();
@@ -84,17 +161,36 @@ public class YouTubeService {
             }
 
         } catch (IOException e) {
-            System.err.println("An IO error occurred: " + e.getMessage());
-            e.printStackTrace();
+            Log.error("search.failed", e, "platform", "youtube", "keyword", queryTerm);
         } catch (Exception e) {
-            System.err.println("An unexpected error occurred during the search: " + e.getMessage());
-            e.printStackTrace();
+            Log.error("search.failed", e, "platform", "youtube", "keyword", queryTerm);
         }
 
         // Return an empty list in case of errors or no results.
         return Collections.emptyList();
     }
 
+    /**
+     * Searches for videos published before a given time, newest first, for paging back through a term's history.
+     *
+     * @param publishedBefore Only videos published before this time are returned.
+     * @return The videos with their IDs, titles and publish times, or an empty list if there are none left.
+     * @throws IOException if the request fails.
+     */
+    public List<SearchResult> searchVideosBefore(String queryTerm, long maxResults, DateTime publishedBefore) throws IOException {
+        YouTube.Search.List searchRequest = youtubeService.search().list("snippet");
+        searchRequest.setKey(apiKey);
+        searchRequest.setQ(queryTerm);
+        searchRequest.setType("video");
+        searchRequest.setMaxResults(maxResults);
+        searchRequest.setOrder("date");
+        searchRequest.setPublishedBefore(publishedBefore);
+        searchRequest.setFields("items(id/videoId,snippet/title,snippet/publishedAt)");
+
+        List<SearchResult> items = execute(searchRequest).getItems();
+        return items != null ? items : Collections.emptyList();
+    }
+
     /**
      * Fetches the most recent comments for a given YouTube video.
      *
@@ -104,8 +200,36 @@ public class YouTubeService {
      */
     public List<CommentThread> getComments(String videoId, long maxResults) {
         try {
-            System.out.println("Fetching comments for video ID: " + videoId);
+            String body = getCommentThreadsJson(videoId, maxResults);
+            List<CommentThread> items = body == null ? null : parseCommentThreads(body).getItems();
+            if (items != null) {
+                return items;
+            }
+        } catch (IOException e) {
+            Log.error("comments.failed", e, "platform", "youtube", "video_id", videoId);
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Fetches the most recent comment threads for a video as the raw JSON response, leaving decoding to the caller.
+     *
+     * @param videoId The ID of the video to fetch comments from.
+     * @param maxResults The maximum number of comments to return (1-100).
+     * @return The commentThreads.list response body, or null if comments are disabled or the request fails.
+     */
+    public String getCommentThreadsJson(String videoId, long maxResults) {
+        return getCommentThreadsJson(videoId, maxResults, null);
+    }
 
+    /**
+     * Fetches one page of the most recent comment threads for a video as the raw JSON response.
+     *
+     * @param pageToken The nextPageToken of the previous page, or null for the first page.
+     * @return The commentThreads.list response body, or null if comments are disabled or the request fails.
+     */
+    public String getCommentThreadsJson(String videoId, long maxResults, String pageToken) {
+        try {
             YouTube.CommentThreads.List request = youtubeService.commentThreads()
                     .list("snippet,replies");
 
@@ -114,29 +238,54 @@ public class YouTubeService {
             request.setMaxResults(maxResults);
             request.setOrder("time"); // To get the latest comments
             request.setTextFormat("plainText");
-
-            long delay = ThreadLocalRandom.current().nextLong(300000, 600001);
-            System.out.println(System.currentTimeMillis() + ": Waiting for " + (delay / 60000) + " minutes before the next keyword...");
-            Thread.sleep(delay);
-            CommentThreadListResponse response = request.execute();
-            List<CommentThread> items = response.getItems();
-            if (items != null) {
-                return items;
+            if (pageToken != null) {
+                request.setPageToken(pageToken);
             }
 
+            long start = System.nanoTime();
+            String body = executeRaw(request);
+            Log.debug("comments.fetched", "platform", "youtube", "video_id", videoId, "bytes", body.length(),
+                    "latency_ms", (System.nanoTime() - start) / 1_000_000);
+            return body;
+
         } catch (IOException e) {
-            System.err.println("An IO error occurred while fetching comments: " + e.getMessage());
             // It can be a 403 error if comments are disabled for the video.
             if (e.getMessage() != null && e.getMessage().contains("403")) {
-                System.err.println("Comments might be disabled for video: " + videoId);
+                Log.warn("comments.disabled", "platform", "youtube", "video_id", videoId);
             } else {
-                e.printStackTrace();
+                Log.error("comments.failed", e, "platform", "youtube", "video_id", videoId);
             }
         } catch (Exception e) {
-            System.err.println("An unexpected error occurred while fetching comments: " + e.getMessage());
-            e.printStackTrace();
+            Log.error("comments.failed", e, "platform", "youtube", "video_id", videoId);
         }
 
-        return Collections.emptyList();
+        return null;
+    }
+
+    /**
+     * Fetches one page of the replies to a top-level comment as the raw JSON response. The API takes a single parent
+     * per request.
+     *
+     * @param parentId The ID of the top-level comment (the same as its thread's ID).
+     * @param maxResults The maximum number of replies to return (1-100).
+     * @param pageToken The nextPageToken of the previous page, or null for the first page.
+     * @return The comments.list response body, or null if the request fails.
+     */
+    public String getRepliesJson(String parentId, long maxResults, String pageToken) {
+        try {
+            YouTube.Comments.List request = youtubeService.comments().list("snippet");
+
+            request.setKey(apiKey);
+            request.setParentId(parentId);
+            request.setMaxResults(maxResults);
+            request.setTextFormat("plainText");
+            if (pageToken != null) {
+                request.setPageToken(pageToken);
+            }
+            return executeRaw(request);
+        } catch (Exception e) {
+            Log.error("replies.failed", e, "platform", "youtube", "parent_id", parentId);
+        }
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,240 @@
+-- Tables written by DatabaseService. Every statement is idempotent so the script can be re-applied on startup.
+
+CREATE TABLE IF NOT EXISTS x_posts (
+    id            TEXT PRIMARY KEY,
+    text          TEXT,
+    created_at    TIMESTAMPTZ NOT NULL,
+    keyword       TEXT NOT NULL,
+    permalink     TEXT,
+    author        TEXT,
+    likes_count   INTEGER NOT NULL DEFAULT 0,
+    comment_count INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS instagram_posts (
+    id             TEXT PRIMARY KEY,
+    text           TEXT,
+    media_type     TEXT,
+    media_url      TEXT,
+    permalink      TEXT,
+    timestamp      TIMESTAMPTZ NOT NULL,
+    keyword        TEXT NOT NULL,
+    author         TEXT,
+    like_count     INTEGER NOT NULL DEFAULT 0,
+    comments_count INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS reddit_posts (
+    id           TEXT PRIMARY KEY,
+    title        TEXT,
+    text         TEXT,
+    created_at   TIMESTAMPTZ NOT NULL,
+    keyword      TEXT NOT NULL,
+    permalink    TEXT,
+    author       TEXT,
+    score        INTEGER NOT NULL DEFAULT 0,
+    num_comments INTEGER NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS youtube_comments (
+    id           TEXT PRIMARY KEY,
+    video_id     TEXT NOT NULL,
+    video_title  TEXT,
+    text         TEXT,
+    author       TEXT,
+    published_at TIMESTAMPTZ NOT NULL,
+    permalink    TEXT,
+    keyword      TEXT NOT NULL
+);
+
+-- Near-duplicate cluster assigned by NearDuplicateTagger; NULL for texts too short to cluster.
+ALTER TABLE x_posts ADD COLUMN IF NOT EXISTS cluster_id BIGINT;
+ALTER TABLE instagram_posts ADD COLUMN IF NOT EXISTS cluster_id BIGINT;
+ALTER TABLE reddit_posts ADD COLUMN IF NOT EXISTS cluster_id BIGINT;
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS cluster_id BIGINT;
+
+CREATE INDEX IF NOT EXISTS x_posts_keyword_cluster_idx ON x_posts (keyword, cluster_id);
+CREATE INDEX IF NOT EXISTS instagram_posts_keyword_cluster_idx ON instagram_posts (keyword, cluster_id);
+CREATE INDEX IF NOT EXISTS reddit_posts_keyword_cluster_idx ON reddit_posts (keyword, cluster_id);
+CREATE INDEX IF NOT EXISTS youtube_comments_keyword_cluster_idx ON youtube_comments (keyword, cluster_id);
+
+-- Sentiment from -1 to 1 and dominant emotion (joy, anger, sadness, fear, surprise, disgust) from SentimentTagger.
+ALTER TABLE x_posts ADD COLUMN IF NOT EXISTS sentiment REAL;
+ALTER TABLE x_posts ADD COLUMN IF NOT EXISTS emotion TEXT;
+ALTER TABLE instagram_posts ADD COLUMN IF NOT EXISTS sentiment REAL;
+ALTER TABLE instagram_posts ADD COLUMN IF NOT EXISTS emotion TEXT;
+ALTER TABLE reddit_posts ADD COLUMN IF NOT EXISTS sentiment REAL;
+ALTER TABLE reddit_posts ADD COLUMN IF NOT EXISTS emotion TEXT;
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS sentiment REAL;
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS emotion TEXT;
+
+-- Full-text search (MentionSearch). ts_config is the text search configuration a row's text is indexed with; the
+-- tsvector is a generated column, so it is maintained by every INSERT and UPDATE without triggers.
+ALTER TABLE x_posts ADD COLUMN IF NOT EXISTS ts_config REGCONFIG NOT NULL DEFAULT 'english';
+ALTER TABLE instagram_posts ADD COLUMN IF NOT EXISTS ts_config REGCONFIG NOT NULL DEFAULT 'english';
+ALTER TABLE reddit_posts ADD COLUMN IF NOT EXISTS ts_config REGCONFIG NOT NULL DEFAULT 'english';
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS ts_config REGCONFIG NOT NULL DEFAULT 'english';
+
+ALTER TABLE x_posts ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+    GENERATED ALWAYS AS (setweight(to_tsvector(ts_config, coalesce(text, '')), 'B')) STORED;
+ALTER TABLE instagram_posts ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+    GENERATED ALWAYS AS (setweight(to_tsvector(ts_config, coalesce(text, '')), 'B')) STORED;
+ALTER TABLE reddit_posts ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+    GENERATED ALWAYS AS (setweight(to_tsvector(ts_config, coalesce(title, '')), 'A')
+        || setweight(to_tsvector(ts_config, coalesce(text, '')), 'B')) STORED;
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS search_vector TSVECTOR
+    GENERATED ALWAYS AS (setweight(to_tsvector(ts_config, coalesce(text, '')), 'B')) STORED;
+
+CREATE INDEX IF NOT EXISTS x_posts_search_idx ON x_posts USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS instagram_posts_search_idx ON instagram_posts USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS reddit_posts_search_idx ON reddit_posts USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS youtube_comments_search_idx ON youtube_comments USING GIN (search_vector);
+
+-- Recency order for the RECENT search order, exports and the archiver. IDs are ordered with the "C" collation, which
+-- the queries use so Java compares them the same way; the *_created_idx indexes on the default collation are replaced.
+DROP INDEX IF EXISTS x_posts_created_idx;
+DROP INDEX IF EXISTS instagram_posts_created_idx;
+DROP INDEX IF EXISTS reddit_posts_created_idx;
+DROP INDEX IF EXISTS youtube_comments_created_idx;
+CREATE INDEX IF NOT EXISTS x_posts_created_id_c_idx ON x_posts (created_at DESC, id COLLATE "C" DESC);
+CREATE INDEX IF NOT EXISTS instagram_posts_created_id_c_idx ON instagram_posts (timestamp DESC, id COLLATE "C" DESC);
+CREATE INDEX IF NOT EXISTS reddit_posts_created_id_c_idx ON reddit_posts (created_at DESC, id COLLATE "C" DESC);
+CREATE INDEX IF NOT EXISTS youtube_comments_created_id_c_idx ON youtube_comments (published_at DESC, id COLLATE "C" DESC);
+
+-- Rollups per keyword and platform, maintained by MentionRollups in the same transaction as each batch insert.
+-- Buckets start on the UTC hour or day.
+CREATE TABLE IF NOT EXISTS mention_rollups_hourly (
+    bucket         TIMESTAMPTZ NOT NULL,
+    keyword        TEXT NOT NULL,
+    platform       TEXT NOT NULL,
+    mentions       BIGINT NOT NULL DEFAULT 0,
+    unique_authors BIGINT NOT NULL DEFAULT 0,
+    likes          BIGINT NOT NULL DEFAULT 0,
+    replies        BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (keyword, platform, bucket)
+);
+
+CREATE TABLE IF NOT EXISTS mention_rollups_daily (
+    bucket         TIMESTAMPTZ NOT NULL,
+    keyword        TEXT NOT NULL,
+    platform       TEXT NOT NULL,
+    mentions       BIGINT NOT NULL DEFAULT 0,
+    unique_authors BIGINT NOT NULL DEFAULT 0,
+    likes          BIGINT NOT NULL DEFAULT 0,
+    replies        BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (keyword, platform, bucket)
+);
+
+-- The authors already counted in each rollup bucket (grain is 'hour' or 'day'), which keeps unique_authors exact
+-- under incremental updates. MentionArchive deletes the rows of the days it archives.
+CREATE TABLE IF NOT EXISTS mention_rollup_authors (
+    grain    TEXT NOT NULL,
+    bucket   TIMESTAMPTZ NOT NULL,
+    keyword  TEXT NOT NULL,
+    platform TEXT NOT NULL,
+    author   TEXT NOT NULL,
+    PRIMARY KEY (grain, keyword, platform, bucket, author)
+);
+
+-- Comments on matched Reddit submissions, from RedditCommentCrawler.
+CREATE TABLE IF NOT EXISTS reddit_comments (
+    id         TEXT PRIMARY KEY,
+    post_id    TEXT NOT NULL,
+    parent_id  TEXT,
+    text       TEXT,
+    author     TEXT,
+    created_at TIMESTAMPTZ NOT NULL,
+    permalink  TEXT,
+    score      INTEGER NOT NULL DEFAULT 0,
+    keyword    TEXT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS reddit_comments_post_idx ON reddit_comments (post_id);
+CREATE INDEX IF NOT EXISTS reddit_comments_keyword_created_idx ON reddit_comments (keyword, created_at DESC);
+
+-- The num_comments of each submission when its comments were last crawled; it is crawled again once that grows.
+CREATE TABLE IF NOT EXISTS reddit_comment_crawls (
+    post_id      TEXT PRIMARY KEY,
+    num_comments INTEGER NOT NULL,
+    crawled_at   TIMESTAMPTZ NOT NULL
+);
+
+-- YouTube replies (parent_id is the top-level comment) and comment engagement.
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS parent_id TEXT;
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS likes_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS reply_count INTEGER NOT NULL DEFAULT 0;
+CREATE INDEX IF NOT EXISTS youtube_comments_parent_idx ON youtube_comments (parent_id) WHERE parent_id IS NOT NULL;
+
+-- Tenants and the keywords they subscribe to. keyword_key is the keyword lowercased without whitespace, which is how
+-- the scanner deduplicates keywords across tenants and platforms; priority is high, normal or low.
+CREATE TABLE IF NOT EXISTS tenants (
+    id         TEXT PRIMARY KEY,
+    name       TEXT,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT now()
+);
+
+CREATE TABLE IF NOT EXISTS tenant_keywords (
+    tenant_id   TEXT NOT NULL REFERENCES tenants (id) ON DELETE CASCADE,
+    keyword_key TEXT NOT NULL,
+    keyword     TEXT NOT NULL,
+    priority    TEXT NOT NULL DEFAULT 'normal',
+    PRIMARY KEY (tenant_id, keyword_key)
+);
+CREATE INDEX IF NOT EXISTS tenant_keywords_key_idx ON tenant_keywords (keyword_key);
+
+-- The stored mentions each tenant sees: every batch fetched for a keyword is linked to all of its subscribers.
+CREATE TABLE IF NOT EXISTS tenant_mentions (
+    tenant_id  TEXT NOT NULL,
+    platform   TEXT NOT NULL,
+    mention_id TEXT NOT NULL,
+    keyword    TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (tenant_id, platform, mention_id)
+);
+CREATE INDEX IF NOT EXISTS tenant_mentions_created_idx ON tenant_mentions (tenant_id, created_at DESC);
+
+-- One row per platform and author (Authors). author_key is the platform's stable user ID, or else the handle, or else
+-- the display name; the mention tables reference the row by author_id and keep the author text as fetched. The
+-- counters cover newly stored mentions: duplicate_mentions repeat one of the author's recent texts, posts_per_hour
+-- decays with a one-hour time constant, and likely_bot is set once they cross the authors.bot.* thresholds.
+CREATE TABLE IF NOT EXISTS authors (
+    id                 BIGSERIAL PRIMARY KEY,
+    platform           TEXT NOT NULL,
+    author_key         TEXT NOT NULL,
+    user_id            TEXT,
+    handle             TEXT,
+    display_name       TEXT,
+    first_seen         TIMESTAMPTZ NOT NULL DEFAULT now(),
+    last_seen          TIMESTAMPTZ NOT NULL DEFAULT now(),
+    mentions           BIGINT NOT NULL DEFAULT 0,
+    duplicate_mentions BIGINT NOT NULL DEFAULT 0,
+    posts_per_hour     DOUBLE PRECISION NOT NULL DEFAULT 0,
+    last_posted_at     TIMESTAMPTZ,
+    likely_bot         BOOLEAN NOT NULL DEFAULT false,
+    UNIQUE (platform, author_key)
+);
+CREATE INDEX IF NOT EXISTS authors_likely_bot_idx ON authors (platform) WHERE likely_bot;
+
+ALTER TABLE x_posts ADD COLUMN IF NOT EXISTS author_id BIGINT;
+ALTER TABLE instagram_posts ADD COLUMN IF NOT EXISTS author_id BIGINT;
+ALTER TABLE reddit_posts ADD COLUMN IF NOT EXISTS author_id BIGINT;
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS author_id BIGINT;
+ALTER TABLE reddit_comments ADD COLUMN IF NOT EXISTS author_id BIGINT;
+CREATE INDEX IF NOT EXISTS x_posts_author_idx ON x_posts (author_id);
+CREATE INDEX IF NOT EXISTS instagram_posts_author_idx ON instagram_posts (author_id);
+CREATE INDEX IF NOT EXISTS reddit_posts_author_idx ON reddit_posts (author_id);
+CREATE INDEX IF NOT EXISTS youtube_comments_author_idx ON youtube_comments (author_id);
+CREATE INDEX IF NOT EXISTS reddit_comments_author_idx ON reddit_comments (author_id);
+
+-- The language LanguageTagger identified, as a BCP 47 tag ('en', 'ta', 'hi-Latn' for Hindi in Latin script), NULL if
+-- undetermined; ts_config follows it: english for English and undetermined rows, simple for the rest.
+ALTER TABLE x_posts ADD COLUMN IF NOT EXISTS language TEXT;
+ALTER TABLE instagram_posts ADD COLUMN IF NOT EXISTS language TEXT;
+ALTER TABLE reddit_posts ADD COLUMN IF NOT EXISTS language TEXT;
+ALTER TABLE youtube_comments ADD COLUMN IF NOT EXISTS language TEXT;
+
+-- Crawled Reddit comments pass the same pipeline as mentions and carry the same annotations.
+ALTER TABLE reddit_comments ADD COLUMN IF NOT EXISTS cluster_id BIGINT;
+ALTER TABLE reddit_comments ADD COLUMN IF NOT EXISTS sentiment REAL;
+ALTER TABLE reddit_comments ADD COLUMN IF NOT EXISTS emotion TEXT;
+ALTER TABLE reddit_comments ADD COLUMN IF NOT EXISTS language TEXT;
+ALTER TABLE reddit_comments ADD COLUMN IF NOT EXISTS ts_config REGCONFIG NOT NULL DEFAULT 'english';
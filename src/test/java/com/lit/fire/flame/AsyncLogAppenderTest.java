@@ -0,0 +1,31 @@
+package com.lit.fire.flame;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Checks that every event, including one with a stack trace, is written as a single line.
+ */
+public class AsyncLogAppenderTest extends TestCase {
+
+    public void testErrorStaysOnOneLine() {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        AsyncLogAppender appender = new AsyncLogAppender(16, target);
+        Thread writer = new Thread(appender, "log-appender-test");
+        writer.setDaemon(true);
+        writer.start();
+
+        appender.offer(new AsyncLogAppender.LogEvent(0, Log.Level.ERROR, "main", "db.failed",
+                new Object[]{"keyword", "two words"}, new IllegalStateException("bad\nrow")));
+        appender.offer(new AsyncLogAppender.LogEvent(0, Log.Level.INFO, "main", "db.saved", null, null));
+        appender.drain();
+
+        String[] lines = target.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains(" keyword=\"two words\" error=\"bad\\nrow\" stack=\"java.lang.IllegalStateException"));
+        assertTrue(lines[0].contains("\\n\\tat com.lit.fire.flame.AsyncLogAppenderTest"));
+        assertTrue(lines[1].endsWith(" event=db.saved"));
+    }
+}
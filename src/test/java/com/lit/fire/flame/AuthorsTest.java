@@ -0,0 +1,73 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Author;
+import junit.framework.TestCase;
+
+/**
+ * Checks the author keys, the cache eviction order and the activity counters that flag likely bots.
+ */
+public class AuthorsTest extends TestCase {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final Authors.Settings SETTINGS = new Authors.Settings(10, 30, 0.6);
+
+    public void testKeyPrefersTheStableId() {
+        assertEquals("1234", Authors.key(new Author("1234", "sk_fans", "SK Fans")));
+        assertEquals("sk_fans", Authors.key(new Author(null, "sk_fans", "SK Fans")));
+        assertEquals("SK Fans", Authors.key(new Author(null, null, "SK Fans")));
+        assertNull(Authors.key(Author.UNKNOWN));
+    }
+
+    public void testCacheEvictsTheLeastRecentlyUsed() {
+        Authors.Cache cache = new Authors.Cache(2);
+        cache.put("x:1", new Authors.Entry(1, "a", null));
+        cache.put("x:2", new Authors.Entry(2, "b", null));
+        cache.get("x:1");
+        cache.put("x:3", new Authors.Entry(3, "c", null));
+        assertEquals(2, cache.size());
+        assertTrue(cache.containsKey("x:1"));
+        assertFalse(cache.containsKey("x:2"));
+    }
+
+    public void testTextHashIgnoresCaseUrlsAndHandles() {
+        long hash = Authors.Stats.textHash("Watch Parasakthi trailer now! https://t.co/abc @sk_fans");
+        assertTrue(hash != 0);
+        assertEquals(hash, Authors.Stats.textHash("watch parasakthi TRAILER now https://t.co/xyz @other"));
+        assertFalse(hash == Authors.Stats.textHash("Watch Parasakthi teaser now!"));
+        assertEquals(0, Authors.Stats.textHash("nice!! 🔥🔥"));
+    }
+
+    public void testAnOccasionalPosterIsNotFlagged() {
+        Authors.Stats stats = new Authors.Stats();
+        for (int i = 0; i < 20; i++) {
+            assertFalse(stats.observe(NOW + i * 3_600_000L, "Day " + i + " of waiting for the Parasakthi trailer", SETTINGS));
+        }
+        assertFalse(stats.likelyBot);
+        assertEquals(0.0, stats.duplicateRatio());
+        assertTrue(stats.postsPerHour < 2);
+    }
+
+    public void testRepeatedTextIsFlagged() {
+        Authors.Stats stats = new Authors.Stats();
+        int flagged = 0;
+        for (int i = 0; i < 10; i++) {
+            if (stats.observe(NOW + i * 3_600_000L, "Stream Parasakthi now on http://spam.example/" + i, SETTINGS)) {
+                flagged++;
+            }
+        }
+        assertEquals(1, flagged);
+        assertTrue(stats.likelyBot);
+        assertEquals(0.9, stats.duplicateRatio(), 1e-9);
+    }
+
+    public void testPostingRateIsFlagged() {
+        Authors.Stats stats = new Authors.Stats();
+        for (int i = 0; i < 60; i++) {
+            // Delivered out of order, two a minute.
+            stats.observe(NOW + ((i * 7) % 60) * 30_000L, "Parasakthi update number " + i + " is here", SETTINGS);
+        }
+        assertTrue(stats.postsPerHour > 30);
+        assertTrue(stats.likelyBot);
+        assertEquals(0, stats.duplicates);
+    }
+}
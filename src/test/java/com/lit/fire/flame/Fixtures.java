@@ -0,0 +1,50 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Author;
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mentions and rows shared by the tests.
+ */
+final class Fixtures {
+
+    static final String KEYWORD = "parasakthi";
+
+    private Fixtures() {
+    }
+
+    /**
+     * A post by an unknown author, without title, permalink or media.
+     */
+    static Post post(Platform platform, String id, String keyword, String text, long createdAt, Engagement engagement) {
+        return new Post(platform, id, keyword, null, text, Author.UNKNOWN, createdAt, null, engagement, null, null);
+    }
+
+    static MentionBatch batch(Platform platform, String keyword, List<Post> posts) {
+        return new MentionBatch(platform, keyword, new ArrayList<>(posts));
+    }
+
+    /**
+     * Rows id-from to id-(from + count - 1) across all platforms, with the edge cases encoders have to keep: missing
+     * authors and titles, quotes, newlines and emoji, negative and zero values, NaN sentiment, and creation times out of
+     * order.
+     */
+    static List<MentionRow> rows(int from, int count) {
+        List<MentionRow> rows = new ArrayList<>();
+        Platform[] platforms = Platform.values();
+        for (int i = from; i < from + count; i++) {
+            Platform platform = platforms[i % platforms.length];
+            rows.add(new MentionRow(platform, "id-" + i, KEYWORD, 1_760_000_000_000L + (i % 7) * 1000L - i,
+                    i % 5 == 0 ? null : "author " + i, platform == Platform.REDDIT ? "Title ✨ " + i : null,
+                    "text \"" + i + "\"\n🔥", "https://example.com/" + i, i * 3, -i % 11,
+                    i % 3 == 0 ? Float.NaN : i / 1000f, i % 2 == 0 ? "joy" : null, i % 4 == 0 ? 0 : -i * 31L));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,78 @@
+package com.lit.fire.flame;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Records ingest events with the shipped settings and checks the percentiles and totals the summary derives from them.
+ */
+public class JfrSummaryTest extends TestCase {
+
+    public void testNearestRankPercentiles() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+        assertEquals(50, JfrSummary.percentile(sorted, 0.50));
+        assertEquals(99, JfrSummary.percentile(sorted, 0.99));
+        assertEquals(100, JfrSummary.percentile(sorted, 1.0));
+        assertEquals(7, JfrSummary.percentile(new long[] {7}, 0.99));
+    }
+
+    public void testSummarizesRecordedEventsPerPhaseAndPlatform() throws Exception {
+        Path file = Files.createTempFile("scan", ".jfr");
+        try (Recording recording = new Recording(Configuration.create(Path.of("src/main/resources/aura.jfc")))) {
+            recording.start();
+            for (int i = 1; i <= 100; i++) {
+                IngestEvents.Dispatch dispatch = new IngestEvents.Dispatch();
+                dispatch.platform = "x";
+                dispatch.keyword = "parasakthi";
+                dispatch.priority = "normal";
+                dispatch.lateness = i;
+                dispatch.status = i % 10 == 0 ? "queue_full" : "dispatched";
+                dispatch.commit();
+            }
+            for (int i = 0; i < 3; i++) {
+                IngestEvents.Decode decode = new IngestEvents.Decode();
+                decode.begin();
+                decode.end();
+                decode.platform = "reddit";
+                decode.keyword = "parasakthi";
+                decode.bytes = 1000;
+                decode.mentions = 25;
+                decode.status = i == 0 ? "failed" : "ok";
+                decode.commit();
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        try {
+            List<JfrSummary.Row> rows = JfrSummary.summarize(file);
+            assertEquals(2, rows.size());
+
+            JfrSummary.Row decode = rows.get(0);
+            assertEquals("decode", decode.phase());
+            assertEquals("reddit", decode.platform());
+            assertEquals(3, decode.count());
+            assertEquals(3000, decode.bytes());
+            assertEquals(75, decode.mentions());
+            assertEquals(1, decode.failed());
+
+            JfrSummary.Row dispatch = rows.get(1);
+            assertEquals("dispatch", dispatch.phase());
+            assertEquals(100, dispatch.count());
+            assertEquals(50.0, dispatch.p50Millis());
+            assertEquals(90.0, dispatch.p90Millis());
+            assertEquals(99.0, dispatch.p99Millis());
+            assertEquals(100.0, dispatch.maxMillis());
+            assertEquals(10, dispatch.failed());
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Language;
+import junit.framework.TestCase;
+
+/**
+ * Checks text normalization and that the identifier tells scripts, English and transliterated Hindi and Tamil apart
+ * on mentions that are not among its samples.
+ */
+public class LanguageIdTest extends TestCase {
+
+    public void testNormalizeFoldsStyledLettersAndDropsUrlsAndEmoji() {
+        assertEquals("parasakthi trailer out! #adialaye @sk_fans",
+                TextNormalizer.normalize("𝐏𝐚𝐫𝐚𝐬𝐚𝐤𝐭𝐡𝐢 ＴＲＡＩＬＥＲ  out!🔥🔥 https://t.co/x #AdiAlaye @sk_fans"));
+        assertEquals("parasakthi tere ishq", TextNormalizer.normalize("Parāsakthi Tēre\u200d Ishq"));
+        assertEquals("istanbul", TextNormalizer.normalize("ISTANBUL"));
+        // Tamil vowel signs are combining marks and stay.
+        assertEquals("பராசக்தி", TextNormalizer.normalize("பராசக்தி ❤️"));
+        assertEquals("", TextNormalizer.normalize("🔥 https://t.co/x"));
+    }
+
+    public void testScriptsIdentifyTheirLanguage() {
+        assertEquals(Language.TAMIL, identify("பராசக்தி படம் சூப்பர் 🔥 #Parasakthi"));
+        assertEquals(Language.HINDI, identify("तेरे इश्क़ में का गाना बहुत अच्छा है"));
+        assertEquals(Language.TELUGU, identify("సినిమా చాలా బాగుంది"));
+        assertEquals(Language.MALAYALAM, identify("പടം കൊള്ളാം"));
+    }
+
+    public void testLatinScriptTellsEnglishFromTransliteration() {
+        assertEquals(Language.ENGLISH, identify("Just saw Parasakthi with my family, the interval block is fantastic and the music is great"));
+        assertEquals(Language.ENGLISH, identify("Can't believe how good the new song is, listening to it all day"));
+        assertEquals(Language.HINDI_LATIN, identify("Tere Ishq Mein dekhi kal, bahut pyaari kahani hai, aankhon mein aansu aa gaye"));
+        assertEquals(Language.HINDI_LATIN, identify("bhai yeh gaana toh ekdum dil ko chhoo gaya, kitni baar suna pata nahi"));
+        assertEquals(Language.TAMIL_LATIN, identify("Parasakthi padam paathen, sivakarthikeyan nadippu semma, kandippa paarunga"));
+        assertEquals(Language.TAMIL_LATIN, identify("machan indha paatu ketta udane pudichiduchu, romba nalla iruku da"));
+    }
+
+    public void testShortOrLetterlessTextIsUndetermined() {
+        assertNull(identify("🔥🔥🔥 https://t.co/x"));
+        assertNull(identify("2025 !!!"));
+        assertNull(identify("wow"));
+    }
+
+    public void testTsConfigFollowsTheLanguage() {
+        assertEquals("english", LanguageId.tsConfig(Language.ENGLISH));
+        assertEquals("english", LanguageId.tsConfig(null));
+        assertEquals("simple", LanguageId.tsConfig(Language.TAMIL_LATIN));
+    }
+
+    private static Language identify(String text) {
+        return LanguageId.identify(TextNormalizer.normalize(text));
+    }
+}
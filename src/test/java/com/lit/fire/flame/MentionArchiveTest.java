@@ -0,0 +1,174 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Platform;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Checks that archived segments read back filtered and merged in order with the rows still in Postgres, and that
+ * cold search follows web search syntax and pages through the cursor.
+ */
+public class MentionArchiveTest extends TestCase {
+
+    private static final long JAN = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    private static final long FEB = Instant.parse("2025-02-01T00:00:00Z").toEpochMilli();
+    private static final long HOUR = 3_600_000L;
+
+    private Path dir;
+
+    @Override
+    protected void setUp() throws IOException {
+        dir = Files.createTempDirectory("archive");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public void testSegmentIndexDescribesItsRows() throws Exception {
+        archive(Platform.X, JAN, FEB, List.of(
+                row(Platform.X, "1", "Parasakthi", JAN + HOUR, "first"),
+                row(Platform.X, "2", "Tere Ishq Mein", JAN + 2 * HOUR, "second"),
+                row(Platform.X, "3", "Parasakthi", JAN + 3 * HOUR, "third")));
+        List<MentionArchive.Segment> segments = MentionArchive.segments(dir);
+        assertEquals(1, segments.size());
+        MentionArchive.Segment segment = segments.get(0);
+        assertEquals(3, segment.rows());
+        assertEquals(JAN + HOUR, segment.minCreatedAt());
+        assertEquals(JAN + 3 * HOUR, segment.maxCreatedAt());
+        assertEquals("3", segment.lastId());
+        assertEquals(Long.valueOf(2), segment.keywords().get("Parasakthi"));
+        assertTrue(segment.covers("Tere Ishq Mein", JAN, FEB));
+        assertFalse(segment.covers("Kantara", JAN, FEB));
+        assertFalse(segment.covers(null, JAN + 4 * HOUR, FEB));
+
+        assertEquals(FEB, MentionArchive.archivedUntil(dir, Platform.X));
+        archive(Platform.X, FEB, FEB + 5 * HOUR, List.of(row(Platform.X, "4", "Parasakthi", FEB + HOUR, "fourth")));
+        assertEquals(FEB + 24 * HOUR, MentionArchive.archivedUntil(dir, Platform.X));
+        assertEquals(0, MentionArchive.archivedUntil(dir, Platform.REDDIT));
+    }
+
+    public void testArchivedRowsMergeWithHotRowsInOrder() throws Exception {
+        archive(Platform.X, JAN, FEB, List.of(
+                row(Platform.X, "a1", "Parasakthi", JAN + HOUR, "old one"),
+                row(Platform.X, "a2", "Tere Ishq Mein", JAN + 2 * HOUR, "old two"),
+                row(Platform.X, "a3", "Parasakthi", JAN + 5 * HOUR, "old three")));
+        archive(Platform.REDDIT, JAN, FEB, List.of(row(Platform.REDDIT, "r1", "Parasakthi", JAN + HOUR, "reddit")));
+        // A backfilled row landed in Postgres after its month was archived, and one row is in both tiers.
+        List<MentionRow> hot = List.of(
+                row(Platform.X, "h1", "Parasakthi", JAN + 3 * HOUR, "late"),
+                row(Platform.X, "a3", "Parasakthi", JAN + 5 * HOUR, "old three"),
+                row(Platform.X, "h2", "Parasakthi", FEB + HOUR, "new"));
+
+        MentionExporter.Filter filter = new MentionExporter.Filter("Parasakthi", EnumSet.allOf(Platform.class), null, null);
+        assertEquals(List.of("a1", "h1", "a3", "h2"), ids(MentionArchive.merge(List.of(cursor(hot),
+                MentionArchive.rows(dir, Platform.X, filter, 0, null)))));
+
+        // Resuming after a checkpoint and bounding the time range.
+        assertEquals(List.of("a3"), ids(MentionArchive.rows(dir, Platform.X, filter, JAN + HOUR, "a1")));
+        MentionExporter.Filter window = new MentionExporter.Filter(null, EnumSet.allOf(Platform.class),
+                Instant.ofEpochMilli(JAN + 2 * HOUR), Instant.ofEpochMilli(JAN + 5 * HOUR));
+        assertEquals(List.of("a2"), ids(MentionArchive.rows(dir, Platform.X, window, 0, null)));
+    }
+
+    public void testSearchQuerySyntax() {
+        MentionArchive.SearchQuery query = MentionArchive.SearchQuery.parse("\"Adi Alaye\" song or teaser -remix");
+        assertTrue(matches(query, "Adi Alaye SONG is out!"));
+        assertTrue(matches(query, "#Parasakthi teaser: adi alaye"));
+        assertFalse(matches(query, "adi song alaye"));
+        assertFalse(matches(query, "Adi Alaye song remix"));
+        assertFalse(matches(query, "Adi Alaye songs"));
+        assertNull(MentionArchive.SearchQuery.parse("-remix"));
+    }
+
+    public void testSearchPagesNewestFirst() throws Exception {
+        List<MentionRow> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(row(Platform.YOUTUBE, "y" + i, "Parasakthi", JAN + i * HOUR, i % 2 == 0 ? "trailer reaction" : "song"));
+        }
+        archive(Platform.YOUTUBE, JAN, FEB, rows);
+
+        List<MentionSearch.Hit> first = MentionArchive.search(dir, "trailer", null, EnumSet.allOf(Platform.class),
+                MentionSearch.Order.RECENT, null, null, 3);
+        assertEquals(List.of("y8", "y6", "y4"), first.stream().map(MentionSearch.Hit::id).toList());
+        MentionSearch.Hit last = first.get(2);
+        MentionSearch.Cursor cursor = new MentionSearch.Cursor(last.rank(), last.createdAtMillis(), last.platform().code(), last.id());
+        List<MentionSearch.Hit> second = MentionArchive.search(dir, "trailer", null, EnumSet.allOf(Platform.class),
+                MentionSearch.Order.RECENT, cursor, null, 3);
+        assertEquals(List.of("y2", "y0"), second.stream().map(MentionSearch.Hit::id).toList());
+
+        // Postgres hits rank above zero, so a relevance page continuing from one starts with the archive's best.
+        MentionSearch.Cursor afterHot = new MentionSearch.Cursor(0.4f, FEB, Platform.X.code(), "x1");
+        assertEquals("y8", MentionArchive.search(dir, "trailer", "Parasakthi", EnumSet.of(Platform.YOUTUBE),
+                MentionSearch.Order.RELEVANCE, afterHot, null, 1).get(0).id());
+        assertTrue(MentionArchive.search(dir, "trailer", null, EnumSet.of(Platform.X), MentionSearch.Order.RECENT, null, null, 3).isEmpty());
+    }
+
+    public void testFullPostgresPageBoundsTheScan() throws Exception {
+        List<MentionRow> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(row(Platform.YOUTUBE, "y" + i, "Parasakthi", JAN + i * HOUR, "trailer"));
+        }
+        archive(Platform.YOUTUBE, JAN, FEB, rows);
+
+        // Only archived hits newer than the last Postgres hit can still make a recency page.
+        MentionSearch.Hit lastHot = new MentionSearch.Hit(Platform.X, "x1", "Parasakthi", null, "trailer", "author",
+                JAN + 7 * HOUR + 1, null, 0.2f);
+        List<MentionSearch.Hit> recent = MentionArchive.search(dir, "trailer", null, EnumSet.allOf(Platform.class),
+                MentionSearch.Order.RECENT, null, lastHot, 5);
+        assertEquals(List.of("y9", "y8"), recent.stream().map(MentionSearch.Hit::id).toList());
+        // Postgres hits that all rank above zero fill a relevance page by themselves.
+        assertTrue(MentionArchive.search(dir, "trailer", null, EnumSet.allOf(Platform.class),
+                MentionSearch.Order.RELEVANCE, null, lastHot, 5).isEmpty());
+    }
+
+    private void archive(Platform platform, long from, long to, List<MentionRow> rows) throws Exception {
+        Path platformDir = Files.createDirectories(dir.resolve(platform.id()));
+        String name = from + "-" + to;
+        Path file = platformDir.resolve(name + ".mcol");
+        Path temp = platformDir.resolve(name + ".mcol.tmp");
+        MentionArchive.Segment segment = MentionArchive.writeSegment(temp, file, platform, from, to, cursor(rows));
+        Files.move(temp, file);
+        segment.save(platformDir.resolve(name + ".idx"));
+    }
+
+    private static boolean matches(MentionArchive.SearchQuery query, String text) {
+        return query.matches(MentionArchive.SearchQuery.searchable(null, text, new StringBuilder()).toString());
+    }
+
+    private static MentionArchive.RowCursor cursor(List<MentionRow> rows) {
+        Iterator<MentionRow> iterator = rows.iterator();
+        return () -> iterator.hasNext() ? iterator.next() : null;
+    }
+
+    private static List<String> ids(MentionArchive.RowCursor cursor) throws Exception {
+        List<String> ids = new ArrayList<>();
+        try (cursor) {
+            MentionRow row;
+            while ((row = cursor.next()) != null) {
+                ids.add(row.id());
+            }
+        }
+        return ids;
+    }
+
+    private static MentionRow row(Platform platform, String id, String keyword, long createdAt, String text) {
+        return new MentionRow(platform, id, keyword, createdAt, "author", null, text, "https://example.com/" + id, 1, 0,
+                Float.NaN, null, 0);
+    }
+}
@@ -0,0 +1,77 @@
+package com.lit.fire.flame;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Round-trips rows through the columnar format, across row groups and through a truncate-and-append resume.
+ */
+public class MentionColumnFileTest extends TestCase {
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("mentions", ".mcol");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testRowsSurviveAcrossRowGroups() throws IOException {
+        List<MentionRow> rows = Fixtures.rows(0, MentionColumnFile.GROUP_ROWS * 2 + 17);
+        try (MentionColumnFile.Writer writer = new MentionColumnFile.Writer(open(false))) {
+            for (MentionRow row : rows) {
+                writer.write(row);
+            }
+        }
+        assertEquals(rows, readAll());
+    }
+
+    public void testResumeTruncatesToTheCheckpoint() throws IOException {
+        long position;
+        try (MentionColumnFile.Writer writer = new MentionColumnFile.Writer(open(false))) {
+            for (MentionRow row : Fixtures.rows(0, 100)) {
+                writer.write(row);
+            }
+            position = writer.checkpoint();
+            for (MentionRow row : Fixtures.rows(100, 50)) {
+                writer.write(row);
+            }
+        }
+
+        FileChannel channel = open(true);
+        channel.truncate(position);
+        channel.position(position);
+        try (MentionColumnFile.Writer writer = new MentionColumnFile.Writer(channel)) {
+            for (MentionRow row : Fixtures.rows(100, 80)) {
+                writer.write(row);
+            }
+        }
+        assertEquals(Fixtures.rows(0, 180), readAll());
+    }
+
+    private FileChannel open(boolean append) throws IOException {
+        return append ? FileChannel.open(file, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private List<MentionRow> readAll() throws IOException {
+        List<MentionRow> rows = new ArrayList<>();
+        try (MentionColumnFile.Reader reader = new MentionColumnFile.Reader(Files.newInputStream(file))) {
+            for (MentionRow row = reader.next(); row != null; row = reader.next()) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,65 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+import junit.framework.TestCase;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Drives the counters with a fake clock to check window boundaries and slot recycling.
+ */
+public class MentionCountersTest extends TestCase {
+
+    private static final long MINUTE = 60_000;
+    private long now = 1_760_000_000_000L;
+    private final MentionCounters counters = new MentionCounters(() -> now);
+
+    public void testTotalsCoverTheRequestedWindow() {
+        counters.record(batch(Platform.X, now - 5 * MINUTE, now - 90 * MINUTE, now));
+        counters.record(batch(Platform.REDDIT, now - 2 * MINUTE));
+
+        assertEquals(3, counters.totals("parasakthi", Platform.X, Duration.ofDays(1)).mentions());
+        assertEquals(2, counters.totals("parasakthi", Platform.X, Duration.ofHours(1)).mentions());
+        assertEquals(3, counters.totals("parasakthi", null, Duration.ofHours(1)).mentions());
+        assertEquals(3 * 7, counters.totals("parasakthi", null, Duration.ofHours(1)).likes());
+        assertEquals(0, counters.totals("unknown", null, Duration.ofHours(1)).mentions());
+    }
+
+    public void testOldMinutesExpireAndSlotsAreRecycled() {
+        counters.record(batch(Platform.X, now - 10 * MINUTE));
+        counters.record(batch(Platform.X, now - 25 * 60 * MINUTE));
+        assertEquals(1, counters.totals("parasakthi", Platform.X, Duration.ofDays(1)).mentions());
+
+        now += 24 * 60 * MINUTE;
+        assertEquals(0, counters.totals("parasakthi", Platform.X, Duration.ofDays(1)).mentions());
+        counters.record(batch(Platform.X, now - 10 * MINUTE));
+        assertEquals(1, counters.totals("parasakthi", Platform.X, Duration.ofDays(1)).mentions());
+        long[] series = counters.perMinute("parasakthi", Platform.X, 11);
+        assertEquals(1, series[0]);
+        assertEquals(0, series[10]);
+    }
+
+    public void testKeywordFormsShareOneCount() {
+        counters.record(Fixtures.batch(Platform.REDDIT, "Tere Ishq Mein", List.of(Fixtures.post(Platform.REDDIT, "r1",
+                "Tere Ishq Mein", "text", now, Engagement.NONE))));
+        counters.record(Fixtures.batch(Platform.X, "tereishqmein", List.of(Fixtures.post(Platform.X, "x1", "tereishqmein",
+                "text", now, Engagement.NONE))));
+
+        assertEquals(2, counters.totals("TereIshqMein", null, Duration.ofHours(1)).mentions());
+        assertEquals(Set.of("tereishqmein"), counters.keywords());
+    }
+
+    private static MentionBatch batch(Platform platform, long... createdAt) {
+        List<Post> posts = new ArrayList<>();
+        for (long at : createdAt) {
+            posts.add(Fixtures.post(platform, platform.id() + at, Fixtures.KEYWORD, "text", at, Engagement.of(7, 1)));
+        }
+        return Fixtures.batch(platform, Fixtures.KEYWORD, posts);
+    }
+}
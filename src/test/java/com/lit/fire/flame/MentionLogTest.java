@@ -0,0 +1,121 @@
+package com.lit.fire.flame;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Appends across segment rolls and checks what consumers, reopening and replication read back.
+ */
+public class MentionLogTest extends TestCase {
+
+    private Path dir;
+
+    @Override
+    protected void setUp() throws IOException {
+        dir = Files.createTempDirectory("mention-log");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public void testConsumerReadsAcrossSegmentsAndResumesFromCommittedOffset() throws Exception {
+        try (MentionLog log = MentionLog.open(dir, 4096, 256, 0)) {
+            MentionLog.Consumer consumer = log.consumer("alerts");
+            assertEquals(0, log.append(Fixtures.rows(0, 150)));
+            try (Stream<Path> files = Files.list(dir)) {
+                assertTrue(files.filter(file -> file.toString().endsWith(".log")).count() > 1);
+            }
+
+            List<MentionLog.Entry> first = consumer.poll(100, 0, TimeUnit.MILLISECONDS);
+            assertEquals(100, first.size());
+            assertEquals(Fixtures.rows(0, 100), rowsOf(first));
+            consumer.commit();
+        }
+
+        try (MentionLog log = MentionLog.open(dir, 4096, 256, 0)) {
+            assertEquals(150, log.endOffset());
+            MentionLog.Consumer consumer = log.consumer("alerts");
+            assertEquals(100, consumer.position());
+            assertEquals(Fixtures.rows(100, 50), rowsOf(consumer.poll(1000, 0, TimeUnit.MILLISECONDS)));
+
+            log.append(Fixtures.rows(150, 1));
+            List<MentionLog.Entry> next = consumer.poll(10, 1, TimeUnit.SECONDS);
+            assertEquals(150, next.get(0).offset());
+
+            consumer.seek(37);
+            assertEquals(Fixtures.rows(37, 1), rowsOf(consumer.poll(1, 0, TimeUnit.MILLISECONDS)));
+        }
+    }
+
+    public void testWaitingConsumerWakesOnAppend() throws Exception {
+        try (MentionLog log = MentionLog.open(dir, 1 << 16, 1024, 0)) {
+            MentionLog.Consumer consumer = log.consumer("tail");
+            Thread writer = new Thread(() -> {
+                try {
+                    Thread.sleep(50);
+                    log.append(Fixtures.rows(0, 3));
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            writer.start();
+            List<MentionLog.Entry> entries = consumer.poll(10, 10, TimeUnit.SECONDS);
+            writer.join();
+            assertFalse(entries.isEmpty());
+        }
+    }
+
+    public void testTransferredFramesDecodeOnTheOtherSide() throws Exception {
+        try (MentionLog log = MentionLog.open(dir, 4096, 256, 0)) {
+            log.append(Fixtures.rows(0, 60));
+            ByteArrayOutputStream sink = new ByteArrayOutputStream();
+            long offset = 10;
+            while (offset < log.endOffset()) {
+                offset = log.transferTo(offset, 1000, Channels.newChannel(sink));
+            }
+
+            ByteBuffer frames = ByteBuffer.wrap(sink.toByteArray());
+            List<MentionLog.Entry> received = new ArrayList<>();
+            for (MentionLog.Entry entry = MentionLog.readFrame(frames); entry != null; entry = MentionLog.readFrame(frames)) {
+                received.add(entry);
+            }
+            assertEquals(10, received.get(0).offset());
+            assertEquals(Fixtures.rows(10, 50), rowsOf(received));
+        }
+    }
+
+    public void testOldSegmentsAreDroppedAndLaggingConsumersSkipAhead() throws Exception {
+        try (MentionLog log = MentionLog.open(dir, 4096, 256, 2)) {
+            MentionLog.Consumer consumer = log.consumer("slow");
+            log.append(Fixtures.rows(0, 300));
+            assertTrue(log.startOffset() > 0);
+            List<MentionLog.Entry> entries = consumer.poll(1, 0, TimeUnit.MILLISECONDS);
+            assertEquals(log.startOffset(), entries.get(0).offset());
+        }
+    }
+
+    private static List<MentionRow> rowsOf(List<MentionLog.Entry> entries) {
+        List<MentionRow> rows = new ArrayList<>();
+        for (MentionLog.Entry entry : entries) {
+            rows.add(entry.row());
+        }
+        return rows;
+    }
+}
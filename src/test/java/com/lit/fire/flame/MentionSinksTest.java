@@ -0,0 +1,124 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.MentionSink;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Checks the in-memory and rolling file sinks, fan-out, and that sinks are found through the service loader.
+ */
+public class MentionSinksTest extends TestCase {
+
+    private Path dir;
+
+    @Override
+    protected void setUp() throws IOException {
+        dir = Files.createTempDirectory("mention-sinks");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    public void testMemorySinkReturnsOnlyNewMentions() {
+        MemorySink sink = new MemorySink();
+        assertEquals(3, sink.write(batch(0, 3)).size());
+        MentionBatch second = sink.write(batch(2, 3));
+        assertEquals(List.of("x-3", "x-4"), ids(second));
+        assertEquals(5, sink.size());
+        assertEquals(2, sink.batches().size());
+    }
+
+    public void testFanOutReturnsWhatThePrimaryStored() throws Exception {
+        MemorySink primary = new MemorySink();
+        MemorySink secondary = new MemorySink();
+        primary.write(batch(0, 2));
+        try (MentionSink fanOut = new FanOutSink(List.of(primary, secondary))) {
+            assertEquals(List.of("x-2"), ids(fanOut.write(batch(0, 3))));
+        }
+        // The secondary gets the full batch and decides for itself what is new.
+        assertEquals(3, secondary.size());
+    }
+
+    public void testFanOutStopsWhenThePrimaryFails() throws Exception {
+        MemorySink secondary = new MemorySink();
+        MentionSink failing = batch -> {
+            throw new SQLException("connection refused");
+        };
+        try (MentionSink fanOut = new FanOutSink(List.of(failing, secondary))) {
+            fanOut.write(batch(0, 3));
+            fail();
+        } catch (SQLException expected) {
+            assertEquals(0, secondary.size());
+        }
+    }
+
+    public void testRollingFileSinkCompletesFilesAtTheSizeLimit() throws Exception {
+        try (RollingFileSink sink = new RollingFileSink(dir, MentionExporter.Format.COLUMNAR, 1, 60_000, 0)) {
+            for (int i = 0; i < 3; i++) {
+                sink.write(batch(i * 10, 10));
+            }
+            // Every write after the first finds the open file over the limit and completes it.
+            assertEquals(2, files(".mcol").size());
+            assertEquals(1, files(".part").size());
+        }
+        List<Path> completed = files(".mcol");
+        assertEquals(3, completed.size());
+        List<String> ids = new ArrayList<>();
+        for (Path file : completed) {
+            try (MentionColumnFile.Reader reader = new MentionColumnFile.Reader(Files.newInputStream(file))) {
+                for (MentionRow row = reader.next(); row != null; row = reader.next()) {
+                    ids.add(row.id());
+                }
+            }
+        }
+        ids.sort(Comparator.comparingInt(id -> Integer.parseInt(id.substring(2))));
+        assertEquals(ids(batch(0, 30)), ids);
+    }
+
+    public void testSinksAreLoadedByName() throws Exception {
+        assertTrue(MentionSinks.create("memory") instanceof MemorySink);
+        assertTrue(MentionSinks.create("memory", "postgres") instanceof FanOutSink);
+        try {
+            MentionSinks.create("kafka");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("memory"));
+        }
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.toString().endsWith(suffix)).sorted().toList();
+        }
+    }
+
+    private static MentionBatch batch(int from, int count) {
+        List<Post> posts = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            posts.add(Fixtures.post(Platform.X, "x-" + i, Fixtures.KEYWORD, "text " + i, 1_700_000_000_000L + i, Engagement.of(i, 0)));
+        }
+        return Fixtures.batch(Platform.X, Fixtures.KEYWORD, posts);
+    }
+
+    private static List<String> ids(MentionBatch batch) {
+        return batch.mentions().stream().map(mention -> mention.id()).toList();
+    }
+}
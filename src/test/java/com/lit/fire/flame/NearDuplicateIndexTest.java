@@ -0,0 +1,53 @@
+package com.lit.fire.flame;
+
+import junit.framework.TestCase;
+
+/**
+ * Checks that reworded copies of the same text land in one cluster and unrelated texts don't.
+ */
+public class NearDuplicateIndexTest extends TestCase {
+
+    private static final String PROMO = "Tere Ishq Mein trailer out now! Book your tickets today, in cinemas this Friday with Dhanush and Kriti Sanon";
+
+    public void testSignatureIgnoresCaseLinksAndPunctuation() {
+        int[] original = signature(PROMO);
+        assertEquals(1.0, MinHash.similarity(original, 0, signature(PROMO.toUpperCase() + "!!!"), 0));
+        assertEquals(1.0, MinHash.similarity(original, 0, signature(PROMO + " https://t.co/x8Yq2pLmZ"), 0));
+        assertEquals(1.0, MinHash.similarity(original, 0, signature(PROMO + " #Tere #Ishq #Mein"), 0));
+    }
+
+    public void testShortTextsHaveNoSignature() {
+        int[] signature = new int[MinHash.HASHES];
+        assertFalse(MinHash.compute("so good", 4, signature));
+        assertFalse(MinHash.compute("🔥🔥🔥", 4, signature));
+        assertFalse(MinHash.compute(null, 4, signature));
+    }
+
+    public void testNearDuplicatesShareACluster() {
+        NearDuplicateIndex index = new NearDuplicateIndex(1000, 0.7);
+        long first = index.assign(signature(PROMO));
+        assertEquals(first, index.assign(signature(PROMO + " https://t.co/abc 🔥🔥")));
+        assertEquals(first, index.assign(signature(PROMO.replace("this Friday", "this Friday only"))));
+
+        long unrelated = index.assign(signature("Watched the first show of Parasakthi yesterday and the interval block was wild"));
+        assertTrue(unrelated != first);
+        assertEquals(2, index.matchCount());
+    }
+
+    public void testWindowForgetsOldestSignatures() {
+        NearDuplicateIndex index = new NearDuplicateIndex(2, 0.7);
+        long promo = index.assign(signature(PROMO));
+        index.assign(signature("first unrelated comment about the songs and the background score"));
+        index.assign(signature("second unrelated comment about the cast and the climax fight"));
+        assertEquals(2, index.size());
+        // The promo was evicted, so it starts its cluster again rather than matching a stale slot.
+        assertEquals(promo, index.assign(signature(PROMO)));
+        assertEquals(0, index.matchCount());
+    }
+
+    private static int[] signature(String text) {
+        int[] signature = new int[MinHash.HASHES];
+        assertTrue(MinHash.compute(text, 4, signature));
+        return signature;
+    }
+}
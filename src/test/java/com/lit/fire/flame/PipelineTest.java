@@ -0,0 +1,157 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.FetchPlugin;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+import com.lit.fire.api.RawResponse;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks that batches pass the processors in stage and registration order, that shutdown drains every queue into the
+ * sink, and that a failing batch or an empty decode does not hold up the rest.
+ */
+public class PipelineTest extends TestCase {
+
+    private final Map<String, List<String>> trace = new ConcurrentHashMap<>();
+    private final List<String> stored = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    protected void setUp() {
+        System.setProperty("pipeline.stats_interval_s", "0");
+    }
+
+    @Override
+    protected void tearDown() {
+        System.clearProperty("pipeline.stats_interval_s");
+    }
+
+    public void testProcessorsRunInStageOrder() throws Exception {
+        Pipeline pipeline = Pipeline.builder()
+                .enrich(step("enrich"))
+                .filter(step("filter-1"))
+                .normalize(step("normalize"))
+                .filter(step("filter-2"))
+                .sink(this::store)
+                .build();
+        pipeline.start();
+        for (int i = 0; i < 20; i++) {
+            pipeline.submit(new StubPlugin(), "keyword-" + i);
+        }
+        pipeline.shutdown(10, TimeUnit.SECONDS);
+
+        assertEquals(40, trace.size());
+        for (List<String> steps : trace.values()) {
+            assertEquals(List.of("normalize", "filter-1", "filter-2", "enrich"), steps);
+        }
+    }
+
+    public void testShutdownDrainsQueuedWork() throws Exception {
+        Pipeline pipeline = Pipeline.builder()
+                .sink(batch -> {
+                    Thread.sleep(5);
+                    store(batch);
+                })
+                .build();
+        pipeline.start();
+        for (int i = 0; i < 30; i++) {
+            pipeline.submit(new StubPlugin(), "keyword-" + i);
+        }
+        pipeline.shutdown(30, TimeUnit.SECONDS);
+
+        // Two responses of two mentions per keyword.
+        assertEquals(120, stored.size());
+    }
+
+    public void testFailingBatchAndEmptyDecodeDoNotStopTheRest() throws Exception {
+        Pipeline pipeline = Pipeline.builder()
+                .filter(batch -> {
+                    if (batch.keyword().equals("boom") && batch.mentions().get(0).id().endsWith("-1-0")) {
+                        throw new IllegalStateException("bad batch");
+                    }
+                    return batch;
+                })
+                .sink(this::store)
+                .build();
+        pipeline.start();
+        pipeline.submit(new StubPlugin(), "before");
+        pipeline.submit(new StubPlugin(), "boom");
+        pipeline.submit(new StubPlugin(), "empty");
+        pipeline.submit(new StubPlugin(), "after");
+        pipeline.shutdown(10, TimeUnit.SECONDS);
+
+        List<String> ids = new ArrayList<>(stored);
+        Collections.sort(ids);
+        assertEquals(List.of("after-0-0", "after-0-1", "after-1-0", "after-1-1", "before-0-0", "before-0-1", "before-1-0",
+                "before-1-1", "boom-0-0", "boom-0-1"), ids);
+        Map<String, Pipeline.StageStats> stats = new HashMap<>();
+        for (Pipeline.StageStats stage : pipeline.stats()) {
+            stats.put(stage.name(), stage);
+        }
+        assertEquals(0, stats.get("decode").errors());
+        assertEquals(1, stats.get("filter").errors());
+        assertEquals(6, stats.get("filter").received());
+    }
+
+    private BatchProcessor step(String name) {
+        return batch -> {
+            trace.computeIfAbsent(batch.keyword() + "/" + batch.mentions().get(0).id(),
+                    key -> Collections.synchronizedList(new ArrayList<>())).add(name);
+            return batch;
+        };
+    }
+
+    private void store(MentionBatch batch) {
+        for (Mention mention : batch.mentions()) {
+            stored.add(mention.id());
+        }
+    }
+
+    /**
+     * Returns two responses per keyword, each decoding to two posts; the keyword "empty" decodes to null.
+     */
+    private static final class StubPlugin implements FetchPlugin {
+
+        @Override
+        public Platform platform() {
+            return Platform.X;
+        }
+
+        @Override
+        public void init() {
+        }
+
+        @Override
+        public List<String> keywords() {
+            return List.of();
+        }
+
+        @Override
+        public List<RawResponse> fetch(String keyword) {
+            return List.of(new RawResponse(Platform.X, keyword, "0"), new RawResponse(Platform.X, keyword, "1"));
+        }
+
+        @Override
+        public List<? extends Mention> decode(RawResponse response) {
+            if (response.keyword().equals("empty")) {
+                return null;
+            }
+            List<Post> posts = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                String id = response.keyword() + "-" + response.body() + "-" + i;
+                posts.add(Fixtures.post(Platform.X, id, response.keyword(), "text", 1_700_000_000_000L, Engagement.of(0, 0)));
+            }
+            return posts;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.lit.fire.flame;
+
+import junit.framework.TestCase;
+
+import java.net.http.HttpHeaders;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that both quota header styles hold callers until the reported reset.
+ */
+public class RateBudgetTest extends TestCase {
+
+    private static final long NOW = 1_760_000_000_000L;
+
+    public void testRedditResetIsSecondsFromNow() {
+        RateBudget budget = new RateBudget("reddit", 0, 1);
+        assertEquals(42_000, budget.exhaustedFor(headers("x-ratelimit-remaining", "0.0", "x-ratelimit-reset", "42"), NOW));
+        assertEquals(-1, budget.exhaustedFor(headers("x-ratelimit-remaining", "12.0", "x-ratelimit-reset", "42"), NOW));
+
+        budget.observe(headers("x-ratelimit-remaining", "0", "x-ratelimit-reset", "60"));
+        assertEquals(0, budget.available());
+    }
+
+    public void testXResetIsAnEpochSecond() {
+        RateBudget budget = new RateBudget("x", 0, 1);
+        assertEquals(90_000, budget.exhaustedFor(headers("x-rate-limit-remaining", "0", "x-rate-limit-reset",
+                String.valueOf(NOW / 1000 + 90)), NOW));
+        // A window that already ended holds nobody.
+        assertEquals(0, budget.exhaustedFor(headers("x-rate-limit-remaining", "0", "x-rate-limit-reset",
+                String.valueOf(NOW / 1000 - 5)), NOW));
+        assertEquals(-1, budget.exhaustedFor(headers("x-rate-limit-remaining", "3", "x-rate-limit-reset",
+                String.valueOf(NOW / 1000 + 90)), NOW));
+
+        budget.observe(headers("x-rate-limit-remaining", "0", "x-rate-limit-reset",
+                String.valueOf(System.currentTimeMillis() / 1000 + 60)));
+        assertEquals(0, budget.available());
+    }
+
+    public void testMissingOrUnparsableHeadersAreIgnored() {
+        RateBudget budget = new RateBudget("youtube", 0, 1);
+        assertEquals(-1, budget.exhaustedFor(headers("x-ratelimit-remaining", "0"), NOW));
+        assertEquals(-1, budget.exhaustedFor(headers("x-rate-limit-remaining", "none", "x-rate-limit-reset", "soon"), NOW));
+        budget.observe(headers());
+        assertEquals(Integer.MAX_VALUE, budget.available());
+    }
+
+    private static HttpHeaders headers(String... pairs) {
+        Map<String, List<String>> map = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            map.put(pairs[i], List.of(pairs[i + 1]));
+        }
+        return HttpHeaders.of(map, (name, value) -> true);
+    }
+}
@@ -0,0 +1,68 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Author;
+import com.lit.fire.api.Comment;
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * Walks comment listings and morechildren responses into a tree with depth and breadth caps.
+ */
+public class RedditCommentCrawlerTest extends TestCase {
+
+    private static final Post POST = new Post(Platform.REDDIT, "p1", "parasakthi", "Parasakthi trailer", "", Author.UNKNOWN,
+            1_760_000_000_000L, "/r/movies/comments/p1", Engagement.of(10, 6), null, null);
+
+    private static final String LISTING = "[{\"kind\":\"Listing\",\"data\":{\"children\":[]}},"
+            + "{\"kind\":\"Listing\",\"data\":{\"children\":["
+            + comment("c1", "t3_p1", "{\"kind\":\"Listing\",\"data\":{\"children\":["
+            + comment("c2", "t1_c1", "{\"kind\":\"Listing\",\"data\":{\"children\":["
+            + comment("c3", "t1_c2", "\"\"") + "]}}") + "]}}") + ","
+            + comment("c4", "t3_p1", "\"\"") + ","
+            + "{\"kind\":\"more\",\"data\":{\"count\":3,\"parent_id\":\"t3_p1\",\"children\":[\"c5\",\"c6\"]}}"
+            + "]}}]";
+
+    public void testListingIsWalkedDownToTheDepthCap() {
+        RedditCommentCrawler.Tree tree = new RedditCommentCrawler.Tree(POST, 2, 100);
+        tree.addListing(LISTING);
+
+        assertEquals(List.of("c1", "c2", "c4"), ids(tree.comments));
+        Comment reply = tree.comments.get(1);
+        assertEquals("c1", reply.parentId());
+        assertEquals("p1", reply.contextId());
+        assertEquals("Parasakthi trailer", reply.contextTitle());
+        assertNull(tree.comments.get(0).parentId());
+        assertEquals(List.of("c5", "c6"), tree.nextMore());
+    }
+
+    public void testMoreChildrenTakeTheirDepthFromTheParent() {
+        RedditCommentCrawler.Tree tree = new RedditCommentCrawler.Tree(POST, 2, 100);
+        tree.addListing(LISTING);
+        tree.addMoreChildren("{\"json\":{\"errors\":[],\"data\":{\"things\":["
+                + comment("c5", "t3_p1", "\"\"") + "," + comment("c6", "t1_c2", "\"\"") + "," + comment("c7", "t1_c4", "\"\"")
+                + "]}}}");
+
+        assertEquals(List.of("c1", "c2", "c4", "c5", "c7"), ids(tree.comments));
+    }
+
+    public void testBreadthCapStopsTheTree() {
+        RedditCommentCrawler.Tree tree = new RedditCommentCrawler.Tree(POST, 10, 2);
+        tree.addListing(LISTING);
+        assertTrue(tree.full());
+        assertEquals(List.of("c1", "c2"), ids(tree.comments));
+    }
+
+    private static String comment(String id, String parent, String replies) {
+        return "{\"kind\":\"t1\",\"data\":{\"id\":\"" + id + "\",\"parent_id\":\"" + parent + "\",\"body\":\"text " + id
+                + "\",\"author\":\"someone\",\"created_utc\":1760000100.0,\"score\":3,\"permalink\":\"/r/movies/comments/p1/_/"
+                + id + "\",\"replies\":" + replies + "}}";
+    }
+
+    private static List<String> ids(List<Comment> comments) {
+        return comments.stream().map(Comment::id).toList();
+    }
+}
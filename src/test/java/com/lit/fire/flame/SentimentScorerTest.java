@@ -0,0 +1,42 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Emotion;
+import junit.framework.TestCase;
+
+/**
+ * Checks the direction of scores and the rules that adjust them, not exact values.
+ */
+public class SentimentScorerTest extends TestCase {
+
+    private final SentimentScorer scorer = new SentimentScorer();
+
+    public void testPolarityAndEmotion() {
+        assertTrue(scorer.score("Tere Ishq Mein is a masterpiece, loved every minute") > 0.5f);
+        assertEquals(Emotion.JOY.code(), scorer.emotion());
+
+        assertTrue(scorer.score("What a boring waste of three hours") < -0.5f);
+        assertEquals(0, scorer.score("Trailer drops on Friday at 6pm"), 0f);
+        assertEquals(0, scorer.emotion());
+    }
+
+    public void testNegationFlipsAndContrastReweights() {
+        assertTrue(scorer.score("the songs are not good") < 0);
+        assertTrue(scorer.score("I didn't hate it") > 0);
+        assertTrue(scorer.score("the first half was great but the second half was boring") < 0);
+    }
+
+    public void testIntensityRules() {
+        float plain = scorer.score("the climax was good");
+        assertTrue(scorer.score("the climax was very good") > plain);
+        assertTrue(scorer.score("the climax was GOOD") > plain);
+        assertTrue(scorer.score("the climax was good!!") > plain);
+        assertTrue(scorer.score("the climax was slightly good") < plain);
+    }
+
+    public void testEmojiAndSlang() {
+        assertTrue(scorer.score("Parasakthi 🔥🔥🔥") > 0);
+        assertTrue(scorer.score("total bakwas 🤮") < 0);
+        assertEquals(Emotion.DISGUST.code(), scorer.emotion());
+        assertTrue(scorer.score("https://t.co/worst https://t.co/hate") == 0);
+    }
+}
@@ -0,0 +1,71 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Annotations;
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.Mention;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds a steady baseline, then a breakout, and checks what alerts and how often.
+ */
+public class SpikeDetectorTest extends TestCase {
+
+    private static final long BUCKET = 5 * 60_000L;
+    private static final long START = 1_760_000_000_000L / BUCKET * BUCKET;
+
+    private final List<Alert> alerts = new ArrayList<>();
+    private final SpikeDetector detector = new SpikeDetector(
+            new SpikeDetector.Settings(5, 12, 0.1, 4.0, 20, 12, 60, 0.15), List.of(alerts::add));
+
+    public void testRateBreakoutAlertsOnceWithinCooldown() {
+        for (int bucket = 0; bucket < 40; bucket++) {
+            detector.record(batch(bucket, 20 + bucket % 5, 2));
+        }
+        assertTrue(alerts.isEmpty());
+
+        detector.record(batch(40, 150, 15));
+        detector.record(batch(40, 150, 15));
+        detector.record(batch(41, 300, 30));
+        assertEquals(1, alerts.size());
+        Alert alert = alerts.get(0);
+        assertEquals(Alert.Kind.RATE, alert.kind());
+        assertEquals(START + 40 * BUCKET, alert.bucketStartMillis());
+        assertTrue(alert.baseline() > 20 && alert.baseline() < 25);
+
+        detector.record(batch(60, 1000, 100));
+        assertEquals(2, alerts.size());
+    }
+
+    public void testNegativeShareBreakout() {
+        for (int bucket = 0; bucket < 40; bucket++) {
+            detector.record(batch(bucket, 40, 4));
+        }
+        detector.record(batch(40, 40, 30));
+        assertEquals(1, alerts.size());
+        assertEquals(Alert.Kind.NEGATIVE_SHARE, alerts.get(0).kind());
+        assertTrue(alerts.get(0).observed() > 0.5);
+    }
+
+    public void testNoAlertsBeforeWarmup() {
+        detector.record(batch(0, 20, 0));
+        detector.record(batch(1, 500, 400));
+        assertTrue(alerts.isEmpty());
+    }
+
+    private static MentionBatch batch(int bucket, int count, int negative) {
+        List<Mention> mentions = new ArrayList<>(count);
+        float[] scores = new float[count];
+        for (int i = 0; i < count; i++) {
+            long createdAt = START + bucket * BUCKET + i * 1000L % BUCKET;
+            mentions.add(Fixtures.post(Platform.X, bucket + "-" + i, Fixtures.KEYWORD, "text", createdAt, Engagement.NONE));
+            // Spread the negative mentions evenly through the bucket.
+            scores[i] = (long) i * negative / count != (long) (i + 1) * negative / count ? -0.6f : 0.4f;
+        }
+        return new MentionBatch(Platform.X, Fixtures.KEYWORD, mentions, Annotations.NONE.withSentiment(scores, new byte[count]));
+    }
+}
@@ -0,0 +1,98 @@
+package com.lit.fire.flame;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Checks that timeouts expire on their own tick however far ahead they were scheduled, and never after cancelling.
+ */
+public class TimerWheelTest extends TestCase {
+
+    public void testExpiresOnDeadlineTickAcrossAllWheels() {
+        TimerWheel<Long> wheel = new TimerWheel<>(1, 0);
+        Random random = new Random(42);
+        List<Long> deadlines = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            // Spread over all four wheels, including exact slot boundaries.
+            long deadline = i % 10 == 0 ? 1L << (6 * (1 + i % 3)) : 1 + (long) (random.nextDouble() * random.nextDouble() * 300_000);
+            deadlines.add(deadline);
+            wheel.schedule(deadline, deadline);
+        }
+        long[] previous = {0};
+        long now = 0;
+        int expired = 0;
+        while (wheel.size() > 0) {
+            long current = now + 1 + random.nextInt(5000);
+            // Due since the previous advance, not before it and not yet.
+            expired += wheel.advance(current, timeout -> assertTrue(timeout.task > previous[0] && timeout.task <= current));
+            previous[0] = current;
+            now = current;
+        }
+        assertEquals(deadlines.size(), expired);
+    }
+
+    public void testExpiresInDeadlineOrderTickByTick() {
+        TimerWheel<Long> wheel = new TimerWheel<>(10, 1_000);
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            long due = 1_000 + random.nextInt(1_000_000);
+            wheel.schedule(due, due);
+        }
+        List<Long> order = new ArrayList<>();
+        for (long now = 1_000; wheel.size() > 0; now += 10) {
+            long tickNow = now;
+            wheel.advance(now, timeout -> {
+                // Due times round up to the next 10 ms tick.
+                assertTrue(timeout.task <= tickNow && timeout.task > tickNow - 10);
+                order.add(timeout.task);
+            });
+        }
+        assertEquals(2000, order.size());
+        for (int i = 1; i < order.size(); i++) {
+            assertTrue((order.get(i - 1) + 9) / 10 <= (order.get(i) + 9) / 10);
+        }
+    }
+
+    public void testCancelledTimeoutsNeverExpire() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        TimerWheel.Timeout<String> kept = wheel.schedule("kept", 100);
+        TimerWheel.Timeout<String> dropped = wheel.schedule("dropped", 5_000);
+        TimerWheel.Timeout<String> far = wheel.schedule("far", 1L << 30);
+        assertTrue(wheel.cancel(dropped));
+        assertFalse(wheel.cancel(dropped));
+        assertEquals(2, wheel.size());
+
+        List<String> expired = new ArrayList<>();
+        wheel.advance(10_000, timeout -> expired.add(timeout.task));
+        assertEquals(List.of("kept"), expired);
+        assertFalse(kept.pending());
+        assertFalse(wheel.cancel(kept));
+        assertTrue(far.pending());
+    }
+
+    public void testDeadlinesBeyondTheTopWheelArePlacedAgain() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        long deadline = (1L << 24) + 12_345;
+        wheel.schedule("far", deadline);
+        List<Long> expiredAt = new ArrayList<>();
+        long[] now = {0};
+        while (wheel.size() > 0) {
+            now[0] += 1000;
+            wheel.advance(now[0], timeout -> expiredAt.add(timeout.deadlineTick));
+        }
+        assertEquals(List.of(deadline), expiredAt);
+        assertTrue(now[0] - deadline < 1000);
+    }
+
+    public void testPastDeadlinesExpireOnTheNextTick() {
+        TimerWheel<String> wheel = new TimerWheel<>(1, 0);
+        wheel.advance(500, timeout -> fail());
+        wheel.schedule("late", 100);
+        List<String> expired = new ArrayList<>();
+        wheel.advance(501, timeout -> expired.add(timeout.task));
+        assertEquals(List.of("late"), expired);
+    }
+}
@@ -0,0 +1,34 @@
+package com.lit.fire.flame;
+
+import junit.framework.TestCase;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+/**
+ * Checks the fixed-layout fast path against java.time for every format the platforms return.
+ */
+public class TimestampsTest extends TestCase {
+
+    public void testIsoUtc() {
+        assertEquals(Instant.parse("2025-10-14T18:42:07Z").toEpochMilli(), Timestamps.isoToMillis("2025-10-14T18:42:07Z"));
+        assertEquals(Instant.parse("2025-10-14T18:42:07.123Z").toEpochMilli(), Timestamps.isoToMillis("2025-10-14T18:42:07.123Z"));
+        assertEquals(Instant.parse("2024-02-29T00:00:00Z").toEpochMilli(), Timestamps.isoToMillis("2024-02-29T00:00:00.000Z"));
+    }
+
+    public void testNumericOffsets() {
+        assertEquals(Instant.parse("2025-10-14T18:42:07Z").toEpochMilli(), Timestamps.isoToMillis("2025-10-14T18:42:07+0000"));
+        assertEquals(OffsetDateTime.parse("2025-01-01T05:30:00+05:30").toInstant().toEpochMilli(),
+                Timestamps.isoToMillis("2025-01-01T05:30:00+0530"));
+        assertEquals(OffsetDateTime.parse("2025-01-01T05:30:00-03:00").toInstant().toEpochMilli(),
+                Timestamps.isoToMillis("2025-01-01T05:30:00-03:00"));
+    }
+
+    public void testFallsBackForUnusualInput() {
+        assertEquals(Instant.parse("2025-10-14T18:42:07.123456789Z").toEpochMilli(), Timestamps.isoToMillis("2025-10-14T18:42:07.123456789Z"));
+    }
+
+    public void testEpochSeconds() {
+        assertEquals(1760000000500L, Timestamps.epochSecondsToMillis(1760000000.5));
+    }
+}
@@ -0,0 +1,69 @@
+package com.lit.fire.flame;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Checks that recorded exchanges keep no credentials, neither from the query nor from a token response body.
+ */
+public class TrafficRecorderTest extends TestCase {
+
+    private Path dir;
+
+    @Override
+    protected void setUp() throws IOException {
+        dir = Files.createTempDirectory("traffic");
+        System.setProperty("traffic.mode", "record");
+        System.setProperty("traffic.dir", dir.toString());
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        System.clearProperty("traffic.mode");
+        System.clearProperty("traffic.dir");
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    public void testTokenResponseIsRedacted() throws IOException {
+        TrafficRecorder.record("reddit", "POST", URI.create("https://www.reddit.com/api/v1/access_token"), 200,
+                Map.of("content-type", List.of("application/json")),
+                "{\"access_token\":\"eyJhbGciOiJSUzI1NiJ9.live-secret\",\"token_type\":\"bearer\",\"expires_in\":86400,"
+                        + "\"refresh_token\":\"refresh-secret\",\"scope\":\"*\"}");
+
+        String recorded = readOnlyFile();
+        assertFalse(recorded.contains("live-secret"));
+        assertFalse(recorded.contains("refresh-secret"));
+        assertTrue(recorded.contains(TrafficRecorder.REDACTED));
+        assertTrue(recorded.contains("expires_in"));
+    }
+
+    public void testQueryKeyIsDroppedAndPlainBodiesKept() throws IOException {
+        String body = "{\"items\":[{\"id\":\"abc\",\"snippet\":{\"title\":\"Parasakthi\"}}]}";
+        TrafficRecorder.record("youtube", "GET", URI.create("https://www.googleapis.com/youtube/v3/search?q=parasakthi&key=api-secret"),
+                200, Map.of(), body);
+
+        String recorded = readOnlyFile();
+        assertFalse(recorded.contains("api-secret"));
+        assertEquals(body, TrafficRecorder.redact(body));
+    }
+
+    private String readOnlyFile() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            List<Path> recorded = files.filter(Files::isRegularFile).toList();
+            assertEquals(1, recorded.size());
+            return Files.readString(recorded.get(0));
+        }
+    }
+}
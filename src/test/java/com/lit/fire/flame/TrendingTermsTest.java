@@ -0,0 +1,117 @@
+package com.lit.fire.flame;
+
+import com.lit.fire.api.Engagement;
+import com.lit.fire.api.MentionBatch;
+import com.lit.fire.api.Platform;
+import com.lit.fire.api.Post;
+import junit.framework.TestCase;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Checks the tokenizer, that heavy hitters come out on top with counts never below the truth, and that the window
+ * slides and survives a snapshot.
+ */
+public class TrendingTermsTest extends TestCase {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final TrendingTerms.Settings SETTINGS = new TrendingTerms.Settings(10, 6, 4, 512, 64);
+
+    private long now;
+    private int ids;
+
+    @Override
+    protected void setUp() {
+        now = NOW;
+    }
+
+    public void testTermsSkipUrlsHandlesStopWordsAndNumbers() {
+        Set<String> terms = TrendingTerms.terms("Loved the #AdiAlaye song in Parasakthi!! https://t.co/xyz @sk_fans 2025 the song");
+        assertEquals(List.of("loved", "#adialaye", "song", "parasakthi"), List.copyOf(terms));
+    }
+
+    public void testHeavyHittersRankFirstWithUpperBoundCounts() {
+        TrendingTerms trending = new TrendingTerms(SETTINGS, () -> now);
+        Random random = new Random(11);
+        List<String> texts = new ArrayList<>();
+        // Ten trending terms with 400, 360, ..., 40 mentions, in a long tail of terms seen once or twice.
+        for (int rank = 0; rank < 10; rank++) {
+            for (int i = 0; i < 400 - 40 * rank; i++) {
+                texts.add("Parasakthi trend" + (char) ('a' + rank) + " tail" + random.nextInt(50_000) + " tail" + random.nextInt(50_000));
+            }
+        }
+        Collections.shuffle(texts, random);
+        trending.record(batch("Parasakthi", NOW - 30 * 60_000L, texts));
+
+        List<TrendingTerms.Term> top = trending.top("parasakthi", 10);
+        assertEquals(10, top.size());
+        for (int rank = 0; rank < 10; rank++) {
+            TrendingTerms.Term term = top.get(rank);
+            long truth = 400 - 40 * rank;
+            assertEquals("trend" + (char) ('a' + rank), term.term());
+            assertTrue(term.count() >= truth);
+            assertTrue(term.count() - truth <= 40);
+        }
+        assertEquals(400.0 / texts.size(), top.get(0).share(), 0.02);
+    }
+
+    public void testTheKeywordItselfIsNotATerm() {
+        TrendingTerms trending = new TrendingTerms(SETTINGS, () -> now);
+        trending.record(batch("Tere Ishq Mein", NOW, List.of("Tere Ishq Mein #TereIshqMein trailer", "tere ishq mein trailer")));
+        assertEquals(List.of(new TrendingTerms.Term("trailer", 2, 1.0)), trending.top("tereishqmein", 5));
+    }
+
+    public void testOldBucketsLeaveTheWindow() {
+        TrendingTerms trending = new TrendingTerms(SETTINGS, () -> now);
+        trending.record(batch("Parasakthi", NOW, List.of("first song")));
+        trending.record(batch("Parasakthi", NOW - 61 * 60_000L, List.of("stale")));
+        assertEquals("first", trending.top("parasakthi", 5).get(0).term());
+
+        now += 30 * 60_000L;
+        trending.record(batch("Parasakthi", now, List.of("second song")));
+        assertEquals(3, trending.top("parasakthi", 5).size());
+
+        now += 40 * 60_000L;
+        List<TrendingTerms.Term> top = trending.top("parasakthi", 5);
+        assertEquals(List.of("second", "song"), top.stream().map(TrendingTerms.Term::term).sorted().toList());
+        assertEquals(1, top.get(0).count());
+    }
+
+    public void testSnapshotRestoresTheWindow() throws Exception {
+        TrendingTerms trending = new TrendingTerms(SETTINGS, () -> now);
+        trending.record(batch("Tere Ishq Mein", NOW - 20 * 60_000L, List.of("trailer out", "trailer today", "songs")));
+        trending.record(batch("Parasakthi", NOW, List.of("teaser")));
+        Path file = Files.createTempFile("trending", ".snapshot");
+        try {
+            trending.save(file);
+            TrendingTerms restored = new TrendingTerms(SETTINGS, () -> now);
+            assertEquals(2, restored.load(file));
+            assertEquals(trending.top("tereishqmein", 10), restored.top("Tere Ishq Mein", 10));
+            assertEquals(trending.top("parasakthi", 10), restored.top("parasakthi", 10));
+
+            // The keyword's own words stay excluded after a restore.
+            restored.record(batch("tereishqmein", NOW, List.of("ishq trailer")));
+            assertEquals("trailer", restored.top("tereishqmein", 1).get(0).term());
+            assertEquals(3, restored.top("tereishqmein", 1).get(0).count());
+
+            TrendingTerms resized = new TrendingTerms(new TrendingTerms.Settings(5, 12, 4, 512, 64), () -> now);
+            assertEquals(0, resized.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private MentionBatch batch(String keyword, long createdAt, List<String> texts) {
+        List<Post> posts = new ArrayList<>();
+        for (String text : texts) {
+            posts.add(Fixtures.post(Platform.X, "x-" + ids++, keyword, text, createdAt, Engagement.of(0, 0)));
+        }
+        return Fixtures.batch(Platform.X, keyword, posts);
+    }
+}